@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.benchmarks;
+
+import com.google.api.services.admin.directory.model.User;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningException;
+import org.wso2.carbon.identity.provisioning.ProvisioningEntity;
+import org.wso2.carbon.identity.provisioning.connector.google.GoogleProvisioningConnector;
+import org.wso2.carbon.identity.provisioning.connector.google.client.DirectoryClientHolder;
+
+/**
+ * Google connector exposing the user mapping methods to the benchmarks.
+ */
+class BenchmarkConnector extends GoogleProvisioningConnector {
+
+    private static final long serialVersionUID = -5273916488601436270L;
+
+    BenchmarkConnector() {
+    }
+
+    BenchmarkConnector(DirectoryClientHolder directoryClientHolder) {
+
+        super(directoryClientHolder);
+    }
+
+    User newUser(ProvisioningEntity provisioningEntity) throws IdentityProvisioningException {
+
+        return buildGoogleUser(provisioningEntity);
+    }
+
+    User changedUser(ProvisioningEntity provisioningEntity) {
+
+        return updateGoogleUser(provisioningEntity);
+    }
+
+    String newPassword() {
+
+        return generatePassword();
+    }
+}
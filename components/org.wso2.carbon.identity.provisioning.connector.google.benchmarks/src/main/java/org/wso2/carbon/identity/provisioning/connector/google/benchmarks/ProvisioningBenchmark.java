@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.identity.application.common.model.Property;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningException;
+import org.wso2.carbon.identity.provisioning.ProvisionedIdentifier;
+import org.wso2.carbon.identity.provisioning.ProvisioningEntity;
+import org.wso2.carbon.identity.provisioning.connector.google.GoogleConnectorConstants;
+import org.wso2.carbon.identity.provisioning.connector.google.GoogleProvisioningConnector;
+import org.wso2.carbon.identity.provisioning.connector.google.client.DirectoryClientHolder;
+import org.wso2.carbon.identity.provisioning.connector.google.standin.DirectoryStandIn;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End to end benchmarks of {@link GoogleProvisioningConnector#provision(ProvisioningEntity)} against the local
+ * Directory API stand-in, which answers every request after the given latency.
+ * <p>
+ * {@code throughput} reports the provisioning operations completed per second, and {@code latency} reports the
+ * 50th, 99th and 99.9th percentiles of the time taken by an operation. The number of concurrent provisioning calls
+ * is set with the JMH threads option, for example
+ * {@code java -jar target/benchmarks.jar ProvisioningBenchmark -t 64 -p latencyMillis=50 -p batch=true}.
+ */
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class ProvisioningBenchmark {
+
+    private static final String DOMAIN = "standin.example.com";
+
+    /**
+     * Number of users updated in turn by the update operation.
+     */
+    private static final int UPDATED_USER_COUNT = 1000;
+
+    @Param({"20"})
+    long latencyMillis;
+
+    @Param({"false", "true"})
+    boolean batch;
+
+    @Param({"create", "update"})
+    String operation;
+
+    private DirectoryStandIn standIn;
+    private GoogleProvisioningConnector connector;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, IdentityProvisioningException {
+
+        standIn = DirectoryStandIn.start();
+        connector = newConnector(standIn, batch);
+
+        if ("update".equals(operation)) {
+            for (int i = 0; i < UPDATED_USER_COUNT; i++) {
+                connector.provision(newUser(i));
+            }
+        }
+        standIn.setLatencyMillis(latencyMillis);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        standIn.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public ProvisionedIdentifier throughput() throws IdentityProvisioningException {
+
+        return provisionNext();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ProvisionedIdentifier latency() throws IdentityProvisioningException {
+
+        return provisionNext();
+    }
+
+    private ProvisionedIdentifier provisionNext() throws IdentityProvisioningException {
+
+        long next = sequence.getAndIncrement();
+        if ("update".equals(operation)) {
+            // The family name changes on every update, so that none of the updates is skipped as unchanged.
+            return connector.provision(DirectoryStandIn.changedUser("user" + next % UPDATED_USER_COUNT, DOMAIN,
+                    "User", "Family " + next));
+        }
+        return connector.provision(newUser(next));
+    }
+
+    private static GoogleProvisioningConnector newConnector(DirectoryStandIn standIn, boolean batch)
+            throws IdentityProvisioningException {
+
+        Property[] properties = {
+                DirectoryStandIn.buildProperty(GoogleConnectorConstants.PropertyConfig.DOMAIN_NAME_KEY, DOMAIN),
+                DirectoryStandIn.buildProperty(GoogleConnectorConstants.PropertyConfig.SERVICE_ACCOUNT_EMAIL_KEY,
+                        DirectoryStandIn.SERVICE_ACCOUNT),
+                DirectoryStandIn.buildProperty(GoogleConnectorConstants.PropertyConfig.ADMIN_EMAIL_KEY,
+                        "admin@" + DOMAIN),
+                DirectoryStandIn.buildProperty(GoogleConnectorConstants.PropertyConfig.APPLICATION_NAME_KEY,
+                        "StandIn"),
+                DirectoryStandIn.buildProperty(GoogleConnectorConstants.PropertyConfig.IDP_NAME_KEY, "StandInIdP"),
+                DirectoryStandIn.buildProperty(GoogleConnectorConstants.PRIVATE_KEY,
+                        DirectoryStandIn.getServiceAccountKey()),
+                DirectoryStandIn.buildProperty(GoogleConnectorConstants.PropertyConfig.GIVEN_NAME_CLAIM_KEY,
+                        DirectoryStandIn.GIVEN_NAME_CLAIM),
+                DirectoryStandIn.buildProperty(GoogleConnectorConstants.PropertyConfig.FAMILY_NAME_CLAIM_KEY,
+                        DirectoryStandIn.FAMILY_NAME_CLAIM),
+                DirectoryStandIn.buildProperty(GoogleConnectorConstants.PropertyConfig.BATCH_ENABLED_KEY,
+                        String.valueOf(batch))
+        };
+        GoogleProvisioningConnector connector = new BenchmarkConnector(
+                new DirectoryClientHolder(standIn.getRootUrl(), standIn.getTokenUrl()));
+        connector.init(properties);
+        return connector;
+    }
+
+    private static ProvisioningEntity newUser(long index) {
+
+        return DirectoryStandIn.newUser("user" + index, "User", "Family " + index);
+    }
+}
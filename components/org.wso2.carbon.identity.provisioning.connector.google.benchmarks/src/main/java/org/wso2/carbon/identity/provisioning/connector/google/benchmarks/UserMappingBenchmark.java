@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.benchmarks;
+
+import com.google.api.services.admin.directory.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.identity.application.common.model.ClaimMapping;
+import org.wso2.carbon.identity.application.common.model.Property;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningConstants;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningException;
+import org.wso2.carbon.identity.provisioning.ProvisionedIdentifier;
+import org.wso2.carbon.identity.provisioning.ProvisioningEntity;
+import org.wso2.carbon.identity.provisioning.ProvisioningEntityType;
+import org.wso2.carbon.identity.provisioning.ProvisioningOperation;
+import org.wso2.carbon.identity.provisioning.connector.google.ClaimProjector;
+import org.wso2.carbon.identity.provisioning.connector.google.GoogleConnectorConstants;
+import org.wso2.carbon.identity.provisioning.connector.google.GoogleProvisioningConnectorConfig;
+import org.wso2.carbon.identity.provisioning.connector.google.UserIdTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of mapping a provisioned user to a Google user.
+ * <p>
+ * Users carry the user name, password, given name, family name and email claims, padded with other claims up to
+ * the claim count, as a user store with a custom claim dialect would send them. The tenant domain is left out of
+ * the provisioning patterns since it needs a Carbon context.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class UserMappingBenchmark {
+
+    private static final String DOMAIN = "mygoogledomain.com";
+    private static final String IDP_NAME = "GoogleIdP";
+    private static final String GIVEN_NAME_CLAIM = "http://wso2.org/claims/givenname";
+    private static final String FAMILY_NAME_CLAIM = "http://wso2.org/claims/lastname";
+    private static final String EMAIL_CLAIM = "http://wso2.org/claims/emailaddress";
+    private static final String OTHER_CLAIM_PREFIX = "http://wso2.org/claims/custom";
+
+    /**
+     * Connector with the default provisioning pattern.
+     */
+    @State(Scope.Benchmark)
+    public static class Connector {
+
+        BenchmarkConnector connector;
+        GoogleProvisioningConnectorConfig config;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IdentityProvisioningException {
+
+            connector = newConnector(GoogleConnectorConstants.PropertyConfig.DEFAULT_PROVISIONING_PATTERN);
+            config = newConfig(GoogleConnectorConstants.PropertyConfig.DEFAULT_PROVISIONING_PATTERN);
+        }
+    }
+
+    /**
+     * Connector with each of the provisioning patterns.
+     */
+    @State(Scope.Benchmark)
+    public static class Patterns {
+
+        @Param({"{UN}", "{UD,UN}", "{UD,UN,IDP}"})
+        String pattern;
+
+        BenchmarkConnector connector;
+        UserIdTemplate userIdTemplate;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IdentityProvisioningException {
+
+            connector = newConnector(pattern);
+            userIdTemplate = newConfig(pattern).getUserIdTemplate();
+        }
+    }
+
+    /**
+     * Provisioned user with each of the claim counts.
+     */
+    @State(Scope.Benchmark)
+    public static class Users {
+
+        @Param({"8", "32", "128"})
+        int claimCount;
+
+        ProvisioningEntity newUser;
+        ProvisioningEntity changedUser;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+
+            Map<ClaimMapping, List<String>> attributes = new HashMap<>();
+            attributes.put(ClaimMapping.build(IdentityProvisioningConstants.USERNAME_CLAIM_URI, null, null, false),
+                    Collections.singletonList("SECONDARY/John.Doe"));
+            attributes.put(ClaimMapping.build(null, IdentityProvisioningConstants.PASSWORD_CLAIM_URI, null, false),
+                    Collections.singletonList("P@ssw0rd!2026"));
+            attributes.put(ClaimMapping.build(GIVEN_NAME_CLAIM, GIVEN_NAME_CLAIM, null, false),
+                    Collections.singletonList("John"));
+            attributes.put(ClaimMapping.build(FAMILY_NAME_CLAIM, FAMILY_NAME_CLAIM, null, false),
+                    Collections.singletonList("Doe"));
+            attributes.put(ClaimMapping.build(EMAIL_CLAIM, EMAIL_CLAIM, null, false),
+                    Collections.singletonList("john.doe@wso2.com"));
+            for (int i = attributes.size(); i < claimCount; i++) {
+                String claimUri = OTHER_CLAIM_PREFIX + i;
+                List<String> values = new ArrayList<>(1);
+                values.add("value " + i);
+                attributes.put(ClaimMapping.build(claimUri, claimUri, null, false), values);
+            }
+
+            newUser = new ProvisioningEntity(ProvisioningEntityType.USER, "SECONDARY/John.Doe",
+                    ProvisioningOperation.POST, attributes);
+            changedUser = new ProvisioningEntity(ProvisioningEntityType.USER, "SECONDARY/John.Doe",
+                    ProvisioningOperation.PUT, attributes);
+            ProvisionedIdentifier identifier = new ProvisionedIdentifier();
+            identifier.setIdentifier("secondary_john.doe@" + DOMAIN);
+            changedUser.setIdentifier(identifier);
+        }
+    }
+
+    @Benchmark
+    public User buildGoogleUser(Patterns patterns, Users users) throws IdentityProvisioningException {
+
+        return patterns.connector.newUser(users.newUser);
+    }
+
+    @Benchmark
+    public User updateGoogleUser(Connector connector, Users users) {
+
+        return connector.connector.changedUser(users.changedUser);
+    }
+
+    @Benchmark
+    public String buildUserId(Patterns patterns) {
+
+        return patterns.userIdTemplate.toPrimaryEmail(
+                patterns.userIdTemplate.buildUserId("SECONDARY/John.Doe", IDP_NAME));
+    }
+
+    @Benchmark
+    public ClaimProjector.Projection projectClaims(Connector connector, Users users) {
+
+        return connector.config.getClaimProjector().project(users.newUser.getAttributes());
+    }
+
+    @Benchmark
+    public String generatePassword(Connector connector) {
+
+        return connector.connector.newPassword();
+    }
+
+    private static BenchmarkConnector newConnector(String pattern) throws IdentityProvisioningException {
+
+        Properties properties = newProperties(pattern);
+        List<Property> provisioningProperties = new ArrayList<>();
+        for (String name : properties.stringPropertyNames()) {
+            Property property = new Property();
+            property.setName(name);
+            property.setValue(properties.getProperty(name));
+            provisioningProperties.add(property);
+        }
+        BenchmarkConnector connector = new BenchmarkConnector();
+        connector.init(provisioningProperties.toArray(new Property[0]));
+        return connector;
+    }
+
+    private static GoogleProvisioningConnectorConfig newConfig(String pattern) {
+
+        return new GoogleProvisioningConnectorConfig(newProperties(pattern));
+    }
+
+    private static Properties newProperties(String pattern) {
+
+        Properties properties = new Properties();
+        properties.setProperty(GoogleConnectorConstants.PropertyConfig.DOMAIN_NAME_KEY, DOMAIN);
+        properties.setProperty(GoogleConnectorConstants.PropertyConfig.GIVEN_NAME_CLAIM_KEY, GIVEN_NAME_CLAIM);
+        properties.setProperty(GoogleConnectorConstants.PropertyConfig.FAMILY_NAME_CLAIM_KEY, FAMILY_NAME_CLAIM);
+        properties.setProperty(GoogleConnectorConstants.PropertyConfig.USER_ID_CLAIM_URI_KEY, EMAIL_CLAIM);
+        properties.setProperty(GoogleConnectorConstants.PropertyConfig.IDP_NAME_KEY, IDP_NAME);
+        properties.setProperty(GoogleConnectorConstants.PropertyConfig.PROVISIONING_PATTERN_KEY, pattern);
+        properties.setProperty(GoogleConnectorConstants.PropertyConfig.PROVISIONING_SEPERATOR_KEY, "_");
+        return properties;
+    }
+}
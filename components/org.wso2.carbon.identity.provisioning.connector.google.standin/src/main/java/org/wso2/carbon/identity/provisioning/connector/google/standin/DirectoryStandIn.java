@@ -0,0 +1,823 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.standin;
+
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.wso2.carbon.identity.application.common.model.ClaimMapping;
+import org.wso2.carbon.identity.application.common.model.Property;
+import org.wso2.carbon.identity.provisioning.ProvisionedIdentifier;
+import org.wso2.carbon.identity.provisioning.ProvisioningEntity;
+import org.wso2.carbon.identity.provisioning.ProvisioningEntityType;
+import org.wso2.carbon.identity.provisioning.ProvisioningOperation;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Embedded stand-in for the users endpoints of the Google Directory API and the Google OAuth token endpoint, so that
+ * the connector can be run end to end without a Google Workspace domain.
+ * <p>
+ * Users are inserted, fetched, updated, patched, deleted and listed page by page from memory, either with single
+ * requests or within batch requests. Update and patch requests both merge the given attributes into the user, as
+ * Google does, while changing the primary email of a user is not supported. Every HTTP request waits for the
+ * configured latency before it is handled. Access tokens are issued for any JWT bearer assertion without checking its
+ * signature, and requests to the users endpoints are rejected unless they carry an issued token.
+ * <p>
+ * {@link Fault Faults} can be injected per operation to see how the connector copes with a degraded Google, either
+ * scripted for the next requests of the operation or set for all of them.
+ * <p>
+ * The stand-in does not depend on the connector. Connectors are pointed at it through a Directory client holder
+ * created with {@link #getRootUrl()} and {@link #getTokenUrl()}, and sign in as {@link #SERVICE_ACCOUNT} with the key
+ * returned by {@link #getServiceAccountKey()}.
+ */
+public class DirectoryStandIn implements AutoCloseable {
+
+    public static final String TOKEN_PATH = "/token";
+    public static final String USERS_PATH = "/admin/directory/v1/users";
+    public static final String BATCH_PATH = "/batch";
+    public static final String GIVEN_NAME_CLAIM = "http://wso2.org/claims/givenname";
+    public static final String FAMILY_NAME_CLAIM = "http://wso2.org/claims/lastname";
+    public static final String SERVICE_ACCOUNT = "provisioning@standin.iam.gserviceaccount.com";
+
+    private static final String JWT_BEARER_GRANT = "urn:ietf:params:oauth:grant-type:jwt-bearer";
+    private static final String SERVICE_ACCOUNT_KEY = "/serviceAccountKey.p12";
+    private static final String METHOD_OVERRIDE_HEADER = "X-HTTP-Method-Override";
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=UTF-8";
+    private static final String RESPONSE_BOUNDARY = "batch_standin";
+    private static final String CRLF = "\r\n";
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final JsonFactory JSON_FACTORY = JacksonFactory.getDefaultInstance();
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ConcurrentNavigableMap<String, GenericJson> users = new ConcurrentSkipListMap<>();
+    private final Set<String> accessTokens = ConcurrentHashMap.newKeySet();
+    private final Map<Operation, LongAdder> requestCounts = new EnumMap<>(Operation.class);
+    private final Map<Operation, Queue<Fault>> scriptedFaults = new EnumMap<>(Operation.class);
+    private final Map<Operation, Fault> standingFaults = new ConcurrentHashMap<>();
+    private final AtomicLong idSequence = new AtomicLong(100000000L);
+    private volatile long latencyMillis;
+    private volatile int tokenLifetimeSeconds = 3600;
+
+    /**
+     * Operations served by the stand-in.
+     */
+    public enum Operation {
+
+        TOKEN,
+        BATCH,
+        INSERT,
+        GET,
+        UPDATE,
+        PATCH,
+        DELETE,
+        LIST
+    }
+
+    private DirectoryStandIn() throws IOException {
+
+        for (Operation operation : Operation.values()) {
+            requestCounts.put(operation, new LongAdder());
+            scriptedFaults.put(operation, new ConcurrentLinkedQueue<>());
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "DirectoryStandIn");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Starts a stand-in listening on a free port of the loopback address.
+     */
+    public static DirectoryStandIn start() throws IOException {
+
+        return new DirectoryStandIn();
+    }
+
+    /**
+     * Returns the root URL of the Directory API served by the stand-in.
+     */
+    public String getRootUrl() {
+
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/";
+    }
+
+    /**
+     * Returns the URL of the token endpoint served by the stand-in.
+     */
+    public String getTokenUrl() {
+
+        return getRootUrl() + TOKEN_PATH.substring(1);
+    }
+
+    /**
+     * Sets the time every request waits for before it is handled.
+     */
+    public void setLatencyMillis(long latencyMillis) {
+
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * Sets the lifetime of the access tokens issued from now on.
+     */
+    public void setTokenLifetimeSeconds(int tokenLifetimeSeconds) {
+
+        this.tokenLifetimeSeconds = tokenLifetimeSeconds;
+    }
+
+    /**
+     * Returns the stored attributes of the user with the given primary email, or null if there is no such user.
+     */
+    public GenericJson getUser(String primaryEmail) {
+
+        return users.get(primaryEmail.toLowerCase());
+    }
+
+    /**
+     * Returns the number of users held by the stand-in.
+     */
+    public int getUserCount() {
+
+        return users.size();
+    }
+
+    /**
+     * Returns the number of requests of the given operation handled so far. Requests within batch requests are
+     * counted as their own operation.
+     */
+    public long getRequestCount(Operation operation) {
+
+        return requestCounts.get(operation).sum();
+    }
+
+    /**
+     * Injects the given faults into the next requests of the operation, one fault per request in the given order.
+     * Requests within batch requests are faulted as their own operation.
+     */
+    public void injectFaults(Operation operation, Fault... faults) {
+
+        Collections.addAll(scriptedFaults.get(operation), faults);
+    }
+
+    /**
+     * Injects the given fault into every request of the operation that has no scripted fault left, until the fault
+     * is set to null.
+     */
+    public void setFault(Operation operation, Fault fault) {
+
+        if (fault == null) {
+            standingFaults.remove(operation);
+        } else {
+            standingFaults.put(operation, fault);
+        }
+    }
+
+    /**
+     * Removes all the users and faults, and forgets the request counts. Issued access tokens stay valid.
+     */
+    public void reset() {
+
+        users.clear();
+        standingFaults.clear();
+        for (Queue<Fault> faults : scriptedFaults.values()) {
+            faults.clear();
+        }
+        for (LongAdder count : requestCounts.values()) {
+            count.reset();
+        }
+    }
+
+    @Override
+    public void close() {
+
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Returns a user to be created with the given names.
+     */
+    public static ProvisioningEntity newUser(String userName, String givenName, String familyName) {
+
+        return new ProvisioningEntity(ProvisioningEntityType.USER, userName, ProvisioningOperation.POST,
+                getAttributes(givenName, familyName));
+    }
+
+    /**
+     * Returns a user of the given domain to be updated with the given names.
+     */
+    public static ProvisioningEntity changedUser(String userName, String domain, String givenName,
+                                                 String familyName) {
+
+        ProvisioningEntity user = new ProvisioningEntity(ProvisioningEntityType.USER, userName,
+                ProvisioningOperation.PUT, getAttributes(givenName, familyName));
+        user.setIdentifier(getIdentifier(userName, domain));
+        return user;
+    }
+
+    /**
+     * Returns a user of the given domain to be deleted.
+     */
+    public static ProvisioningEntity deletedUser(String userName, String domain) {
+
+        ProvisioningEntity user = new ProvisioningEntity(ProvisioningEntityType.USER, userName,
+                ProvisioningOperation.DELETE, new HashMap<>());
+        user.setIdentifier(getIdentifier(userName, domain));
+        return user;
+    }
+
+    /**
+     * Returns the identifier Google gives to a user of the given domain, which is its primary email.
+     */
+    public static ProvisionedIdentifier getIdentifier(String userName, String domain) {
+
+        ProvisionedIdentifier identifier = new ProvisionedIdentifier();
+        identifier.setIdentifier(userName + "@" + domain);
+        return identifier;
+    }
+
+    /**
+     * Returns the claims of a user with the given names.
+     */
+    public static Map<ClaimMapping, List<String>> getAttributes(String givenName, String familyName) {
+
+        Map<ClaimMapping, List<String>> attributes = new HashMap<>();
+        attributes.put(ClaimMapping.build(GIVEN_NAME_CLAIM, GIVEN_NAME_CLAIM, null, false),
+                Collections.singletonList(givenName));
+        attributes.put(ClaimMapping.build(FAMILY_NAME_CLAIM, FAMILY_NAME_CLAIM, null, false),
+                Collections.singletonList(familyName));
+        return attributes;
+    }
+
+    /**
+     * Returns a connector property with the given name and value.
+     */
+    public static Property buildProperty(String name, String value) {
+
+        Property property = new Property();
+        property.setName(name);
+        property.setValue(value);
+        return property;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+
+        try {
+            pause(latencyMillis);
+            Headers headers = exchange.getRequestHeaders();
+            // The Google client compresses request content by default.
+            byte[] body = "gzip".equalsIgnoreCase(headers.getFirst("Content-Encoding"))
+                    ? new GZIPInputStream(exchange.getRequestBody()).readAllBytes()
+                    : exchange.getRequestBody().readAllBytes();
+            URI uri = exchange.getRequestURI();
+            Response response;
+            if (TOKEN_PATH.equals(uri.getPath())) {
+                response = token(new String(body, StandardCharsets.UTF_8));
+            } else if (uri.getPath().startsWith(BATCH_PATH)) {
+                response = batch(headers.getFirst("Content-Type"), headers.getFirst("Authorization"), body);
+            } else if (!isAuthorized(headers.getFirst("Authorization"))) {
+                response = error(401, "authError", "Invalid Credentials");
+            } else {
+                response = users(getMethod(exchange.getRequestMethod(), headers.getFirst(METHOD_OVERRIDE_HEADER)),
+                        uri, body);
+            }
+            send(exchange, response);
+        } catch (Disconnect e) {
+            // Closing the exchange before the response headers are sent closes the connection.
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Response token(String form) {
+
+        count(Operation.TOKEN);
+        Response fault = applyFault(Operation.TOKEN);
+        if (fault != null) {
+            return fault;
+        }
+        Map<String, String> parameters = parseQuery(form);
+        if (!JWT_BEARER_GRANT.equals(parameters.get("grant_type")) || parameters.get("assertion") == null) {
+            GenericJson error = new GenericJson();
+            error.put("error", "invalid_grant");
+            error.put("error_description", "Invalid JWT bearer grant.");
+            return json(400, error);
+        }
+        String accessToken = "standin-" + UUID.randomUUID();
+        accessTokens.add(accessToken);
+        GenericJson token = new GenericJson();
+        token.put("access_token", accessToken);
+        token.put("token_type", "Bearer");
+        token.put("expires_in", tokenLifetimeSeconds);
+        return json(200, token);
+    }
+
+    /**
+     * Handles a multipart/mixed batch request, whose parts are HTTP requests to the users endpoints.
+     */
+    private Response batch(String contentType, String authorization, byte[] body) {
+
+        count(Operation.BATCH);
+        Response fault = applyFault(Operation.BATCH);
+        if (fault != null) {
+            return fault;
+        }
+        String boundary = getBoundary(contentType);
+        if (boundary == null) {
+            return error(400, "invalid", "Missing multipart boundary.");
+        }
+
+        StringBuilder responseBody = new StringBuilder();
+        String content = new String(body, StandardCharsets.UTF_8);
+        String[] parts = content.split(Pattern.quote("--" + boundary));
+        for (int i = 1; i < parts.length; i++) {
+            String part = parts[i];
+            if (part.startsWith("--")) {
+                break;
+            }
+            int partHeadersEnd = part.indexOf(CRLF + CRLF);
+            if (partHeadersEnd < 0) {
+                continue;
+            }
+            Map<String, String> partHeaders = parseHeaders(part.substring(0, partHeadersEnd));
+            String request = part.substring(partHeadersEnd + 4);
+
+            int requestLineEnd = request.indexOf(CRLF);
+            String[] requestLine = request.substring(0, requestLineEnd).split(" ");
+            int requestHeadersEnd = request.indexOf(CRLF + CRLF, requestLineEnd);
+            Map<String, String> requestHeaders = parseHeaders(request.substring(requestLineEnd + 2,
+                    Math.max(requestLineEnd + 2, requestHeadersEnd)));
+            String requestBody = request.substring(requestHeadersEnd + 4);
+            if (requestBody.endsWith(CRLF)) {
+                requestBody = requestBody.substring(0, requestBody.length() - 2);
+            }
+
+            String partAuthorization = requestHeaders.getOrDefault("Authorization", authorization);
+            Response response = isAuthorized(partAuthorization)
+                    ? users(getMethod(requestLine[0], requestHeaders.get(METHOD_OVERRIDE_HEADER)),
+                    URI.create(requestLine[1]), requestBody.getBytes(StandardCharsets.UTF_8))
+                    : error(401, "authError", "Invalid Credentials");
+
+            String contentId = partHeaders.getOrDefault("Content-ID", "<" + i + ">");
+            responseBody.append("--").append(RESPONSE_BOUNDARY).append(CRLF)
+                    .append("Content-Type: application/http").append(CRLF)
+                    .append("Content-ID: <response-").append(contentId.replaceAll("[<>]", "")).append(">")
+                    .append(CRLF).append(CRLF)
+                    .append("HTTP/1.1 ").append(response.status).append(' ').append(getReason(response.status))
+                    .append(CRLF);
+            String responseContent = new String(response.body, StandardCharsets.UTF_8);
+            if (response.body.length > 0) {
+                responseBody.append("Content-Type: ").append(response.contentType).append(CRLF);
+            }
+            for (Map.Entry<String, String> header : response.headers.entrySet()) {
+                responseBody.append(header.getKey()).append(": ").append(header.getValue()).append(CRLF);
+            }
+            responseBody.append("Content-Length: ").append(response.body.length).append(CRLF).append(CRLF)
+                    .append(responseContent).append(CRLF);
+        }
+        responseBody.append("--").append(RESPONSE_BOUNDARY).append("--").append(CRLF);
+        return new Response(200, responseBody.toString().getBytes(StandardCharsets.UTF_8),
+                "multipart/mixed; boundary=" + RESPONSE_BOUNDARY);
+    }
+
+    private Response users(String method, URI uri, byte[] body) {
+
+        String path = uri.getPath();
+        if (!path.startsWith(USERS_PATH)) {
+            return error(404, "notFound", "Not Found");
+        }
+        String userKey = path.length() > USERS_PATH.length() + 1 ? path.substring(USERS_PATH.length() + 1) : null;
+        Operation operation = getOperation(method, userKey);
+        if (operation == null) {
+            return error(405, "httpMethodNotAllowed", "Method not allowed: " + method);
+        }
+        count(operation);
+        Response fault = applyFault(operation);
+        if (fault != null) {
+            return fault;
+        }
+        try {
+            switch (operation) {
+                case INSERT:
+                    return insert(parse(body));
+                case LIST:
+                    return list(parseQuery(uri.getRawQuery()));
+                case GET:
+                    return getUserResponse(users.get(userKey.toLowerCase()));
+                case DELETE:
+                    return users.remove(userKey.toLowerCase()) != null
+                            ? new Response(204, new byte[0], JSON_CONTENT_TYPE)
+                            : error(404, "notFound", "Resource Not Found: userKey");
+                default:
+                    return getUserResponse(merge(userKey.toLowerCase(), parse(body)));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            return error(400, "parseError", "Parse Error");
+        }
+    }
+
+    private static Operation getOperation(String method, String userKey) {
+
+        if (userKey == null) {
+            return "POST".equals(method) ? Operation.INSERT : "GET".equals(method) ? Operation.LIST : null;
+        }
+        switch (method) {
+            case "GET":
+                return Operation.GET;
+            case "PUT":
+                return Operation.UPDATE;
+            case "PATCH":
+                return Operation.PATCH;
+            case "DELETE":
+                return Operation.DELETE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Applies the next fault injected into the operation, returning its error response or null if the request should
+     * be handled normally.
+     */
+    private Response applyFault(Operation operation) {
+
+        Fault fault = scriptedFaults.get(operation).poll();
+        if (fault == null) {
+            fault = standingFaults.get(operation);
+        }
+        if (fault == null) {
+            return null;
+        }
+        pause(fault.getDelayMillis());
+        if (fault.isDisconnect()) {
+            throw new Disconnect();
+        }
+        return fault.getResponse(operation == Operation.TOKEN);
+    }
+
+    private Response insert(GenericJson user) {
+
+        Object primaryEmail = user.get("primaryEmail");
+        if (!(primaryEmail instanceof String) || ((String) primaryEmail).trim().isEmpty()) {
+            return error(400, "invalid", "Invalid Input: primary_user_email");
+        }
+        user.put("id", String.valueOf(idSequence.incrementAndGet()));
+        if (users.putIfAbsent(((String) primaryEmail).toLowerCase(), user) != null) {
+            return error(409, "duplicate", "Entity already exists.");
+        }
+        return getUserResponse(user);
+    }
+
+    private GenericJson merge(String userKey, GenericJson changes) {
+
+        changes.remove("id");
+        changes.remove("primaryEmail");
+        return users.computeIfPresent(userKey, (key, user) -> {
+            GenericJson merged = user.clone();
+            mergeInto(merged, changes);
+            return merged;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void mergeInto(Map<String, Object> target, Map<String, Object> changes) {
+
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            Object current = target.get(change.getKey());
+            if (current instanceof Map && change.getValue() instanceof Map) {
+                Map<String, Object> merged = new HashMap<>((Map<String, Object>) current);
+                mergeInto(merged, (Map<String, Object>) change.getValue());
+                target.put(change.getKey(), merged);
+            } else {
+                target.put(change.getKey(), change.getValue());
+            }
+        }
+    }
+
+    private Response list(Map<String, String> parameters) {
+
+        int maxResults = DEFAULT_PAGE_SIZE;
+        if (parameters.get("maxResults") != null) {
+            maxResults = Math.max(1, Math.min(Integer.parseInt(parameters.get("maxResults")), MAX_PAGE_SIZE));
+        }
+        String domainSuffix = parameters.get("domain") != null ? "@" + parameters.get("domain").toLowerCase() : null;
+        String pageToken = parameters.get("pageToken");
+        NavigableMap<String, GenericJson> view = pageToken != null
+                ? users.tailMap(new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8), false)
+                : users;
+
+        List<Object> page = new ArrayList<>();
+        String lastKey = null;
+        String nextPageToken = null;
+        for (Map.Entry<String, GenericJson> user : view.entrySet()) {
+            if (domainSuffix != null && !user.getKey().endsWith(domainSuffix)) {
+                continue;
+            }
+            if (page.size() == maxResults) {
+                nextPageToken = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                        lastKey.getBytes(StandardCharsets.UTF_8));
+                break;
+            }
+            page.add(withoutPassword(user.getValue()));
+            lastKey = user.getKey();
+        }
+
+        GenericJson response = new GenericJson();
+        response.put("kind", "admin#directory#users");
+        if (!page.isEmpty()) {
+            response.put("users", page);
+        }
+        if (nextPageToken != null) {
+            response.put("nextPageToken", nextPageToken);
+        }
+        return json(200, response);
+    }
+
+    private Response getUserResponse(GenericJson user) {
+
+        if (user == null) {
+            return error(404, "notFound", "Resource Not Found: userKey");
+        }
+        return json(200, withoutPassword(user));
+    }
+
+    private static GenericJson withoutPassword(GenericJson user) {
+
+        GenericJson response = user.clone();
+        response.remove("password");
+        response.put("kind", "admin#directory#user");
+        return response;
+    }
+
+    private boolean isAuthorized(String authorization) {
+
+        return authorization != null && authorization.startsWith("Bearer ")
+                && accessTokens.contains(authorization.substring("Bearer ".length()).trim());
+    }
+
+    private void count(Operation operation) {
+
+        requestCounts.get(operation).increment();
+    }
+
+    private static String getMethod(String method, String methodOverride) {
+
+        return "POST".equals(method) && methodOverride != null ? methodOverride.trim().toUpperCase() : method;
+    }
+
+    private static GenericJson parse(byte[] body) throws IOException {
+
+        if (body.length == 0) {
+            return new GenericJson();
+        }
+        return JSON_FACTORY.fromInputStream(new ByteArrayInputStream(body), StandardCharsets.UTF_8,
+                GenericJson.class);
+    }
+
+    static Response json(int status, Object content) {
+
+        try {
+            return new Response(status, JSON_FACTORY.toByteArray(content), JSON_CONTENT_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Builds an error response in the format of the Google APIs.
+     */
+    static Response error(int status, String reason, String message) {
+
+        GenericJson detail = new GenericJson();
+        detail.put("domain", "global");
+        detail.put("reason", reason);
+        detail.put("message", message);
+        GenericJson error = new GenericJson();
+        error.put("errors", Collections.singletonList(detail));
+        error.put("code", status);
+        error.put("message", message);
+        GenericJson response = new GenericJson();
+        response.put("error", error);
+        return json(status, response);
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+
+        exchange.getResponseHeaders().set("Content-Type", response.contentType);
+        for (Map.Entry<String, String> header : response.headers.entrySet()) {
+            exchange.getResponseHeaders().set(header.getKey(), header.getValue());
+        }
+        if (response.body.length == 0) {
+            exchange.sendResponseHeaders(response.status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(response.status, response.body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response.body);
+        }
+    }
+
+    private static String getBoundary(String contentType) {
+
+        if (contentType == null) {
+            return null;
+        }
+        for (String parameter : contentType.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.startsWith("boundary=")) {
+                return trimmed.substring("boundary=".length()).replace("\"", "");
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, String> parseHeaders(String headers) {
+
+        Map<String, String> parsed = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (String line : headers.split(CRLF)) {
+            int separator = line.indexOf(':');
+            if (separator > 0) {
+                parsed.put(line.substring(0, separator).trim(), line.substring(separator + 1).trim());
+            }
+        }
+        return parsed;
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                parameters.put(URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    static String getReason(int status) {
+
+        switch (status) {
+            case 200:
+                return "OK";
+            case 204:
+                return "No Content";
+            case 400:
+                return "Bad Request";
+            case 401:
+                return "Unauthorized";
+            case 403:
+                return "Forbidden";
+            case 404:
+                return "Not Found";
+            case 409:
+                return "Conflict";
+            case 429:
+                return "Too Many Requests";
+            case 500:
+                return "Internal Server Error";
+            case 502:
+                return "Bad Gateway";
+            case 503:
+                return "Service Unavailable";
+            default:
+                return status >= 500 ? "Server Error" : "Error";
+        }
+    }
+
+    private static void pause(long millis) {
+
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the PKCS12 key of {@link #SERVICE_ACCOUNT} encoded in Base64, as connectors are configured with it.
+     */
+    public static String getServiceAccountKey() {
+
+        try (InputStream in = DirectoryStandIn.class.getResourceAsStream(SERVICE_ACCOUNT_KEY)) {
+            if (in == null) {
+                throw new IllegalStateException("Service account key " + SERVICE_ACCOUNT_KEY + " is not found");
+            }
+            return Base64.getEncoder().encodeToString(in.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Response to a request made to the stand-in.
+     */
+    static final class Response {
+
+        private final int status;
+        private final byte[] body;
+        private final String contentType;
+        private final Map<String, String> headers;
+
+        Response(int status, byte[] body, String contentType) {
+
+            this(status, body, contentType, Collections.emptyMap());
+        }
+
+        private Response(int status, byte[] body, String contentType, Map<String, String> headers) {
+
+            this.status = status;
+            this.body = body;
+            this.contentType = contentType;
+            this.headers = headers;
+        }
+
+        /**
+         * Returns a copy of this response with the given header added.
+         */
+        Response withHeader(String name, String value) {
+
+            Map<String, String> newHeaders = new LinkedHashMap<>(headers);
+            newHeaders.put(name, value);
+            return new Response(status, body, contentType, newHeaders);
+        }
+    }
+
+    /**
+     * Thrown to close the connection of a request without sending a response.
+     */
+    private static final class Disconnect extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private Disconnect() {
+
+            super(null, null, false, false);
+        }
+    }
+}
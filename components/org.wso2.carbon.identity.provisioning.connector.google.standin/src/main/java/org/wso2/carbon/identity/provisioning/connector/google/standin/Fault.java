@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.standin;
+
+import com.google.api.client.json.GenericJson;
+
+/**
+ * Misbehaviour of Google injected into a request handled by the {@link DirectoryStandIn}.
+ * <p>
+ * A fault either delays the request before it is handled normally, fails it with an error response, or drops the
+ * connection without sending a response.
+ */
+public final class Fault {
+
+    private final long delayMillis;
+    private final int status;
+    private final int retryAfterSeconds;
+    private final boolean disconnect;
+
+    private Fault(long delayMillis, int status, int retryAfterSeconds, boolean disconnect) {
+
+        this.delayMillis = delayMillis;
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.disconnect = disconnect;
+    }
+
+    /**
+     * Fails the request with an error response of the given status, such as 429, 500 or 503.
+     */
+    public static Fault status(int status) {
+
+        if (status < 400 || status > 599) {
+            throw new IllegalArgumentException("Not an error status : " + status);
+        }
+        return new Fault(0, status, -1, false);
+    }
+
+    /**
+     * Fails the request with the 429 status, asking the client to retry after the given number of seconds.
+     */
+    public static Fault throttle(int retryAfterSeconds) {
+
+        return new Fault(0, 429, retryAfterSeconds, false);
+    }
+
+    /**
+     * Handles the request normally once the given time has passed, in addition to the latency of the stand-in.
+     */
+    public static Fault delay(long delayMillis) {
+
+        return new Fault(delayMillis, 0, -1, false);
+    }
+
+    /**
+     * Closes the connection without sending a response, as a reset connection does. Faults injected into a request
+     * within a batch request drop the connection of the batch request.
+     */
+    public static Fault disconnect() {
+
+        return new Fault(0, 0, -1, true);
+    }
+
+    long getDelayMillis() {
+
+        return delayMillis;
+    }
+
+    boolean isDisconnect() {
+
+        return disconnect;
+    }
+
+    /**
+     * Returns the error response of this fault, or null if the request should be handled normally.
+     *
+     * @param tokenEndpoint Whether the request was made to the token endpoint, which reports errors in the OAuth
+     *                      format rather than in the format of the Google APIs.
+     */
+    DirectoryStandIn.Response getResponse(boolean tokenEndpoint) {
+
+        if (status == 0) {
+            return null;
+        }
+        DirectoryStandIn.Response response;
+        if (tokenEndpoint) {
+            GenericJson error = new GenericJson();
+            error.put("error", status >= 500 ? "internal_failure" : status == 429 ? "rate_limit_exceeded"
+                    : "invalid_grant");
+            error.put("error_description", DirectoryStandIn.getReason(status));
+            response = DirectoryStandIn.json(status, error);
+        } else {
+            response = DirectoryStandIn.error(status, getErrorReason(), DirectoryStandIn.getReason(status));
+        }
+        if (retryAfterSeconds >= 0) {
+            response = response.withHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        }
+        return response;
+    }
+
+    private String getErrorReason() {
+
+        switch (status) {
+            case 401:
+                return "authError";
+            case 403:
+                return "forbidden";
+            case 404:
+                return "notFound";
+            case 429:
+                return "rateLimitExceeded";
+            default:
+                return status >= 500 ? "backendError" : "invalid";
+        }
+    }
+
+    @Override
+    public String toString() {
+
+        if (disconnect) {
+            return "Fault[disconnect]";
+        }
+        if (status == 0) {
+            return "Fault[delay=" + delayMillis + "ms]";
+        }
+        return "Fault[status=" + status + (retryAfterSeconds >= 0 ? ", retryAfter=" + retryAfterSeconds + "s" : "")
+                + "]";
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google;
+
+import org.wso2.carbon.identity.application.common.model.ClaimMapping;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningConstants;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks the claims read by the Google connector out of the attributes of a provisioning entity.
+ * <p>
+ * The claims mapped to the user id, the given name and the family name of the Google user are resolved from the
+ * connector configuration when the projector is built. Projecting the attributes of an entity then takes a single
+ * pass over them, and also picks the user name and the password of the entity, without building any intermediate
+ * map. Claims are matched as {@code AbstractOutboundProvisioningConnector#getSingleValuedClaims} and
+ * {@code AbstractOutboundProvisioningConnector#getUserNames} match them: mapped claims on their remote claim URI,
+ * with the default value of the mapping when there is no value, and the user name on its local claim URI.
+ */
+public final class ClaimProjector implements Serializable {
+
+    private static final long serialVersionUID = -1693071185628749153L;
+
+    private static final Slot[] SLOTS = Slot.values();
+
+    private final String[] claimUris = new String[SLOTS.length];
+
+    /**
+     * Claims of the Google user a projection holds a value for.
+     */
+    public enum Slot {
+
+        USER_ID,
+        GIVEN_NAME,
+        FAMILY_NAME
+    }
+
+    /**
+     * @param userIdClaimUri  Claim mapped to the user id of the Google user, or null for none.
+     * @param givenNameClaim  Claim mapped to the given name of the Google user, or null for none.
+     * @param familyNameClaim Claim mapped to the family name of the Google user, or null for none.
+     */
+    public ClaimProjector(String userIdClaimUri, String givenNameClaim, String familyNameClaim) {
+
+        claimUris[Slot.USER_ID.ordinal()] = userIdClaimUri;
+        claimUris[Slot.GIVEN_NAME.ordinal()] = givenNameClaim;
+        claimUris[Slot.FAMILY_NAME.ordinal()] = familyNameClaim;
+    }
+
+    /**
+     * Projects the given attributes of a provisioning entity.
+     *
+     * @param attributes Attributes of the provisioning entity, or null if it has none.
+     * @return Values of the claims read by the connector.
+     */
+    public Projection project(Map<ClaimMapping, List<String>> attributes) {
+
+        Projection projection = new Projection();
+        if (attributes == null) {
+            return projection;
+        }
+        boolean userNameFound = false;
+        for (Map.Entry<ClaimMapping, List<String>> attribute : attributes.entrySet()) {
+            ClaimMapping claimMapping = attribute.getKey();
+            if (claimMapping == null) {
+                continue;
+            }
+            List<String> values = attribute.getValue();
+
+            if (!userNameFound && claimMapping.getLocalClaim() != null && IdentityProvisioningConstants
+                    .USERNAME_CLAIM_URI.equals(claimMapping.getLocalClaim().getClaimUri())) {
+                // As getUserNames, the first mapping of the user name claim is taken even if it has no value.
+                userNameFound = true;
+                projection.userName = getFirstValue(values);
+            }
+
+            String remoteClaimUri = claimMapping.getRemoteClaim() != null
+                    ? claimMapping.getRemoteClaim().getClaimUri() : null;
+            if (remoteClaimUri == null) {
+                continue;
+            }
+            if (IdentityProvisioningConstants.PASSWORD_CLAIM_URI.equals(remoteClaimUri)
+                    || IdentityProvisioningConstants.GROUP_CLAIM_URI.equals(remoteClaimUri)
+                    || IdentityProvisioningConstants.USERNAME_CLAIM_URI.equals(remoteClaimUri)) {
+                continue;
+            }
+
+            projection.singleValuedClaims = true;
+            for (int i = 0; i < claimUris.length; i++) {
+                if (remoteClaimUri.equals(claimUris[i])) {
+                    String value = getFirstValue(values);
+                    projection.values[i] = value != null ? value : claimMapping.getDefaultValue();
+                }
+            }
+        }
+        return projection;
+    }
+
+    private static String getFirstValue(List<String> values) {
+
+        return values != null && !values.isEmpty() ? values.get(0) : null;
+    }
+
+    /**
+     * Values of the claims read by the connector from one provisioning entity.
+     */
+    public static final class Projection {
+
+        private final String[] values = new String[SLOTS.length];
+        private String userName;
+        private boolean singleValuedClaims;
+
+        private Projection() {
+
+        }
+
+        /**
+         * Returns the value of the claim mapped to the given slot, or null if the entity does not carry it.
+         */
+        public String get(Slot slot) {
+
+            return values[slot.ordinal()];
+        }
+
+        /**
+         * Returns the user name of the entity, or null if the entity does not carry it.
+         */
+        public String getUserName() {
+
+            return userName;
+        }
+
+        /**
+         * Returns whether the entity carries any single valued claim other than the user name, the password and
+         * the groups, whether or not the connector reads it.
+         */
+        public boolean hasSingleValuedClaims() {
+
+            return singleValuedClaims;
+        }
+    }
+}
@@ -57,6 +57,47 @@ public class GoogleConnectorConstants {
         public static final String PRIVATE_KEY = "google_prov_private_key";
         public static final String PROVISIONING_PATTERN_KEY = "google_prov_pattern";
         public static final String PROVISIONING_SEPERATOR_KEY = "google_prov_separator";
+        public static final String DEFAULT_GIVEN_NAME_KEY = "google_prov_givenname";
+        public static final String DEFAULT_FAMILY_NAME_KEY = "google_prov_familyname";
+        public static final String IDP_NAME_KEY = "identityProviderName";
+        public static final String USER_ID_CLAIM_URI_KEY = "userIdClaimUri";
+        public static final String BATCH_ENABLED_KEY = "google_prov_batch_enabled";
+        public static final String BATCH_SIZE_KEY = "google_prov_batch_size";
+        public static final String BATCH_LINGER_MILLIS_KEY = "google_prov_batch_linger_ms";
+        public static final String ASYNC_ENABLED_KEY = "google_prov_async_enabled";
+        public static final String ASYNC_WORKERS_KEY = "google_prov_async_workers";
+        public static final String ASYNC_QUEUE_SIZE_KEY = "google_prov_async_queue_size";
+        public static final String ASYNC_REJECTION_POLICY_KEY = "google_prov_async_rejection_policy";
+        public static final String ASYNC_COALESCING_ENABLED_KEY = "google_prov_async_coalescing_enabled";
+        public static final String ASYNC_THREAD_MODE_KEY = "google_prov_async_thread_mode";
+        public static final String CONCURRENCY_LIMIT_KEY = "google_prov_concurrency_limit";
+        public static final String RATE_LIMIT_KEY = "google_prov_rate_limit";
+        public static final String RETRY_TIME_BUDGET_MILLIS_KEY = "google_prov_retry_time_budget_ms";
+        public static final String INSERT_FIELDS_KEY = "google_prov_insert_fields";
+        public static final String UPDATE_FIELDS_KEY = "google_prov_update_fields";
+        public static final String LIST_FIELDS_KEY = "google_prov_list_fields";
+        public static final String UPDATE_CACHE_SIZE_KEY = "google_prov_update_cache_size";
+        public static final String HTTP_TRANSPORT_KEY = "google_prov_http_transport";
+        public static final String HTTP_POOL_SIZE_KEY = "google_prov_http_pool_size";
+        public static final String CONNECT_TIMEOUT_MILLIS_KEY = "google_prov_connect_timeout_ms";
+        public static final String READ_TIMEOUT_MILLIS_KEY = "google_prov_read_timeout_ms";
+        public static final String TRACE_SAMPLING_PROBABILITY_KEY = "google_prov_trace_sampling_probability";
+
+        public static final int DEFAULT_BATCH_SIZE = 50;
+        public static final int DEFAULT_BATCH_LINGER_MILLIS = 50;
+        public static final int DEFAULT_ASYNC_WORKERS = 4;
+        public static final int DEFAULT_ASYNC_QUEUE_SIZE = 1000;
+        public static final String DEFAULT_ASYNC_REJECTION_POLICY = "block";
+        public static final String DEFAULT_ASYNC_THREAD_MODE = "platform";
+        public static final int DEFAULT_RETRY_TIME_BUDGET_MILLIS = 30000;
+        public static final String DEFAULT_INSERT_FIELDS = "primaryEmail";
+        public static final String DEFAULT_UPDATE_FIELDS = "primaryEmail";
+        public static final String DEFAULT_LIST_FIELDS = "users(primaryEmail)";
+        public static final int DEFAULT_UPDATE_CACHE_SIZE = 10000;
+        public static final String DEFAULT_HTTP_TRANSPORT = "net";
+        public static final int DEFAULT_HTTP_POOL_SIZE = 20;
+        public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 20000;
+        public static final int DEFAULT_READ_TIMEOUT_MILLIS = 20000;
 
         private PropertyConfig(){}
     }
@@ -18,24 +18,22 @@
 
 package org.wso2.carbon.identity.provisioning.connector.google;
 
-import com.google.api.client.googleapis.auth.oauth2.GoogleCredential;
 import com.google.api.client.googleapis.json.GoogleJsonResponseException;
-import com.google.api.client.http.HttpTransport;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.client.googleapis.services.json.AbstractGoogleJsonClientRequest;
+import com.google.api.client.http.HttpMethods;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.util.BackOff;
 import com.google.api.services.admin.directory.Directory;
-import com.google.api.services.admin.directory.DirectoryScopes;
 import com.google.api.services.admin.directory.model.User;
 import com.google.api.services.admin.directory.model.UserName;
-import com.google.api.services.admin.directory.model.Users;
-import org.apache.axiom.util.base64.Base64Utils;
-import org.apache.commons.collections.CollectionUtils;
-import org.apache.commons.collections.MapUtils;
+import io.opencensus.common.Scope;
+import io.opencensus.trace.Sampler;
+import io.opencensus.trace.Span;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.identity.application.common.model.Property;
-import org.wso2.carbon.identity.core.util.IdentityIOStreamUtils;
 import org.wso2.carbon.identity.provisioning.AbstractOutboundProvisioningConnector;
 import org.wso2.carbon.identity.provisioning.IdentityProvisioningConstants;
 import org.wso2.carbon.identity.provisioning.IdentityProvisioningException;
@@ -43,18 +41,35 @@ import org.wso2.carbon.identity.provisioning.ProvisionedIdentifier;
 import org.wso2.carbon.identity.provisioning.ProvisioningEntity;
 import org.wso2.carbon.identity.provisioning.ProvisioningEntityType;
 import org.wso2.carbon.identity.provisioning.ProvisioningOperation;
+import org.wso2.carbon.identity.provisioning.connector.google.client.AdaptiveConcurrencyLimiter;
+import org.wso2.carbon.identity.provisioning.connector.google.client.AdaptiveRateLimiter;
+import org.wso2.carbon.identity.provisioning.connector.google.client.DirectoryClientHolder;
+import org.wso2.carbon.identity.provisioning.connector.google.client.PrivateKeyStore;
+import org.wso2.carbon.identity.provisioning.connector.google.client.RetryingHttpRequestInitializer;
+import org.wso2.carbon.identity.provisioning.connector.google.client.UserFingerprintStore;
+import org.wso2.carbon.identity.provisioning.connector.google.client.UserPager;
+import org.wso2.carbon.identity.provisioning.connector.google.dispatch.AsyncProvisioningExecutor;
+import org.wso2.carbon.identity.provisioning.connector.google.dispatch.DirectoryBatchDispatcher;
+import org.wso2.carbon.identity.provisioning.connector.google.dispatch.OperationCoalescer;
+import org.wso2.carbon.identity.provisioning.connector.google.jfr.FlightRecorderSupport;
+import org.wso2.carbon.identity.provisioning.connector.google.jfr.ProvisioningOperationEvent;
+import org.wso2.carbon.identity.provisioning.connector.google.metrics.OperationMetrics;
+import org.wso2.carbon.identity.provisioning.connector.google.metrics.OperationType;
+import org.wso2.carbon.identity.provisioning.connector.google.metrics.ProvisioningMetrics;
+import org.wso2.carbon.identity.provisioning.connector.google.tracing.ProvisioningTracer;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.math.BigInteger;
-import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 
 public class GoogleProvisioningConnector extends AbstractOutboundProvisioningConnector {
@@ -62,9 +77,37 @@ public class GoogleProvisioningConnector extends AbstractOutboundProvisioningCon
     private static final long serialVersionUID = -6152718786151333233L;
 
     private static final Log log = LogFactory.getLog(GoogleProvisioningConnector.class);
+    private static final String GIVEN_NAME_FIELD = "name.givenName";
+    private static final String FAMILY_NAME_FIELD = "name.familyName";
     private static SecureRandom random = new SecureRandom();
-    private static File googlePrvKey = null;
-    private GoogleProvisioningConnectorConfig configHolder;
+    private PrivateKeyStore.ServiceAccountKey privateKey;
+    private volatile GoogleProvisioningConnectorConfig configHolder;
+    private final DirectoryClientHolder directoryClientHolder;
+    private transient DirectoryBatchDispatcher batchDispatcher;
+    private transient AsyncProvisioningExecutor asyncExecutor;
+    private transient OperationCoalescer coalescer;
+    private transient AdaptiveRateLimiter rateLimiter;
+    private transient AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private transient RetryingHttpRequestInitializer retryInitializer;
+    private transient UserFingerprintStore fingerprintStore;
+    private transient ProvisioningMetrics.ConnectorMetrics metrics;
+    private transient Sampler traceSampler;
+
+    public GoogleProvisioningConnector() {
+
+        this(new DirectoryClientHolder());
+    }
+
+    /**
+     * Creates a connector sending its requests through the given holder, such as one pointed at a local stand-in of
+     * the Directory API.
+     *
+     * @param directoryClientHolder Holder of the Directory client.
+     */
+    protected GoogleProvisioningConnector(DirectoryClientHolder directoryClientHolder) {
+
+        this.directoryClientHolder = directoryClientHolder;
+    }
 
     @Override
     /**
@@ -76,17 +119,10 @@ public class GoogleProvisioningConnector extends AbstractOutboundProvisioningCon
             for (Property property : provisioningProperties) {
 
                 if (GoogleConnectorConstants.PRIVATE_KEY.equals(property.getName())) {
-                    FileOutputStream fos = null;
                     try {
-                        byte[] decodedBytes = Base64Utils.decode(property.getValue());
-                        googlePrvKey = new File("googlePrvKey");
-                        fos = new FileOutputStream(googlePrvKey);
-                        fos.write(decodedBytes);
-                    } catch (IOException e) {
-                        log.error("Error while generating private key file object", e);
-                    } finally {
-                        IdentityIOStreamUtils.flushOutputStream(fos);
-                        IdentityIOStreamUtils.closeOutputStream(fos);
+                        privateKey = PrivateKeyStore.getInstance().getKey(property.getValue());
+                    } catch (IdentityProvisioningException e) {
+                        log.error("Error while loading the private key of the Google service account", e);
                     }
                 }
                 configs.put(property.getName(), property.getValue());
@@ -98,7 +134,77 @@ public class GoogleProvisioningConnector extends AbstractOutboundProvisioningCon
             }
         }
 
-        configHolder = new GoogleProvisioningConnectorConfig(configs);
+        // Replaces the configuration as a whole, so that concurrent provisioning calls see either the old or the
+        // new configuration.
+        GoogleProvisioningConnectorConfig config = new GoogleProvisioningConnectorConfig(configs);
+        // Fails the initialization if the provisioning pattern is not valid, rather than the first create.
+        config.getUserIdTemplate();
+        this.configHolder = config;
+
+        int updateCacheSize = config.getIntValue(GoogleConnectorConstants.PropertyConfig.UPDATE_CACHE_SIZE_KEY,
+                GoogleConnectorConstants.PropertyConfig.DEFAULT_UPDATE_CACHE_SIZE);
+        fingerprintStore = updateCacheSize > 0 ? new UserFingerprintStore(updateCacheSize) : null;
+
+        PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+        metrics = ProvisioningMetrics.getInstance().getConnectorMetrics(
+                carbonContext != null ? carbonContext.getTenantDomain() : null, config.getIdpName());
+        traceSampler = ProvisioningTracer.getSampler(config.getDoubleValue(
+                GoogleConnectorConstants.PropertyConfig.TRACE_SAMPLING_PROBABILITY_KEY, -1));
+
+        int rateLimit = config.getIntValue(GoogleConnectorConstants.PropertyConfig.RATE_LIMIT_KEY, 0);
+        rateLimiter = rateLimit > 0 ? new AdaptiveRateLimiter(rateLimit) : null;
+        int concurrencyLimit = config.getIntValue(GoogleConnectorConstants.PropertyConfig.CONCURRENCY_LIMIT_KEY, 0);
+        concurrencyLimiter = concurrencyLimit > 0
+                ? new AdaptiveConcurrencyLimiter(concurrencyLimit, metrics.getConcurrency()) : null;
+        int retryTimeBudget = config.getIntValue(
+                GoogleConnectorConstants.PropertyConfig.RETRY_TIME_BUDGET_MILLIS_KEY,
+                GoogleConnectorConstants.PropertyConfig.DEFAULT_RETRY_TIME_BUDGET_MILLIS);
+        retryInitializer = retryTimeBudget > 0
+                ? new RetryingHttpRequestInitializer(retryTimeBudget, rateLimiter, concurrencyLimiter, metrics) : null;
+
+        if (config.getBooleanValue(GoogleConnectorConstants.PropertyConfig.BATCH_ENABLED_KEY, false)) {
+            int batchSize = config.getIntValue(GoogleConnectorConstants.PropertyConfig.BATCH_SIZE_KEY,
+                    GoogleConnectorConstants.PropertyConfig.DEFAULT_BATCH_SIZE);
+            int lingerMillis = config.getIntValue(GoogleConnectorConstants.PropertyConfig.BATCH_LINGER_MILLIS_KEY,
+                    GoogleConnectorConstants.PropertyConfig.DEFAULT_BATCH_LINGER_MILLIS);
+            batchDispatcher = new DirectoryBatchDispatcher(batchSize, lingerMillis, concurrencyLimiter);
+            if (log.isDebugEnabled()) {
+                log.debug("Batch requests enabled for Google connector. Batch size : " + batchSize
+                        + ", linger time : " + lingerMillis + "ms");
+            }
+        } else {
+            batchDispatcher = null;
+        }
+
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdown();
+            asyncExecutor = null;
+        }
+        coalescer = null;
+        if (config.getBooleanValue(GoogleConnectorConstants.PropertyConfig.ASYNC_ENABLED_KEY, false)) {
+            int workers = config.getIntValue(GoogleConnectorConstants.PropertyConfig.ASYNC_WORKERS_KEY,
+                    GoogleConnectorConstants.PropertyConfig.DEFAULT_ASYNC_WORKERS);
+            int queueSize = config.getIntValue(GoogleConnectorConstants.PropertyConfig.ASYNC_QUEUE_SIZE_KEY,
+                    GoogleConnectorConstants.PropertyConfig.DEFAULT_ASYNC_QUEUE_SIZE);
+            String rejectionPolicyValue = config.getValue(
+                    GoogleConnectorConstants.PropertyConfig.ASYNC_REJECTION_POLICY_KEY);
+            AsyncProvisioningExecutor.RejectionPolicy rejectionPolicy =
+                    AsyncProvisioningExecutor.RejectionPolicy.fromValue(rejectionPolicyValue);
+            AsyncProvisioningExecutor.ThreadMode threadMode = AsyncProvisioningExecutor.ThreadMode.fromValue(
+                    config.getValue(GoogleConnectorConstants.PropertyConfig.ASYNC_THREAD_MODE_KEY));
+            asyncExecutor = new AsyncProvisioningExecutor(workers, queueSize, rejectionPolicy, threadMode);
+            // Operations of an entity always go through its queue, so that they reach Google in the order they were
+            // submitted even when they are not coalesced.
+            boolean coalescing = config.getBooleanValue(
+                    GoogleConnectorConstants.PropertyConfig.ASYNC_COALESCING_ENABLED_KEY, false);
+            coalescer = new OperationCoalescer(asyncExecutor, this::provisionEntity, coalescing);
+            if (log.isDebugEnabled()) {
+                log.debug("Asynchronous provisioning enabled for Google connector. Workers : " + workers
+                        + ", queue size : " + queueSize + ", rejection policy : " + rejectionPolicy.name()
+                        + ", thread mode : " + asyncExecutor.getThreadMode().name()
+                        + ", coalescing : " + coalescing);
+            }
+        }
     }
 
     @Override
@@ -108,10 +214,132 @@ public class GoogleProvisioningConnector extends AbstractOutboundProvisioningCon
         return null;
     }
 
+    /**
+     * Provisions the given entity. When asynchronous provisioning is enabled the operation is queued and run by a
+     * worker, behind the earlier operations of the same entity. Create operations still wait for the result, since
+     * the identifier of the created user is needed by the caller. Update and delete operations return once queued,
+     * so the provisioning framework records them as successful before Google has answered. Their failures cannot be
+     * reported to the framework any more and are only logged. Callers that need the outcome of every operation
+     * should use {@link #provisionAsync} instead.
+     */
     @Override
     public ProvisionedIdentifier provision(ProvisioningEntity provisioningEntity)
             throws IdentityProvisioningException {
 
+        AsyncProvisioningExecutor executor = asyncExecutor;
+        if (executor == null || provisioningEntity == null) {
+            return provisionEntity(provisioningEntity);
+        }
+
+        CompletableFuture<ProvisionedIdentifier> result = submit(executor, provisioningEntity);
+        if (provisioningEntity.getOperation() == ProvisioningOperation.POST) {
+            return getResult(result);
+        }
+
+        result.whenComplete((provisionedIdentifier, error) -> {
+            if (error != null) {
+                log.error("Error while asynchronously provisioning " + provisioningEntity.getOperation()
+                        + " operation of the entity : " + provisioningEntity.getEntityName() + ". The operation was "
+                        + "already reported to the provisioning framework as successful.", error);
+            }
+        });
+        if (provisioningEntity.getEntityType() == ProvisioningEntityType.USER
+                && provisioningEntity.getOperation() == ProvisioningOperation.DELETE) {
+            // creates a provisioned identifier for the de-provisioned user.
+            ProvisionedIdentifier identifier = new ProvisionedIdentifier();
+            identifier.setIdentifier(null);
+            return identifier;
+        }
+        return null;
+    }
+
+    /**
+     * Provisions the given entity without blocking the caller. When asynchronous provisioning is not enabled the
+     * entity is provisioned on the calling thread and a completed future is returned.
+     *
+     * @param provisioningEntity Entity to provision.
+     * @return Future identifier of the provisioned entity, which completes exceptionally with the
+     * {@link IdentityProvisioningException} of the operation if it fails.
+     */
+    public CompletableFuture<ProvisionedIdentifier> provisionAsync(ProvisioningEntity provisioningEntity) {
+
+        AsyncProvisioningExecutor executor = asyncExecutor;
+        try {
+            if (executor == null) {
+                return CompletableFuture.completedFuture(provisionEntity(provisioningEntity));
+            }
+            return submit(executor, provisioningEntity);
+        } catch (IdentityProvisioningException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<ProvisionedIdentifier> submit(AsyncProvisioningExecutor executor,
+                                                            ProvisioningEntity provisioningEntity)
+            throws IdentityProvisioningException {
+
+        OperationCoalescer operationCoalescer = coalescer;
+        if (operationCoalescer != null) {
+            return operationCoalescer.submit(provisioningEntity);
+        }
+        return executor.submit(() -> provisionEntity(provisioningEntity));
+    }
+
+    /**
+     * Returns the executor running asynchronous provisioning operations, or null if asynchronous provisioning is
+     * not enabled.
+     */
+    public AsyncProvisioningExecutor getAsyncExecutor() {
+
+        return asyncExecutor;
+    }
+
+    /**
+     * Returns the per-entity queues of asynchronous provisioning operations, or null if asynchronous provisioning
+     * is not enabled.
+     */
+    public OperationCoalescer getCoalescer() {
+
+        return coalescer;
+    }
+
+    /**
+     * Provisions the given entity on the calling thread, traced with a span of the provisioning operation and
+     * recorded as a Flight Recorder event.
+     */
+    private ProvisionedIdentifier provisionEntity(ProvisioningEntity provisioningEntity)
+            throws IdentityProvisioningException {
+
+        if (provisioningEntity == null) {
+            return null;
+        }
+        ProvisioningOperationEvent event = FlightRecorderSupport.isAvailable()
+                ? ProvisioningOperationEvent.start() : null;
+        ProvisioningMetrics.ConnectorMetrics connectorMetrics = metrics;
+        String entityType = String.valueOf(provisioningEntity.getEntityType());
+        String operation = String.valueOf(provisioningEntity.getOperation());
+        Span span = ProvisioningTracer.startProvisionSpan(entityType, operation,
+                connectorMetrics != null ? connectorMetrics.getTenantDomain() : null,
+                connectorMetrics != null ? connectorMetrics.getIdpName() : null, traceSampler);
+        boolean succeeded = false;
+        try (Scope ignored = ProvisioningTracer.withSpan(span)) {
+            ProvisionedIdentifier identifier = provisionTracedEntity(provisioningEntity);
+            succeeded = true;
+            return identifier;
+        } catch (IdentityProvisioningException | RuntimeException e) {
+            ProvisioningTracer.setError(span, e);
+            throw e;
+        } finally {
+            span.end();
+            if (event != null) {
+                event.finish(operation, entityType, provisioningEntity.getEntityName(), succeeded);
+            }
+        }
+    }
+
+    private ProvisionedIdentifier provisionTracedEntity(ProvisioningEntity provisioningEntity)
+            throws IdentityProvisioningException {
+
         ProvisionedIdentifier identifier = null;
 
         if (provisioningEntity != null) {
@@ -148,6 +376,40 @@ public class GoogleProvisioningConnector extends AbstractOutboundProvisioningCon
         return identifier;
     }
 
+    /**
+     * Waits for the result of a queued operation for as long as a single request may take with its retries, so
+     * that a caller is not blocked forever by an operation that is never run. An operation given up on may still be
+     * applied by Google later.
+     */
+    private ProvisionedIdentifier getResult(CompletableFuture<ProvisionedIdentifier> result)
+            throws IdentityProvisioningException {
+
+        GoogleProvisioningConnectorConfig config = configHolder;
+        int retryTimeBudget = config.getIntValue(GoogleConnectorConstants.PropertyConfig.RETRY_TIME_BUDGET_MILLIS_KEY,
+                GoogleConnectorConstants.PropertyConfig.DEFAULT_RETRY_TIME_BUDGET_MILLIS);
+        long timeoutMillis = (long) config.getConnectTimeoutMillis() + config.getReadTimeoutMillis()
+                + Math.max(0, retryTimeBudget);
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdentityProvisioningException("Google provisioning operation did not complete within "
+                    + timeoutMillis + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdentityProvisioningException("Interrupted while waiting for the Google provisioning " +
+                    "operation", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IdentityProvisioningException) {
+                throw (IdentityProvisioningException) e.getCause();
+            }
+            throw new IdentityProvisioningException("Error while provisioning to Google", e.getCause());
+        }
+    }
+
+    /**
+     * Updates the provisioned Google user with a patch request carrying only the attributes that changed since they
+     * were last sent to Google. The update is skipped when none of the attributes changed.
+     */
     protected void updateUser(ProvisioningEntity provisioningEntity) throws IdentityProvisioningException {
         boolean isDebugEnabled = log.isDebugEnabled();
         if (isDebugEnabled) {
@@ -158,27 +420,67 @@ public class GoogleProvisioningConnector extends AbstractOutboundProvisioningCon
 
         if (provisionedIdentifier != null && provisionedIdentifier.getIdentifier() != null) {
 
-            User updateUser = updateGoogleUser(provisioningEntity);
+            String userKey = provisionedIdentifier.getIdentifier();
+            UserFingerprintStore store = fingerprintStore;
+            Map<String, String> attributes;
+            UserFingerprintStore.Comparison comparison;
+            Set<String> changedAttributes;
+            Directory.Users.Patch request;
 
-            if (updateUser == null) {
-                return;
-            }
+            Span buildSpan = ProvisioningTracer.startSpan(ProvisioningTracer.BUILD_REQUEST_SPAN);
+            try {
+                User updateUser = updateGoogleUser(provisioningEntity);
+
+                if (updateUser == null) {
+                    return;
+                }
 
-            Directory.Users.Update request;
+                attributes = getPatchAttributes(updateUser);
+                comparison = store != null ? store.compare(userKey, attributes) : null;
+                changedAttributes = comparison != null ? comparison.getChangedAttributes() : attributes.keySet();
+
+                if (changedAttributes.isEmpty()) {
+                    if (isDebugEnabled) {
+                        log.debug("Skipping update of user :" + provisioningEntity.getEntityName()
+                                  + " since none of the attributes sent to Google changed");
+                    }
+                    return;
+                }
+
+                request = getDirectoryService().users().patch(userKey,
+                        buildPatchUser(updateUser, changedAttributes));
+                request.setFields(configHolder.getUpdateFields());
+            } catch (IOException e) {
+                ProvisioningTracer.setError(buildSpan, e);
+                throw new IdentityProvisioningException("Error while updating Google user : "
+                                                        + provisioningEntity.getEntityName(), e);
+            } catch (IdentityProvisioningException | RuntimeException e) {
+                ProvisioningTracer.setError(buildSpan, e);
+                throw e;
+            } finally {
+                buildSpan.end();
+            }
 
             try {
-                request = getDirectoryService().users().update(
-                        provisionedIdentifier.getIdentifier(), updateUser);
-                request.execute();
+                executeRequest(request);
 
             } catch (IOException e) {
+                if (store != null) {
+                    // The attributes the user has in Google are no longer known.
+                    store.remove(userKey);
+                }
                 throw new IdentityProvisioningException("Error while updating Google user : "
                                                         + provisioningEntity.getEntityName(), e);
             }
+            if (store != null) {
+                // Forgets the user instead if a concurrent update of the user was recorded meanwhile.
+                store.record(comparison, attributes);
+            }
 
             if (isDebugEnabled) {
                 log.debug("updating user :" + provisioningEntity.getEntityName()
-                          + " with the primaryEmail : " + provisionedIdentifier.getIdentifier());
+                          + " with the primaryEmail : " + provisionedIdentifier.getIdentifier()
+                          + ", changed attributes : " + changedAttributes);
             }
         } else {
             throw new IdentityProvisioningException(
@@ -186,6 +488,38 @@ public class GoogleProvisioningConnector extends AbstractOutboundProvisioningCon
         }
     }
 
+    /**
+     * Returns the attributes of the given user that are compared between updates, by their field path.
+     */
+    private static Map<String, String> getPatchAttributes(User user) {
+
+        Map<String, String> attributes = new LinkedHashMap<>();
+        UserName name = user.getName();
+        attributes.put(GIVEN_NAME_FIELD, name != null ? name.getGivenName() : null);
+        attributes.put(FAMILY_NAME_FIELD, name != null ? name.getFamilyName() : null);
+        return attributes;
+    }
+
+    /**
+     * Builds the body of a patch request with the changed attributes of the given user. Google keeps the values of
+     * the fields not present in a patch request, including the fields of nested objects such as the name.
+     */
+    private static User buildPatchUser(User user, Set<String> changedAttributes) {
+
+        User patchUser = new User();
+        UserName name = new UserName();
+        if (changedAttributes.contains(GIVEN_NAME_FIELD)) {
+            name.setGivenName(user.getName().getGivenName());
+        }
+        if (changedAttributes.contains(FAMILY_NAME_FIELD)) {
+            name.setFamilyName(user.getName().getFamilyName());
+        }
+        if (!name.isEmpty()) {
+            patchUser.setName(name);
+        }
+        return patchUser;
+    }
+
     protected String createUser(ProvisioningEntity provisioningEntity) throws IdentityProvisioningException {
         boolean isDebugEnabled = log.isDebugEnabled();
         if (isDebugEnabled) {
@@ -193,18 +527,34 @@ public class GoogleProvisioningConnector extends AbstractOutboundProvisioningCon
         }
 
         User createdUser;
+        User newUser;
         try {
 
-            User newUser = buildGoogleUser(provisioningEntity);
-
-            Directory.Users.Insert request = getDirectoryService().users().insert(newUser);
-            createdUser = request.execute();
+            Directory.Users.Insert request;
+            Span buildSpan = ProvisioningTracer.startSpan(ProvisioningTracer.BUILD_REQUEST_SPAN);
+            try {
+                newUser = buildGoogleUser(provisioningEntity);
+
+                request = getDirectoryService().users().insert(newUser);
+                request.setFields(configHolder.getInsertFields());
+            } catch (IdentityProvisioningException | IOException | RuntimeException e) {
+                ProvisioningTracer.setError(buildSpan, e);
+                throw e;
+            } finally {
+                buildSpan.end();
+            }
+            createdUser = executeRequest(request);
 
         } catch (IOException e) {
             throw new IdentityProvisioningException("Error while creating user: "
                                                     + provisioningEntity.getEntityName(), e);
         }
 
+        UserFingerprintStore store = fingerprintStore;
+        if (store != null && createdUser.getPrimaryEmail() != null) {
+            store.record(createdUser.getPrimaryEmail(), getPatchAttributes(newUser));
+        }
+
         if (isDebugEnabled) {
             log.debug("Returning created user's email: " + createdUser.getPrimaryEmail());
         }
@@ -227,10 +577,15 @@ public class GoogleProvisioningConnector extends AbstractOutboundProvisioningCon
         ProvisionedIdentifier provisionedIdentifier = provisioningEntity.getIdentifier();
         if (provisionedIdentifier != null && provisionedIdentifier.getIdentifier() != null) {
 
+            UserFingerprintStore store = fingerprintStore;
+            if (store != null) {
+                store.remove(provisionedIdentifier.getIdentifier());
+            }
+
             Directory.Users.Delete request;
             try {
                 request = getDirectoryService().users().delete(provisionedIdentifier.getIdentifier());
-                request.execute();
+                executeRequest(request);
 
             } catch (IOException e) {
                 if (e instanceof GoogleJsonResponseException && ((GoogleJsonResponseException) e)
@@ -256,8 +611,11 @@ public class GoogleProvisioningConnector extends AbstractOutboundProvisioningCon
     }
 
     /**
-     * @return
-     * @throws IdentityProvisioningException
+     * Lists the primary emails of the users matching the given query, one per line.
+     *
+     * @param query Search query in the syntax of the Directory API, or null to list all the users.
+     * @return Primary emails of the users.
+     * @throws IdentityProvisioningException If the users cannot be listed.
      */
     protected String listUsers(String query) throws IdentityProvisioningException {
         boolean isDebugEnabled = log.isDebugEnabled();
@@ -266,33 +624,16 @@ public class GoogleProvisioningConnector extends AbstractOutboundProvisioningCon
         }
 
         StringBuilder sb = new StringBuilder();
-        List<User> allUsers = new ArrayList<>();
-        Directory.Users.List request;
-        try {
-            request = getDirectoryService().users().list().setCustomer("my_customer");
-
-            // Get all users
-            do {
-                try {
-                    Users currentPage = request.execute();
-                    allUsers.addAll(currentPage.getUsers());
-                    request.setPageToken(currentPage.getNextPageToken());
-                } catch (IOException e) {
-                    log.error("Error while retrieving user info, continue to retrieve", e);
-                    request.setPageToken(null);
-                }
-            } while (request.getPageToken() != null && request.getPageToken().length() > 0);
-
-            // Print all users
-            for (User currentUser : allUsers) {
-                sb.append(currentUser.getPrimaryEmail() + "\n");
+        UserPager pager = new UserPager().setQuery(query).setFields(configHolder.getListFields());
+        listUsers(pager, (users, nextPageToken) -> {
+            for (User currentUser : users) {
+                sb.append(currentUser.getPrimaryEmail()).append("\n");
                 if (isDebugEnabled) {
                     log.debug("List Google users : " + currentUser.getPrimaryEmail());
                 }
             }
-        } catch (IOException e) {
-            throw new IdentityProvisioningException(e);
-        }
+            return true;
+        });
 
         if (isDebugEnabled) {
             log.debug("Ending listUsers() of " + GoogleProvisioningConnector.class);
@@ -301,58 +642,216 @@ public class GoogleProvisioningConnector extends AbstractOutboundProvisioningCon
     }
 
     /**
-     * Build and returns a Directory service object authorized with the service accounts that act on
-     * behalf of the given user.
+     * Lists the users page by page, passing each page to the handler. Only the page being handled is held in
+     * memory. The returned token can be set on a pager to resume listing after the handler stopped it.
      *
-     * @return Directory service object that is ready to make requests.
-     * @throws IdentityProvisioningException
+     * @param pager   Query, domain, page size, fields and starting page of the listing.
+     * @param handler Handles the pages.
+     * @return Token of the page following the last handled page, or null if all the pages were handled.
+     * @throws IdentityProvisioningException If a page cannot be fetched or handled.
      */
-    protected Directory getDirectoryService() throws IdentityProvisioningException {
-        boolean isDebugEnabled = log.isDebugEnabled();
-        if (isDebugEnabled) {
-            log.debug("Starting getDirectoryService() of " + GoogleProvisioningConnector.class);
-        }
+    public String listUsers(UserPager pager, UserPager.PageHandler handler) throws IdentityProvisioningException {
 
-        String serviceAccountEmailKey = "google_prov_service_acc_email";
-        String adminEmailKey = "google_prov_admin_email";
-        String privateKeyKey = "google_prov_private_key";
-        String applicationNameKey = "google_prov_application_name";
+        try {
+            return pager.forEachPage(getDirectoryService(), this::executeRequest, handler);
+        } catch (UserPager.PageException e) {
+            throw new IdentityProvisioningException(e.getMessage(), e);
+        }
+    }
 
-        /** Email of the Service Account */
-        String serviceAccountId = this.configHolder.getValue(serviceAccountEmailKey);
-        /** Admin email */
-        String serviceAccountUser = this.configHolder.getValue(adminEmailKey);
-        /** Application name */
-        String applicationName = this.configHolder.getValue(applicationNameKey);
+    /**
+     * Executes the given Directory API request. When batch requests are enabled the request is sent to Google as part
+     * of a batch request together with the requests of concurrent provisioning calls. When a rate limit is
+     * configured the request waits for the limiter, and quota errors reported by Google lower the rate. When a
+     * concurrency limit is configured the request also waits until fewer requests are in flight than the limit,
+     * which adapts to the latency and errors of Google. Requests failing with a transient error are retried with
+     * exponential backoff within the retry time budget. The outcome and latency of the request are recorded in the
+     * connector metrics, and the request is traced with a span of the Directory API operation.
+     *
+     * @param request Directory API request.
+     * @param <T>     Type of the response.
+     * @return Parsed response of the request.
+     * @throws IOException If the request failed.
+     */
+    protected <T> T executeRequest(AbstractGoogleJsonClientRequest<T> request) throws IOException {
+
+        ProvisioningMetrics.ConnectorMetrics connectorMetrics = metrics;
+        OperationType operationType = OperationType.fromMethod(request.getRequestMethod());
+        OperationMetrics operationMetrics = connectorMetrics != null ? connectorMetrics.get(operationType) : null;
+        Span span = ProvisioningTracer.startDirectorySpan(operationType);
+        long start = System.nanoTime();
+        try (Scope ignored = ProvisioningTracer.withSpan(span)) {
+            T response = executeWithRetries(request, operationType, operationMetrics);
+            int statusCode = request.getLastStatusCode();
+            if (operationMetrics != null) {
+                operationMetrics.recordSuccess(statusCode, System.nanoTime() - start);
+            }
+            ProvisioningTracer.setHttpStatus(span, statusCode, null);
+            if (FlightRecorderSupport.isAvailable()) {
+                // A successful part of a batch request has no known status.
+                ProvisioningOperationEvent.recordRequest(request, statusCode > 0 ? statusCode : 200);
+            }
+            return response;
+        } catch (IOException e) {
+            int statusCode = e instanceof HttpResponseException ? ((HttpResponseException) e).getStatusCode() : 0;
+            if (operationMetrics != null) {
+                operationMetrics.recordFailure(statusCode, System.nanoTime() - start);
+            }
+            ProvisioningTracer.setHttpStatus(span, statusCode, e);
+            if (FlightRecorderSupport.isAvailable()) {
+                ProvisioningOperationEvent.recordRequest(request, statusCode);
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            ProvisioningTracer.setError(span, e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
 
-        HttpTransport httpTransport = new NetHttpTransport();
-        JacksonFactory jsonFactory = new JacksonFactory();
+    private <T> T executeWithRetries(AbstractGoogleJsonClientRequest<T> request, OperationType operationType,
+                                     OperationMetrics operationMetrics) throws IOException {
 
-        if (isDebugEnabled) {
-            log.debug("serviceAccountId" + serviceAccountId);
-            log.debug("setServiceAccountScopes"
-                      + Arrays.asList(DirectoryScopes.ADMIN_DIRECTORY_USER));
-            log.debug("setServiceAccountUser" + serviceAccountUser);
+        AdaptiveRateLimiter limiter = rateLimiter;
+        RetryingHttpRequestInitializer retry = retryInitializer;
+        boolean batched = batchDispatcher != null && !HttpMethods.GET.equals(request.getRequestMethod());
+        BackOff backOff = null;
+        while (true) {
+            if (limiter != null) {
+                try {
+                    limiter.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the Google request rate limit");
+                }
+            }
+            try {
+                T response = sendWithinLimit(request);
+                if (limiter != null) {
+                    limiter.onSuccess();
+                }
+                return response;
+            } catch (GoogleJsonResponseException e) {
+                // Unless the request was part of a batch request, 429 and 5xx responses were already retried, or
+                // found not safe to retry, and reported to the limiter while sending the request. Only 403 quota
+                // errors are left to handle here.
+                boolean handledWhileSending = retry != null && !batched && e.getStatusCode() != 403;
+                if (limiter != null && !handledWhileSending && AdaptiveRateLimiter.isRateLimitError(e)) {
+                    limiter.onThrottled();
+                }
+                if (retry == null || handledWhileSending
+                        || !RetryingHttpRequestInitializer.isRetryableError(e, request.getRequestMethod())) {
+                    throw e;
+                }
+                if (backOff == null) {
+                    backOff = retry.newBackOff();
+                }
+                if (!retry.backOff(backOff, operationType, e.getStatusCode())) {
+                    throw e;
+                }
+                if (operationMetrics != null) {
+                    operationMetrics.recordRetry();
+                }
+                ProvisioningTracer.annotateRetry(e.getStatusCode());
+                if (log.isDebugEnabled()) {
+                    log.debug("Retrying the Google request that failed with the status : " + e.getStatusCode());
+                }
+            }
         }
+    }
 
-        Directory service = null;
+    /**
+     * Sends the request once the number of requests in flight is below the adaptive concurrency limit, if one is
+     * configured, and reports to the limiter whether Google answered the request or was congested. The request gives
+     * up its slot while it waits to be retried, so that the limiter only measures the attempts. Requests sent as part
+     * of a batch request are limited by the batch dispatcher, which takes a single slot for the batch request.
+     */
+    private <T> T sendWithinLimit(AbstractGoogleJsonClientRequest<T> request) throws IOException {
+
+        AdaptiveConcurrencyLimiter limiter = concurrencyLimiter;
+        if (limiter == null || batchDispatcher != null && !HttpMethods.GET.equals(request.getRequestMethod())) {
+            return sendRequest(request);
+        }
         try {
-            GoogleCredential credential = new GoogleCredential.Builder()
-                    .setTransport(httpTransport).setJsonFactory(jsonFactory)
-                    .setServiceAccountId(serviceAccountId)
-                    .setServiceAccountScopes(Arrays.asList(DirectoryScopes.ADMIN_DIRECTORY_USER))
-                    .setServiceAccountUser(serviceAccountUser)
-                    .setServiceAccountPrivateKeyFromP12File(googlePrvKey).build();
+            limiter.enter();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the Google concurrency limit");
+        }
+        boolean dropped = false;
+        try {
+            return sendRequest(request);
+        } catch (GoogleJsonResponseException e) {
+            dropped = RetryingHttpRequestInitializer.isRetryableError(e);
+            throw e;
+        } catch (IOException e) {
+            dropped = true;
+            throw e;
+        } finally {
+            limiter.exit(dropped);
+        }
+    }
 
-            service = new Directory.Builder(httpTransport, jsonFactory, credential)
-                    .setHttpRequestInitializer(credential).setApplicationName(applicationName)
-                    .build();
+    private <T> T sendRequest(AbstractGoogleJsonClientRequest<T> request) throws IOException {
 
-        } catch (GeneralSecurityException | IOException e) {
-            throw new IdentityProvisioningException("Error while obtaining connection from google", e);
+        // Listing requests are sent on their own, since a page is needed before the next one can be requested.
+        if (batchDispatcher != null && !HttpMethods.GET.equals(request.getRequestMethod())) {
+            return batchDispatcher.execute(request);
         }
+        return request.execute();
+    }
 
-        if (log.isDebugEnabled()) {
+    /**
+     * Returns the initializer retrying failed requests, which holds the retry metrics, or null if retries are
+     * disabled.
+     */
+    public RetryingHttpRequestInitializer getRetryInitializer() {
+
+        return retryInitializer;
+    }
+
+    /**
+     * Returns the adaptive limit of the requests in flight, or null if the concurrency is not limited.
+     */
+    public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+
+        return concurrencyLimiter;
+    }
+
+    /**
+     * Returns the limiter of the request rate, or null if the request rate is not limited.
+     */
+    public AdaptiveRateLimiter getRateLimiter() {
+
+        return rateLimiter;
+    }
+
+    /**
+     * Returns the metrics of the Directory API requests of the identity provider of this connector, or null if the
+     * connector is not initialized.
+     */
+    public ProvisioningMetrics.ConnectorMetrics getMetrics() {
+
+        return metrics;
+    }
+
+    /**
+     * Returns the Directory service object authorized with the service accounts that act on behalf of the given
+     * user. The service object is built once and reused until the connector configuration changes.
+     *
+     * @return Directory service object that is ready to make requests.
+     * @throws IdentityProvisioningException
+     */
+    protected Directory getDirectoryService() throws IdentityProvisioningException {
+        boolean isDebugEnabled = log.isDebugEnabled();
+        if (isDebugEnabled) {
+            log.debug("Starting getDirectoryService() of " + GoogleProvisioningConnector.class);
+        }
+
+        Directory service = directoryClientHolder.getDirectory(this.configHolder, privateKey, retryInitializer);
+
+        if (isDebugEnabled) {
             log.debug("Ending getDirectoryService() of " + GoogleProvisioningConnector.class);
         }
         return service;
@@ -368,55 +867,22 @@ public class GoogleProvisioningConnector extends AbstractOutboundProvisioningCon
         User newUser = new User();
         UserName username = new UserName();
 
-        List<String> wso2IsUsernames = getUserNames(provisioningEntity.getAttributes());
-        String wso2IsUsername = null;
-
-        if (CollectionUtils.isNotEmpty(wso2IsUsernames)) {
-            // first element must be the user name.
-            wso2IsUsername = wso2IsUsernames.get(0);
-        }
-
-        String primaryEmailClaimKey = "google_prov_email_claim_dropdown";
-        String domainNameKey = "google_prov_domain_name";
-
-        String defaultFamilyNameKey = "google_prov_familyname";
-        String defaultGivenNameKey = "google_prov_givenname";
-
-        String familyNameClaimKey = "google_prov_familyname_claim_dropdown";
-        String givenNameClaimKey = "google_prov_givenname_claim_dropdown";
-        String provisioningPatternKey = "google_prov_pattern";
-        String provisioningSeparatorKey = "google_prov_separator";
-        String idpName_key = "identityProviderName";
-        String userIdClaimUriKey = "userIdClaimUri";
-
-        Map<String, String> requiredAttributes = getSingleValuedClaims(provisioningEntity.getAttributes());
+        GoogleProvisioningConnectorConfig config = this.configHolder;
+        ClaimProjector.Projection claims = config.getClaimProjector().project(provisioningEntity.getAttributes());
+        String wso2IsUsername = claims.getUserName();
 
         /** Provisioning Pattern */
-        String provisioningPattern = this.configHolder.getValue(provisioningPatternKey);
-        if (StringUtils.isBlank(provisioningPattern)) {
-            log.info("Provisioning pattern is not defined, hence using default provisioning pattern");
-            provisioningPattern = GoogleConnectorConstants.PropertyConfig.DEFAULT_PROVISIONING_PATTERN;
-        }
-        String provisioningSeparator = this.configHolder.getValue(provisioningSeparatorKey);
-        if (StringUtils.isBlank(provisioningSeparator)) {
-            log.info("Provisioning separator is not defined, hence using default provisioning separator");
-            provisioningSeparator = GoogleConnectorConstants.PropertyConfig.DEFAULT_PROVISIONING_SEPERATOR;
-        }
-        String idpName = this.configHolder.getValue(idpName_key);
-        String userIdClaimURL = this.configHolder.getValue(userIdClaimUriKey);
-        String provisioningDomain = this.configHolder.getValue(domainNameKey);
-
+        UserIdTemplate userIdTemplate = config.getUserIdTemplate();
 
         String userId = provisioningEntity.getEntityName();
 
-        if (StringUtils.isNotBlank(requiredAttributes.get(userIdClaimURL))) {
-            userId = requiredAttributes.get(userIdClaimURL);
+        if (StringUtils.isNotBlank(claims.get(ClaimProjector.Slot.USER_ID))) {
+            userId = claims.get(ClaimProjector.Slot.USER_ID);
         }
 
         String userIdFromPattern = null;
 
-        userIdFromPattern = buildUserId(provisioningEntity, provisioningPattern,
-                                            provisioningSeparator, idpName);
+        userIdFromPattern = userIdTemplate.buildUserId(provisioningEntity.getEntityName(), config.getIdpName());
 
         if (StringUtils.isNotBlank(userIdFromPattern)) {
             userId = userIdFromPattern;
@@ -426,16 +892,13 @@ public class GoogleProvisioningConnector extends AbstractOutboundProvisioningCon
             throw new IdentityProvisioningException("Could not find Provisioning User Identification");
         }
 
-        if (StringUtils.isNotBlank(provisioningDomain) && !userId.endsWith(provisioningDomain)) {
-            userId = userId.replaceAll("@", ".").concat("@").concat(provisioningDomain);
-        }
+        userId = userIdTemplate.toPrimaryEmail(userId);
 
         // Set given name
-        String givenNameClaim = this.configHolder.getValue(givenNameClaimKey);
-        String givenNameValue = requiredAttributes.get(givenNameClaim);
+        String givenNameValue = claims.get(ClaimProjector.Slot.GIVEN_NAME);
         if (StringUtils.isBlank(givenNameValue)) {
-            String defaultGivenNameValue = this.configHolder.getValue(defaultGivenNameKey);
-            if (StringUtils.isNotBlank(defaultGivenNameValue)) {
+            String defaultGivenNameValue = config.getDefaultGivenName();
+            if (defaultGivenNameValue != null) {
                 givenNameValue = defaultGivenNameValue;
             } else {
                 givenNameValue = wso2IsUsername;
@@ -447,11 +910,10 @@ public class GoogleProvisioningConnector extends AbstractOutboundProvisioningCon
         username.setGivenName(givenNameValue);
 
         // Set family name
-        String familyNameClaim = this.configHolder.getValue(familyNameClaimKey);
-        String familyNameValue = requiredAttributes.get(familyNameClaim);
+        String familyNameValue = claims.get(ClaimProjector.Slot.FAMILY_NAME);
         if (StringUtils.isBlank(familyNameValue)) {
-            String defaultFamilyNameValue = this.configHolder.getValue(defaultFamilyNameKey);
-            if (StringUtils.isNotBlank(defaultFamilyNameValue)) {
+            String defaultFamilyNameValue = config.getDefaultFamilyName();
+            if (defaultFamilyNameValue != null) {
                 familyNameValue = defaultFamilyNameValue;
             } else {
                 familyNameValue = wso2IsUsername;
@@ -478,6 +940,8 @@ public class GoogleProvisioningConnector extends AbstractOutboundProvisioningCon
             }
         }
 
+        // Google requires a password for new users, hence a random one is set. The password of the user in the identity
+        // server is never sent to Google.
         newUser.setPassword(generatePassword());
         return newUser;
     }
@@ -494,26 +958,17 @@ public class GoogleProvisioningConnector extends AbstractOutboundProvisioningCon
         updateUser.setPrimaryEmail(provisioningEntity.getIdentifier().getIdentifier());
         UserName username = new UserName();
 
-        String defaultFamilyNameKey = "google_prov_familyname";
-        String defaultGivenNameKey = "google_prov_givenname";
-
-        String familyNameClaimKey = "google_prov_familyname_claim_dropdown";
-        String givenNameClaimKey = "google_prov_givenname_claim_dropdown";
-
-        Map<String, String> requiredAttributes = getSingleValuedClaims(provisioningEntity.getAttributes());
+        GoogleProvisioningConnectorConfig config = this.configHolder;
+        ClaimProjector.Projection claims = config.getClaimProjector().project(provisioningEntity.getAttributes());
 
-        if (MapUtils.isEmpty(requiredAttributes)) {
+        if (!claims.hasSingleValuedClaims()) {
             return null;
         }
 
         // Set given name
-        String givenNameClaim = this.configHolder.getValue(givenNameClaimKey);
-        String givenNameValue = requiredAttributes.get(givenNameClaim);
-        if (StringUtils.isBlank(givenNameValue)) {
-            String defaultGivenNameValue = this.configHolder.getValue(defaultGivenNameKey);
-            if (StringUtils.isNotBlank(defaultGivenNameValue)) {
-                givenNameValue = defaultGivenNameValue;
-            }
+        String givenNameValue = claims.get(ClaimProjector.Slot.GIVEN_NAME);
+        if (StringUtils.isBlank(givenNameValue) && config.getDefaultGivenName() != null) {
+            givenNameValue = config.getDefaultGivenName();
         }
         if (log.isDebugEnabled()) {
             log.debug("New Google user given name : " + givenNameValue);
@@ -521,13 +976,9 @@ public class GoogleProvisioningConnector extends AbstractOutboundProvisioningCon
         username.setGivenName(givenNameValue);
 
         // Set family name
-        String familyNameClaim = this.configHolder.getValue(familyNameClaimKey);
-        String familyNameValue = requiredAttributes.get(familyNameClaim);
-        if (StringUtils.isBlank(familyNameValue)) {
-            String defaultFamilyNameValue = this.configHolder.getValue(defaultFamilyNameKey);
-            if (StringUtils.isNotBlank(defaultFamilyNameValue)) {
-                familyNameValue = defaultFamilyNameValue;
-            }
+        String familyNameValue = claims.get(ClaimProjector.Slot.FAMILY_NAME);
+        if (StringUtils.isBlank(familyNameValue) && config.getDefaultFamilyName() != null) {
+            familyNameValue = config.getDefaultFamilyName();
         }
         if (log.isDebugEnabled()) {
             log.debug("New Google user family name : " + familyNameValue);
@@ -541,7 +992,6 @@ public class GoogleProvisioningConnector extends AbstractOutboundProvisioningCon
             return null;
         }
         updateUser.setName(username);
-        updateUser.setPassword(generatePassword());
 
         return updateUser;
     }
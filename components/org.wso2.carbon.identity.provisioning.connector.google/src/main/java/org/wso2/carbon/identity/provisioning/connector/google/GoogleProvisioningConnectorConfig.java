@@ -22,40 +22,141 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.identity.provisioning.IdentityProvisioningConstants;
+import org.wso2.carbon.identity.provisioning.connector.google.client.GoogleHttpTransportFactory;
 import org.wso2.carbon.identity.provisioning.IdentityProvisioningException;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
+/**
+ * Immutable snapshot of the configuration of a Google provisioning connector.
+ * <p>
+ * The properties are copied when the snapshot is built, and the values read while provisioning users are resolved
+ * up front together with their defaults, so reading them needs no locking or parsing. A connector replaces its
+ * snapshot as a whole when its configuration changes.
+ */
 public class GoogleProvisioningConnectorConfig implements Serializable {
 
     private static final long serialVersionUID = -3057146255884741487L;
 
     private static final Log log = LogFactory.getLog(GoogleProvisioningConnectorConfig.class);
-    private Properties configs;
+    private final Map<String, String> configs;
+
+    private final List<String> requiredAttributeNames;
+    private final String domainName;
+    private final String givenNameClaim;
+    private final String familyNameClaim;
+    private final String defaultGivenName;
+    private final String defaultFamilyName;
+    private final String provisioningPattern;
+    private final String provisioningSeparator;
+    private final String idpName;
+    private final String userIdClaimUri;
+    private final String insertFields;
+    private final String updateFields;
+    private final String listFields;
+    private final String serviceAccountEmail;
+    private final String adminEmail;
+    private final String applicationName;
+    private final GoogleHttpTransportFactory.TransportType transportType;
+    private final int httpPoolSize;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final ClaimProjector claimProjector;
+    private final UserIdTemplate userIdTemplate;
+    private final IdentityProvisioningException userIdTemplateError;
 
     public GoogleProvisioningConnectorConfig(Properties configs) {
-        this.configs = configs;
+
+        Map<String, String> values = new HashMap<>();
+        for (String name : configs.stringPropertyNames()) {
+            values.put(name, configs.getProperty(name));
+        }
+        this.configs = Collections.unmodifiableMap(values);
+
+        String requiredAttributes = values.get(GoogleConnectorConstants.PropertyConfig.REQUIRED_FIELDS);
+        this.requiredAttributeNames = StringUtils.isNotBlank(requiredAttributes)
+                ? Collections.unmodifiableList(Arrays.asList(
+                        requiredAttributes.split(IdentityProvisioningConstants.PropertyConfig.DELIMATOR)))
+                : Collections.emptyList();
+
+        this.domainName = values.get(GoogleConnectorConstants.PropertyConfig.DOMAIN_NAME_KEY);
+        this.givenNameClaim = values.get(GoogleConnectorConstants.PropertyConfig.GIVEN_NAME_CLAIM_KEY);
+        this.familyNameClaim = values.get(GoogleConnectorConstants.PropertyConfig.FAMILY_NAME_CLAIM_KEY);
+        this.defaultGivenName = StringUtils.defaultIfBlank(
+                values.get(GoogleConnectorConstants.PropertyConfig.DEFAULT_GIVEN_NAME_KEY), null);
+        this.defaultFamilyName = StringUtils.defaultIfBlank(
+                values.get(GoogleConnectorConstants.PropertyConfig.DEFAULT_FAMILY_NAME_KEY), null);
+        this.idpName = values.get(GoogleConnectorConstants.PropertyConfig.IDP_NAME_KEY);
+        this.userIdClaimUri = values.get(GoogleConnectorConstants.PropertyConfig.USER_ID_CLAIM_URI_KEY);
+        this.claimProjector = new ClaimProjector(userIdClaimUri, givenNameClaim, familyNameClaim);
+
+        String pattern = values.get(GoogleConnectorConstants.PropertyConfig.PROVISIONING_PATTERN_KEY);
+        if (StringUtils.isBlank(pattern)) {
+            log.info("Provisioning pattern is not defined, hence using default provisioning pattern");
+            pattern = GoogleConnectorConstants.PropertyConfig.DEFAULT_PROVISIONING_PATTERN;
+        }
+        this.provisioningPattern = pattern;
+        String separator = values.get(GoogleConnectorConstants.PropertyConfig.PROVISIONING_SEPERATOR_KEY);
+        if (StringUtils.isBlank(separator)) {
+            log.info("Provisioning separator is not defined, hence using default provisioning separator");
+            separator = GoogleConnectorConstants.PropertyConfig.DEFAULT_PROVISIONING_SEPERATOR;
+        }
+        this.provisioningSeparator = separator;
+
+        UserIdTemplate template = null;
+        IdentityProvisioningException templateError = null;
+        try {
+            template = UserIdTemplate.compile(pattern, separator, domainName);
+        } catch (IdentityProvisioningException e) {
+            templateError = e;
+        }
+        this.userIdTemplate = template;
+        this.userIdTemplateError = templateError;
+
+        this.insertFields = getFields(values, GoogleConnectorConstants.PropertyConfig.INSERT_FIELDS_KEY,
+                GoogleConnectorConstants.PropertyConfig.DEFAULT_INSERT_FIELDS);
+        this.updateFields = getFields(values, GoogleConnectorConstants.PropertyConfig.UPDATE_FIELDS_KEY,
+                GoogleConnectorConstants.PropertyConfig.DEFAULT_UPDATE_FIELDS);
+        this.listFields = getFields(values, GoogleConnectorConstants.PropertyConfig.LIST_FIELDS_KEY,
+                GoogleConnectorConstants.PropertyConfig.DEFAULT_LIST_FIELDS);
+
+        this.serviceAccountEmail = values.get(GoogleConnectorConstants.PropertyConfig.SERVICE_ACCOUNT_EMAIL_KEY);
+        this.adminEmail = values.get(GoogleConnectorConstants.PropertyConfig.ADMIN_EMAIL_KEY);
+        this.applicationName = values.get(GoogleConnectorConstants.PropertyConfig.APPLICATION_NAME_KEY);
+        this.transportType = GoogleHttpTransportFactory.TransportType.fromValue(
+                values.get(GoogleConnectorConstants.PropertyConfig.HTTP_TRANSPORT_KEY));
+        this.httpPoolSize = getIntValue(values, GoogleConnectorConstants.PropertyConfig.HTTP_POOL_SIZE_KEY,
+                GoogleConnectorConstants.PropertyConfig.DEFAULT_HTTP_POOL_SIZE);
+        this.connectTimeoutMillis = Math.max(0, getIntValue(values,
+                GoogleConnectorConstants.PropertyConfig.CONNECT_TIMEOUT_MILLIS_KEY,
+                GoogleConnectorConstants.PropertyConfig.DEFAULT_CONNECT_TIMEOUT_MILLIS));
+        this.readTimeoutMillis = Math.max(0, getIntValue(values,
+                GoogleConnectorConstants.PropertyConfig.READ_TIMEOUT_MILLIS_KEY,
+                GoogleConnectorConstants.PropertyConfig.DEFAULT_READ_TIMEOUT_MILLIS));
+    }
+
+    private static String getFields(Map<String, String> values, String key, String defaultFields) {
+
+        String fields = values.get(key);
+        return StringUtils.isNotBlank(fields) ? fields.trim() : defaultFields;
     }
 
     List<String> getRequiredAttributeNames() {
-        List<String> requiredAttributeList = new ArrayList<>();
-        String requiredAttributes = this.configs.getProperty(GoogleConnectorConstants.PropertyConfig.REQUIRED_FIELDS);
-        if (StringUtils.isNotBlank(requiredAttributes)) {
-            requiredAttributeList = Arrays.asList(requiredAttributes.split(IdentityProvisioningConstants.PropertyConfig.DELIMATOR));
-        }
-        return requiredAttributeList;
+        return requiredAttributeNames;
     }
 
     String getUserIdClaim() throws IdentityProvisioningException {
-        String userIDClaim = this.configs.getProperty(GoogleConnectorConstants.PropertyConfig.USER_ID_CLAIM);
+        String userIDClaim = this.configs.get(GoogleConnectorConstants.PropertyConfig.USER_ID_CLAIM);
         if (StringUtils.isBlank(userIDClaim)) {
             log.warn("Claim for user id is not defined in config. Using " + GoogleConnectorConstants.ATTRIBUTE_PRIMARYEMAIL + "'s claim instead");
 
-            userIDClaim = this.configs.getProperty(GoogleConnectorConstants.ATTRIBUTE_PRIMARYEMAIL);
+            userIDClaim = this.configs.get(GoogleConnectorConstants.ATTRIBUTE_PRIMARYEMAIL);
         }
         if (StringUtils.isBlank(userIDClaim)) {
             log.warn("Claim for user id is set to default value : " + "http://wso2.org/claims/streetaddress");
@@ -71,6 +172,234 @@ public class GoogleProvisioningConnectorConfig implements Serializable {
     }
 
     public String getValue(String key) {
-        return this.configs.getProperty(key);
+        return this.configs.get(key);
+    }
+
+    /**
+     * Returns the integer value of the given property, or the default value if the property is not set or is not a
+     * valid integer.
+     */
+    public int getIntValue(String key, int defaultValue) {
+
+        return getIntValue(configs, key, defaultValue);
+    }
+
+    private static int getIntValue(Map<String, String> values, String key, int defaultValue) {
+
+        String value = values.get(key);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value : " + value + " for the property : " + key + ". Using the default value : "
+                    + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Returns the decimal value of the given property, or the default value if the property is not set or is not a
+     * valid number.
+     */
+    public double getDoubleValue(String key, double defaultValue) {
+
+        String value = this.configs.get(key);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value : " + value + " for the property : " + key + ". Using the default value : "
+                    + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Returns the boolean value of the given property, or the default value if the property is not set.
+     */
+    public boolean getBooleanValue(String key, boolean defaultValue) {
+
+        String value = this.configs.get(key);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim()) || "1".equals(value.trim());
+    }
+
+    /**
+     * Returns the domain the provisioned users are created in, or null if not configured.
+     */
+    public String getDomainName() {
+
+        return domainName;
+    }
+
+    /**
+     * Returns the claim mapped to the given name of the Google user, or null if not configured.
+     */
+    public String getGivenNameClaim() {
+
+        return givenNameClaim;
+    }
+
+    /**
+     * Returns the claim mapped to the family name of the Google user, or null if not configured.
+     */
+    public String getFamilyNameClaim() {
+
+        return familyNameClaim;
+    }
+
+    /**
+     * Returns the given name used when the user has no value for the mapped claim, or null if not configured.
+     */
+    public String getDefaultGivenName() {
+
+        return defaultGivenName;
+    }
+
+    /**
+     * Returns the family name used when the user has no value for the mapped claim, or null if not configured.
+     */
+    public String getDefaultFamilyName() {
+
+        return defaultFamilyName;
+    }
+
+    /**
+     * Returns the pattern the Google user id is built with, which is the default pattern if not configured.
+     */
+    public String getProvisioningPattern() {
+
+        return provisioningPattern;
+    }
+
+    /**
+     * Returns the separator used in the provisioning pattern, which is the default separator if not configured.
+     */
+    public String getProvisioningSeparator() {
+
+        return provisioningSeparator;
+    }
+
+    /**
+     * Returns the name of the identity provider the connector belongs to.
+     */
+    public String getIdpName() {
+
+        return idpName;
+    }
+
+    /**
+     * Returns the claim holding the user id, or null if not configured.
+     */
+    public String getUserIdClaimUri() {
+
+        return userIdClaimUri;
+    }
+
+    /**
+     * Returns the fields of the created user requested from Google.
+     */
+    public String getInsertFields() {
+
+        return insertFields;
+    }
+
+    /**
+     * Returns the fields of the updated user requested from Google.
+     */
+    public String getUpdateFields() {
+
+        return updateFields;
+    }
+
+    /**
+     * Returns the fields of the listed users requested from Google.
+     */
+    public String getListFields() {
+
+        return listFields;
+    }
+
+    /**
+     * Returns the email of the service account the connector authenticates as, or null if not configured.
+     */
+    public String getServiceAccountEmail() {
+
+        return serviceAccountEmail;
+    }
+
+    /**
+     * Returns the email of the administrator the service account acts on behalf of, or null if not configured.
+     */
+    public String getAdminEmail() {
+
+        return adminEmail;
+    }
+
+    /**
+     * Returns the application name sent to Google, or null if not configured.
+     */
+    public String getApplicationName() {
+
+        return applicationName;
+    }
+
+    /**
+     * Returns the HTTP transport used to reach Google.
+     */
+    public GoogleHttpTransportFactory.TransportType getTransportType() {
+
+        return transportType;
+    }
+
+    /**
+     * Returns the maximum number of pooled connections of the HTTP transport.
+     */
+    public int getHttpPoolSize() {
+
+        return httpPoolSize;
+    }
+
+    /**
+     * Returns the connect timeout of the requests sent to Google, in milliseconds.
+     */
+    public int getConnectTimeoutMillis() {
+
+        return connectTimeoutMillis;
+    }
+
+    /**
+     * Returns the read timeout of the requests sent to Google, in milliseconds.
+     */
+    public int getReadTimeoutMillis() {
+
+        return readTimeoutMillis;
+    }
+
+    /**
+     * Returns the projector picking the claims read by the connector out of the attributes of a provisioning entity.
+     */
+    public ClaimProjector getClaimProjector() {
+
+        return claimProjector;
+    }
+
+    /**
+     * Returns the compiled provisioning pattern.
+     *
+     * @throws IdentityProvisioningException If the provisioning pattern is not valid.
+     */
+    public UserIdTemplate getUserIdTemplate() throws IdentityProvisioningException {
+
+        if (userIdTemplate == null) {
+            throw userIdTemplateError;
+        }
+        return userIdTemplate;
     }
 }
@@ -157,6 +157,260 @@ public class GoogleProvisioningConnectorFactory extends AbstractProvisioningConn
         provSeparator.setDisplayOrder(10);
         configProperties.add(provSeparator);
 
+        Property batchEnabled = new Property();
+        batchEnabled.setName(GoogleConnectorConstants.PropertyConfig.BATCH_ENABLED_KEY);
+        batchEnabled.setDisplayName("Enable Batch Requests");
+        batchEnabled.setRequired(false);
+        batchEnabled.setDescription("Send concurrent create, update and delete operations to Google as HTTP batch " +
+                "requests instead of one request per operation");
+        batchEnabled.setType("boolean");
+        batchEnabled.setDefaultValue("false");
+        batchEnabled.setDisplayOrder(11);
+        configProperties.add(batchEnabled);
+
+        Property batchSize = new Property();
+        batchSize.setName(GoogleConnectorConstants.PropertyConfig.BATCH_SIZE_KEY);
+        batchSize.setDisplayName("Batch Size");
+        batchSize.setRequired(false);
+        batchSize.setDescription("Number of operations that triggers sending a batch request. Google accepts at " +
+                "most 1000 operations in a batch. Default value is "
+                + GoogleConnectorConstants.PropertyConfig.DEFAULT_BATCH_SIZE);
+        batchSize.setType("string");
+        batchSize.setDefaultValue(String.valueOf(GoogleConnectorConstants.PropertyConfig.DEFAULT_BATCH_SIZE));
+        batchSize.setDisplayOrder(12);
+        configProperties.add(batchSize);
+
+        Property batchLinger = new Property();
+        batchLinger.setName(GoogleConnectorConstants.PropertyConfig.BATCH_LINGER_MILLIS_KEY);
+        batchLinger.setDisplayName("Batch Linger Time (ms)");
+        batchLinger.setRequired(false);
+        batchLinger.setDescription("Maximum time in milliseconds an operation waits for other operations to join " +
+                "its batch request. Default value is "
+                + GoogleConnectorConstants.PropertyConfig.DEFAULT_BATCH_LINGER_MILLIS);
+        batchLinger.setType("string");
+        batchLinger.setDefaultValue(String.valueOf(
+                GoogleConnectorConstants.PropertyConfig.DEFAULT_BATCH_LINGER_MILLIS));
+        batchLinger.setDisplayOrder(13);
+        configProperties.add(batchLinger);
+
+        Property asyncEnabled = new Property();
+        asyncEnabled.setName(GoogleConnectorConstants.PropertyConfig.ASYNC_ENABLED_KEY);
+        asyncEnabled.setDisplayName("Enable Asynchronous Provisioning");
+        asyncEnabled.setRequired(false);
+        asyncEnabled.setDescription("Send provisioning operations to Google from a pool of worker threads. Create " +
+                "operations wait for the identifier of the created user. Update and delete operations return " +
+                "without waiting for Google, so they are reported as successful even if Google rejects them later. " +
+                "Such failures are only written to the log");
+        asyncEnabled.setType("boolean");
+        asyncEnabled.setDefaultValue("false");
+        asyncEnabled.setDisplayOrder(14);
+        configProperties.add(asyncEnabled);
+
+        Property asyncWorkers = new Property();
+        asyncWorkers.setName(GoogleConnectorConstants.PropertyConfig.ASYNC_WORKERS_KEY);
+        asyncWorkers.setDisplayName("Asynchronous Provisioning Workers");
+        asyncWorkers.setRequired(false);
+        asyncWorkers.setDescription("Number of worker threads sending asynchronous provisioning operations to " +
+                "Google, or the number of operations sent at a time when they run on virtual threads. Default " +
+                "value is " + GoogleConnectorConstants.PropertyConfig.DEFAULT_ASYNC_WORKERS);
+        asyncWorkers.setType("string");
+        asyncWorkers.setDefaultValue(String.valueOf(GoogleConnectorConstants.PropertyConfig.DEFAULT_ASYNC_WORKERS));
+        asyncWorkers.setDisplayOrder(15);
+        configProperties.add(asyncWorkers);
+
+        Property asyncQueueSize = new Property();
+        asyncQueueSize.setName(GoogleConnectorConstants.PropertyConfig.ASYNC_QUEUE_SIZE_KEY);
+        asyncQueueSize.setDisplayName("Asynchronous Provisioning Queue Size");
+        asyncQueueSize.setRequired(false);
+        asyncQueueSize.setDescription("Maximum number of provisioning operations waiting for a worker. Default " +
+                "value is " + GoogleConnectorConstants.PropertyConfig.DEFAULT_ASYNC_QUEUE_SIZE);
+        asyncQueueSize.setType("string");
+        asyncQueueSize.setDefaultValue(String.valueOf(
+                GoogleConnectorConstants.PropertyConfig.DEFAULT_ASYNC_QUEUE_SIZE));
+        asyncQueueSize.setDisplayOrder(16);
+        configProperties.add(asyncQueueSize);
+
+        Property asyncRejectionPolicy = new Property();
+        asyncRejectionPolicy.setName(GoogleConnectorConstants.PropertyConfig.ASYNC_REJECTION_POLICY_KEY);
+        asyncRejectionPolicy.setDisplayName("Asynchronous Provisioning Queue Full Policy");
+        asyncRejectionPolicy.setRequired(false);
+        asyncRejectionPolicy.setDescription("Behaviour when the queue is full. block : wait for space in the queue, " +
+                "reject : fail the provisioning operation, caller_runs : send the operation from the calling " +
+                "thread. Default value is " + GoogleConnectorConstants.PropertyConfig.DEFAULT_ASYNC_REJECTION_POLICY);
+        asyncRejectionPolicy.setType("string");
+        asyncRejectionPolicy.setDefaultValue(GoogleConnectorConstants.PropertyConfig.DEFAULT_ASYNC_REJECTION_POLICY);
+        asyncRejectionPolicy.setDisplayOrder(17);
+        configProperties.add(asyncRejectionPolicy);
+
+        Property asyncCoalescing = new Property();
+        asyncCoalescing.setName(GoogleConnectorConstants.PropertyConfig.ASYNC_COALESCING_ENABLED_KEY);
+        asyncCoalescing.setDisplayName("Coalesce Queued Operations");
+        asyncCoalescing.setRequired(false);
+        asyncCoalescing.setDescription("Merge queued updates of the same user into a single update, and skip " +
+                "creating a user that is deleted before it is created. Applies to asynchronous provisioning only, " +
+                "where the operations of a user are sent in order either way");
+        asyncCoalescing.setType("boolean");
+        asyncCoalescing.setDefaultValue("false");
+        asyncCoalescing.setDisplayOrder(18);
+        configProperties.add(asyncCoalescing);
+
+        Property rateLimit = new Property();
+        rateLimit.setName(GoogleConnectorConstants.PropertyConfig.RATE_LIMIT_KEY);
+        rateLimit.setDisplayName("Request Rate Limit");
+        rateLimit.setRequired(false);
+        rateLimit.setDescription("Maximum number of requests per second sent to Google. The rate is lowered " +
+                "automatically while Google reports exceeded quotas. Leave empty or set to 0 to disable");
+        rateLimit.setType("string");
+        rateLimit.setDisplayOrder(19);
+        configProperties.add(rateLimit);
+
+        Property retryTimeBudget = new Property();
+        retryTimeBudget.setName(GoogleConnectorConstants.PropertyConfig.RETRY_TIME_BUDGET_MILLIS_KEY);
+        retryTimeBudget.setDisplayName("Retry Time Budget (ms)");
+        retryTimeBudget.setRequired(false);
+        retryTimeBudget.setDescription("Maximum time in milliseconds spent retrying a provisioning operation that " +
+                "failed with a transient error, such as a 5xx response, a rate limit or a socket timeout. Creates " +
+                "are only retried after a rate limit, since they may have been applied. Set to 0 to disable " +
+                "retries. Default value is "
+                + GoogleConnectorConstants.PropertyConfig.DEFAULT_RETRY_TIME_BUDGET_MILLIS);
+        retryTimeBudget.setType("string");
+        retryTimeBudget.setDefaultValue(String.valueOf(
+                GoogleConnectorConstants.PropertyConfig.DEFAULT_RETRY_TIME_BUDGET_MILLIS));
+        retryTimeBudget.setDisplayOrder(20);
+        configProperties.add(retryTimeBudget);
+
+        Property insertFields = new Property();
+        insertFields.setName(GoogleConnectorConstants.PropertyConfig.INSERT_FIELDS_KEY);
+        insertFields.setDisplayName("Create Response Fields");
+        insertFields.setRequired(false);
+        insertFields.setDescription("Fields of the created user returned by Google, in the partial response syntax. " +
+                "Set to * to return the full user. Default value is "
+                + GoogleConnectorConstants.PropertyConfig.DEFAULT_INSERT_FIELDS);
+        insertFields.setType("string");
+        insertFields.setDefaultValue(GoogleConnectorConstants.PropertyConfig.DEFAULT_INSERT_FIELDS);
+        insertFields.setDisplayOrder(21);
+        configProperties.add(insertFields);
+
+        Property updateFields = new Property();
+        updateFields.setName(GoogleConnectorConstants.PropertyConfig.UPDATE_FIELDS_KEY);
+        updateFields.setDisplayName("Update Response Fields");
+        updateFields.setRequired(false);
+        updateFields.setDescription("Fields of the updated user returned by Google, in the partial response syntax. " +
+                "Set to * to return the full user. Default value is "
+                + GoogleConnectorConstants.PropertyConfig.DEFAULT_UPDATE_FIELDS);
+        updateFields.setType("string");
+        updateFields.setDefaultValue(GoogleConnectorConstants.PropertyConfig.DEFAULT_UPDATE_FIELDS);
+        updateFields.setDisplayOrder(22);
+        configProperties.add(updateFields);
+
+        Property listFields = new Property();
+        listFields.setName(GoogleConnectorConstants.PropertyConfig.LIST_FIELDS_KEY);
+        listFields.setDisplayName("List Response Fields");
+        listFields.setRequired(false);
+        listFields.setDescription("Fields of the listed users returned by Google, in the partial response syntax. " +
+                "Default value is " + GoogleConnectorConstants.PropertyConfig.DEFAULT_LIST_FIELDS);
+        listFields.setType("string");
+        listFields.setDefaultValue(GoogleConnectorConstants.PropertyConfig.DEFAULT_LIST_FIELDS);
+        listFields.setDisplayOrder(23);
+        configProperties.add(listFields);
+
+        Property updateCacheSize = new Property();
+        updateCacheSize.setName(GoogleConnectorConstants.PropertyConfig.UPDATE_CACHE_SIZE_KEY);
+        updateCacheSize.setDisplayName("Update Cache Size");
+        updateCacheSize.setRequired(false);
+        updateCacheSize.setDescription("Number of users for which the attributes last sent to Google are remembered, " +
+                "so that updates send only the changed attributes and are skipped when none changed. The attributes " +
+                "are remembered per node, so changes made in Google by other means are not seen. Set to 0 to " +
+                "disable. Default value is " + GoogleConnectorConstants.PropertyConfig.DEFAULT_UPDATE_CACHE_SIZE);
+        updateCacheSize.setType("string");
+        updateCacheSize.setDefaultValue(String.valueOf(
+                GoogleConnectorConstants.PropertyConfig.DEFAULT_UPDATE_CACHE_SIZE));
+        updateCacheSize.setDisplayOrder(24);
+        configProperties.add(updateCacheSize);
+
+        Property httpTransport = new Property();
+        httpTransport.setName(GoogleConnectorConstants.PropertyConfig.HTTP_TRANSPORT_KEY);
+        httpTransport.setDisplayName("HTTP Transport");
+        httpTransport.setRequired(false);
+        httpTransport.setDescription("HTTP client used to reach Google. net : HTTP client of the JDK, apache : " +
+                "Apache HttpClient with a bounded connection pool, http2 : java.net.http client of the JDK sending " +
+                "concurrent requests over shared HTTP/2 connections. Transports are shared by all the connectors " +
+                "with the same settings. Default value is "
+                + GoogleConnectorConstants.PropertyConfig.DEFAULT_HTTP_TRANSPORT);
+        httpTransport.setType("string");
+        httpTransport.setDefaultValue(GoogleConnectorConstants.PropertyConfig.DEFAULT_HTTP_TRANSPORT);
+        httpTransport.setDisplayOrder(25);
+        configProperties.add(httpTransport);
+
+        Property httpPoolSize = new Property();
+        httpPoolSize.setName(GoogleConnectorConstants.PropertyConfig.HTTP_POOL_SIZE_KEY);
+        httpPoolSize.setDisplayName("HTTP Connection Pool Size");
+        httpPoolSize.setRequired(false);
+        httpPoolSize.setDescription("Maximum number of connections to Google kept by the apache HTTP transport. " +
+                "Default value is " + GoogleConnectorConstants.PropertyConfig.DEFAULT_HTTP_POOL_SIZE);
+        httpPoolSize.setType("string");
+        httpPoolSize.setDefaultValue(String.valueOf(GoogleConnectorConstants.PropertyConfig.DEFAULT_HTTP_POOL_SIZE));
+        httpPoolSize.setDisplayOrder(26);
+        configProperties.add(httpPoolSize);
+
+        Property connectTimeout = new Property();
+        connectTimeout.setName(GoogleConnectorConstants.PropertyConfig.CONNECT_TIMEOUT_MILLIS_KEY);
+        connectTimeout.setDisplayName("Connect Timeout (ms)");
+        connectTimeout.setRequired(false);
+        connectTimeout.setDescription("Timeout in milliseconds for establishing a connection to Google. Set to 0 " +
+                "for no timeout. Default value is "
+                + GoogleConnectorConstants.PropertyConfig.DEFAULT_CONNECT_TIMEOUT_MILLIS);
+        connectTimeout.setType("string");
+        connectTimeout.setDefaultValue(String.valueOf(
+                GoogleConnectorConstants.PropertyConfig.DEFAULT_CONNECT_TIMEOUT_MILLIS));
+        connectTimeout.setDisplayOrder(27);
+        configProperties.add(connectTimeout);
+
+        Property readTimeout = new Property();
+        readTimeout.setName(GoogleConnectorConstants.PropertyConfig.READ_TIMEOUT_MILLIS_KEY);
+        readTimeout.setDisplayName("Read Timeout (ms)");
+        readTimeout.setRequired(false);
+        readTimeout.setDescription("Timeout in milliseconds for reading a response from Google. Set to 0 for no " +
+                "timeout. Default value is " + GoogleConnectorConstants.PropertyConfig.DEFAULT_READ_TIMEOUT_MILLIS);
+        readTimeout.setType("string");
+        readTimeout.setDefaultValue(String.valueOf(
+                GoogleConnectorConstants.PropertyConfig.DEFAULT_READ_TIMEOUT_MILLIS));
+        readTimeout.setDisplayOrder(28);
+        configProperties.add(readTimeout);
+
+        Property traceSampling = new Property();
+        traceSampling.setName(GoogleConnectorConstants.PropertyConfig.TRACE_SAMPLING_PROBABILITY_KEY);
+        traceSampling.setDisplayName("Trace Sampling Probability");
+        traceSampling.setRequired(false);
+        traceSampling.setDescription("Fraction of the provisioning operations traced with OpenCensus, from 0 to 1. " +
+                "Leave empty to use the sampler configured for OpenCensus");
+        traceSampling.setType("string");
+        traceSampling.setDisplayOrder(29);
+        configProperties.add(traceSampling);
+
+        Property asyncThreadMode = new Property();
+        asyncThreadMode.setName(GoogleConnectorConstants.PropertyConfig.ASYNC_THREAD_MODE_KEY);
+        asyncThreadMode.setDisplayName("Asynchronous Provisioning Thread Mode");
+        asyncThreadMode.setRequired(false);
+        asyncThreadMode.setDescription("Threads sending asynchronous provisioning operations to Google. platform : " +
+                "a pool of worker threads, virtual : a virtual thread per operation. Default value is " +
+                GoogleConnectorConstants.PropertyConfig.DEFAULT_ASYNC_THREAD_MODE);
+        asyncThreadMode.setType("string");
+        asyncThreadMode.setDefaultValue(GoogleConnectorConstants.PropertyConfig.DEFAULT_ASYNC_THREAD_MODE);
+        asyncThreadMode.setDisplayOrder(30);
+        configProperties.add(asyncThreadMode);
+
+        Property concurrencyLimit = new Property();
+        concurrencyLimit.setName(GoogleConnectorConstants.PropertyConfig.CONCURRENCY_LIMIT_KEY);
+        concurrencyLimit.setDisplayName("Maximum Concurrent Requests");
+        concurrencyLimit.setRequired(false);
+        concurrencyLimit.setDescription("Maximum number of requests in flight to Google. The number of requests " +
+                "allowed in flight grows towards this value while Google responds quickly, and is lowered while " +
+                "Google is slow or failing. Leave empty or set to 0 to disable");
+        concurrencyLimit.setType("string");
+        concurrencyLimit.setDisplayOrder(31);
+        configProperties.add(concurrencyLimit);
+
         return configProperties;
     }
 }
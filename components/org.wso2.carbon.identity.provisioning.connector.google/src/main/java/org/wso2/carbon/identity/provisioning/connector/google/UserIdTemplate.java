@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google;
+
+import org.apache.commons.lang.StringUtils;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningConstants;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningException;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provisioning pattern compiled together with its separator and the Google domain, which builds the primary email
+ * of a provisioned user.
+ * <p>
+ * The pattern lists the elements of the user id, such as {UD, UN, TD, IDP}, which are the user store domain, the
+ * user name, the tenant domain and the identity provider name. As with
+ * {@code AbstractOutboundProvisioningConnector#buildUserId}, occurrences of the separator are removed from the
+ * values, the values are joined with the separator and the user id is in lower case. The pattern is validated when
+ * it is compiled, and building a user id takes a single pass over the values.
+ */
+public final class UserIdTemplate implements Serializable {
+
+    private static final long serialVersionUID = 6248153670298457326L;
+
+    private static final String PRIMARY_DOMAIN = "PRIMARY";
+    private static final char DOMAIN_SEPARATOR = '/';
+
+    private final Element[] elements;
+    private final String separator;
+    private final String joiner;
+    private final String domain;
+    private final boolean tenantDomainRequired;
+
+    private enum Element {
+
+        USER_NAME(IdentityProvisioningConstants.USERNAME),
+        USER_STORE_DOMAIN(IdentityProvisioningConstants.USER_STORE_DOMAIN),
+        TENANT_DOMAIN(IdentityProvisioningConstants.TENANT_DOMAIN),
+        IDP(IdentityProvisioningConstants.IDP);
+
+        private final String token;
+
+        Element(String token) {
+
+            this.token = token;
+        }
+    }
+
+    private UserIdTemplate(Element[] elements, String separator, String domain) {
+
+        this.elements = elements;
+        this.separator = separator;
+        this.joiner = separator.toLowerCase();
+        this.domain = domain;
+        boolean tenantDomain = false;
+        for (Element element : elements) {
+            tenantDomain |= element == Element.TENANT_DOMAIN;
+        }
+        this.tenantDomainRequired = tenantDomain;
+    }
+
+    /**
+     * Compiles the given provisioning pattern.
+     *
+     * @param pattern   Provisioning pattern, such as {UN} or {UD, UN, TD, IDP}.
+     * @param separator Separator joining the elements of the pattern, or null for none.
+     * @param domain    Google domain appended to user ids that do not end with it, or null for none.
+     * @return Compiled template.
+     * @throws IdentityProvisioningException If the pattern is not valid.
+     */
+    public static UserIdTemplate compile(String pattern, String separator, String domain)
+            throws IdentityProvisioningException {
+
+        if (pattern == null || pattern.indexOf('{') < 0 || pattern.indexOf('}') < 0) {
+            throw new IdentityProvisioningException("Invalid provisioning pattern : " + pattern);
+        }
+        List<Element> elements = new ArrayList<>();
+        for (String token : StringUtils.split(StringUtils.remove(StringUtils.remove(pattern, '{'), '}'), ',')) {
+            String trimmedToken = token.trim();
+            if (trimmedToken.isEmpty()) {
+                continue;
+            }
+            elements.add(getElement(pattern, trimmedToken));
+        }
+        if (elements.isEmpty()) {
+            throw new IdentityProvisioningException("Invalid provisioning pattern : " + pattern);
+        }
+        return new UserIdTemplate(elements.toArray(new Element[0]), separator != null ? separator : "",
+                StringUtils.isNotBlank(domain) ? domain : null);
+    }
+
+    private static Element getElement(String pattern, String token) throws IdentityProvisioningException {
+
+        for (Element element : Element.values()) {
+            if (element.token.equals(token)) {
+                return element;
+            }
+        }
+        throw new IdentityProvisioningException("Invalid provisioning pattern : " + pattern + ". Unknown element : "
+                + token);
+    }
+
+    /**
+     * Builds the user id of the given user from the pattern.
+     *
+     * @param entityName Name of the provisioned user, prefixed with its user store domain if it is not in the
+     *                   primary user store.
+     * @param idpName    Name of the identity provider the connector belongs to.
+     * @return User id in lower case.
+     */
+    public String buildUserId(String entityName, String idpName) {
+
+        String name = entityName != null ? entityName : "";
+        int domainSeparatorIndex = name.indexOf(DOMAIN_SEPARATOR);
+        String tenantDomain = tenantDomainRequired
+                ? PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain() : null;
+
+        StringBuilder userId = new StringBuilder(name.length() + 32);
+        for (int i = 0; i < elements.length; i++) {
+            if (i > 0) {
+                userId.append(joiner);
+            }
+            switch (elements[i]) {
+                case USER_NAME:
+                    appendValue(userId, name, domainSeparatorIndex > 0 ? domainSeparatorIndex + 1 : 0,
+                            name.length());
+                    break;
+                case USER_STORE_DOMAIN:
+                    if (domainSeparatorIndex > 0) {
+                        appendValue(userId, name, 0, domainSeparatorIndex);
+                    } else {
+                        appendValue(userId, PRIMARY_DOMAIN, 0, PRIMARY_DOMAIN.length());
+                    }
+                    break;
+                case TENANT_DOMAIN:
+                    appendValue(userId, tenantDomain);
+                    break;
+                default:
+                    appendValue(userId, idpName);
+                    break;
+            }
+        }
+        return userId.toString();
+    }
+
+    /**
+     * Returns the primary email of the given user id. When a Google domain is configured and the user id does not
+     * end with it, any @ in the user id is replaced with a dot and the domain is appended.
+     */
+    public String toPrimaryEmail(String userId) {
+
+        if (domain == null || userId.endsWith(domain)) {
+            return userId;
+        }
+        StringBuilder email = new StringBuilder(userId.length() + 1 + domain.length());
+        for (int i = 0; i < userId.length(); i++) {
+            char c = userId.charAt(i);
+            email.append(c == '@' ? '.' : c);
+        }
+        return email.append('@').append(domain).toString();
+    }
+
+    private void appendValue(StringBuilder userId, String value) {
+
+        if (value != null) {
+            appendValue(userId, value, 0, value.length());
+        }
+    }
+
+    /**
+     * Appends the given part of the value in lower case, leaving out occurrences of the separator.
+     */
+    private void appendValue(StringBuilder userId, String value, int start, int end) {
+
+        int separatorLength = separator.length();
+        int i = start;
+        while (i < end) {
+            if (separatorLength > 0 && i + separatorLength <= end && value.startsWith(separator, i)) {
+                i += separatorLength;
+                continue;
+            }
+            userId.append(Character.toLowerCase(value.charAt(i)));
+            i++;
+        }
+    }
+}
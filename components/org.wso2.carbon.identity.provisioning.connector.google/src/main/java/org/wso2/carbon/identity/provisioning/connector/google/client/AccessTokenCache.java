@@ -0,0 +1,484 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.client;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleCredential;
+import com.google.api.client.http.HttpExecuteInterceptor;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.HttpStatusCodes;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.HttpUnsuccessfulResponseHandler;
+import io.opencensus.common.Scope;
+import io.opencensus.trace.Span;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.provisioning.connector.google.jfr.FlightRecorderSupport;
+import org.wso2.carbon.identity.provisioning.connector.google.jfr.TokenRefreshEvent;
+import org.wso2.carbon.identity.provisioning.connector.google.tracing.ProvisioningTracer;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JVM wide cache of OAuth access tokens used to call the Google Directory API.
+ * <p>
+ * Tokens are cached per service account, impersonated administrator, scope set, private key, token endpoint and HTTP
+ * transport, so every connector instance configured with the same service account and transport settings shares a
+ * single token regardless of the tenant or identity provider it belongs to. The transport is part of the key because
+ * the token requests are sent through the transport of the credential that was built for the token. Requests are authorized from an immutable token snapshot without taking any
+ * lock, while a background thread mints a new token before the current one expires. The first token of a service
+ * account is minted by {@link CachedToken#warmUp()} when the client using it is built. A request has to wait for the
+ * token endpoint only when there is still no valid token, which is reported as a cache miss. That happens when the
+ * warm up or the background refresh failed, or when the token was dropped after being idle.
+ * <p>
+ * The background thread is started with the first token and stopped by {@link #shutdown()}.
+ */
+public class AccessTokenCache {
+
+    private static final Log log = LogFactory.getLog(AccessTokenCache.class);
+
+    private static final long DEFAULT_REFRESH_AHEAD_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long DEFAULT_CHECK_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final long MIN_VALIDITY_MILLIS = TimeUnit.SECONDS.toMillis(60);
+    private static final String REFRESHER_THREAD_NAME = "GoogleProvisioningTokenRefresher";
+
+    private static final AccessTokenCache INSTANCE = new AccessTokenCache(DEFAULT_REFRESH_AHEAD_MILLIS,
+            DEFAULT_CHECK_INTERVAL_MILLIS, DEFAULT_IDLE_TIMEOUT_MILLIS);
+
+    private final Map<TokenKey, CachedToken> tokens = new ConcurrentHashMap<>();
+    private final long refreshAheadMillis;
+    private final long checkIntervalMillis;
+    private final long idleTimeoutMillis;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder refreshCount = new LongAdder();
+    private final LongAdder refreshFailureCount = new LongAdder();
+
+    private volatile ScheduledExecutorService refresher;
+
+    AccessTokenCache(long refreshAheadMillis, long checkIntervalMillis, long idleTimeoutMillis) {
+
+        this.refreshAheadMillis = refreshAheadMillis;
+        this.checkIntervalMillis = checkIntervalMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public static AccessTokenCache getInstance() {
+
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the cached token of the given service account, registering it with the cache if it is not known yet.
+     * The returned object authorizes the requests it is installed on.
+     *
+     * @param serviceAccountId    Email of the service account.
+     * @param serviceAccountUser  Email of the administrator impersonated by the service account.
+     * @param scopes              OAuth scopes of the token.
+     * @param privateKeyId        Identifier of the private key of the service account, e.g. a hash of its content.
+     * @param credentialFactory   Builds the credential used to mint tokens when the token is not cached yet.
+     * @return Cached token that can be used as the request initializer of a Google client.
+     * @throws GeneralSecurityException If the credential cannot be built.
+     * @throws IOException              If the credential cannot be built.
+     */
+    public CachedToken getToken(String serviceAccountId, String serviceAccountUser, Collection<String> scopes,
+                                String privateKeyId, CredentialFactory credentialFactory)
+            throws GeneralSecurityException, IOException {
+
+        return getToken(serviceAccountId, serviceAccountUser, scopes, privateKeyId, null, null, credentialFactory);
+    }
+
+    /**
+     * Returns the cached token of the given service account, token endpoint and HTTP transport, registering it with
+     * the cache if it is not known yet. The returned object authorizes the requests it is installed on.
+     *
+     * @param serviceAccountId    Email of the service account.
+     * @param serviceAccountUser  Email of the administrator impersonated by the service account.
+     * @param scopes              OAuth scopes of the token.
+     * @param privateKeyId        Identifier of the private key of the service account, e.g. a hash of its content.
+     * @param tokenServerUrl      URL of the token endpoint the credential mints tokens from, or null for Google.
+     * @param transport           Transport the credential sends its token requests through. Compared by identity.
+     * @param credentialFactory   Builds the credential used to mint tokens when the token is not cached yet.
+     * @return Cached token that can be used as the request initializer of a Google client.
+     * @throws GeneralSecurityException If the credential cannot be built.
+     * @throws IOException              If the credential cannot be built.
+     */
+    public CachedToken getToken(String serviceAccountId, String serviceAccountUser, Collection<String> scopes,
+                                String privateKeyId, String tokenServerUrl, HttpTransport transport,
+                                CredentialFactory credentialFactory) throws GeneralSecurityException, IOException {
+
+        TokenKey key = new TokenKey(serviceAccountId, serviceAccountUser, scopes, privateKeyId, tokenServerUrl,
+                transport);
+        CachedToken token = tokens.get(key);
+        if (token == null) {
+            CachedToken newToken = new CachedToken(key, credentialFactory.create());
+            token = tokens.putIfAbsent(key, newToken);
+            if (token == null) {
+                token = newToken;
+                startRefresher();
+            }
+        }
+        token.lastAccessTime = System.currentTimeMillis();
+        return token;
+    }
+
+    /**
+     * Number of requests authorized with a cached token.
+     */
+    public long getHitCount() {
+
+        return hitCount.sum();
+    }
+
+    /**
+     * Number of requests that had to wait until a token was minted.
+     */
+    public long getMissCount() {
+
+        return missCount.sum();
+    }
+
+    /**
+     * Number of tokens minted ahead of expiry by the background refresher.
+     */
+    public long getRefreshCount() {
+
+        return refreshCount.sum();
+    }
+
+    /**
+     * Number of background refresh attempts that failed.
+     */
+    public long getRefreshFailureCount() {
+
+        return refreshFailureCount.sum();
+    }
+
+    /**
+     * Number of tokens currently held by the cache.
+     */
+    public int size() {
+
+        return tokens.size();
+    }
+
+    /**
+     * Removes all the cached tokens.
+     */
+    public void clear() {
+
+        tokens.clear();
+    }
+
+    /**
+     * Stops the background refresher, e.g. when the connector bundle is deactivated. The cached tokens are kept, and
+     * the refresher is started again when a new token is registered.
+     */
+    public void shutdown() {
+
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            executor = refresher;
+            refresher = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Refreshes the tokens that are about to expire and drops the ones that have not been used for a while.
+     */
+    void refreshExpiringTokens() {
+
+        long now = System.currentTimeMillis();
+        for (Iterator<CachedToken> iterator = tokens.values().iterator(); iterator.hasNext(); ) {
+            CachedToken token = iterator.next();
+            if (now - token.lastAccessTime > idleTimeoutMillis) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Removing idle Google access token of " + token.key);
+                }
+                token.evicted = true;
+                iterator.remove();
+                continue;
+            }
+
+            TokenSnapshot snapshot = token.snapshot;
+            if (snapshot != null && snapshot.expiryTime - now > refreshAheadMillis) {
+                continue;
+            }
+            try {
+                token.mint(TokenRefreshEvent.AHEAD_OF_EXPIRY);
+                refreshCount.increment();
+            } catch (IOException | RuntimeException e) {
+                refreshFailureCount.increment();
+                log.warn("Error while refreshing the Google access token of " + token.key
+                        + ". The token will be minted on demand.", e);
+            }
+        }
+    }
+
+    private void startRefresher() {
+
+        if (refresher != null) {
+            return;
+        }
+        synchronized (this) {
+            if (refresher == null) {
+                ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, REFRESHER_THREAD_NAME);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                executor.scheduleWithFixedDelay(this::refreshExpiringTokens, checkIntervalMillis,
+                        checkIntervalMillis, TimeUnit.MILLISECONDS);
+                refresher = executor;
+            }
+        }
+    }
+
+    /**
+     * Builds the credential used to mint the access tokens of a service account.
+     */
+    @FunctionalInterface
+    public interface CredentialFactory {
+
+        GoogleCredential create() throws GeneralSecurityException, IOException;
+    }
+
+    /**
+     * Access token of a single service account. Installs itself as the interceptor of the requests it initializes and
+     * adds the bearer token of the current snapshot to them.
+     */
+    public final class CachedToken implements HttpRequestInitializer, HttpExecuteInterceptor,
+            HttpUnsuccessfulResponseHandler {
+
+        private final TokenKey key;
+        private final GoogleCredential credential;
+        private volatile TokenSnapshot snapshot;
+        private volatile long lastAccessTime;
+        private volatile boolean evicted;
+
+        private CachedToken(TokenKey key, GoogleCredential credential) {
+
+            this.key = key;
+            this.credential = credential;
+            this.lastAccessTime = System.currentTimeMillis();
+        }
+
+        @Override
+        public void initialize(HttpRequest request) {
+
+            request.setInterceptor(this);
+            request.setUnsuccessfulResponseHandler(this);
+        }
+
+        @Override
+        public void intercept(HttpRequest request) throws IOException {
+
+            lastAccessTime = System.currentTimeMillis();
+            if (evicted) {
+                // A client kept using this token after it was dropped for being idle. Register it again so that it
+                // is kept fresh by the background refresher.
+                evicted = false;
+                tokens.putIfAbsent(key, this);
+            }
+            TokenSnapshot current = snapshot;
+            if (current != null && current.expiryTime - lastAccessTime > MIN_VALIDITY_MILLIS) {
+                hitCount.increment();
+            } else {
+                missCount.increment();
+                current = mintIfExpired(TokenRefreshEvent.ON_DEMAND);
+            }
+            request.getHeaders().setAuthorization("Bearer " + current.accessToken);
+        }
+
+        @Override
+        public boolean handleResponse(HttpRequest request, HttpResponse response, boolean supportsRetry)
+                throws IOException {
+
+            if (response.getStatusCode() != HttpStatusCodes.STATUS_CODE_UNAUTHORIZED) {
+                return false;
+            }
+            // The token was revoked or expired earlier than advertised. Mint a new one unless another request has
+            // already done so and retry with it.
+            TokenSnapshot current = snapshot;
+            String usedAuthorization = request.getHeaders().getAuthorization();
+            if (current == null || usedAuthorization == null
+                    || usedAuthorization.equals("Bearer " + current.accessToken)) {
+                current = mint(TokenRefreshEvent.REJECTED);
+            }
+            return current != null && supportsRetry;
+        }
+
+        /**
+         * Mints a token if there is no valid one yet, so that the first request authorized with it does not have to
+         * wait for the token endpoint. A failure is only logged, and the token is then minted on demand.
+         */
+        public void warmUp() {
+
+            TokenSnapshot current = snapshot;
+            if (current != null && current.expiryTime - System.currentTimeMillis() > MIN_VALIDITY_MILLIS) {
+                return;
+            }
+            try {
+                mintIfExpired(TokenRefreshEvent.WARM_UP);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Error while obtaining the Google access token of " + key
+                        + ". The token will be minted on demand.", e);
+            }
+        }
+
+        /**
+         * Returns the time at which the current token expires, or null if there is no token yet.
+         */
+        public Long getExpiryTime() {
+
+            TokenSnapshot current = snapshot;
+            return current == null ? null : current.expiryTime;
+        }
+
+        private synchronized TokenSnapshot mintIfExpired(String trigger) throws IOException {
+
+            TokenSnapshot current = snapshot;
+            if (current != null && current.expiryTime - System.currentTimeMillis() > MIN_VALIDITY_MILLIS) {
+                return current;
+            }
+            return mint(trigger);
+        }
+
+        private synchronized TokenSnapshot mint(String trigger) throws IOException {
+
+            TokenRefreshEvent event = FlightRecorderSupport.isAvailable() ? TokenRefreshEvent.start() : null;
+            Span span = ProvisioningTracer.startSpan(ProvisioningTracer.ACQUIRE_CREDENTIAL_SPAN);
+            int statusCode = 0;
+            boolean succeeded = false;
+            try (Scope ignored = ProvisioningTracer.withSpan(span)) {
+                if (!credential.refreshToken() || credential.getAccessToken() == null) {
+                    throw new IOException("Could not obtain an access token from Google for " + key);
+                }
+                Long expirationTime = credential.getExpirationTimeMilliseconds();
+                TokenSnapshot minted = new TokenSnapshot(credential.getAccessToken(),
+                        expirationTime != null ? expirationTime : Long.MAX_VALUE);
+                snapshot = minted;
+                if (log.isDebugEnabled()) {
+                    log.debug("Minted a new Google access token for " + key + " expiring at " + minted.expiryTime);
+                }
+                statusCode = HttpStatusCodes.STATUS_CODE_OK;
+                succeeded = true;
+                return minted;
+            } catch (IOException | RuntimeException e) {
+                if (e instanceof HttpResponseException) {
+                    statusCode = ((HttpResponseException) e).getStatusCode();
+                }
+                ProvisioningTracer.setError(span, e);
+                throw e;
+            } finally {
+                span.end();
+                if (event != null) {
+                    event.finish(trigger, key.hashCode(), statusCode, succeeded);
+                }
+            }
+        }
+    }
+
+    private static final class TokenSnapshot {
+
+        private final String accessToken;
+        private final long expiryTime;
+
+        private TokenSnapshot(String accessToken, long expiryTime) {
+
+            this.accessToken = accessToken;
+            this.expiryTime = expiryTime;
+        }
+    }
+
+    private static final class TokenKey {
+
+        private final String serviceAccountId;
+        private final String serviceAccountUser;
+        private final List<String> scopes;
+        private final String privateKeyId;
+        private final String tokenServerUrl;
+        private final HttpTransport transport;
+
+        private TokenKey(String serviceAccountId, String serviceAccountUser, Collection<String> scopes,
+                         String privateKeyId, String tokenServerUrl, HttpTransport transport) {
+
+            List<String> sortedScopes = new ArrayList<>(scopes);
+            Collections.sort(sortedScopes);
+            this.serviceAccountId = serviceAccountId;
+            this.serviceAccountUser = serviceAccountUser;
+            this.scopes = Collections.unmodifiableList(sortedScopes);
+            this.privateKeyId = privateKeyId;
+            this.tokenServerUrl = tokenServerUrl;
+            this.transport = transport;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TokenKey)) {
+                return false;
+            }
+            TokenKey that = (TokenKey) o;
+            return Objects.equals(serviceAccountId, that.serviceAccountId)
+                    && Objects.equals(serviceAccountUser, that.serviceAccountUser)
+                    && scopes.equals(that.scopes)
+                    && Objects.equals(privateKeyId, that.privateKeyId)
+                    && Objects.equals(tokenServerUrl, that.tokenServerUrl)
+                    && transport == that.transport;
+        }
+
+        @Override
+        public int hashCode() {
+
+            return Objects.hash(serviceAccountId, serviceAccountUser, scopes, privateKeyId, tokenServerUrl,
+                    System.identityHashCode(transport));
+        }
+
+        @Override
+        public String toString() {
+
+            return "service account : " + serviceAccountId + ", admin : " + serviceAccountUser + ", scopes : "
+                    + scopes;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.client;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.provisioning.connector.google.metrics.ConcurrencyMetrics;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the number of Directory API requests a connector has in flight, adapting the limit to how responsive Google
+ * is with additive increase and multiplicative decrease.
+ * <p>
+ * While responses arrive within twice the usual latency and the limit is in use, the limit grows by one for every
+ * limit worth of responses. When a request is throttled, fails with a server or I/O error, or takes longer than
+ * twice the usual latency, the limit is lowered by a tenth, but not below one. Requests that were already in flight
+ * when the limit was lowered do not lower it again, so a burst of failures caused by the same congestion does not
+ * collapse the limit. The usual latency is a slowly moving average of the latencies of the responses, so a lasting
+ * change of the latency of Google becomes the new normal.
+ * <p>
+ * A slot is held for each attempt to send a request rather than for the whole request. A request sent through
+ * {@link #enter()} gives up its slot with {@link #pause()} while it waits to be retried and takes a slot again with
+ * {@link #resume()}, so that neither the backoff nor the time spent waiting for other requests counts towards the
+ * latency of the request or keeps other requests waiting.
+ * <p>
+ * Waiting requests park on a {@link ReentrantLock} condition rather than a monitor, so that they do not pin the
+ * carrier threads of virtual threads.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Log log = LogFactory.getLog(AdaptiveConcurrencyLimiter.class);
+
+    private static final int INITIAL_LIMIT = 10;
+    private static final double DECREASE_FACTOR = 0.9;
+    private static final double LATENCY_TOLERANCE = 2;
+    private static final double LATENCY_SMOOTHING = 0.05;
+
+    private final int maxLimit;
+    private final LongSupplier clock;
+    private final ConcurrencyMetrics metrics;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final ThreadLocal<Slot> heldSlots = new ThreadLocal<>();
+
+    private double limit;
+    private int inFlight;
+    private double usualLatencyNanos;
+    private long lastDecreaseNanos;
+
+    /**
+     * @param maxLimit Maximum number of requests in flight.
+     * @param metrics  Metrics the limit and queueing time are recorded in, or null.
+     */
+    public AdaptiveConcurrencyLimiter(int maxLimit, ConcurrencyMetrics metrics) {
+
+        this(maxLimit, metrics, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int maxLimit, ConcurrencyMetrics metrics, LongSupplier clock) {
+
+        if (maxLimit <= 0) {
+            throw new IllegalArgumentException("Concurrency limit should be a positive number of requests");
+        }
+        this.maxLimit = maxLimit;
+        this.metrics = metrics;
+        this.clock = clock;
+        this.limit = Math.min(maxLimit, INITIAL_LIMIT);
+        this.lastDecreaseNanos = clock.getAsLong();
+        if (metrics != null) {
+            metrics.recordLimit((int) limit, false);
+        }
+    }
+
+    /**
+     * Waits until the number of requests in flight is below the limit and counts the caller as in flight. Every call
+     * has to be followed by a call to {@link #release(long, boolean)}.
+     *
+     * @return Time the request was allowed to be sent, to be passed to {@link #release(long, boolean)}.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public long acquire() throws InterruptedException {
+
+        long start = clock.getAsLong();
+        boolean queued = false;
+        lock.lockInterruptibly();
+        try {
+            if (inFlight >= (int) limit) {
+                queued = true;
+                if (metrics != null) {
+                    metrics.recordQueued();
+                }
+                try {
+                    do {
+                        available.await();
+                    } while (inFlight >= (int) limit);
+                } catch (InterruptedException e) {
+                    if (metrics != null) {
+                        metrics.recordAbandoned();
+                    }
+                    throw e;
+                }
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+        long now = clock.getAsLong();
+        if (metrics != null) {
+            metrics.recordAcquired(now - start, queued);
+        }
+        return now;
+    }
+
+    /**
+     * Records the outcome of a request and lets a waiting request be sent.
+     *
+     * @param acquiredNanos Time returned by {@link #acquire()} for the request.
+     * @param dropped       Whether the request was throttled or failed with a server or I/O error, as opposed to
+     *                      being answered by Google.
+     */
+    public void release(long acquiredNanos, boolean dropped) {
+
+        long now = clock.getAsLong();
+        long latency = now - acquiredNanos;
+        int previousLimit;
+        int newLimit;
+        boolean decreased = false;
+        lock.lock();
+        try {
+            previousLimit = (int) limit;
+            boolean congested = dropped;
+            if (!dropped) {
+                if (usualLatencyNanos == 0) {
+                    usualLatencyNanos = latency;
+                }
+                congested = latency > usualLatencyNanos * LATENCY_TOLERANCE;
+                usualLatencyNanos += (latency - usualLatencyNanos) * LATENCY_SMOOTHING;
+            }
+            if (congested) {
+                // Requests sent before the last decrease saw the same congestion, so they do not lower it again.
+                if (acquiredNanos - lastDecreaseNanos >= 0) {
+                    limit = Math.max(1, limit * DECREASE_FACTOR);
+                    lastDecreaseNanos = now;
+                    decreased = true;
+                }
+            } else if (inFlight * 2 >= limit) {
+                // The limit only grows while it is in use, so that an idle connector does not reach the maximum.
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            inFlight--;
+            newLimit = (int) limit;
+            if (newLimit > previousLimit) {
+                available.signalAll();
+            } else {
+                available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (metrics != null) {
+            metrics.recordReleased();
+            if (newLimit != previousLimit || decreased) {
+                metrics.recordLimit(newLimit, decreased);
+            }
+        }
+        if (decreased && log.isDebugEnabled()) {
+            log.debug("Google is " + (dropped ? "failing" : "slow") + ". Lowered the concurrency limit to "
+                    + newLimit + " requests");
+        }
+    }
+
+    /**
+     * Waits for a slot as {@link #acquire()} does and holds it for the request of the current thread, so that the
+     * request can give it up while it waits to be retried. Every call has to be followed by a call to
+     * {@link #exit(boolean)} on the same thread.
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public void enter() throws InterruptedException {
+
+        Slot slot = new Slot(acquire());
+        heldSlots.set(slot);
+    }
+
+    /**
+     * Records the outcome of the last attempt of the request of the current thread and gives up its slot, unless the
+     * slot was already given up by {@link #pause()}.
+     *
+     * @param dropped Whether the last attempt was throttled or failed with a server or I/O error.
+     */
+    public void exit(boolean dropped) {
+
+        Slot slot = heldSlots.get();
+        if (slot == null) {
+            return;
+        }
+        heldSlots.remove();
+        if (slot.held) {
+            release(slot.acquiredNanos, dropped);
+        }
+    }
+
+    /**
+     * Records a failed attempt of the request of the current thread and gives up its slot while the request waits to
+     * be retried. Does nothing if the thread does not hold a slot.
+     */
+    public void pause() {
+
+        Slot slot = heldSlots.get();
+        if (slot != null && slot.held) {
+            slot.held = false;
+            release(slot.acquiredNanos, true);
+        }
+    }
+
+    /**
+     * Waits for a slot again before the request of the current thread is retried. Does nothing unless the thread gave
+     * up its slot with {@link #pause()}.
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public void resume() throws InterruptedException {
+
+        Slot slot = heldSlots.get();
+        if (slot != null && !slot.held) {
+            slot.acquiredNanos = acquire();
+            slot.held = true;
+        }
+    }
+
+    /**
+     * Returns the number of requests currently allowed in flight.
+     */
+    public int getLimit() {
+
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getMaxLimit() {
+
+        return maxLimit;
+    }
+
+    public int getInFlight() {
+
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Slot held by the request of a thread.
+     */
+    private static final class Slot {
+
+        private long acquiredNanos;
+        private boolean held = true;
+
+        private Slot(long acquiredNanos) {
+
+            this.acquiredNanos = acquiredNanos;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.client;
+
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket limiting the rate of Directory API requests sent by a connector, which lowers its rate when Google
+ * reports that a quota is exceeded.
+ * <p>
+ * The bucket holds at most one second worth of requests. When Google throttles a request, the rate is halved, but
+ * not below a tenth of the configured rate, and at most once per second so that the requests already in flight when
+ * the quota was hit do not collapse the rate. While requests succeed, the rate grows back by a twentieth of the
+ * configured rate per second. The rate therefore settles just under the quota instead of alternating between bursts
+ * and failures.
+ */
+public class AdaptiveRateLimiter {
+
+    private static final Log log = LogFactory.getLog(AdaptiveRateLimiter.class);
+
+    private static final double DECREASE_FACTOR = 0.5;
+    private static final double MIN_RATE_FRACTION = 0.1;
+    private static final double RECOVERY_FRACTION_PER_SECOND = 0.05;
+    private static final long ADJUSTMENT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final double maxRate;
+    private final double minRate;
+    private final LongSupplier clock;
+    private final LongAdder throttledCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    private double rate;
+    private double tokens;
+    private long lastRefillNanos;
+    private long lastDecreaseNanos;
+    private long lastIncreaseNanos;
+
+    /**
+     * @param requestsPerSecond Maximum number of requests per second.
+     */
+    public AdaptiveRateLimiter(double requestsPerSecond) {
+
+        this(requestsPerSecond, System::nanoTime);
+    }
+
+    AdaptiveRateLimiter(double requestsPerSecond, LongSupplier clock) {
+
+        if (requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate limit should be a positive number of requests per second");
+        }
+        this.maxRate = requestsPerSecond;
+        this.minRate = requestsPerSecond * MIN_RATE_FRACTION;
+        this.clock = clock;
+        this.rate = requestsPerSecond;
+        this.tokens = requestsPerSecond;
+        long now = clock.getAsLong();
+        this.lastRefillNanos = now;
+        this.lastDecreaseNanos = now - ADJUSTMENT_INTERVAL_NANOS;
+        this.lastIncreaseNanos = now;
+    }
+
+    /**
+     * Waits until a request can be sent without exceeding the current rate.
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public void acquire() throws InterruptedException {
+
+        long wait = reserve();
+        if (wait > 0) {
+            waitNanos.add(wait);
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * Takes a token from the bucket and returns how long the caller has to wait before the token is available.
+     */
+    synchronized long reserve() {
+
+        refill(clock.getAsLong());
+        tokens -= 1;
+        if (tokens >= 0) {
+            return 0;
+        }
+        return (long) (-tokens / rate * TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Records a request that was accepted by Google, letting the rate grow back towards the configured rate.
+     */
+    public synchronized void onSuccess() {
+
+        if (rate >= maxRate) {
+            return;
+        }
+        long now = clock.getAsLong();
+        long elapsed = now - lastIncreaseNanos;
+        if (elapsed >= ADJUSTMENT_INTERVAL_NANOS) {
+            refill(now);
+            double seconds = (double) elapsed / TimeUnit.SECONDS.toNanos(1);
+            rate = Math.min(maxRate, rate + maxRate * RECOVERY_FRACTION_PER_SECOND * seconds);
+            lastIncreaseNanos = now;
+        }
+    }
+
+    /**
+     * Records a request that was rejected because a quota was exceeded, lowering the rate.
+     */
+    public synchronized void onThrottled() {
+
+        throttledCount.increment();
+        long now = clock.getAsLong();
+        if (now - lastDecreaseNanos < ADJUSTMENT_INTERVAL_NANOS) {
+            return;
+        }
+        refill(now);
+        rate = Math.max(minRate, rate * DECREASE_FACTOR);
+        tokens = Math.min(tokens, 0);
+        lastDecreaseNanos = now;
+        lastIncreaseNanos = now;
+        if (log.isDebugEnabled()) {
+            log.debug("Google reported an exceeded quota. Lowered the request rate to " + rate + " per second");
+        }
+    }
+
+    public synchronized double getRate() {
+
+        return rate;
+    }
+
+    public double getMaxRate() {
+
+        return maxRate;
+    }
+
+    /**
+     * Returns the number of requests Google rejected because a quota was exceeded.
+     */
+    public long getThrottledCount() {
+
+        return throttledCount.sum();
+    }
+
+    /**
+     * Returns the total time callers waited for the rate limit, in milliseconds.
+     */
+    public long getTotalWaitMillis() {
+
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos.sum());
+    }
+
+    private void refill(long now) {
+
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(rate, tokens + rate * elapsed / TimeUnit.SECONDS.toNanos(1));
+            lastRefillNanos = now;
+        }
+    }
+
+    /**
+     * Returns whether the given error is Google reporting an exceeded request rate or quota, as opposed to a
+     * permission problem which is also reported with the 403 status.
+     */
+    public static boolean isRateLimitError(GoogleJsonResponseException e) {
+
+        if (e.getStatusCode() == 429) {
+            return true;
+        }
+        if (e.getStatusCode() != 403 || e.getDetails() == null || e.getDetails().getErrors() == null) {
+            return false;
+        }
+        for (GoogleJsonError.ErrorInfo errorInfo : e.getDetails().getErrors()) {
+            String reason = errorInfo.getReason();
+            if ("rateLimitExceeded".equals(reason) || "userRateLimitExceeded".equals(reason)
+                    || "quotaExceeded".equals(reason)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.client;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleCredential;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.services.admin.directory.Directory;
+import com.google.api.services.admin.directory.DirectoryScopes;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningException;
+import org.wso2.carbon.identity.provisioning.connector.google.GoogleProvisioningConnectorConfig;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.security.GeneralSecurityException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Holds the Google Directory client of a single provisioning connector.
+ * <p>
+ * The HTTP transport, JSON factory, credential and {@link Directory} service are built once and shared by every
+ * provisioning call made through the connector. The HTTP transport is obtained from
+ * {@link GoogleHttpTransportFactory}, so its pooled connections are also shared with the other connectors using the
+ * same transport settings.
+ * Requests are authorized through the shared {@link AccessTokenCache}, so connectors using the same service account
+ * also share the access token. The token is minted while the client is built, so that the first request does not
+ * wait for the token endpoint. While the connector keeps the same configuration snapshot the client is returned after
+ * comparing references only. When the snapshot is replaced, the client is rebuilt only if the connection related
+ * settings of the new configuration differ.
+ * <p>
+ * Requests are sent to the endpoints of Google unless the holder is created with other endpoints, such as a local
+ * stand-in in tests and benchmarks. The endpoints are deliberately not read from the connector configuration, so that
+ * the service account credential cannot be sent elsewhere by changing the configuration.
+ */
+public class DirectoryClientHolder implements Serializable {
+
+    private static final long serialVersionUID = 4127395127406553180L;
+
+    private static final Log log = LogFactory.getLog(DirectoryClientHolder.class);
+    private static final List<String> SCOPES = Collections.singletonList(DirectoryScopes.ADMIN_DIRECTORY_USER);
+
+    private final String rootUrl;
+    private final String tokenServerUrl;
+    private transient volatile DirectoryClient client;
+
+    /**
+     * Creates a holder sending requests to the endpoints of Google.
+     */
+    public DirectoryClientHolder() {
+
+        this(null, null);
+    }
+
+    /**
+     * Creates a holder sending requests to the given endpoints instead of the ones of Google.
+     *
+     * @param rootUrl        Root URL of the Directory API, or null to use the one of Google.
+     * @param tokenServerUrl URL of the token endpoint access tokens are minted from, or null to use the one of Google.
+     */
+    public DirectoryClientHolder(String rootUrl, String tokenServerUrl) {
+
+        // Request URLs are resolved by appending the service path to the root URL.
+        this.rootUrl = rootUrl == null || rootUrl.endsWith("/") ? rootUrl : rootUrl + "/";
+        this.tokenServerUrl = tokenServerUrl;
+    }
+
+    /**
+     * Returns the Directory service for the given configuration, building it only if there is no client yet or
+     * the connection settings of the configuration differ from the ones the current client was built with.
+     *
+     * @param config     Connector configuration.
+     * @param privateKey Private key of the service account.
+     * @return Directory service object that is ready to make requests.
+     * @throws IdentityProvisioningException If the client cannot be built.
+     */
+    public Directory getDirectory(GoogleProvisioningConnectorConfig config,
+                                  PrivateKeyStore.ServiceAccountKey privateKey)
+            throws IdentityProvisioningException {
+
+        return getDirectory(config, privateKey, null);
+    }
+
+    /**
+     * Returns the Directory service for the given configuration, building it only if there is no client yet or
+     * the connection settings of the configuration differ from the ones the current client was built with.
+     *
+     * @param config             Connector configuration.
+     * @param privateKey         Private key of the service account.
+     * @param requestInitializer Initializer applied to every request after it is authorized, or null.
+     * @return Directory service object that is ready to make requests.
+     * @throws IdentityProvisioningException If the client cannot be built.
+     */
+    public Directory getDirectory(GoogleProvisioningConnectorConfig config,
+                                  PrivateKeyStore.ServiceAccountKey privateKey,
+                                  HttpRequestInitializer requestInitializer)
+            throws IdentityProvisioningException {
+
+        if (privateKey == null) {
+            throw new IdentityProvisioningException("Private key of the Google service account is not configured " +
+                    "or is invalid");
+        }
+        DirectoryClient current = client;
+        if (current != null && current.isBuiltFor(config, privateKey, requestInitializer)) {
+            return current.directory;
+        }
+
+        synchronized (this) {
+            current = client;
+            if (current != null && current.isBuiltFor(config, privateKey, requestInitializer)) {
+                return current.directory;
+            }
+            // The configuration was replaced, so the client is only rebuilt if its connection settings changed.
+            ClientSettings settings = new ClientSettings(config, privateKey, requestInitializer);
+            if (current != null && current.settings.equals(settings)) {
+                current = new DirectoryClient(config, privateKey, settings, current.directory);
+            } else {
+                if (current != null && log.isDebugEnabled()) {
+                    log.debug("Connection settings of the Google connector changed. Rebuilding the Directory client.");
+                }
+                current = buildClient(config, privateKey, settings);
+            }
+            client = current;
+            return current.directory;
+        }
+    }
+
+    /**
+     * Drops the current client so that the next call builds a new one.
+     */
+    public void invalidate() {
+
+        client = null;
+    }
+
+    private DirectoryClient buildClient(GoogleProvisioningConnectorConfig config,
+                                        PrivateKeyStore.ServiceAccountKey privateKey, ClientSettings settings)
+            throws IdentityProvisioningException {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Building Google Directory client. serviceAccountId : " + settings.serviceAccountId
+                    + ", setServiceAccountScopes : " + SCOPES + ", setServiceAccountUser : "
+                    + settings.serviceAccountUser);
+        }
+
+        HttpTransport httpTransport = GoogleHttpTransportFactory.getTransport(settings.transportType,
+                settings.poolSize);
+        JacksonFactory jsonFactory = new JacksonFactory();
+        try {
+            AccessTokenCache.CachedToken token = AccessTokenCache.getInstance().getToken(settings.serviceAccountId,
+                    settings.serviceAccountUser, SCOPES, settings.privateKeyId, tokenServerUrl, httpTransport, () -> {
+                        GoogleCredential.Builder credentialBuilder = new GoogleCredential.Builder()
+                                .setTransport(httpTransport).setJsonFactory(jsonFactory)
+                                .setServiceAccountId(settings.serviceAccountId)
+                                .setServiceAccountScopes(SCOPES)
+                                .setServiceAccountUser(settings.serviceAccountUser)
+                                .setServiceAccountPrivateKey(privateKey.getPrivateKey());
+                        if (tokenServerUrl != null) {
+                            credentialBuilder.setTokenServerEncodedUrl(tokenServerUrl);
+                        }
+                        return credentialBuilder.build();
+                    });
+            token.warmUp();
+
+            HttpRequestInitializer requestInitializer = request -> {
+                token.initialize(request);
+                request.setConnectTimeout(settings.connectTimeout);
+                request.setReadTimeout(settings.readTimeout);
+                if (settings.requestInitializer != null) {
+                    settings.requestInitializer.initialize(request);
+                }
+            };
+            Directory.Builder directoryBuilder = new Directory.Builder(httpTransport, jsonFactory, token)
+                    .setHttpRequestInitializer(requestInitializer).setApplicationName(settings.applicationName);
+            if (rootUrl != null) {
+                directoryBuilder.setRootUrl(rootUrl);
+            }
+            Directory directory = directoryBuilder.build();
+            return new DirectoryClient(config, privateKey, settings, directory);
+        } catch (GeneralSecurityException | IOException e) {
+            throw new IdentityProvisioningException("Error while obtaining connection from google", e);
+        }
+    }
+
+    /**
+     * Connector configuration values the Directory client depends on.
+     */
+    private static final class ClientSettings {
+
+        private final String serviceAccountId;
+        private final String serviceAccountUser;
+        private final String applicationName;
+        private final String privateKeyId;
+        private final GoogleHttpTransportFactory.TransportType transportType;
+        private final int poolSize;
+        private final int connectTimeout;
+        private final int readTimeout;
+        private final HttpRequestInitializer requestInitializer;
+
+        private ClientSettings(GoogleProvisioningConnectorConfig config, PrivateKeyStore.ServiceAccountKey privateKey,
+                               HttpRequestInitializer requestInitializer) {
+
+            this.serviceAccountId = config.getServiceAccountEmail();
+            this.serviceAccountUser = config.getAdminEmail();
+            this.applicationName = config.getApplicationName();
+            this.privateKeyId = privateKey.getId();
+            this.transportType = config.getTransportType();
+            this.poolSize = config.getHttpPoolSize();
+            this.connectTimeout = config.getConnectTimeoutMillis();
+            this.readTimeout = config.getReadTimeoutMillis();
+            this.requestInitializer = requestInitializer;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ClientSettings)) {
+                return false;
+            }
+            ClientSettings that = (ClientSettings) o;
+            return Objects.equals(serviceAccountId, that.serviceAccountId)
+                    && Objects.equals(serviceAccountUser, that.serviceAccountUser)
+                    && Objects.equals(applicationName, that.applicationName)
+                    && Objects.equals(privateKeyId, that.privateKeyId)
+                    && transportType == that.transportType
+                    && poolSize == that.poolSize
+                    && connectTimeout == that.connectTimeout
+                    && readTimeout == that.readTimeout
+                    && requestInitializer == that.requestInitializer;
+        }
+
+        @Override
+        public int hashCode() {
+
+            return Objects.hash(serviceAccountId, serviceAccountUser, applicationName, privateKeyId, transportType,
+                    poolSize, connectTimeout, readTimeout, System.identityHashCode(requestInitializer));
+        }
+    }
+
+    private static final class DirectoryClient {
+
+        private final GoogleProvisioningConnectorConfig config;
+        private final PrivateKeyStore.ServiceAccountKey privateKey;
+        private final ClientSettings settings;
+        private final Directory directory;
+
+        private DirectoryClient(GoogleProvisioningConnectorConfig config, PrivateKeyStore.ServiceAccountKey privateKey,
+                                ClientSettings settings, Directory directory) {
+
+            this.config = config;
+            this.privateKey = privateKey;
+            this.settings = settings;
+            this.directory = directory;
+        }
+
+        /**
+         * Returns whether the client was built for the given configuration snapshot, key and initializer, which
+         * only compares references.
+         */
+        private boolean isBuiltFor(GoogleProvisioningConnectorConfig config,
+                                   PrivateKeyStore.ServiceAccountKey privateKey,
+                                   HttpRequestInitializer requestInitializer) {
+
+            return this.config == config && this.privateKey == privateKey
+                    && settings.requestInitializer == requestInitializer;
+        }
+    }
+}
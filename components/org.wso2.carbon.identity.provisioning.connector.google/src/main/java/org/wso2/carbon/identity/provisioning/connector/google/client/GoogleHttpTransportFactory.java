@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.client;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.apache.v2.ApacheHttpTransport;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides the HTTP transports used to reach Google.
+ * <p>
+ * Transports are shared by every connector in the JVM that uses the same transport settings, so that tenants
+ * provisioning to Google reuse the same pooled connections instead of each opening their own sockets. Shared
+ * transports live as long as the JVM.
+ */
+public final class GoogleHttpTransportFactory {
+
+    private static final Log log = LogFactory.getLog(GoogleHttpTransportFactory.class);
+
+    /**
+     * Time after which idle pooled connections are closed, in seconds.
+     */
+    private static final long IDLE_CONNECTION_TIMEOUT_SECONDS = 60;
+
+    /**
+     * Time after which a pooled connection that was idle is checked before it is reused, in milliseconds.
+     */
+    private static final int VALIDATE_AFTER_INACTIVITY_MILLIS = 2000;
+
+    private static final ConcurrentMap<TransportKey, HttpTransport> TRANSPORTS = new ConcurrentHashMap<>();
+
+    /**
+     * HTTP client library a transport is built on.
+     */
+    public enum TransportType {
+
+        /**
+         * {@link java.net.HttpURLConnection} of the JDK. Keep-alive connections are pooled by the JDK, and the
+         * number of idle connections kept per destination is set with the http.maxConnections system property.
+         */
+        NET,
+
+        /**
+         * Apache HttpClient, with a bounded pool of keep-alive connections.
+         */
+        APACHE,
+
+        /**
+         * {@link java.net.http.HttpClient} of the JDK, which negotiates HTTP/2 so that concurrent requests to a
+         * Google host share a few multiplexed connections.
+         */
+        HTTP2;
+
+        /**
+         * Returns the type matching the given property value, or {@link #NET} if the value is empty or unknown.
+         */
+        public static TransportType fromValue(String value) {
+
+            if (StringUtils.isNotBlank(value)) {
+                for (TransportType type : values()) {
+                    if (type.name().equalsIgnoreCase(value.trim())) {
+                        return type;
+                    }
+                }
+                log.warn("Unknown HTTP transport : " + value + " for Google connector. Using " + NET.name()
+                        + " instead.");
+            }
+            return NET;
+        }
+    }
+
+    private GoogleHttpTransportFactory() {
+
+    }
+
+    /**
+     * Returns the shared transport of the given type and pool size, building it if there is none yet.
+     *
+     * @param type     HTTP client library of the transport.
+     * @param poolSize Maximum number of connections of the transport. Only used by {@link TransportType#APACHE}.
+     * @return Shared HTTP transport.
+     */
+    public static HttpTransport getTransport(TransportType type, int poolSize) {
+
+        TransportKey key = new TransportKey(type, type == TransportType.APACHE ? Math.max(1, poolSize) : 0);
+        return TRANSPORTS.computeIfAbsent(key, GoogleHttpTransportFactory::buildTransport);
+    }
+
+    private static HttpTransport buildTransport(TransportKey key) {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Building shared HTTP transport for Google connector. Type : " + key.type.name()
+                    + ", pool size : " + key.poolSize);
+        }
+        if (key.type == TransportType.APACHE) {
+            PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+            connectionManager.setMaxTotal(key.poolSize);
+            // Directory API and token requests go to a couple of Google hosts, each of which may use the whole pool.
+            connectionManager.setDefaultMaxPerRoute(key.poolSize);
+            connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MILLIS);
+            return new ApacheHttpTransport(HttpClientBuilder.create()
+                    .useSystemProperties()
+                    .setConnectionManager(connectionManager)
+                    .evictExpiredConnections()
+                    .evictIdleConnections(IDLE_CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    // Redirects and retries are handled by the Google client.
+                    .disableRedirectHandling()
+                    .disableAutomaticRetries()
+                    .build());
+        }
+        if (key.type == TransportType.HTTP2) {
+            return new HttpClientTransport();
+        }
+        return new NetHttpTransport();
+    }
+
+    private static final class TransportKey {
+
+        private final TransportType type;
+        private final int poolSize;
+
+        private TransportKey(TransportType type, int poolSize) {
+
+            this.type = type;
+            this.poolSize = poolSize;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TransportKey)) {
+                return false;
+            }
+            TransportKey that = (TransportKey) o;
+            return type == that.type && poolSize == that.poolSize;
+        }
+
+        @Override
+        public int hashCode() {
+
+            return Objects.hash(type, poolSize);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.client;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.util.StreamingContent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * HTTP transport sending the requests of the Google client with the {@link HttpClient} of the JDK.
+ * <p>
+ * The client negotiates HTTP/2 with Google, so concurrent requests to the same host are multiplexed as streams over
+ * a few connections instead of each holding a connection of their own. Servers that only speak HTTP/1.1 are still
+ * supported. Request bodies are buffered before they are sent, which suits the small JSON content of Directory API
+ * and token requests.
+ */
+public class HttpClientTransport extends HttpTransport {
+
+    /**
+     * Headers set by {@link HttpClient} itself, which it does not allow to be set on a request.
+     */
+    private static final Set<String> RESTRICTED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        RESTRICTED_HEADERS.addAll(Arrays.asList("Connection", "Content-Length", "Expect", "Host", "Upgrade"));
+    }
+
+    private final HttpClient client;
+
+    /**
+     * Creates a transport with an HTTP/2 client that uses the default proxy selector of the JVM and leaves
+     * redirects to the Google client.
+     */
+    public HttpClientTransport() {
+
+        this(newClient());
+    }
+
+    /**
+     * @param client Client sending the requests.
+     */
+    public HttpClientTransport(HttpClient client) {
+
+        this.client = client;
+    }
+
+    private static HttpClient newClient() {
+
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NEVER);
+        ProxySelector proxySelector = ProxySelector.getDefault();
+        if (proxySelector != null) {
+            builder.proxy(proxySelector);
+        }
+        return builder.build();
+    }
+
+    @Override
+    protected LowLevelHttpRequest buildRequest(String method, String url) {
+
+        return new ClientRequest(client, method, url);
+    }
+
+    /**
+     * Returns the client sending the requests.
+     */
+    public HttpClient getClient() {
+
+        return client;
+    }
+
+    private static final class ClientRequest extends LowLevelHttpRequest {
+
+        private final HttpClient client;
+        private final HttpRequest.Builder builder;
+        private final String method;
+        private Duration timeout;
+
+        private ClientRequest(HttpClient client, String method, String url) {
+
+            this.client = client;
+            this.builder = HttpRequest.newBuilder(URI.create(url));
+            this.method = method;
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+
+            if (!RESTRICTED_HEADERS.contains(name)) {
+                builder.header(name, value);
+            }
+        }
+
+        /**
+         * The connect timeout of {@link HttpClient} is set once for the client, so both timeouts are applied as
+         * the time allowed until the response headers are received.
+         */
+        @Override
+        public void setTimeout(int connectTimeout, int readTimeout) {
+
+            timeout = connectTimeout > 0 && readTimeout > 0
+                    ? Duration.ofMillis((long) connectTimeout + readTimeout) : null;
+        }
+
+        @Override
+        public LowLevelHttpResponse execute() throws IOException {
+
+            if (getContentType() != null) {
+                builder.header("Content-Type", getContentType());
+            }
+            if (getContentEncoding() != null) {
+                builder.header("Content-Encoding", getContentEncoding());
+            }
+            if (timeout != null) {
+                builder.timeout(timeout);
+            }
+            builder.method(method, getBodyPublisher());
+
+            try {
+                return new ClientResponse(client.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                InterruptedIOException interrupted = new InterruptedIOException("Interrupted while waiting for " +
+                        "the response of Google");
+                interrupted.initCause(e);
+                throw interrupted;
+            }
+        }
+
+        private HttpRequest.BodyPublisher getBodyPublisher() throws IOException {
+
+            StreamingContent content = getStreamingContent();
+            if (content == null) {
+                return HttpRequest.BodyPublishers.noBody();
+            }
+            long contentLength = getContentLength();
+            ByteArrayOutputStream body = new ByteArrayOutputStream(
+                    contentLength > 0 && contentLength < Integer.MAX_VALUE ? (int) contentLength : 512);
+            content.writeTo(body);
+            return HttpRequest.BodyPublishers.ofByteArray(body.toByteArray());
+        }
+    }
+
+    private static final class ClientResponse extends LowLevelHttpResponse {
+
+        private final HttpResponse<InputStream> response;
+        private final List<String> headerNames = new ArrayList<>();
+        private final List<String> headerValues = new ArrayList<>();
+
+        private ClientResponse(HttpResponse<InputStream> response) {
+
+            this.response = response;
+            for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+                // Skips the pseudo headers of HTTP/2, such as :status.
+                if (header.getKey().startsWith(":")) {
+                    continue;
+                }
+                for (String value : header.getValue()) {
+                    headerNames.add(header.getKey());
+                    headerValues.add(value);
+                }
+            }
+        }
+
+        @Override
+        public InputStream getContent() {
+
+            return response.body();
+        }
+
+        @Override
+        public String getContentEncoding() {
+
+            return response.headers().firstValue("Content-Encoding").orElse(null);
+        }
+
+        @Override
+        public long getContentLength() {
+
+            return response.headers().firstValueAsLong("Content-Length").orElse(-1);
+        }
+
+        @Override
+        public String getContentType() {
+
+            return response.headers().firstValue("Content-Type").orElse(null);
+        }
+
+        @Override
+        public String getStatusLine() {
+
+            return (response.version() == HttpClient.Version.HTTP_2 ? "HTTP/2 " : "HTTP/1.1 ")
+                    + response.statusCode();
+        }
+
+        @Override
+        public int getStatusCode() {
+
+            return response.statusCode();
+        }
+
+        /**
+         * {@link HttpClient} does not expose the reason phrase, which HTTP/2 does not have either.
+         */
+        @Override
+        public String getReasonPhrase() {
+
+            return null;
+        }
+
+        @Override
+        public int getHeaderCount() {
+
+            return headerNames.size();
+        }
+
+        @Override
+        public String getHeaderName(int index) {
+
+            return headerNames.get(index);
+        }
+
+        @Override
+        public String getHeaderValue(int index) {
+
+            return headerValues.get(index);
+        }
+
+        @Override
+        public void disconnect() throws IOException {
+
+            response.body().close();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.client;
+
+import com.google.api.client.util.SecurityUtils;
+import org.apache.axiom.util.base64.Base64Utils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In memory store of the service account private keys configured in the Google connectors.
+ * <p>
+ * The Base64 encoded PKCS12 key of a connector is decoded and parsed once, and the resulting {@link PrivateKey} is
+ * cached by the SHA-256 hash of its content. Connectors configured with the same key share the parsed key, and no key
+ * material is written to the file system.
+ */
+public class PrivateKeyStore {
+
+    private static final Log log = LogFactory.getLog(PrivateKeyStore.class);
+
+    // Google issues PKCS12 files of service accounts with these fixed values.
+    private static final String KEY_STORE_PASSWORD = "notasecret";
+    private static final String KEY_ALIAS = "privatekey";
+    private static final String KEY_PASSWORD = "notasecret";
+
+    private static final PrivateKeyStore INSTANCE = new PrivateKeyStore();
+
+    private final Map<String, ServiceAccountKey> keys = new ConcurrentHashMap<>();
+
+    private PrivateKeyStore() {
+
+    }
+
+    public static PrivateKeyStore getInstance() {
+
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the private key contained in the given Base64 encoded PKCS12 file, parsing it only if the same content
+     * has not been parsed before.
+     *
+     * @param encodedKey Base64 encoded content of the PKCS12 file.
+     * @return Parsed private key of the service account.
+     * @throws IdentityProvisioningException If the content is empty or is not a valid PKCS12 file.
+     */
+    public ServiceAccountKey getKey(String encodedKey) throws IdentityProvisioningException {
+
+        if (StringUtils.isBlank(encodedKey)) {
+            throw new IdentityProvisioningException("Private key of the Google service account is empty");
+        }
+
+        byte[] decodedBytes = Base64Utils.decode(encodedKey);
+        String keyId = hash(decodedBytes);
+        ServiceAccountKey key = keys.get(keyId);
+        if (key != null) {
+            return key;
+        }
+
+        try {
+            PrivateKey privateKey = SecurityUtils.loadPrivateKeyFromKeyStore(SecurityUtils.getPkcs12KeyStore(),
+                    new ByteArrayInputStream(decodedBytes), KEY_STORE_PASSWORD, KEY_ALIAS, KEY_PASSWORD);
+            if (privateKey == null) {
+                throw new IdentityProvisioningException("No private key found in the PKCS12 file of the Google " +
+                        "service account");
+            }
+            key = new ServiceAccountKey(keyId, privateKey);
+        } catch (GeneralSecurityException | IOException e) {
+            throw new IdentityProvisioningException("Error while parsing the private key of the Google service " +
+                    "account", e);
+        }
+
+        ServiceAccountKey existingKey = keys.putIfAbsent(keyId, key);
+        if (existingKey != null) {
+            return existingKey;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Parsed the private key of the Google service account with the hash : " + keyId);
+        }
+        return key;
+    }
+
+    /**
+     * Removes all the parsed keys.
+     */
+    public void clear() {
+
+        keys.clear();
+    }
+
+    private static String hash(byte[] content) {
+
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by the runtime", e);
+        }
+    }
+
+    /**
+     * Parsed private key of a service account along with the hash of the PKCS12 content it was parsed from.
+     */
+    public static final class ServiceAccountKey implements Serializable {
+
+        private static final long serialVersionUID = -2034659217734432271L;
+
+        private final String id;
+        private final PrivateKey privateKey;
+
+        private ServiceAccountKey(String id, PrivateKey privateKey) {
+
+            this.id = id;
+            this.privateKey = privateKey;
+        }
+
+        /**
+         * Returns the SHA-256 hash of the PKCS12 content, which identifies the key without exposing it.
+         */
+        public String getId() {
+
+            return id;
+        }
+
+        public PrivateKey getPrivateKey() {
+
+            return privateKey;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.client;
+
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpIOExceptionHandler;
+import com.google.api.client.http.HttpMethods;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpUnsuccessfulResponseHandler;
+import com.google.api.client.util.BackOff;
+import com.google.api.client.util.ExponentialBackOff;
+import com.google.api.client.util.Sleeper;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.provisioning.connector.google.jfr.FlightRecorderSupport;
+import org.wso2.carbon.identity.provisioning.connector.google.jfr.RetryEvent;
+import org.wso2.carbon.identity.provisioning.connector.google.metrics.OperationType;
+import org.wso2.carbon.identity.provisioning.connector.google.metrics.ProvisioningMetrics;
+import org.wso2.carbon.identity.provisioning.connector.google.tracing.ProvisioningTracer;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Retries Google requests that failed for a transient reason, with capped exponential backoff and jitter.
+ * <p>
+ * Responses with the 429 status are retried, honouring the Retry-After header sent with them up to the maximum
+ * backoff interval. Responses with a 5xx status and I/O errors such as socket timeouts are only retried for requests
+ * that are safe to repeat, which excludes POST requests since a create may have been applied by Google before it
+ * failed. Each retry waits for the rate limit, if one is given, like the first attempt of the request. When a
+ * concurrency limit is given, the request gives up its slot while it waits to be retried. Retries stop
+ * once the time budget of the request is used. The handlers already set on the request, such as the one refreshing
+ * an expired access token, are given the first chance to handle a failure.
+ * <p>
+ * Errors Google reports with the 403 status, such as an exceeded rate limit, can only be told apart from permission
+ * errors by reading the response content, which is then no longer available to the caller. These are retried by the
+ * caller through {@link #backOff(BackOff)} once the request has failed.
+ */
+public class RetryingHttpRequestInitializer implements HttpRequestInitializer {
+
+    private static final Log log = LogFactory.getLog(RetryingHttpRequestInitializer.class);
+
+    private static final int INITIAL_INTERVAL_MILLIS = 500;
+    private static final int MAX_INTERVAL_MILLIS = 16000;
+    private static final double MULTIPLIER = 2;
+    private static final double RANDOMIZATION_FACTOR = 0.5;
+    private static final int MAX_RETRIES = 20;
+    private static final String METHOD_OVERRIDE_HEADER = "X-HTTP-Method-Override";
+
+    private final int maxElapsedMillis;
+    private final AdaptiveRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final Sleeper sleeper;
+    private final ProvisioningMetrics.ConnectorMetrics metrics;
+    private final LongAdder retryCount = new LongAdder();
+    private final LongAdder retryWaitNanos = new LongAdder();
+    private final LongAdder exhaustedCount = new LongAdder();
+
+    /**
+     * @param maxElapsedMillis Time budget of a request, after which failures are no longer retried.
+     * @param rateLimiter      Limiter notified when Google throttles a request, or null.
+     */
+    public RetryingHttpRequestInitializer(int maxElapsedMillis, AdaptiveRateLimiter rateLimiter) {
+
+        this(maxElapsedMillis, rateLimiter, (ProvisioningMetrics.ConnectorMetrics) null);
+    }
+
+    /**
+     * @param maxElapsedMillis Time budget of a request, after which failures are no longer retried.
+     * @param rateLimiter      Limiter notified when Google throttles a request, or null.
+     * @param metrics          Metrics the retries are recorded in by operation type, or null.
+     */
+    public RetryingHttpRequestInitializer(int maxElapsedMillis, AdaptiveRateLimiter rateLimiter,
+                                          ProvisioningMetrics.ConnectorMetrics metrics) {
+
+        this(maxElapsedMillis, rateLimiter, null, metrics);
+    }
+
+    /**
+     * @param maxElapsedMillis   Time budget of a request, after which failures are no longer retried.
+     * @param rateLimiter        Limiter notified when Google throttles a request, or null.
+     * @param concurrencyLimiter Limiter of the requests in flight, whose slot a request gives up while it waits to
+     *                           be retried, or null.
+     * @param metrics            Metrics the retries are recorded in by operation type, or null.
+     */
+    public RetryingHttpRequestInitializer(int maxElapsedMillis, AdaptiveRateLimiter rateLimiter,
+                                          AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                          ProvisioningMetrics.ConnectorMetrics metrics) {
+
+        this(maxElapsedMillis, rateLimiter, concurrencyLimiter, metrics, Sleeper.DEFAULT);
+    }
+
+    RetryingHttpRequestInitializer(int maxElapsedMillis, AdaptiveRateLimiter rateLimiter, Sleeper sleeper) {
+
+        this(maxElapsedMillis, rateLimiter, null, sleeper);
+    }
+
+    RetryingHttpRequestInitializer(int maxElapsedMillis, AdaptiveRateLimiter rateLimiter,
+                                   ProvisioningMetrics.ConnectorMetrics metrics, Sleeper sleeper) {
+
+        this(maxElapsedMillis, rateLimiter, null, metrics, sleeper);
+    }
+
+    RetryingHttpRequestInitializer(int maxElapsedMillis, AdaptiveRateLimiter rateLimiter,
+                                   AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                   ProvisioningMetrics.ConnectorMetrics metrics, Sleeper sleeper) {
+
+        this.maxElapsedMillis = maxElapsedMillis;
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.metrics = metrics;
+        this.sleeper = sleeper;
+    }
+
+    @Override
+    public void initialize(HttpRequest request) {
+
+        HttpUnsuccessfulResponseHandler responseHandler = request.getUnsuccessfulResponseHandler();
+        HttpIOExceptionHandler ioExceptionHandler = request.getIOExceptionHandler();
+        BackOff backOff = newBackOff();
+
+        request.setNumberOfRetries(MAX_RETRIES);
+        request.setUnsuccessfulResponseHandler((httpRequest, response, supportsRetry) -> {
+            if (responseHandler != null && responseHandler.handleResponse(httpRequest, response, supportsRetry)) {
+                return true;
+            }
+            int statusCode = response.getStatusCode();
+            if (!supportsRetry || !isRetryableStatus(statusCode) || statusCode != 429 && !isIdempotent(httpRequest)) {
+                return false;
+            }
+            if (statusCode == 429 && rateLimiter != null) {
+                rateLimiter.onThrottled();
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Google responded with the status : " + statusCode + " for the request : "
+                        + httpRequest.getRequestMethod() + " " + httpRequest.getUrl().getRawPath());
+            }
+            return backOffRequest(httpRequest, statusCode, backOff,
+                    getRetryAfterMillis(response.getHeaders().getRetryAfter()));
+        });
+        request.setIOExceptionHandler((httpRequest, supportsRetry) -> {
+            if (ioExceptionHandler != null && ioExceptionHandler.handleIOException(httpRequest, supportsRetry)) {
+                return true;
+            }
+            if (!supportsRetry || !isIdempotent(httpRequest)) {
+                return false;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("I/O error while sending the request : " + httpRequest.getRequestMethod() + " "
+                        + httpRequest.getUrl().getRawPath());
+            }
+            return backOffRequest(httpRequest, 0, backOff, 0);
+        });
+    }
+
+    /**
+     * Returns a new backoff for retrying a failed operation within the time budget.
+     */
+    public BackOff newBackOff() {
+
+        return new ExponentialBackOff.Builder()
+                .setInitialIntervalMillis(INITIAL_INTERVAL_MILLIS)
+                .setMaxIntervalMillis(MAX_INTERVAL_MILLIS)
+                .setMultiplier(MULTIPLIER)
+                .setRandomizationFactor(RANDOMIZATION_FACTOR)
+                .setMaxElapsedTimeMillis(maxElapsedMillis)
+                .build();
+    }
+
+    /**
+     * Waits for the next backoff interval before a failed operation is retried.
+     *
+     * @param backOff Backoff of the operation.
+     * @return True if the operation should be retried, false if the time budget is used or the thread was
+     * interrupted.
+     * @throws IOException If the next interval cannot be computed.
+     */
+    public boolean backOff(BackOff backOff) throws IOException {
+
+        return backOff(backOff, null, 0);
+    }
+
+    /**
+     * Waits for the next backoff interval before a failed operation of the given type is retried.
+     *
+     * @param backOff       Backoff of the operation.
+     * @param operationType Type of the operation, or null if it is not known.
+     * @param statusCode    HTTP status the operation failed with, or 0 if no response was received.
+     * @return True if the operation should be retried, false if the time budget is used or the thread was
+     * interrupted.
+     * @throws IOException If the next interval cannot be computed.
+     */
+    public boolean backOff(BackOff backOff, OperationType operationType, int statusCode) throws IOException {
+
+        return backOff(backOff, 0, operationType, statusCode);
+    }
+
+    /**
+     * Returns whether the given error of a request that was not retried while sending it should be retried by the
+     * caller.
+     */
+    public static boolean isRetryableError(GoogleJsonResponseException e) {
+
+        return isRetryableStatus(e.getStatusCode()) || AdaptiveRateLimiter.isRateLimitError(e);
+    }
+
+    /**
+     * Returns whether the given error of a request with the given method, which was not retried while sending it,
+     * should be retried by the caller. Server errors are not retried for POST requests, which may have been applied.
+     */
+    public static boolean isRetryableError(GoogleJsonResponseException e, String requestMethod) {
+
+        return isRetryableError(e) && (e.getStatusCode() < 500 || !HttpMethods.POST.equals(requestMethod));
+    }
+
+    /**
+     * Returns whether the given HTTP status reports a throttled request or a server error.
+     */
+    public static boolean isRetryableStatus(int statusCode) {
+
+        return statusCode == 429 || statusCode >= 500 && statusCode <= 599;
+    }
+
+    /**
+     * Returns the number of retries made.
+     */
+    public long getRetryCount() {
+
+        return retryCount.sum();
+    }
+
+    /**
+     * Returns the total time spent waiting before retries, in milliseconds.
+     */
+    public long getRetryWaitMillis() {
+
+        return TimeUnit.NANOSECONDS.toMillis(retryWaitNanos.sum());
+    }
+
+    /**
+     * Returns the number of operations that failed after using their time budget on retries.
+     */
+    public long getExhaustedCount() {
+
+        return exhaustedCount.sum();
+    }
+
+    private boolean backOffRequest(HttpRequest request, int statusCode, BackOff backOff, long minDelayMillis)
+            throws IOException {
+
+        OperationType operationType = OperationType.fromMethod(getMethod(request));
+        if (concurrencyLimiter != null) {
+            concurrencyLimiter.pause();
+        }
+        if (!backOff(backOff, minDelayMillis, operationType, statusCode)) {
+            return false;
+        }
+        try {
+            if (rateLimiter != null) {
+                rateLimiter.acquire();
+            }
+            if (concurrencyLimiter != null) {
+                concurrencyLimiter.resume();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        ProvisioningTracer.annotateRetry(statusCode);
+        if (metrics != null) {
+            metrics.get(operationType).recordRetry();
+        }
+        return true;
+    }
+
+    private boolean backOff(BackOff backOff, long minDelayMillis, OperationType operationType, int statusCode)
+            throws IOException {
+
+        RetryEvent event = FlightRecorderSupport.isAvailable() ? RetryEvent.start() : null;
+        boolean retried = false;
+        try {
+            long delay = backOff.nextBackOffMillis();
+            if (delay == BackOff.STOP) {
+                exhaustedCount.increment();
+                return false;
+            }
+            delay = Math.max(delay, Math.min(minDelayMillis, MAX_INTERVAL_MILLIS));
+            try {
+                sleeper.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            retryCount.increment();
+            retryWaitNanos.add(TimeUnit.MILLISECONDS.toNanos(delay));
+            retried = true;
+            return true;
+        } finally {
+            if (event != null) {
+                event.finish(operationType != null ? operationType.getTag() : null, statusCode, retried);
+            }
+        }
+    }
+
+    private static boolean isIdempotent(HttpRequest request) {
+
+        return !HttpMethods.POST.equals(getMethod(request));
+    }
+
+    private static String getMethod(HttpRequest request) {
+
+        String method = request.getRequestMethod();
+        // Google clients send PATCH requests as POST requests when the transport does not support PATCH.
+        if (HttpMethods.POST.equals(method) && HttpMethods.PATCH.equals(
+                request.getHeaders().getFirstHeaderStringValue(METHOD_OVERRIDE_HEADER))) {
+            return HttpMethods.PATCH;
+        }
+        return method;
+    }
+
+    private static long getRetryAfterMillis(String retryAfter) {
+
+        if (StringUtils.isNotBlank(retryAfter) && StringUtils.isNumeric(retryAfter.trim())) {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.client;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the attributes last sent to Google for each user, so that updates can send only the attributes that
+ * changed and be skipped when none did.
+ * <p>
+ * Only a 64-bit hash of each attribute value is kept, never the value itself. The number of users remembered is
+ * bounded, and the least recently used users are forgotten first. Attributes of a user that is not remembered, for
+ * example after a restart, are all considered changed.
+ * <p>
+ * An update is recorded only if no other update of the user was recorded since it was compared, and the user is
+ * forgotten otherwise, since it is not known which of the concurrent updates Google applied last. Fingerprints are
+ * kept per connector on each node, so they go stale when the user is changed in Google by any other means, such as
+ * the Admin console or another node. An update setting an attribute back to the value last sent from this node is
+ * then skipped.
+ */
+public class UserFingerprintStore {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long NULL_HASH = 0;
+
+    private final int maxEntries;
+    private final Map<String, Fingerprint> fingerprints;
+    private final LongAdder skippedCount = new LongAdder();
+
+    /**
+     * @param maxEntries Maximum number of users remembered.
+     */
+    public UserFingerprintStore(int maxEntries) {
+
+        this.maxEntries = maxEntries;
+        this.fingerprints = new LinkedHashMap<String, Fingerprint>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = -2164209368478624937L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Fingerprint> eldest) {
+
+                return size() > UserFingerprintStore.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the names of the attributes whose values differ from the ones last recorded for the user.
+     *
+     * @param userKey    Key of the user in Google.
+     * @param attributes Attribute values by attribute name. Null values are allowed.
+     * @return Names of the changed attributes, which are all the attributes if the user is not remembered.
+     */
+    public Set<String> getChangedAttributes(String userKey, Map<String, String> attributes) {
+
+        Fingerprint fingerprint;
+        synchronized (fingerprints) {
+            fingerprint = fingerprints.get(userKey);
+        }
+        return getChangedAttributes(fingerprint, attributes);
+    }
+
+    /**
+     * Compares the given attribute values with the ones last recorded for the user. The comparison is passed to
+     * {@link #record(Comparison, Map)} once the update is sent to Google.
+     *
+     * @param userKey    Key of the user in Google.
+     * @param attributes Attribute values by attribute name. Null values are allowed.
+     * @return Comparison holding the names of the changed attributes.
+     */
+    public Comparison compare(String userKey, Map<String, String> attributes) {
+
+        Fingerprint fingerprint;
+        synchronized (fingerprints) {
+            // A user that is not remembered gets a placeholder of its own, so that an update recorded and forgotten
+            // meanwhile is still told apart from no update at all.
+            fingerprint = fingerprints.computeIfAbsent(userKey, key -> new Fingerprint(null, null));
+        }
+        return new Comparison(userKey, fingerprint, getChangedAttributes(fingerprint, attributes));
+    }
+
+    private Set<String> getChangedAttributes(Fingerprint fingerprint, Map<String, String> attributes) {
+
+        if (fingerprint == null || fingerprint.names == null) {
+            return attributes.keySet();
+        }
+
+        Set<String> changed = new LinkedHashSet<>();
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            int index = Arrays.binarySearch(fingerprint.names, attribute.getKey());
+            if (index < 0 || fingerprint.hashes[index] != hash(attribute.getValue())) {
+                changed.add(attribute.getKey());
+            }
+        }
+        if (changed.isEmpty()) {
+            skippedCount.increment();
+            return Collections.emptySet();
+        }
+        return changed;
+    }
+
+    /**
+     * Records the attribute values sent to Google for the user.
+     *
+     * @param userKey    Key of the user in Google.
+     * @param attributes Attribute values by attribute name, including the ones not sent because they did not change.
+     */
+    public void record(String userKey, Map<String, String> attributes) {
+
+        Fingerprint fingerprint = toFingerprint(attributes);
+        synchronized (fingerprints) {
+            fingerprints.put(userKey, fingerprint);
+        }
+    }
+
+    /**
+     * Records the attribute values sent to Google by the update that made the given comparison. If another update
+     * of the user was recorded since the comparison, the user is forgotten instead.
+     *
+     * @param comparison Comparison made before the update was sent.
+     * @param attributes Attribute values by attribute name, including the ones not sent because they did not change.
+     */
+    public void record(Comparison comparison, Map<String, String> attributes) {
+
+        Fingerprint fingerprint = toFingerprint(attributes);
+        synchronized (fingerprints) {
+            if (fingerprints.get(comparison.userKey) == comparison.fingerprint) {
+                fingerprints.put(comparison.userKey, fingerprint);
+            } else {
+                fingerprints.remove(comparison.userKey);
+            }
+        }
+    }
+
+    private static Fingerprint toFingerprint(Map<String, String> attributes) {
+
+        Map<String, String> sorted = new TreeMap<>(attributes);
+        String[] names = new String[sorted.size()];
+        long[] hashes = new long[sorted.size()];
+        int i = 0;
+        for (Map.Entry<String, String> attribute : sorted.entrySet()) {
+            names[i] = attribute.getKey();
+            hashes[i] = hash(attribute.getValue());
+            i++;
+        }
+        return new Fingerprint(names, hashes);
+    }
+
+    /**
+     * Forgets the user, for example when the user is deleted or its state in Google is no longer known.
+     */
+    public void remove(String userKey) {
+
+        synchronized (fingerprints) {
+            fingerprints.remove(userKey);
+        }
+    }
+
+    /**
+     * Returns the number of users remembered.
+     */
+    public int size() {
+
+        synchronized (fingerprints) {
+            return fingerprints.size();
+        }
+    }
+
+    /**
+     * Returns the number of updates found to have no changed attributes.
+     */
+    public long getSkippedCount() {
+
+        return skippedCount.sum();
+    }
+
+    private static long hash(String value) {
+
+        if (value == null) {
+            return NULL_HASH;
+        }
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        // Keeps the hash of a value apart from the hash of a missing value.
+        return hash == NULL_HASH ? 1 : hash;
+    }
+
+    /**
+     * Attributes of a user found to differ from the ones last recorded for it.
+     */
+    public static final class Comparison {
+
+        private final String userKey;
+        private final Fingerprint fingerprint;
+        private final Set<String> changedAttributes;
+
+        private Comparison(String userKey, Fingerprint fingerprint, Set<String> changedAttributes) {
+
+            this.userKey = userKey;
+            this.fingerprint = fingerprint;
+            this.changedAttributes = changedAttributes;
+        }
+
+        /**
+         * Returns the names of the changed attributes, which are all the attributes if the user is not remembered.
+         */
+        public Set<String> getChangedAttributes() {
+
+            return changedAttributes;
+        }
+    }
+
+    private static final class Fingerprint {
+
+        private final String[] names;
+        private final long[] hashes;
+
+        private Fingerprint(String[] names, long[] hashes) {
+
+            this.names = names;
+            this.hashes = hashes;
+        }
+    }
+}
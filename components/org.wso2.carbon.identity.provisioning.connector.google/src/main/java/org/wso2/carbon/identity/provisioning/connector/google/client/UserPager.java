@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.client;
+
+import com.google.api.client.googleapis.services.json.AbstractGoogleJsonClientRequest;
+import com.google.api.services.admin.directory.Directory;
+import com.google.api.services.admin.directory.model.User;
+import com.google.api.services.admin.directory.model.Users;
+import org.apache.commons.lang.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lists the users of a Google domain page by page.
+ * <p>
+ * Only the page being handled is held in memory, so listing a domain takes the same memory regardless of the number
+ * of users in it. Listing can stop after any page and later resume from the returned page token. Errors are
+ * reported to the caller together with the token of the page that failed, rather than ending the listing as if
+ * there were no more users.
+ */
+public class UserPager {
+
+    /**
+     * Maximum number of users Google returns in a page.
+     */
+    public static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * Customer alias of the account the service account administers, used when no domain is given.
+     */
+    public static final String MY_CUSTOMER = "my_customer";
+
+    private static final String NEXT_PAGE_TOKEN_FIELD = "nextPageToken";
+
+    private String query;
+    private String domain;
+    private String fields;
+    private String pageToken;
+    private int maxResults = MAX_PAGE_SIZE;
+
+    /**
+     * Handles a page of users.
+     */
+    @FunctionalInterface
+    public interface PageHandler {
+
+        /**
+         * @param users         Users of the page.
+         * @param nextPageToken Token of the next page, or null if this is the last page.
+         * @return True to continue with the next page, false to stop.
+         * @throws IOException If the page cannot be handled. Listing stops and the error is reported to the caller.
+         */
+        boolean handlePage(List<User> users, String nextPageToken) throws IOException;
+    }
+
+    /**
+     * Sends a Directory API request, for example through the rate limiter and retries of a connector.
+     */
+    @FunctionalInterface
+    public interface RequestExecutor {
+
+        <T> T execute(AbstractGoogleJsonClientRequest<T> request) throws IOException;
+    }
+
+    /**
+     * Sets the search query, in the syntax of the Directory API. Lists all the users if not set.
+     */
+    public UserPager setQuery(String query) {
+
+        this.query = query;
+        return this;
+    }
+
+    /**
+     * Sets the domain to list the users of. Lists the users of all the domains of the account if not set.
+     */
+    public UserPager setDomain(String domain) {
+
+        this.domain = domain;
+        return this;
+    }
+
+    /**
+     * Sets the fields of the response to return, in the partial response syntax. The token of the next page is
+     * always requested, since it is needed to continue listing.
+     */
+    public UserPager setFields(String fields) {
+
+        this.fields = fields;
+        return this;
+    }
+
+    /**
+     * Sets the token of the page to start from, as returned by an earlier listing.
+     */
+    public UserPager setPageToken(String pageToken) {
+
+        this.pageToken = pageToken;
+        return this;
+    }
+
+    /**
+     * Sets the number of users requested per page, between 1 and {@link #MAX_PAGE_SIZE}.
+     */
+    public UserPager setMaxResults(int maxResults) {
+
+        this.maxResults = Math.max(1, Math.min(maxResults, MAX_PAGE_SIZE));
+        return this;
+    }
+
+    /**
+     * Lists the users page by page, passing each page to the handler until the last page is handled or the handler
+     * stops the listing.
+     *
+     * @param directory Directory service.
+     * @param executor  Sends the list requests.
+     * @param handler   Handles the pages.
+     * @return Token of the page following the last handled page, or null if all the pages were handled.
+     * @throws PageException If a page cannot be fetched or handled.
+     */
+    public String forEachPage(Directory directory, RequestExecutor executor, PageHandler handler)
+            throws PageException {
+
+        String token = pageToken;
+        do {
+            Users page;
+            try {
+                page = executor.execute(buildRequest(directory, token));
+            } catch (IOException e) {
+                throw new PageException("Error while retrieving the page of Google users with the token : " + token,
+                        token, e);
+            }
+            List<User> users = page.getUsers() != null ? page.getUsers() : Collections.emptyList();
+            String nextPageToken = StringUtils.isNotEmpty(page.getNextPageToken()) ? page.getNextPageToken() : null;
+            try {
+                if (!handler.handlePage(users, nextPageToken)) {
+                    return nextPageToken;
+                }
+            } catch (IOException e) {
+                throw new PageException("Error while handling the page of Google users with the token : " + token,
+                        token, e);
+            }
+            token = nextPageToken;
+        } while (token != null);
+        return null;
+    }
+
+    /**
+     * Returns an iterator over the users, which fetches the next page when the users of the current page are
+     * consumed. Errors while fetching a page are thrown as {@link UncheckedIOException}.
+     *
+     * @param directory Directory service.
+     * @param executor  Sends the list requests.
+     * @return Iterator over the users.
+     */
+    public Iterator<User> iterator(Directory directory, RequestExecutor executor) {
+
+        return new Iterator<User>() {
+
+            private Iterator<User> page = Collections.emptyIterator();
+            private String nextToken = pageToken;
+            private boolean lastPageFetched;
+
+            @Override
+            public boolean hasNext() {
+
+                while (!page.hasNext() && !lastPageFetched) {
+                    Users users;
+                    try {
+                        users = executor.execute(buildRequest(directory, nextToken));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(new PageException("Error while retrieving the page of " +
+                                "Google users with the token : " + nextToken, nextToken, e));
+                    }
+                    page = users.getUsers() != null ? users.getUsers().iterator() : Collections.emptyIterator();
+                    nextToken = StringUtils.isNotEmpty(users.getNextPageToken()) ? users.getNextPageToken() : null;
+                    lastPageFetched = nextToken == null;
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public User next() {
+
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.next();
+            }
+        };
+    }
+
+    private Directory.Users.List buildRequest(Directory directory, String token) throws IOException {
+
+        Directory.Users.List request = directory.users().list();
+        if (StringUtils.isNotBlank(domain)) {
+            request.setDomain(domain);
+        } else {
+            request.setCustomer(MY_CUSTOMER);
+        }
+        if (StringUtils.isNotBlank(query)) {
+            request.setQuery(query);
+        }
+        request.setMaxResults(maxResults);
+        if (StringUtils.isNotBlank(fields)) {
+            request.setFields(withNextPageToken(fields));
+        }
+        if (token != null) {
+            request.setPageToken(token);
+        }
+        return request;
+    }
+
+    private static String withNextPageToken(String fields) {
+
+        for (String field : fields.split(",")) {
+            if (NEXT_PAGE_TOKEN_FIELD.equals(field.trim())) {
+                return fields;
+            }
+        }
+        return NEXT_PAGE_TOKEN_FIELD + "," + fields;
+    }
+
+    /**
+     * Error while listing a page of users, carrying the token of the page so that listing can be resumed from it.
+     */
+    public static class PageException extends IOException {
+
+        private static final long serialVersionUID = 3581205672940315874L;
+
+        private final String pageToken;
+
+        public PageException(String message, String pageToken, Throwable cause) {
+
+            super(message, cause);
+            this.pageToken = pageToken;
+        }
+
+        /**
+         * Returns the token of the page that failed, or null if it was the first page.
+         */
+        public String getPageToken() {
+
+            return pageToken;
+        }
+    }
+}
@@ -0,0 +1,477 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.dispatch;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs provisioning operations of a connector on a pool of worker threads fed by a bounded queue.
+ * <p>
+ * The behaviour when the queue is full is chosen with a {@link RejectionPolicy}. Workers are daemon threads that
+ * terminate after being idle for a minute, so a connector that is no longer used does not keep threads alive.
+ * <p>
+ * With {@link ThreadMode#VIRTUAL} every operation runs on its own virtual thread instead, and the number of
+ * operations sent to Google at a time is limited by a semaphore rather than by the size of a pool. A virtual thread
+ * waiting for Google does not hold a platform thread, so thousands of operations can be in flight at a small
+ * memory cost. Virtual threads need Java 21, which the connector requires.
+ * <p>
+ * Operations run in a tenant flow of the tenant of the thread that submitted them, since the carbon context of the
+ * caller is not inherited by the threads running the operations.
+ */
+public class AsyncProvisioningExecutor {
+
+    private static final Log log = LogFactory.getLog(AsyncProvisioningExecutor.class);
+
+    private static final long WORKER_KEEP_ALIVE_SECONDS = 60;
+    private static final AtomicInteger EXECUTOR_COUNT = new AtomicInteger();
+
+    private final int executorId = EXECUTOR_COUNT.incrementAndGet();
+    private final ThreadPoolExecutor executor;
+    private final RejectionPolicy rejectionPolicy;
+    private final int queueCapacity;
+    private final LongAdder saturatedCount = new LongAdder();
+
+    // Used instead of the pool when operations run on virtual threads.
+    private final ExecutorService virtualExecutor;
+    private final int maxConcurrency;
+    private final Semaphore concurrencyPermits;
+    private final Semaphore admissionPermits;
+    private final AtomicInteger waitingCount = new AtomicInteger();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final LongAdder completedCount = new LongAdder();
+
+    /**
+     * Kind of threads running the provisioning operations.
+     */
+    public enum ThreadMode {
+
+        /**
+         * Run the operations on a fixed pool of platform threads.
+         */
+        PLATFORM,
+
+        /**
+         * Run every operation on its own virtual thread, limiting the operations running at a time with a
+         * semaphore.
+         */
+        VIRTUAL;
+
+        /**
+         * Returns the mode matching the given configuration value, or {@link #PLATFORM} if the value is empty or
+         * unknown.
+         */
+        public static ThreadMode fromValue(String value) {
+
+            if (StringUtils.isNotBlank(value)) {
+                for (ThreadMode mode : values()) {
+                    if (mode.name().equalsIgnoreCase(value.trim())) {
+                        return mode;
+                    }
+                }
+                log.warn("Unknown thread mode : " + value + " for asynchronous provisioning. Using "
+                        + PLATFORM.name() + " instead.");
+            }
+            return PLATFORM;
+        }
+    }
+
+    /**
+     * Behaviour of {@link #submit(ProvisioningTask)} when all the workers are busy and the queue is full.
+     */
+    public enum RejectionPolicy {
+
+        /**
+         * Block the caller until there is space in the queue.
+         */
+        BLOCK,
+
+        /**
+         * Fail the submission with an {@link IdentityProvisioningException}.
+         */
+        REJECT,
+
+        /**
+         * Run the operation on the thread of the caller.
+         */
+        CALLER_RUNS;
+
+        /**
+         * Returns the policy matching the given configuration value, or {@link #BLOCK} if the value is empty or
+         * unknown.
+         */
+        public static RejectionPolicy fromValue(String value) {
+
+            if (StringUtils.isNotBlank(value)) {
+                for (RejectionPolicy policy : values()) {
+                    if (policy.name().equalsIgnoreCase(value.trim().replace('-', '_'))) {
+                        return policy;
+                    }
+                }
+                log.warn("Unknown rejection policy : " + value + " for the asynchronous provisioning queue. Using "
+                        + BLOCK.name() + " instead.");
+            }
+            return BLOCK;
+        }
+    }
+
+    /**
+     * Provisioning operation run by a worker.
+     *
+     * @param <T> Type of the result.
+     */
+    @FunctionalInterface
+    public interface ProvisioningTask<T> {
+
+        T run() throws IdentityProvisioningException;
+    }
+
+    /**
+     * @param workers         Maximum number of worker threads.
+     * @param queueCapacity   Maximum number of operations waiting for a worker.
+     * @param rejectionPolicy Behaviour when the queue is full.
+     */
+    public AsyncProvisioningExecutor(int workers, int queueCapacity, RejectionPolicy rejectionPolicy) {
+
+        this(workers, queueCapacity, rejectionPolicy, ThreadMode.PLATFORM);
+    }
+
+    /**
+     * @param workers         Maximum number of operations running at a time.
+     * @param queueCapacity   Maximum number of operations waiting to run.
+     * @param rejectionPolicy Behaviour when the queue is full.
+     * @param threadMode      Kind of threads running the operations.
+     */
+    public AsyncProvisioningExecutor(int workers, int queueCapacity, RejectionPolicy rejectionPolicy,
+                                     ThreadMode threadMode) {
+
+        this.rejectionPolicy = rejectionPolicy != null ? rejectionPolicy : RejectionPolicy.BLOCK;
+        this.maxConcurrency = Math.max(1, workers);
+        if (threadMode == ThreadMode.VIRTUAL) {
+            this.queueCapacity = Math.max(1, queueCapacity);
+            this.executor = null;
+            this.virtualExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual()
+                    .name("GoogleProvisioningVirtualWorker-" + executorId + "-", 1).factory());
+            this.concurrencyPermits = new Semaphore(maxConcurrency, true);
+            this.admissionPermits = new Semaphore(maxConcurrency + this.queueCapacity);
+            return;
+        }
+
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.executor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, WORKER_KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS, new ArrayBlockingQueue<>(this.queueCapacity), new WorkerThreadFactory(executorId),
+                new SaturationHandler());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.virtualExecutor = null;
+        this.concurrencyPermits = null;
+        this.admissionPermits = null;
+    }
+
+    /**
+     * Queues the given operation and returns a future that completes with its result once a worker has run it.
+     * If the operation fails, the future completes exceptionally with the {@link IdentityProvisioningException}
+     * thrown by the operation.
+     *
+     * @param task Provisioning operation.
+     * @param <T>  Type of the result.
+     * @return Future result of the operation.
+     * @throws IdentityProvisioningException If the operation cannot be queued.
+     */
+    public <T> CompletableFuture<T> submit(ProvisioningTask<T> task) throws IdentityProvisioningException {
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CallerTenant tenant = CallerTenant.capture();
+        Runnable operation = () -> {
+            tenant.startTenantFlow();
+            try {
+                result.complete(task.run());
+            } catch (IdentityProvisioningException | RuntimeException e) {
+                result.completeExceptionally(e);
+            } finally {
+                tenant.endTenantFlow();
+            }
+        };
+        try {
+            if (virtualExecutor != null) {
+                executeOnVirtualThread(operation);
+            } else {
+                executor.execute(operation);
+            }
+        } catch (RejectedExecutionException e) {
+            throw new IdentityProvisioningException("Asynchronous provisioning queue of the Google connector is " +
+                    "full or shut down", e);
+        }
+        return result;
+    }
+
+    /**
+     * Starts a virtual thread running the given operation once a concurrency permit is available. At most the
+     * capacity of the queue of operations may wait for a permit, beyond which the rejection policy is applied.
+     */
+    private void executeOnVirtualThread(Runnable operation) {
+
+        if (virtualExecutor.isShutdown()) {
+            throw new RejectedExecutionException("Asynchronous provisioning executor is shut down");
+        }
+        if (!admissionPermits.tryAcquire()) {
+            saturatedCount.increment();
+            if (log.isDebugEnabled()) {
+                log.debug("Asynchronous provisioning queue is full. Applying the rejection policy : "
+                        + rejectionPolicy.name());
+            }
+            switch (rejectionPolicy) {
+                case REJECT:
+                    throw new RejectedExecutionException("Asynchronous provisioning queue is full");
+                case CALLER_RUNS:
+                    runWithPermit(operation, false);
+                    return;
+                default:
+                    try {
+                        admissionPermits.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted while waiting for space in the " +
+                                "asynchronous provisioning queue", e);
+                    }
+            }
+        }
+
+        waitingCount.incrementAndGet();
+        try {
+            virtualExecutor.execute(() -> {
+                try {
+                    runWithPermit(operation, true);
+                } finally {
+                    admissionPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            waitingCount.decrementAndGet();
+            admissionPermits.release();
+            throw e;
+        }
+    }
+
+    private void runWithPermit(Runnable operation, boolean queued) {
+
+        concurrencyPermits.acquireUninterruptibly();
+        if (queued) {
+            waitingCount.decrementAndGet();
+        }
+        activeCount.incrementAndGet();
+        try {
+            operation.run();
+        } finally {
+            activeCount.decrementAndGet();
+            concurrencyPermits.release();
+            completedCount.increment();
+        }
+    }
+
+    /**
+     * Returns the number of operations waiting for a worker.
+     */
+    public int getQueueDepth() {
+
+        return virtualExecutor != null ? waitingCount.get() : executor.getQueue().size();
+    }
+
+    public int getQueueCapacity() {
+
+        return queueCapacity;
+    }
+
+    /**
+     * Returns the number of workers currently running an operation.
+     */
+    public int getActiveWorkers() {
+
+        return virtualExecutor != null ? activeCount.get() : executor.getActiveCount();
+    }
+
+    /**
+     * Returns the maximum number of operations running at a time, which is the size of the pool of platform
+     * threads or the number of concurrency permits when operations run on virtual threads.
+     */
+    public int getMaxWorkers() {
+
+        return virtualExecutor != null ? maxConcurrency : executor.getMaximumPoolSize();
+    }
+
+    /**
+     * Returns the fraction of the maximum number of workers that are currently running an operation.
+     */
+    public double getWorkerUtilization() {
+
+        return (double) getActiveWorkers() / getMaxWorkers();
+    }
+
+    /**
+     * Returns the number of operations that found the queue full, and were therefore blocked, rejected or run by
+     * the caller depending on the rejection policy.
+     */
+    public long getSaturatedCount() {
+
+        return saturatedCount.sum();
+    }
+
+    public long getCompletedCount() {
+
+        return virtualExecutor != null ? completedCount.sum() : executor.getCompletedTaskCount();
+    }
+
+    public RejectionPolicy getRejectionPolicy() {
+
+        return rejectionPolicy;
+    }
+
+    /**
+     * Returns the kind of threads running the operations.
+     */
+    public ThreadMode getThreadMode() {
+
+        return virtualExecutor != null ? ThreadMode.VIRTUAL : ThreadMode.PLATFORM;
+    }
+
+    /**
+     * Stops accepting new operations. Operations already queued are still run.
+     */
+    public void shutdown() {
+
+        if (virtualExecutor != null) {
+            virtualExecutor.shutdown();
+        } else {
+            executor.shutdown();
+        }
+    }
+
+    private final class SaturationHandler implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor threadPoolExecutor) {
+
+            if (threadPoolExecutor.isShutdown()) {
+                throw new RejectedExecutionException("Asynchronous provisioning executor is shut down");
+            }
+            saturatedCount.increment();
+            if (log.isDebugEnabled()) {
+                log.debug("Asynchronous provisioning queue is full. Applying the rejection policy : "
+                        + rejectionPolicy.name());
+            }
+            switch (rejectionPolicy) {
+                case REJECT:
+                    throw new RejectedExecutionException("Asynchronous provisioning queue is full");
+                case CALLER_RUNS:
+                    runnable.run();
+                    break;
+                default:
+                    try {
+                        threadPoolExecutor.getQueue().put(runnable);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted while waiting for space in the " +
+                                "asynchronous provisioning queue", e);
+                    }
+                    // The workers may be gone if the executor was shut down while the caller waited, so the
+                    // operation is taken back unless a worker has already picked it up.
+                    if (threadPoolExecutor.isShutdown() && threadPoolExecutor.getQueue().remove(runnable)) {
+                        throw new RejectedExecutionException("Asynchronous provisioning executor is shut down");
+                    }
+            }
+        }
+    }
+
+    /**
+     * Tenant of the thread submitting an operation, which is set on the carbon context of the thread running it.
+     */
+    private static final class CallerTenant {
+
+        private final String tenantDomain;
+        private final int tenantId;
+
+        private CallerTenant(String tenantDomain, int tenantId) {
+
+            this.tenantDomain = tenantDomain;
+            this.tenantId = tenantId;
+        }
+
+        private static CallerTenant capture() {
+
+            PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+            if (carbonContext == null) {
+                return new CallerTenant(null, 0);
+            }
+            return new CallerTenant(carbonContext.getTenantDomain(), carbonContext.getTenantId());
+        }
+
+        private void startTenantFlow() {
+
+            if (tenantDomain == null) {
+                return;
+            }
+            PrivilegedCarbonContext.startTenantFlow();
+            PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+            carbonContext.setTenantDomain(tenantDomain);
+            carbonContext.setTenantId(tenantId);
+        }
+
+        private void endTenantFlow() {
+
+            if (tenantDomain != null) {
+                PrivilegedCarbonContext.endTenantFlow();
+            }
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+
+        private final int executorId;
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        private WorkerThreadFactory(int executorId) {
+
+            this.executorId = executorId;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+
+            Thread thread = new Thread(runnable, "GoogleProvisioningWorker-" + executorId + "-"
+                    + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
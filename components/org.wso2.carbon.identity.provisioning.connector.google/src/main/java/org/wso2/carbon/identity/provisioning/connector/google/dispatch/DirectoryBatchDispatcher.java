@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.dispatch;
+
+import com.google.api.client.googleapis.batch.BatchRequest;
+import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.googleapis.services.AbstractGoogleClient;
+import com.google.api.client.googleapis.services.json.AbstractGoogleJsonClientRequest;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.HttpStatusCodes;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.provisioning.connector.google.client.AdaptiveConcurrencyLimiter;
+import org.wso2.carbon.identity.provisioning.connector.google.client.RetryingHttpRequestInitializer;
+import org.wso2.carbon.identity.provisioning.connector.google.jfr.BatchFlushEvent;
+import org.wso2.carbon.identity.provisioning.connector.google.jfr.FlightRecorderSupport;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Groups Directory API requests issued by concurrent provisioning calls into Google HTTP batch requests.
+ * <p>
+ * A request is added to the open batch and the calling thread waits for its result. The batch is sent as a single
+ * multipart request once it holds the maximum number of requests, or once the linger time of the batch has elapsed.
+ * The flush is performed by one of the waiting callers, so the dispatcher does not need threads of its own. The
+ * result of each part is handed back to the caller that issued it, and a failed part is reported to its caller as a
+ * {@link GoogleJsonResponseException}, the same way as a request executed on its own.
+ * <p>
+ * When a concurrency limit is given, each batch request takes a single slot of the limit while it is sent, so that
+ * the time callers wait for their batch to fill up is not counted as latency of Google.
+ */
+public class DirectoryBatchDispatcher {
+
+    /**
+     * Maximum number of calls Google accepts in a single batch request.
+     */
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * Path of the Admin SDK Directory API batch endpoint, relative to the root URL of the Directory client.
+     */
+    public static final String BATCH_PATH = "batch/admin/directory_v1";
+
+    private static final Log log = LogFactory.getLog(DirectoryBatchDispatcher.class);
+
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final Object lock = new Object();
+    private Batch openBatch;
+
+    /**
+     * @param maxBatchSize  Number of requests that triggers sending the batch, capped at {@link #MAX_BATCH_SIZE}.
+     * @param lingerMillis  Maximum time a request waits for other requests to join its batch.
+     */
+    public DirectoryBatchDispatcher(int maxBatchSize, long lingerMillis) {
+
+        this(maxBatchSize, lingerMillis, null);
+    }
+
+    /**
+     * @param maxBatchSize       Number of requests that triggers sending the batch, capped at {@link #MAX_BATCH_SIZE}.
+     * @param lingerMillis       Maximum time a request waits for other requests to join its batch.
+     * @param concurrencyLimiter Limiter of the requests in flight, or null.
+     */
+    public DirectoryBatchDispatcher(int maxBatchSize, long lingerMillis,
+                                    AdaptiveConcurrencyLimiter concurrencyLimiter) {
+
+        this.maxBatchSize = Math.max(1, Math.min(maxBatchSize, MAX_BATCH_SIZE));
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, lingerMillis));
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    /**
+     * Adds the request to the open batch and waits until the batch is sent and the response of the request is
+     * available.
+     *
+     * @param request Directory API request.
+     * @param <T>     Type of the response.
+     * @return Parsed response of the request.
+     * @throws IOException If the request failed or the batch could not be sent.
+     */
+    public <T> T execute(AbstractGoogleJsonClientRequest<T> request) throws IOException {
+
+        BatchEntry<T> entry = new BatchEntry<>(request);
+        Batch batch;
+        Batch fullBatch = null;
+        synchronized (lock) {
+            if (openBatch == null) {
+                openBatch = new Batch();
+            }
+            batch = openBatch;
+            batch.entries.add(entry);
+            if (batch.entries.size() >= maxBatchSize) {
+                fullBatch = closeOpenBatch();
+            }
+        }
+
+        if (fullBatch != null) {
+            send(fullBatch, true);
+        } else {
+            long remainingNanos = batch.createdTime + lingerNanos - System.nanoTime();
+            try {
+                if (remainingNanos > 0) {
+                    entry.result.get(remainingNanos, TimeUnit.NANOSECONDS);
+                }
+            } catch (TimeoutException e) {
+                // Linger time of the batch elapsed. Fall through and send the batch unless another caller has.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the Google batch request");
+            } catch (ExecutionException e) {
+                // Handled below when reading the result.
+            }
+
+            Batch lingeredBatch = null;
+            synchronized (lock) {
+                if (openBatch == batch) {
+                    lingeredBatch = closeOpenBatch();
+                }
+            }
+            if (lingeredBatch != null) {
+                send(lingeredBatch, false);
+            }
+        }
+        return getResult(entry);
+    }
+
+    private Batch closeOpenBatch() {
+
+        Batch batch = openBatch;
+        openBatch = null;
+        return batch;
+    }
+
+    private void send(Batch batch, boolean full) {
+
+        // A batch request is bound to a single client. Requests of different clients only meet in the same batch when
+        // the connector is reconfigured while requests are in flight.
+        Map<AbstractGoogleClient, List<BatchEntry<?>>> entriesByClient = new IdentityHashMap<>();
+        for (BatchEntry<?> entry : batch.entries) {
+            entriesByClient.computeIfAbsent(entry.request.getAbstractGoogleClient(), client -> new ArrayList<>())
+                    .add(entry);
+        }
+
+        for (Map.Entry<AbstractGoogleClient, List<BatchEntry<?>>> clientEntries : entriesByClient.entrySet()) {
+            AbstractGoogleClient client = clientEntries.getKey();
+            List<BatchEntry<?>> entries = clientEntries.getValue();
+            List<AbstractGoogleJsonClientRequest<?>> requests = new ArrayList<>(entries.size());
+            BatchFlushEvent event = FlightRecorderSupport.isAvailable() ? BatchFlushEvent.start() : null;
+            int statusCode = 0;
+            try {
+                BatchRequest batchRequest = client.batch();
+                batchRequest.setBatchUrl(new GenericUrl(client.getRootUrl() + BATCH_PATH));
+                for (BatchEntry<?> entry : entries) {
+                    entry.queue(batchRequest);
+                    requests.add(entry.request);
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug("Sending a Google batch request with " + batchRequest.size() + " requests");
+                }
+                executeWithinLimit(batchRequest);
+                statusCode = HttpStatusCodes.STATUS_CODE_OK;
+            } catch (IOException | RuntimeException e) {
+                if (e instanceof HttpResponseException) {
+                    statusCode = ((HttpResponseException) e).getStatusCode();
+                }
+                for (BatchEntry<?> entry : entries) {
+                    entry.result.completeExceptionally(e);
+                }
+            }
+            int failedCount = 0;
+            for (BatchEntry<?> entry : entries) {
+                if (!entry.result.isDone()) {
+                    entry.result.completeExceptionally(new IOException("No response received for the request in " +
+                            "the Google batch response"));
+                }
+                if (entry.result.isCompletedExceptionally()) {
+                    failedCount++;
+                }
+            }
+            if (event != null) {
+                event.finish(requests, failedCount, full, statusCode);
+            }
+        }
+    }
+
+    private void executeWithinLimit(BatchRequest batchRequest) throws IOException {
+
+        AdaptiveConcurrencyLimiter limiter = concurrencyLimiter;
+        if (limiter == null) {
+            batchRequest.execute();
+            return;
+        }
+        try {
+            limiter.enter();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the Google concurrency limit");
+        }
+        boolean dropped = false;
+        try {
+            batchRequest.execute();
+        } catch (HttpResponseException e) {
+            dropped = RetryingHttpRequestInitializer.isRetryableStatus(e.getStatusCode());
+            throw e;
+        } catch (IOException e) {
+            dropped = true;
+            throw e;
+        } finally {
+            limiter.exit(dropped);
+        }
+    }
+
+    private <T> T getResult(BatchEntry<T> entry) throws IOException {
+
+        try {
+            return entry.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the Google batch request");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Error while executing the Google batch request", cause);
+        }
+    }
+
+    private static final class Batch {
+
+        private final long createdTime = System.nanoTime();
+        private final List<BatchEntry<?>> entries = new ArrayList<>();
+    }
+
+    private static final class BatchEntry<T> {
+
+        private final AbstractGoogleJsonClientRequest<T> request;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private BatchEntry(AbstractGoogleJsonClientRequest<T> request) {
+
+            this.request = request;
+        }
+
+        private void queue(BatchRequest batchRequest) throws IOException {
+
+            request.queue(batchRequest, new JsonBatchCallback<T>() {
+
+                @Override
+                public void onSuccess(T response, HttpHeaders responseHeaders) {
+
+                    result.complete(response);
+                }
+
+                @Override
+                public void onFailure(GoogleJsonError error, HttpHeaders responseHeaders) {
+
+                    HttpResponseException.Builder builder = new HttpResponseException.Builder(error.getCode(),
+                            error.getMessage(), responseHeaders);
+                    result.completeExceptionally(new GoogleJsonResponseException(builder, error));
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.dispatch;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.application.common.model.ClaimMapping;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningException;
+import org.wso2.carbon.identity.provisioning.ProvisionedIdentifier;
+import org.wso2.carbon.identity.provisioning.ProvisioningEntity;
+import org.wso2.carbon.identity.provisioning.ProvisioningOperation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces the queued provisioning operations of each entity before they are sent to Google.
+ * <p>
+ * Operations are keyed by the entity type and name, falling back to the provisioned identifier. Operations of the
+ * same entity run one at a time in the order they were submitted, while operations of different entities run in
+ * parallel on the workers of the {@link AsyncProvisioningExecutor}. Unless coalescing is turned off, in which case
+ * the operations are only kept in order, while an operation waits for the previous operation of its entity:
+ * <ul>
+ * <li>a PUT following a waiting PUT is merged into it, the claims of the later PUT overriding the earlier ones,
+ * and both callers receive the result of the single update. Just-in-time updates are not merged with the other
+ * updates,</li>
+ * <li>a DELETE discards the waiting PUTs, and if the entity is still waiting to be created, the DELETE and the POST
+ * are both discarded without calling Google.</li>
+ * </ul>
+ * Discarded operations complete with the result they would have returned when run: a POST with null, since no user
+ * was created, a PUT with null and a DELETE with an empty identifier.
+ */
+public class OperationCoalescer {
+
+    private static final Log log = LogFactory.getLog(OperationCoalescer.class);
+
+    private final AsyncProvisioningExecutor executor;
+    private final EntityProvisioner provisioner;
+    private final boolean coalescing;
+    private final Map<String, EntityQueue> queues = new HashMap<>();
+    private final LongAdder mergedCount = new LongAdder();
+    private final LongAdder discardedCount = new LongAdder();
+
+    /**
+     * Provisions a single entity to Google.
+     */
+    @FunctionalInterface
+    public interface EntityProvisioner {
+
+        ProvisionedIdentifier provision(ProvisioningEntity provisioningEntity) throws IdentityProvisioningException;
+    }
+
+    /**
+     * @param executor    Executor running the operations.
+     * @param provisioner Provisions a single entity to Google.
+     */
+    public OperationCoalescer(AsyncProvisioningExecutor executor, EntityProvisioner provisioner) {
+
+        this(executor, provisioner, true);
+    }
+
+    /**
+     * @param executor    Executor running the operations.
+     * @param provisioner Provisions a single entity to Google.
+     * @param coalescing  Whether waiting operations are merged or discarded, rather than only kept in order.
+     */
+    public OperationCoalescer(AsyncProvisioningExecutor executor, EntityProvisioner provisioner, boolean coalescing) {
+
+        this.executor = executor;
+        this.provisioner = provisioner;
+        this.coalescing = coalescing;
+    }
+
+    /**
+     * Queues the given operation behind the waiting operations of the same entity, merging or discarding waiting
+     * operations where possible.
+     *
+     * @param provisioningEntity Entity to provision.
+     * @return Future identifier of the provisioned entity.
+     * @throws IdentityProvisioningException If the operation cannot be queued.
+     */
+    public CompletableFuture<ProvisionedIdentifier> submit(ProvisioningEntity provisioningEntity)
+            throws IdentityProvisioningException {
+
+        String key = getKey(provisioningEntity);
+        if (key == null) {
+            return executor.submit(() -> provisioner.provision(provisioningEntity));
+        }
+
+        PendingOperation operation;
+        EntityQueue queue;
+        synchronized (queues) {
+            queue = queues.get(key);
+            if (queue != null) {
+                return enqueue(queue, provisioningEntity);
+            }
+            queue = new EntityQueue();
+            operation = new PendingOperation(provisioningEntity);
+            queue.pending.add(operation);
+            queues.put(key, queue);
+        }
+
+        // There was no queue for the entity, so start a worker that drains the new queue.
+        EntityQueue drainedQueue = queue;
+        try {
+            executor.submit(() -> {
+                drain(key, drainedQueue);
+                return null;
+            });
+        } catch (IdentityProvisioningException e) {
+            // Operations of other callers may have been queued behind this one since the queue became visible, and
+            // nothing will run them, so they fail with the rejection.
+            List<PendingOperation> rejected;
+            synchronized (queues) {
+                queues.remove(key, drainedQueue);
+                rejected = new ArrayList<>(drainedQueue.pending);
+                drainedQueue.pending.clear();
+            }
+            for (PendingOperation pending : rejected) {
+                pending.result.completeExceptionally(e);
+            }
+            throw e;
+        }
+        return operation.result;
+    }
+
+    /**
+     * Returns the number of operations merged into a waiting operation of the same entity.
+     */
+    public long getMergedCount() {
+
+        return mergedCount.sum();
+    }
+
+    /**
+     * Returns the number of operations completed without calling Google because a later DELETE made them
+     * unnecessary.
+     */
+    public long getDiscardedCount() {
+
+        return discardedCount.sum();
+    }
+
+    /**
+     * Returns the number of entities that have operations running or waiting.
+     */
+    public int getActiveEntityCount() {
+
+        synchronized (queues) {
+            return queues.size();
+        }
+    }
+
+    private CompletableFuture<ProvisionedIdentifier> enqueue(EntityQueue queue, ProvisioningEntity entity) {
+
+        if (!coalescing) {
+            PendingOperation operation = new PendingOperation(entity);
+            queue.pending.add(operation);
+            return operation.result;
+        }
+
+        PendingOperation last = queue.pending.peekLast();
+        // Updates are merged only when they are both just-in-time or both not, since the connector may be configured
+        // to skip just-in-time provisioning.
+        if (entity.getOperation() == ProvisioningOperation.PUT && last != null
+                && last.entity.getOperation() == ProvisioningOperation.PUT
+                && last.entity.isJitProvisioning() == entity.isJitProvisioning()) {
+            last.merge(entity);
+            mergedCount.increment();
+            if (log.isDebugEnabled()) {
+                log.debug("Merged update of the entity : " + entity.getEntityName() + " into a waiting update");
+            }
+            return last.result;
+        }
+
+        if (entity.getOperation() == ProvisioningOperation.DELETE) {
+            List<PendingOperation> discarded = new ArrayList<>();
+            boolean creationDiscarded = false;
+            Iterator<PendingOperation> iterator = queue.pending.descendingIterator();
+            while (iterator.hasNext()) {
+                PendingOperation waiting = iterator.next();
+                ProvisioningOperation waitingOperation = waiting.entity.getOperation();
+                if (waitingOperation != ProvisioningOperation.PUT && waitingOperation != ProvisioningOperation.POST) {
+                    break;
+                }
+                iterator.remove();
+                discarded.add(waiting);
+                if (waitingOperation == ProvisioningOperation.POST) {
+                    creationDiscarded = true;
+                    break;
+                }
+            }
+            for (PendingOperation waiting : discarded) {
+                discardedCount.increment();
+                waiting.result.complete(null);
+            }
+            if (creationDiscarded) {
+                discardedCount.increment();
+                if (log.isDebugEnabled()) {
+                    log.debug("Entity : " + entity.getEntityName() + " was deleted before it was created. " +
+                            "Discarded both operations.");
+                }
+                return CompletableFuture.completedFuture(new ProvisionedIdentifier());
+            }
+        }
+
+        PendingOperation operation = new PendingOperation(entity);
+        queue.pending.add(operation);
+        return operation.result;
+    }
+
+    private void drain(String key, EntityQueue queue) {
+
+        while (true) {
+            PendingOperation operation;
+            synchronized (queues) {
+                operation = queue.pending.poll();
+                if (operation == null) {
+                    queues.remove(key);
+                    return;
+                }
+            }
+            try {
+                operation.result.complete(provisioner.provision(operation.entity));
+            } catch (IdentityProvisioningException | RuntimeException e) {
+                operation.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static String getKey(ProvisioningEntity entity) {
+
+        if (StringUtils.isNotBlank(entity.getEntityName())) {
+            return entity.getEntityType() + ":" + entity.getEntityName();
+        }
+        if (hasIdentifier(entity)) {
+            return entity.getEntityType() + "#" + entity.getIdentifier().getIdentifier();
+        }
+        return null;
+    }
+
+    private static boolean hasIdentifier(ProvisioningEntity entity) {
+
+        return entity.getIdentifier() != null && StringUtils.isNotBlank(entity.getIdentifier().getIdentifier());
+    }
+
+    private static final class EntityQueue {
+
+        private final Deque<PendingOperation> pending = new ArrayDeque<>();
+    }
+
+    private static final class PendingOperation {
+
+        private final CompletableFuture<ProvisionedIdentifier> result = new CompletableFuture<>();
+        private ProvisioningEntity entity;
+
+        private PendingOperation(ProvisioningEntity entity) {
+
+            this.entity = entity;
+        }
+
+        /**
+         * Replaces the entity with one carrying the claims of both updates, the claims of the later update taking
+         * precedence. The name and the provisioned identifier of the earlier update are kept when the later update
+         * does not carry them.
+         */
+        private void merge(ProvisioningEntity later) {
+
+            Map<ClaimMapping, List<String>> attributes = new LinkedHashMap<>();
+            if (entity.getAttributes() != null) {
+                attributes.putAll(entity.getAttributes());
+            }
+            if (later.getAttributes() != null) {
+                attributes.putAll(later.getAttributes());
+            }
+            String entityName = StringUtils.isNotBlank(later.getEntityName()) ? later.getEntityName()
+                    : entity.getEntityName();
+            ProvisioningEntity merged = new ProvisioningEntity(later.getEntityType(), entityName,
+                    later.getOperation(), attributes);
+            merged.setIdentifier(hasIdentifier(later) ? later.getIdentifier() : entity.getIdentifier());
+            merged.setJitProvisioning(later.isJitProvisioning());
+            entity = merged;
+        }
+    }
+}
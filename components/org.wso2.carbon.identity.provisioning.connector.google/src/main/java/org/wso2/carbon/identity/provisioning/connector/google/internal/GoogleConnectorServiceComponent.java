@@ -23,8 +23,16 @@ import org.apache.commons.logging.LogFactory;
 import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.wso2.carbon.identity.provisioning.AbstractProvisioningConnectorFactory;
 import org.wso2.carbon.identity.provisioning.connector.google.GoogleProvisioningConnectorFactory;
+import org.wso2.carbon.identity.provisioning.connector.google.client.AccessTokenCache;
+import org.wso2.carbon.identity.provisioning.connector.google.metrics.ProvisioningMetrics;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 //TODO : Add dependency to IdP MetadataService
 
@@ -56,6 +64,47 @@ public class GoogleConnectorServiceComponent {
         } catch (Throwable e) {
             log.error("Error while activating Google Identity Provisioning Connector", e);
         }
+
+        registerMetrics();
+    }
+
+    @Deactivate
+    protected void deactivate(ComponentContext context) {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Deactivating GoogleConnectorServiceComponent");
+        }
+        unregisterMetrics();
+        AccessTokenCache.getInstance().shutdown();
+    }
+
+    /**
+     * Publishes the provisioning metrics on the platform MBean server. Failing to do so does not stop the connector
+     * from working.
+     */
+    private void registerMetrics() {
+
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(ProvisioningMetrics.OBJECT_NAME);
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(ProvisioningMetrics.getInstance(), objectName);
+            }
+        } catch (JMException | RuntimeException e) {
+            log.warn("Error while registering the Google provisioning metrics MBean", e);
+        }
     }
 
+    private void unregisterMetrics() {
+
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(ProvisioningMetrics.OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException | RuntimeException e) {
+            log.warn("Error while unregistering the Google provisioning metrics MBean", e);
+        }
+    }
 }
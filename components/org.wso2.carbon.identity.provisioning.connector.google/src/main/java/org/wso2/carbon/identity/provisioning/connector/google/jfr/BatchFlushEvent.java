@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.jfr;
+
+import com.google.api.client.googleapis.services.json.AbstractGoogleJsonClientRequest;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.List;
+
+/**
+ * Flight Recorder event of a batch of Directory API requests sent to Google as a single HTTP request.
+ */
+@Name(BatchFlushEvent.NAME)
+@Label("Google Batch Flush")
+@Category({"WSO2", "Google Provisioning"})
+@Description("Batch of Directory API requests sent to Google")
+@StackTrace(false)
+public class BatchFlushEvent extends Event {
+
+    public static final String NAME = "org.wso2.carbon.identity.provisioning.connector.google.BatchFlush";
+
+    @Label("Requests")
+    @Description("Number of Directory API requests in the batch")
+    int requestCount;
+
+    @Label("Failed Requests")
+    @Description("Number of requests in the batch that did not succeed")
+    int failedCount;
+
+    @Label("Full")
+    @Description("Whether the batch was sent for being full rather than for its linger time elapsing")
+    boolean full;
+
+    @Label("Payload Size")
+    @Description("Total size of the JSON content of the requests in the batch")
+    @DataAmount
+    long payloadSize;
+
+    @Label("Status")
+    @Description("HTTP status of the batch response, or 0 if no response was received")
+    int status;
+
+    /**
+     * Starts the event of a batch flush.
+     */
+    public static BatchFlushEvent start() {
+
+        BatchFlushEvent event = new BatchFlushEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event and commits it if it is recorded.
+     *
+     * @param requests    Requests in the batch.
+     * @param failedCount Number of requests that did not succeed.
+     * @param full        Whether the batch was sent for being full.
+     * @param status      HTTP status of the batch response, or 0 if no response was received.
+     */
+    public void finish(List<? extends AbstractGoogleJsonClientRequest<?>> requests, int failedCount, boolean full,
+                       int status) {
+
+        end();
+        if (shouldCommit()) {
+            long size = 0;
+            for (AbstractGoogleJsonClientRequest<?> request : requests) {
+                size += Math.max(JsonPayloads.getSize(request), 0);
+            }
+            this.requestCount = requests.size();
+            this.failedCount = failedCount;
+            this.full = full;
+            this.payloadSize = size;
+            this.status = status;
+            commit();
+        }
+    }
+}
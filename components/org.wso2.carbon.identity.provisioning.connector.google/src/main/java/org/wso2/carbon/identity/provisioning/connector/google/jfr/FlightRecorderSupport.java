@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.jfr;
+
+/**
+ * Tells whether the Flight Recorder API can be used by the connector.
+ * <p>
+ * The {@code jdk.jfr} package is imported optionally, so the bundle also resolves on a runtime that does not export
+ * it. The event classes of this package extend {@code jdk.jfr.Event} and fail to load there, hence callers only start
+ * an event after checking {@link #isAvailable()}. This class does not refer to the Flight Recorder API itself.
+ */
+public final class FlightRecorderSupport {
+
+    private static final String EVENT_CLASS = "jdk.jfr.Event";
+    private static final boolean AVAILABLE = loadEventClass();
+
+    private FlightRecorderSupport() {
+
+    }
+
+    /**
+     * Returns whether the Flight Recorder API is available, so that the events of the connector can be started.
+     */
+    public static boolean isAvailable() {
+
+        return AVAILABLE;
+    }
+
+    private static boolean loadEventClass() {
+
+        try {
+            Class.forName(EVENT_CLASS, false, FlightRecorderSupport.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
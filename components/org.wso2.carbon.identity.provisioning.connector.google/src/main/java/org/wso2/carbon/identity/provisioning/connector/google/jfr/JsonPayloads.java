@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.jfr;
+
+import com.google.api.client.googleapis.services.json.AbstractGoogleJsonClientRequest;
+
+import java.io.IOException;
+
+/**
+ * Sizes of the JSON content of Directory API requests reported by the Flight Recorder events.
+ */
+final class JsonPayloads {
+
+    private JsonPayloads() {
+
+    }
+
+    /**
+     * Returns the size in bytes of the JSON content of the given request, 0 if it has no content, or -1 if the
+     * content cannot be serialized.
+     */
+    static long getSize(AbstractGoogleJsonClientRequest<?> request) {
+
+        Object content = request.getJsonContent();
+        if (content == null) {
+            return 0;
+        }
+        try {
+            return request.getAbstractGoogleClient().getJsonFactory().toByteArray(content).length;
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+}
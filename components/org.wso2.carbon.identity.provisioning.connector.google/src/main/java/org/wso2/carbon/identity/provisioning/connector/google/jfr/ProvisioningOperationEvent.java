@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.jfr;
+
+import com.google.api.client.googleapis.services.json.AbstractGoogleJsonClientRequest;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a provisioning operation run by the connector, from mapping the entity until Google
+ * responded to the Directory API request of the operation.
+ * <p>
+ * The event is started with {@link #start()} on the thread running the operation. While the event type is enabled,
+ * the Directory API request sent by the operation is recorded with {@link #recordRequest} so that its status and
+ * payload size are reported. The payload size is only computed for the events that are committed.
+ */
+@Name(ProvisioningOperationEvent.NAME)
+@Label("Google Provisioning Operation")
+@Category({"WSO2", "Google Provisioning"})
+@Description("Provisioning operation of an entity to Google")
+@StackTrace(false)
+public class ProvisioningOperationEvent extends Event {
+
+    public static final String NAME = "org.wso2.carbon.identity.provisioning.connector.google.ProvisioningOperation";
+
+    private static final ThreadLocal<ProvisioningOperationEvent> current = new ThreadLocal<>();
+
+    @Label("Operation")
+    @Description("Provisioning operation, such as POST, PUT or DELETE")
+    String operation;
+
+    @Label("Entity Type")
+    String entityType;
+
+    @Label("Entity Name Hash")
+    @Description("Hash code of the name of the provisioned entity, which is not recorded itself")
+    int entityNameHash;
+
+    @Label("Payload Size")
+    @Description("Size of the JSON content of the Directory API request, or 0 if the request has none")
+    @DataAmount
+    long payloadSize;
+
+    @Label("Status")
+    @Description("HTTP status of the Directory API response, or 0 if no response was received")
+    int status;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    private transient AbstractGoogleJsonClientRequest<?> request;
+    private transient boolean registered;
+
+    /**
+     * Starts the event of a provisioning operation run on the calling thread.
+     */
+    public static ProvisioningOperationEvent start() {
+
+        ProvisioningOperationEvent event = new ProvisioningOperationEvent();
+        if (event.isEnabled()) {
+            current.set(event);
+            event.registered = true;
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Records the Directory API request sent by the provisioning operation running on the calling thread, if its
+     * event is recorded.
+     *
+     * @param request Directory API request.
+     * @param status  HTTP status of the response, or a non positive value if no response was received.
+     */
+    public static void recordRequest(AbstractGoogleJsonClientRequest<?> request, int status) {
+
+        ProvisioningOperationEvent event = current.get();
+        if (event != null) {
+            event.request = request;
+            event.status = Math.max(status, 0);
+        }
+    }
+
+    /**
+     * Ends the event and commits it if it is recorded.
+     *
+     * @param operation  Provisioning operation.
+     * @param entityType Type of the provisioned entity.
+     * @param entityName Name of the provisioned entity.
+     * @param succeeded  Whether the operation succeeded.
+     */
+    public void finish(String operation, String entityType, String entityName, boolean succeeded) {
+
+        end();
+        if (registered) {
+            current.remove();
+        }
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.entityType = entityType;
+            this.entityNameHash = entityName != null ? entityName.hashCode() : 0;
+            this.payloadSize = request != null ? JsonPayloads.getSize(request) : 0;
+            this.succeeded = succeeded;
+            commit();
+        }
+        request = null;
+    }
+}
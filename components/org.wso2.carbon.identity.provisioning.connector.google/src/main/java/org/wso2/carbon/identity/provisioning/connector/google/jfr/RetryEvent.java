@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of the backoff before a failed Directory API request is retried. The duration of the event
+ * is the time waited before the retry.
+ */
+@Name(RetryEvent.NAME)
+@Label("Google Request Retry")
+@Category({"WSO2", "Google Provisioning"})
+@Description("Backoff before a failed Directory API request is retried")
+@StackTrace(false)
+public class RetryEvent extends Event {
+
+    public static final String NAME = "org.wso2.carbon.identity.provisioning.connector.google.Retry";
+
+    @Label("Operation")
+    @Description("Directory API operation retried: POST, PUT, DELETE or list")
+    String operation;
+
+    @Label("Status")
+    @Description("HTTP status the request failed with, or 0 if no response was received")
+    int status;
+
+    @Label("Retried")
+    @Description("Whether the request is retried, or the retry time budget was used")
+    boolean retried;
+
+    /**
+     * Starts the event of a backoff.
+     */
+    public static RetryEvent start() {
+
+        RetryEvent event = new RetryEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event and commits it if it is recorded.
+     *
+     * @param operation Directory API operation, or null if it is not known.
+     * @param status    HTTP status the request failed with, or a non positive value if no response was received.
+     * @param retried   Whether the request is retried.
+     */
+    public void finish(String operation, int status, boolean retried) {
+
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.status = Math.max(status, 0);
+            this.retried = retried;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of an access token obtained from the token endpoint for a Google service account.
+ */
+@Name(TokenRefreshEvent.NAME)
+@Label("Google Token Refresh")
+@Category({"WSO2", "Google Provisioning"})
+@Description("Access token obtained from the Google token endpoint")
+@StackTrace(false)
+public class TokenRefreshEvent extends Event {
+
+    public static final String NAME = "org.wso2.carbon.identity.provisioning.connector.google.TokenRefresh";
+
+    /**
+     * A request found no valid token and waited for a new one.
+     */
+    public static final String ON_DEMAND = "on_demand";
+
+    /**
+     * The first token of a service account was minted while building the client using it.
+     */
+    public static final String WARM_UP = "warm_up";
+
+    /**
+     * The background refresher replaced a token about to expire.
+     */
+    public static final String AHEAD_OF_EXPIRY = "ahead_of_expiry";
+
+    /**
+     * Google rejected the token before it expired.
+     */
+    public static final String REJECTED = "rejected";
+
+    @Label("Trigger")
+    @Description("Why the token was refreshed: warm_up, on_demand, ahead_of_expiry or rejected")
+    String trigger;
+
+    @Label("Service Account Hash")
+    @Description("Hash code of the service account and impersonated administrator, which are not recorded")
+    int serviceAccountHash;
+
+    @Label("Status")
+    @Description("HTTP status of the token endpoint response, or 0 if it is not known")
+    int status;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    /**
+     * Starts the event of a token refresh.
+     */
+    public static TokenRefreshEvent start() {
+
+        TokenRefreshEvent event = new TokenRefreshEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event and commits it if it is recorded.
+     *
+     * @param trigger            Why the token was refreshed.
+     * @param serviceAccountHash Hash code identifying the service account.
+     * @param status             HTTP status of the token endpoint response, or 0 if it is not known.
+     * @param succeeded          Whether a token was obtained.
+     */
+    public void finish(String trigger, int serviceAccountHash, int status, boolean succeeded) {
+
+        end();
+        if (shouldCommit()) {
+            this.trigger = trigger;
+            this.serviceAccountHash = serviceAccountHash;
+            this.status = status;
+            this.succeeded = succeeded;
+            commit();
+        }
+    }
+}
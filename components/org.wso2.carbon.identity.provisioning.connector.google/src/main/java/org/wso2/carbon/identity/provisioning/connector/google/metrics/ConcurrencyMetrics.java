@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limit, in-flight and queued Directory API requests, and queueing time of the adaptive concurrency limit of a
+ * connector.
+ * <p>
+ * The limit and the numbers of requests in flight and queued are gauges, which are kept when the metrics are reset.
+ * The limit is 0 while no concurrency limit is configured for the connector.
+ */
+public final class ConcurrencyMetrics {
+
+    private volatile int limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queueLength = new AtomicInteger();
+    private final LongAdder acquiredCount = new LongAdder();
+    private final LongAdder queuedCount = new LongAdder();
+    private final LongAdder totalQueueNanos = new LongAdder();
+    private final LongAccumulator maxQueueNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder decreaseCount = new LongAdder();
+
+    ConcurrencyMetrics() {
+
+    }
+
+    /**
+     * Records a change of the limit.
+     *
+     * @param limit     Number of requests allowed in flight.
+     * @param decreased Whether the limit was lowered because Google was congested.
+     */
+    public void recordLimit(int limit, boolean decreased) {
+
+        this.limit = limit;
+        if (decreased) {
+            decreaseCount.increment();
+        }
+    }
+
+    /**
+     * Records a request that waits because the limit is reached.
+     */
+    public void recordQueued() {
+
+        queueLength.incrementAndGet();
+    }
+
+    /**
+     * Records a request that was allowed to be sent.
+     *
+     * @param queueNanos Time the request waited for the limit, in nanoseconds.
+     * @param queued     Whether the request had to wait.
+     */
+    public void recordAcquired(long queueNanos, boolean queued) {
+
+        if (queued) {
+            queueLength.decrementAndGet();
+            queuedCount.increment();
+        }
+        inFlight.incrementAndGet();
+        acquiredCount.increment();
+        long queueTime = Math.max(0, queueNanos);
+        totalQueueNanos.add(queueTime);
+        maxQueueNanos.accumulate(queueTime);
+    }
+
+    /**
+     * Records a queued request that stopped waiting without being sent.
+     */
+    public void recordAbandoned() {
+
+        queueLength.decrementAndGet();
+    }
+
+    /**
+     * Records a request that is no longer in flight.
+     */
+    public void recordReleased() {
+
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+
+        return limit;
+    }
+
+    ConcurrencyStatistics getStatistics(String tenantDomain, String idpName) {
+
+        long acquired = acquiredCount.sum();
+        double meanQueueTimeMillis = acquired > 0 ? totalQueueNanos.sum() / (double) acquired / 1e6 : 0;
+        return new ConcurrencyStatistics(tenantDomain, idpName, limit, inFlight.get(), queueLength.get(), acquired,
+                queuedCount.sum(), meanQueueTimeMillis, TimeUnit.NANOSECONDS.toMillis(maxQueueNanos.get()),
+                decreaseCount.sum());
+    }
+
+    void reset() {
+
+        acquiredCount.reset();
+        queuedCount.reset();
+        totalQueueNanos.reset();
+        maxQueueNanos.reset();
+        decreaseCount.reset();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.metrics;
+
+/**
+ * Snapshot of the adaptive concurrency limit of the connectors of an identity provider in a tenant, as exposed
+ * through JMX. Queueing times are in milliseconds.
+ */
+public class ConcurrencyStatistics {
+
+    private final String tenantDomain;
+    private final String idpName;
+    private final int limit;
+    private final int inFlight;
+    private final int queueLength;
+    private final long acquiredCount;
+    private final long queuedCount;
+    private final double meanQueueTimeMillis;
+    private final long maxQueueTimeMillis;
+    private final long limitDecreaseCount;
+
+    ConcurrencyStatistics(String tenantDomain, String idpName, int limit, int inFlight, int queueLength,
+                          long acquiredCount, long queuedCount, double meanQueueTimeMillis, long maxQueueTimeMillis,
+                          long limitDecreaseCount) {
+
+        this.tenantDomain = tenantDomain;
+        this.idpName = idpName;
+        this.limit = limit;
+        this.inFlight = inFlight;
+        this.queueLength = queueLength;
+        this.acquiredCount = acquiredCount;
+        this.queuedCount = queuedCount;
+        this.meanQueueTimeMillis = meanQueueTimeMillis;
+        this.maxQueueTimeMillis = maxQueueTimeMillis;
+        this.limitDecreaseCount = limitDecreaseCount;
+    }
+
+    public String getTenantDomain() {
+
+        return tenantDomain;
+    }
+
+    public String getIdpName() {
+
+        return idpName;
+    }
+
+    /**
+     * Returns the number of Directory API requests currently allowed in flight.
+     */
+    public int getLimit() {
+
+        return limit;
+    }
+
+    public int getInFlight() {
+
+        return inFlight;
+    }
+
+    /**
+     * Returns the number of requests currently waiting because the limit is reached.
+     */
+    public int getQueueLength() {
+
+        return queueLength;
+    }
+
+    /**
+     * Returns the number of requests that were allowed to be sent.
+     */
+    public long getAcquiredCount() {
+
+        return acquiredCount;
+    }
+
+    /**
+     * Returns the number of requests that had to wait before being sent.
+     */
+    public long getQueuedCount() {
+
+        return queuedCount;
+    }
+
+    /**
+     * Returns the mean time requests waited for the limit, including the requests that did not wait.
+     */
+    public double getMeanQueueTimeMillis() {
+
+        return meanQueueTimeMillis;
+    }
+
+    public long getMaxQueueTimeMillis() {
+
+        return maxQueueTimeMillis;
+    }
+
+    /**
+     * Returns the number of times the limit was lowered because Google was slow or failing.
+     */
+    public long getLimitDecreaseCount() {
+
+        return limitDecreaseCount;
+    }
+}
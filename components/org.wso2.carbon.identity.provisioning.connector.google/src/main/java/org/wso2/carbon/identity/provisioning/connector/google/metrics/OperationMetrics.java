@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram, outcome counts by HTTP status and retry count of one operation type of a connector.
+ * <p>
+ * Every counter is a striped {@link LongAdder}, so that recording neither locks nor allocates and concurrent
+ * provisioning threads do not contend on a shared counter. Latencies are counted in fixed buckets, from which the
+ * percentiles are estimated when the statistics are read.
+ */
+public final class OperationMetrics {
+
+    /**
+     * Upper bounds of the latency buckets in milliseconds. Latencies above the last bound are counted in an overflow
+     * bucket.
+     */
+    static final long[] LATENCY_BUCKET_BOUNDS_MILLIS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000,
+            30000};
+
+    /**
+     * HTTP statuses counted on their own. Other statuses are counted together.
+     */
+    private static final int[] TRACKED_STATUSES = {200, 204, 400, 401, 403, 404, 409, 412, 429, 500, 502, 503,
+            504};
+    private static final String OTHER_STATUS = "other";
+    private static final String NO_RESPONSE_STATUS = "io_error";
+
+    private static final long[] LATENCY_BUCKET_BOUNDS_NANOS = new long[LATENCY_BUCKET_BOUNDS_MILLIS.length];
+
+    static {
+        for (int i = 0; i < LATENCY_BUCKET_BOUNDS_MILLIS.length; i++) {
+            LATENCY_BUCKET_BOUNDS_NANOS[i] = TimeUnit.MILLISECONDS.toNanos(LATENCY_BUCKET_BOUNDS_MILLIS[i]);
+        }
+    }
+
+    private final OperationType operationType;
+    private final LongAdder successCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private final LongAdder retryCount = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] latencyBuckets = newAdders(LATENCY_BUCKET_BOUNDS_MILLIS.length + 1);
+    // One counter per tracked status, followed by the counters of other statuses and of failures without a response.
+    private final LongAdder[] statusCounts = newAdders(TRACKED_STATUSES.length + 2);
+
+    OperationMetrics(OperationType operationType) {
+
+        this.operationType = operationType;
+    }
+
+    /**
+     * Records an operation that succeeded.
+     *
+     * @param statusCode   HTTP status of the response, or a non positive value if it is not known.
+     * @param latencyNanos Time taken by the operation including its retries, in nanoseconds.
+     */
+    public void recordSuccess(int statusCode, long latencyNanos) {
+
+        successCount.increment();
+        record(statusCode > 0 ? statusCode : 200, latencyNanos);
+    }
+
+    /**
+     * Records an operation that failed.
+     *
+     * @param statusCode   HTTP status of the error response, or a non positive value if no response was received.
+     * @param latencyNanos Time taken by the operation including its retries, in nanoseconds.
+     */
+    public void recordFailure(int statusCode, long latencyNanos) {
+
+        failureCount.increment();
+        record(statusCode, latencyNanos);
+    }
+
+    /**
+     * Records a retry of a failed request.
+     */
+    public void recordRetry() {
+
+        retryCount.increment();
+    }
+
+    public OperationType getOperationType() {
+
+        return operationType;
+    }
+
+    public long getSuccessCount() {
+
+        return successCount.sum();
+    }
+
+    public long getFailureCount() {
+
+        return failureCount.sum();
+    }
+
+    public long getRetryCount() {
+
+        return retryCount.sum();
+    }
+
+    OperationStatistics getStatistics(String tenantDomain, String idpName) {
+
+        long[] buckets = new long[latencyBuckets.length];
+        long count = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = latencyBuckets[i].sum();
+            count += buckets[i];
+        }
+        Map<String, Long> statuses = new LinkedHashMap<>();
+        for (int i = 0; i < statusCounts.length; i++) {
+            long statusCount = statusCounts[i].sum();
+            if (statusCount > 0) {
+                statuses.put(getStatusName(i), statusCount);
+            }
+        }
+        long maxLatencyMillis = TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get());
+        double meanLatencyMillis = count > 0 ? totalLatencyNanos.sum() / (double) count / 1e6 : 0;
+
+        return new OperationStatistics(operationType.getTag(), tenantDomain, idpName, successCount.sum(),
+                failureCount.sum(), retryCount.sum(), meanLatencyMillis, maxLatencyMillis,
+                getPercentile(buckets, count, 0.5, maxLatencyMillis),
+                getPercentile(buckets, count, 0.9, maxLatencyMillis),
+                getPercentile(buckets, count, 0.99, maxLatencyMillis), buckets, statuses);
+    }
+
+    void reset() {
+
+        successCount.reset();
+        failureCount.reset();
+        retryCount.reset();
+        totalLatencyNanos.reset();
+        maxLatencyNanos.reset();
+        for (LongAdder bucket : latencyBuckets) {
+            bucket.reset();
+        }
+        for (LongAdder statusCount : statusCounts) {
+            statusCount.reset();
+        }
+    }
+
+    private void record(int statusCode, long latencyNanos) {
+
+        long latency = Math.max(0, latencyNanos);
+        totalLatencyNanos.add(latency);
+        maxLatencyNanos.accumulate(latency);
+        latencyBuckets[getBucketIndex(latency)].increment();
+        statusCounts[getStatusIndex(statusCode)].increment();
+    }
+
+    private static int getBucketIndex(long latencyNanos) {
+
+        for (int i = 0; i < LATENCY_BUCKET_BOUNDS_NANOS.length; i++) {
+            if (latencyNanos <= LATENCY_BUCKET_BOUNDS_NANOS[i]) {
+                return i;
+            }
+        }
+        return LATENCY_BUCKET_BOUNDS_NANOS.length;
+    }
+
+    private static int getStatusIndex(int statusCode) {
+
+        if (statusCode <= 0) {
+            return TRACKED_STATUSES.length + 1;
+        }
+        for (int i = 0; i < TRACKED_STATUSES.length; i++) {
+            if (TRACKED_STATUSES[i] == statusCode) {
+                return i;
+            }
+        }
+        return TRACKED_STATUSES.length;
+    }
+
+    private static String getStatusName(int index) {
+
+        if (index < TRACKED_STATUSES.length) {
+            return String.valueOf(TRACKED_STATUSES[index]);
+        }
+        return index == TRACKED_STATUSES.length ? OTHER_STATUS : NO_RESPONSE_STATUS;
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the given percentile, or the maximum latency if the percentile
+     * falls in the overflow bucket.
+     */
+    private static long getPercentile(long[] buckets, long count, double percentile, long maxLatencyMillis) {
+
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile * count);
+        long seen = 0;
+        for (int i = 0; i < LATENCY_BUCKET_BOUNDS_MILLIS.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min(LATENCY_BUCKET_BOUNDS_MILLIS[i], Math.max(maxLatencyMillis, 1));
+            }
+        }
+        return maxLatencyMillis;
+    }
+
+    private static LongAdder[] newAdders(int size) {
+
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
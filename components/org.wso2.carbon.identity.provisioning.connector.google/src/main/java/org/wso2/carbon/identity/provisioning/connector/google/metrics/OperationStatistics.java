@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Snapshot of the metrics of one operation type of the connectors of an identity provider in a tenant, as exposed
+ * through JMX. Latencies are in milliseconds and include the retries of the operation.
+ */
+public class OperationStatistics {
+
+    private final String operation;
+    private final String tenantDomain;
+    private final String idpName;
+    private final long successCount;
+    private final long failureCount;
+    private final long retryCount;
+    private final double meanLatencyMillis;
+    private final long maxLatencyMillis;
+    private final long p50LatencyMillis;
+    private final long p90LatencyMillis;
+    private final long p99LatencyMillis;
+    private final long[] latencyHistogram;
+    private final Map<String, Long> statusCounts;
+
+    OperationStatistics(String operation, String tenantDomain, String idpName, long successCount, long failureCount,
+                        long retryCount, double meanLatencyMillis, long maxLatencyMillis, long p50LatencyMillis,
+                        long p90LatencyMillis, long p99LatencyMillis, long[] latencyHistogram,
+                        Map<String, Long> statusCounts) {
+
+        this.operation = operation;
+        this.tenantDomain = tenantDomain;
+        this.idpName = idpName;
+        this.successCount = successCount;
+        this.failureCount = failureCount;
+        this.retryCount = retryCount;
+        this.meanLatencyMillis = meanLatencyMillis;
+        this.maxLatencyMillis = maxLatencyMillis;
+        this.p50LatencyMillis = p50LatencyMillis;
+        this.p90LatencyMillis = p90LatencyMillis;
+        this.p99LatencyMillis = p99LatencyMillis;
+        this.latencyHistogram = latencyHistogram;
+        this.statusCounts = Collections.unmodifiableMap(statusCounts);
+    }
+
+    /**
+     * Returns the operation type, one of POST, PUT, DELETE and list.
+     */
+    public String getOperation() {
+
+        return operation;
+    }
+
+    public String getTenantDomain() {
+
+        return tenantDomain;
+    }
+
+    public String getIdpName() {
+
+        return idpName;
+    }
+
+    public long getSuccessCount() {
+
+        return successCount;
+    }
+
+    public long getFailureCount() {
+
+        return failureCount;
+    }
+
+    /**
+     * Returns the number of retries of failed requests.
+     */
+    public long getRetryCount() {
+
+        return retryCount;
+    }
+
+    public double getMeanLatencyMillis() {
+
+        return meanLatencyMillis;
+    }
+
+    public long getMaxLatencyMillis() {
+
+        return maxLatencyMillis;
+    }
+
+    public long getP50LatencyMillis() {
+
+        return p50LatencyMillis;
+    }
+
+    public long getP90LatencyMillis() {
+
+        return p90LatencyMillis;
+    }
+
+    public long getP99LatencyMillis() {
+
+        return p99LatencyMillis;
+    }
+
+    /**
+     * Returns the number of operations per latency bucket, whose upper bounds are given by
+     * {@link ProvisioningMetricsMXBean#getLatencyBucketBoundsMillis()}. The last bucket counts the operations slower
+     * than the last bound.
+     */
+    public long[] getLatencyHistogram() {
+
+        return latencyHistogram.clone();
+    }
+
+    /**
+     * Returns the number of operations by the HTTP status they ended with. Statuses that are not counted on their own
+     * are reported as "other", and failures without a response, such as timeouts, as "io_error".
+     */
+    public Map<String, Long> getStatusCounts() {
+
+        return statusCounts;
+    }
+}
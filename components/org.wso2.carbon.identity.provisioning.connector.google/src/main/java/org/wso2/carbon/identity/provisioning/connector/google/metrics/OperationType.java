@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.metrics;
+
+/**
+ * Kinds of Directory API operations the metrics are recorded for.
+ */
+public enum OperationType {
+
+    POST("POST"),
+    PUT("PUT"),
+    DELETE("DELETE"),
+    LIST("list");
+
+    private final String tag;
+
+    OperationType(String tag) {
+
+        this.tag = tag;
+    }
+
+    /**
+     * Returns the name the operation is reported with.
+     */
+    public String getTag() {
+
+        return tag;
+    }
+
+    /**
+     * Returns the operation of a Directory API request sent with the given HTTP method. Patch requests are updates,
+     * and requests reading users are listings.
+     */
+    public static OperationType fromMethod(String method) {
+
+        if (method == null) {
+            return LIST;
+        }
+        switch (method) {
+            case "POST":
+                return POST;
+            case "PUT":
+            case "PATCH":
+                return PUT;
+            case "DELETE":
+                return DELETE;
+            default:
+                return LIST;
+        }
+    }
+}
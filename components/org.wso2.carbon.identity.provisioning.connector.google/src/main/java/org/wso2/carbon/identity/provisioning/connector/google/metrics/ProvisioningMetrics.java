@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Metrics of the Directory API operations of every Google provisioning connector in the JVM, published through JMX
+ * under {@link #OBJECT_NAME}.
+ * <p>
+ * Metrics are kept per identity provider and tenant. A connector looks up its {@link ConnectorMetrics} once when it
+ * is initialized, so that recording an operation does not need a lookup.
+ */
+public class ProvisioningMetrics implements ProvisioningMetricsMXBean {
+
+    public static final String OBJECT_NAME =
+            "org.wso2.carbon.identity.provisioning.connector.google:type=ProvisioningMetrics";
+
+    private static final String UNKNOWN = "unknown";
+    private static final ProvisioningMetrics INSTANCE = new ProvisioningMetrics();
+
+    private final ConcurrentMap<Scope, ConnectorMetrics> connectors = new ConcurrentHashMap<>();
+
+    ProvisioningMetrics() {
+
+    }
+
+    public static ProvisioningMetrics getInstance() {
+
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the metrics of the connectors of the given identity provider in the given tenant.
+     *
+     * @param tenantDomain Tenant domain, or null if it is not known.
+     * @param idpName      Name of the identity provider, or null if it is not known.
+     */
+    public ConnectorMetrics getConnectorMetrics(String tenantDomain, String idpName) {
+
+        Scope scope = new Scope(tenantDomain != null ? tenantDomain : UNKNOWN, idpName != null ? idpName : UNKNOWN);
+        return connectors.computeIfAbsent(scope, key -> new ConnectorMetrics(key.tenantDomain, key.idpName));
+    }
+
+    @Override
+    public List<OperationStatistics> getOperationStatistics() {
+
+        List<OperationStatistics> statistics = new ArrayList<>();
+        for (ConnectorMetrics connectorMetrics : connectors.values()) {
+            connectorMetrics.addStatistics(statistics);
+        }
+        statistics.sort((first, second) -> {
+            int order = first.getTenantDomain().compareTo(second.getTenantDomain());
+            if (order == 0) {
+                order = first.getIdpName().compareTo(second.getIdpName());
+            }
+            return order != 0 ? order : first.getOperation().compareTo(second.getOperation());
+        });
+        return statistics;
+    }
+
+    @Override
+    public long[] getLatencyBucketBoundsMillis() {
+
+        return OperationMetrics.LATENCY_BUCKET_BOUNDS_MILLIS.clone();
+    }
+
+    @Override
+    public long getSuccessCount() {
+
+        long count = 0;
+        for (OperationStatistics statistics : getOperationStatistics()) {
+            count += statistics.getSuccessCount();
+        }
+        return count;
+    }
+
+    @Override
+    public long getFailureCount() {
+
+        long count = 0;
+        for (OperationStatistics statistics : getOperationStatistics()) {
+            count += statistics.getFailureCount();
+        }
+        return count;
+    }
+
+    @Override
+    public long getRetryCount() {
+
+        long count = 0;
+        for (OperationStatistics statistics : getOperationStatistics()) {
+            count += statistics.getRetryCount();
+        }
+        return count;
+    }
+
+    @Override
+    public List<ConcurrencyStatistics> getConcurrencyStatistics() {
+
+        List<ConcurrencyStatistics> statistics = new ArrayList<>();
+        for (ConnectorMetrics connectorMetrics : connectors.values()) {
+            if (connectorMetrics.concurrency.getLimit() > 0) {
+                statistics.add(connectorMetrics.concurrency.getStatistics(connectorMetrics.tenantDomain,
+                        connectorMetrics.idpName));
+            }
+        }
+        statistics.sort((first, second) -> {
+            int order = first.getTenantDomain().compareTo(second.getTenantDomain());
+            return order != 0 ? order : first.getIdpName().compareTo(second.getIdpName());
+        });
+        return statistics;
+    }
+
+    @Override
+    public void reset() {
+
+        for (ConnectorMetrics connectorMetrics : connectors.values()) {
+            connectorMetrics.reset();
+        }
+    }
+
+    /**
+     * Metrics of the operations of the connectors of an identity provider in a tenant.
+     */
+    public static final class ConnectorMetrics {
+
+        private final String tenantDomain;
+        private final String idpName;
+        private final OperationMetrics[] operations;
+        private final ConcurrencyMetrics concurrency = new ConcurrencyMetrics();
+
+        private ConnectorMetrics(String tenantDomain, String idpName) {
+
+            this.tenantDomain = tenantDomain;
+            this.idpName = idpName;
+            OperationType[] types = OperationType.values();
+            this.operations = new OperationMetrics[types.length];
+            for (OperationType type : types) {
+                operations[type.ordinal()] = new OperationMetrics(type);
+            }
+        }
+
+        /**
+         * Returns the metrics of the given operation type.
+         */
+        public OperationMetrics get(OperationType operationType) {
+
+            return operations[operationType.ordinal()];
+        }
+
+        /**
+         * Returns the metrics of the adaptive concurrency limit of the Directory API requests.
+         */
+        public ConcurrencyMetrics getConcurrency() {
+
+            return concurrency;
+        }
+
+        public String getTenantDomain() {
+
+            return tenantDomain;
+        }
+
+        public String getIdpName() {
+
+            return idpName;
+        }
+
+        private void addStatistics(List<OperationStatistics> statistics) {
+
+            for (OperationMetrics operation : operations) {
+                OperationStatistics operationStatistics = operation.getStatistics(tenantDomain, idpName);
+                if (operationStatistics.getSuccessCount() + operationStatistics.getFailureCount()
+                        + operationStatistics.getRetryCount() > 0) {
+                    statistics.add(operationStatistics);
+                }
+            }
+        }
+
+        private void reset() {
+
+            for (OperationMetrics operation : operations) {
+                operation.reset();
+            }
+            concurrency.reset();
+        }
+    }
+
+    private static final class Scope {
+
+        private final String tenantDomain;
+        private final String idpName;
+
+        private Scope(String tenantDomain, String idpName) {
+
+            this.tenantDomain = tenantDomain;
+            this.idpName = idpName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Scope)) {
+                return false;
+            }
+            Scope that = (Scope) o;
+            return tenantDomain.equals(that.tenantDomain) && idpName.equals(that.idpName);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return Objects.hash(tenantDomain, idpName);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.metrics;
+
+import java.util.List;
+
+/**
+ * Management interface of the metrics of the Google provisioning connectors.
+ */
+public interface ProvisioningMetricsMXBean {
+
+    /**
+     * Returns the metrics of every operation type of every identity provider and tenant that sent requests to Google.
+     */
+    List<OperationStatistics> getOperationStatistics();
+
+    /**
+     * Returns the upper bounds of the latency histogram buckets, in milliseconds.
+     */
+    long[] getLatencyBucketBoundsMillis();
+
+    long getSuccessCount();
+
+    long getFailureCount();
+
+    long getRetryCount();
+
+    /**
+     * Returns the adaptive concurrency limit of every identity provider and tenant that limits the Directory API
+     * requests it has in flight.
+     */
+    List<ConcurrencyStatistics> getConcurrencyStatistics();
+
+    /**
+     * Clears the recorded metrics.
+     */
+    void reset();
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.tracing;
+
+import io.opencensus.trace.Tracing;
+import io.opencensus.trace.export.SpanData;
+import io.opencensus.trace.export.SpanExporter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Span exporter keeping the most recently exported spans in memory, to inspect the traces of the connector locally
+ * or in tests without a tracing backend.
+ * <p>
+ * The exporter receives spans once it is registered with OpenCensus. Spans are exported in batches by the OpenCensus
+ * implementation, so a span ended by the connector becomes visible after a short delay.
+ */
+public class InMemorySpanExporter extends SpanExporter.Handler {
+
+    private static final String EXPORTER_NAME = InMemorySpanExporter.class.getName();
+
+    private final int capacity;
+    private final Deque<SpanData> spans = new ArrayDeque<>();
+
+    /**
+     * @param capacity Maximum number of spans kept. The oldest spans are dropped once it is reached.
+     */
+    public InMemorySpanExporter(int capacity) {
+
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity of the span exporter should be positive : " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Registers this exporter with OpenCensus, replacing the in-memory exporter registered before.
+     */
+    public void register() {
+
+        Tracing.getExportComponent().getSpanExporter().registerHandler(EXPORTER_NAME, this);
+    }
+
+    /**
+     * Unregisters the in-memory exporter from OpenCensus.
+     */
+    public void unregister() {
+
+        Tracing.getExportComponent().getSpanExporter().unregisterHandler(EXPORTER_NAME);
+    }
+
+    @Override
+    public synchronized void export(Collection<SpanData> spanDataList) {
+
+        for (SpanData spanData : spanDataList) {
+            if (spans.size() == capacity) {
+                spans.removeFirst();
+            }
+            spans.addLast(spanData);
+        }
+    }
+
+    /**
+     * Returns the exported spans, oldest first.
+     */
+    public synchronized List<SpanData> getSpans() {
+
+        return new ArrayList<>(spans);
+    }
+
+    /**
+     * Returns the exported spans with the given name, oldest first.
+     */
+    public synchronized List<SpanData> getSpans(String name) {
+
+        List<SpanData> matching = new ArrayList<>();
+        for (SpanData spanData : spans) {
+            if (spanData.getName().equals(name)) {
+                matching.add(spanData);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Drops the exported spans.
+     */
+    public synchronized void clear() {
+
+        spans.clear();
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.tracing;
+
+import io.opencensus.common.Scope;
+import io.opencensus.contrib.http.util.HttpTraceAttributeConstants;
+import io.opencensus.contrib.http.util.HttpTraceUtil;
+import io.opencensus.trace.AttributeValue;
+import io.opencensus.trace.Sampler;
+import io.opencensus.trace.Span;
+import io.opencensus.trace.SpanBuilder;
+import io.opencensus.trace.Status;
+import io.opencensus.trace.Tracer;
+import io.opencensus.trace.Tracing;
+import io.opencensus.trace.samplers.Samplers;
+import org.wso2.carbon.identity.provisioning.connector.google.metrics.OperationType;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * OpenCensus spans of the work done by the Google provisioning connector.
+ * <p>
+ * A provisioning operation is traced with a {@link #PROVISION_SPAN} span, which holds a {@link #BUILD_REQUEST_SPAN}
+ * span for mapping the entity to a Directory API request and a {@link #DIRECTORY_SPAN_PREFIX} span for each
+ * Directory API operation including its retries. The spans of the HTTP requests created by the Google client and the
+ * {@link #ACQUIRE_CREDENTIAL_SPAN} spans of the access tokens minted for them are nested in the Directory API span,
+ * except for the first token of a client, which is minted while the request is built.
+ * <p>
+ * Spans are exported through the exporters registered with OpenCensus, such as {@link InMemorySpanExporter}.
+ * Attributes are only added to spans that are sampled, so that unsampled operations do not allocate them.
+ */
+public final class ProvisioningTracer {
+
+    public static final String PROVISION_SPAN = "GoogleProvisioning.provision";
+    public static final String BUILD_REQUEST_SPAN = "GoogleProvisioning.buildRequest";
+    public static final String ACQUIRE_CREDENTIAL_SPAN = "GoogleProvisioning.acquireCredential";
+    public static final String DIRECTORY_SPAN_PREFIX = "GoogleProvisioning.Directory.";
+
+    public static final String ENTITY_TYPE_ATTRIBUTE = "google.entity.type";
+    public static final String OPERATION_ATTRIBUTE = "google.operation";
+    public static final String TENANT_ATTRIBUTE = "google.tenant";
+    public static final String IDP_ATTRIBUTE = "google.idp";
+    public static final String HTTP_STATUS_CODE_ATTRIBUTE = HttpTraceAttributeConstants.HTTP_STATUS_CODE;
+
+    private static final String RETRY_ANNOTATION = "Retrying the failed request";
+
+    private static final Tracer tracer = Tracing.getTracer();
+    private static final String[] DIRECTORY_SPAN_NAMES = new String[OperationType.values().length];
+
+    static {
+        for (OperationType type : OperationType.values()) {
+            DIRECTORY_SPAN_NAMES[type.ordinal()] = DIRECTORY_SPAN_PREFIX + type.getTag();
+        }
+    }
+
+    private ProvisioningTracer() {
+
+    }
+
+    /**
+     * Starts the span of a provisioning operation, as a child of the current span if there is one.
+     *
+     * @param entityType   Type of the provisioned entity.
+     * @param operation    Provisioning operation.
+     * @param tenantDomain Tenant domain of the connector.
+     * @param idpName      Name of the identity provider of the connector.
+     * @param sampler      Sampler of the operation when it has no parent span, or null for the OpenCensus default.
+     * @return Started span, which has to be ended by the caller.
+     */
+    public static Span startProvisionSpan(String entityType, String operation, String tenantDomain, String idpName,
+                                          Sampler sampler) {
+
+        SpanBuilder builder = tracer.spanBuilder(PROVISION_SPAN);
+        if (sampler != null) {
+            builder.setSampler(sampler);
+        }
+        Span span = builder.startSpan();
+        if (isRecording(span)) {
+            Map<String, AttributeValue> attributes = new HashMap<>();
+            putAttribute(attributes, ENTITY_TYPE_ATTRIBUTE, entityType);
+            putAttribute(attributes, OPERATION_ATTRIBUTE, operation);
+            putAttribute(attributes, TENANT_ATTRIBUTE, tenantDomain);
+            putAttribute(attributes, IDP_ATTRIBUTE, idpName);
+            span.putAttributes(attributes);
+        }
+        return span;
+    }
+
+    /**
+     * Starts the span of a Directory API operation, as a child of the current span.
+     */
+    public static Span startDirectorySpan(OperationType operationType) {
+
+        Span span = tracer.spanBuilder(DIRECTORY_SPAN_NAMES[operationType.ordinal()]).setSpanKind(Span.Kind.CLIENT)
+                .startSpan();
+        if (isRecording(span)) {
+            span.putAttribute(OPERATION_ATTRIBUTE, AttributeValue.stringAttributeValue(operationType.getTag()));
+        }
+        return span;
+    }
+
+    /**
+     * Starts a span with the given name, as a child of the current span.
+     */
+    public static Span startSpan(String name) {
+
+        return tracer.spanBuilder(name).startSpan();
+    }
+
+    /**
+     * Makes the given span the current span of the thread until the returned scope is closed, so that the spans
+     * started meanwhile are nested in it.
+     */
+    public static Scope withSpan(Span span) {
+
+        return tracer.withSpan(span);
+    }
+
+    /**
+     * Sets the status of the span of a Directory API operation from the outcome of its request.
+     *
+     * @param span       Span of the operation.
+     * @param statusCode HTTP status of the response, or a non positive value if it is not known.
+     * @param error      Error the operation failed with, or null if it succeeded.
+     */
+    public static void setHttpStatus(Span span, int statusCode, Throwable error) {
+
+        if (isRecording(span)) {
+            if (statusCode > 0) {
+                span.putAttribute(HTTP_STATUS_CODE_ATTRIBUTE, AttributeValue.longAttributeValue(statusCode));
+            }
+            // A successful response of which the status is not known, such as a part of a batch request, is OK.
+            span.setStatus(HttpTraceUtil.parseResponseStatus(error == null && statusCode <= 0 ? 200 : statusCode,
+                    error));
+        }
+    }
+
+    /**
+     * Sets the status of the given span to report that the traced work failed with the given error.
+     */
+    public static void setError(Span span, Throwable error) {
+
+        if (isRecording(span)) {
+            String message = error.getMessage();
+            span.setStatus(Status.UNKNOWN.withDescription(message != null ? message : error.getClass().getName()));
+        }
+    }
+
+    /**
+     * Notes on the current span that a failed request is retried.
+     *
+     * @param statusCode HTTP status the request failed with, or a non positive value if no response was received.
+     */
+    public static void annotateRetry(int statusCode) {
+
+        Span span = tracer.getCurrentSpan();
+        if (isRecording(span)) {
+            span.addAnnotation(RETRY_ANNOTATION, statusCode > 0
+                    ? Collections.singletonMap(HTTP_STATUS_CODE_ATTRIBUTE,
+                    AttributeValue.longAttributeValue(statusCode))
+                    : Collections.emptyMap());
+        }
+    }
+
+    /**
+     * Returns a sampler tracing the given fraction of the provisioning operations, or null to use the OpenCensus
+     * default if the probability is not in the range from 0 to 1.
+     */
+    public static Sampler getSampler(double probability) {
+
+        if (Double.isNaN(probability) || probability < 0 || probability > 1) {
+            return null;
+        }
+        return Samplers.probabilitySampler(probability);
+    }
+
+    private static boolean isRecording(Span span) {
+
+        return span.getOptions().contains(Span.Options.RECORD_EVENTS);
+    }
+
+    private static void putAttribute(Map<String, AttributeValue> attributes, String key, String value) {
+
+        if (value != null) {
+            attributes.put(key, AttributeValue.stringAttributeValue(value));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.common.model.ClaimMapping;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningConstants;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ClaimProjectorTest {
+
+    private static final String GIVEN_NAME_CLAIM = "http://wso2.org/claims/givenname";
+    private static final String FAMILY_NAME_CLAIM = "http://wso2.org/claims/lastname";
+    private static final String USER_ID_CLAIM = "http://wso2.org/claims/emailaddress";
+
+    private final ClaimProjector projector = new ClaimProjector(USER_ID_CLAIM, GIVEN_NAME_CLAIM, FAMILY_NAME_CLAIM);
+
+    @Test
+    public void testProject() {
+
+        Map<ClaimMapping, List<String>> attributes = new HashMap<>();
+        attributes.put(ClaimMapping.build(IdentityProvisioningConstants.USERNAME_CLAIM_URI, null, null, false),
+                Collections.singletonList("john"));
+        attributes.put(ClaimMapping.build(null, IdentityProvisioningConstants.PASSWORD_CLAIM_URI, null, false),
+                Collections.singletonList("secret"));
+        attributes.put(remoteClaim(GIVEN_NAME_CLAIM, null), Collections.singletonList("John"));
+        attributes.put(remoteClaim(FAMILY_NAME_CLAIM, null), Collections.singletonList("Doe"));
+        attributes.put(remoteClaim(USER_ID_CLAIM, null), Collections.singletonList("john@wso2.com"));
+        attributes.put(remoteClaim("http://wso2.org/claims/telephone", null), Collections.singletonList("0123"));
+
+        ClaimProjector.Projection claims = projector.project(attributes);
+
+        Assert.assertEquals(claims.getUserName(), "john");
+        Assert.assertEquals(claims.get(ClaimProjector.Slot.GIVEN_NAME), "John");
+        Assert.assertEquals(claims.get(ClaimProjector.Slot.FAMILY_NAME), "Doe");
+        Assert.assertEquals(claims.get(ClaimProjector.Slot.USER_ID), "john@wso2.com");
+        Assert.assertTrue(claims.hasSingleValuedClaims());
+    }
+
+    @Test
+    public void testDefaultValueIsUsedWithoutValue() {
+
+        Map<ClaimMapping, List<String>> attributes = new HashMap<>();
+        attributes.put(remoteClaim(GIVEN_NAME_CLAIM, "Jane"), null);
+        attributes.put(remoteClaim(FAMILY_NAME_CLAIM, "Doe"), Collections.emptyList());
+
+        ClaimProjector.Projection claims = projector.project(attributes);
+
+        Assert.assertEquals(claims.get(ClaimProjector.Slot.GIVEN_NAME), "Jane");
+        Assert.assertEquals(claims.get(ClaimProjector.Slot.FAMILY_NAME), "Doe");
+        Assert.assertNull(claims.get(ClaimProjector.Slot.USER_ID));
+    }
+
+    @Test
+    public void testSpecialClaimsAreNotSingleValued() {
+
+        Map<ClaimMapping, List<String>> attributes = new HashMap<>();
+        attributes.put(ClaimMapping.build(null, IdentityProvisioningConstants.PASSWORD_CLAIM_URI, null, false),
+                Collections.singletonList("secret"));
+        attributes.put(ClaimMapping.build(null, IdentityProvisioningConstants.GROUP_CLAIM_URI, null, false),
+                Collections.singletonList("admin"));
+        attributes.put(ClaimMapping.build(IdentityProvisioningConstants.USERNAME_CLAIM_URI,
+                IdentityProvisioningConstants.USERNAME_CLAIM_URI, null, false), Collections.singletonList("john"));
+
+        ClaimProjector.Projection claims = projector.project(attributes);
+
+        Assert.assertFalse(claims.hasSingleValuedClaims());
+        Assert.assertEquals(claims.getUserName(), "john");
+    }
+
+    @Test
+    public void testNoAttributes() {
+
+        ClaimProjector.Projection claims = projector.project(null);
+
+        Assert.assertFalse(claims.hasSingleValuedClaims());
+        Assert.assertNull(claims.getUserName());
+        Assert.assertNull(claims.get(ClaimProjector.Slot.GIVEN_NAME));
+    }
+
+    private static ClaimMapping remoteClaim(String claimUri, String defaultValue) {
+
+        return ClaimMapping.build(claimUri, claimUri, defaultValue, false);
+    }
+}
@@ -136,6 +136,37 @@ public class GoogleProvisioningConnectorConfigTest {
         }
     }
 
+    @Test
+    public void testResolvedValues() throws Exception {
+
+        try (MockedStatic<LogFactory> logFactoryMock = mockStatic(LogFactory.class)) {
+            setLogging(logFactoryMock, false);
+            Properties properties = new Properties();
+            properties.setProperty(GoogleConnectorConstants.PropertyConfig.REQUIRED_FIELDS, REQUIRED_FIELDS);
+            properties.setProperty(GoogleConnectorConstants.PropertyConfig.DEFAULT_GIVEN_NAME_KEY, " ");
+            properties.setProperty(GoogleConnectorConstants.PropertyConfig.HTTP_POOL_SIZE_KEY, "many");
+            properties.setProperty(GoogleConnectorConstants.PropertyConfig.READ_TIMEOUT_MILLIS_KEY, "-1");
+            GoogleProvisioningConnectorConfig connectorConfig = new GoogleProvisioningConnectorConfig(properties);
+            properties.setProperty(GoogleConnectorConstants.PropertyConfig.PROVISIONING_PATTERN_KEY, "{UD}");
+
+            Assert.assertEquals(connectorConfig.getProvisioningPattern(),
+                    GoogleConnectorConstants.PropertyConfig.DEFAULT_PROVISIONING_PATTERN,
+                    "Configuration should not change once it is built.");
+            Assert.assertEquals(connectorConfig.getProvisioningSeparator(),
+                    GoogleConnectorConstants.PropertyConfig.DEFAULT_PROVISIONING_SEPERATOR);
+            Assert.assertNull(connectorConfig.getDefaultGivenName());
+            Assert.assertEquals(connectorConfig.getInsertFields(),
+                    GoogleConnectorConstants.PropertyConfig.DEFAULT_INSERT_FIELDS);
+            Assert.assertEquals(connectorConfig.getHttpPoolSize(),
+                    GoogleConnectorConstants.PropertyConfig.DEFAULT_HTTP_POOL_SIZE);
+            Assert.assertEquals(connectorConfig.getReadTimeoutMillis(), 0);
+            Assert.assertEquals(connectorConfig.getConnectTimeoutMillis(),
+                    GoogleConnectorConstants.PropertyConfig.DEFAULT_CONNECT_TIMEOUT_MILLIS);
+            Assert.assertSame(connectorConfig.getRequiredAttributeNames(),
+                    connectorConfig.getRequiredAttributeNames());
+        }
+    }
+
     private void setLogging(MockedStatic<LogFactory> logFactoryMock, boolean debugEnabled) {
 
         logFactoryMock.when(() -> LogFactory.getLog(any(Class.class))).thenReturn(log);
@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google;
+
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.common.model.Property;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningException;
+import org.wso2.carbon.identity.provisioning.ProvisionedIdentifier;
+import org.wso2.carbon.identity.provisioning.ProvisioningEntity;
+import org.wso2.carbon.identity.provisioning.connector.google.standin.DirectoryStandIn;
+import org.wso2.carbon.identity.provisioning.connector.google.standin.Fault;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.wso2.carbon.identity.provisioning.connector.google.standin.DirectoryStandIn.buildProperty;
+import static org.wso2.carbon.identity.provisioning.connector.google.standin.DirectoryStandIn.changedUser;
+import static org.wso2.carbon.identity.provisioning.connector.google.standin.DirectoryStandIn.deletedUser;
+import static org.wso2.carbon.identity.provisioning.connector.google.standin.DirectoryStandIn.newUser;
+
+/**
+ * Provisions users through the connector against the local Directory API stand-in while it injects faults, checking
+ * that transient failures are retried and that the other failures reach the caller. Every test provisions a domain of
+ * its own, so that a request still handled by the stand-in after its test ended cannot affect the other tests.
+ */
+public class GoogleProvisioningConnectorFaultTest {
+
+    private static final int RETRY_TIME_BUDGET_MILLIS = 3000;
+    private static final int READ_TIMEOUT_MILLIS = 500;
+
+    private DirectoryStandIn standIn;
+
+    @BeforeClass
+    public void setUpClass() throws Exception {
+
+        standIn = DirectoryStandIn.start();
+    }
+
+    @AfterClass
+    public void tearDownClass() {
+
+        standIn.close();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        standIn.reset();
+    }
+
+    @Test
+    public void testThrottledAndFailedRequestsAreRetried() throws Exception {
+
+        String domain = "throttled.faults.example.com";
+        GoogleProvisioningConnector connector = getConnector(domain);
+        connector.provision(newUser("throttled", "User", "Original"));
+        standIn.injectFaults(DirectoryStandIn.Operation.PATCH, Fault.throttle(1), Fault.status(503));
+
+        long start = System.nanoTime();
+        connector.provision(changedUser("throttled", domain, "User", "Changed"));
+        long elapsedMillis = getElapsedMillis(start);
+
+        Map<?, ?> name = (Map<?, ?>) standIn.getUser("throttled@" + domain).get("name");
+        Assert.assertEquals(name.get("familyName"), "Changed");
+        Assert.assertEquals(standIn.getRequestCount(DirectoryStandIn.Operation.PATCH), 3);
+        Assert.assertEquals(connector.getRetryInitializer().getRetryCount(), 2);
+        Assert.assertTrue(elapsedMillis >= 1000, "Retry-After should be honoured, but the user was updated in "
+                + elapsedMillis + " ms.");
+    }
+
+    @Test
+    public void testThrottledCreateIsRetried() throws Exception {
+
+        String domain = "throttledcreate.faults.example.com";
+        GoogleProvisioningConnector connector = getConnector(domain);
+        standIn.injectFaults(DirectoryStandIn.Operation.INSERT, Fault.throttle(0));
+
+        ProvisionedIdentifier identifier = connector.provision(newUser("throttledcreate", "User", "Original"));
+
+        Assert.assertEquals(identifier.getIdentifier(), "throttledcreate@" + domain);
+        Assert.assertEquals(standIn.getRequestCount(DirectoryStandIn.Operation.INSERT), 2);
+    }
+
+    @Test
+    public void testServerErrorOnCreateIsNotRetried() throws Exception {
+
+        GoogleProvisioningConnector connector = getConnector("unavailablecreate.faults.example.com");
+        standIn.injectFaults(DirectoryStandIn.Operation.INSERT, Fault.status(503));
+
+        IdentityProvisioningException error = expectFailure(connector,
+                newUser("unavailablecreate", "User", "Original"));
+
+        Assert.assertEquals(getStatusCode(error), 503);
+        Assert.assertEquals(standIn.getRequestCount(DirectoryStandIn.Operation.INSERT), 1,
+                "A create that may have been applied by Google should not be sent again.");
+        Assert.assertEquals(connector.getRetryInitializer().getRetryCount(), 0);
+    }
+
+    @Test
+    public void testPersistentServerErrorsExhaustRetryBudget() throws Exception {
+
+        int retryTimeBudget = 1000;
+        List<Property> properties = new ArrayList<>();
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.RETRY_TIME_BUDGET_MILLIS_KEY,
+                String.valueOf(retryTimeBudget)));
+        String domain = "unavailable.faults.example.com";
+        GoogleProvisioningConnector connector = getConnector(domain, properties);
+        connector.provision(newUser("unavailable", "User", "Original"));
+        standIn.setFault(DirectoryStandIn.Operation.PATCH, Fault.status(503));
+
+        long start = System.nanoTime();
+        IdentityProvisioningException error = expectFailure(connector,
+                changedUser("unavailable", domain, "User", "Changed"));
+        long elapsedMillis = getElapsedMillis(start);
+
+        Assert.assertEquals(getStatusCode(error), 503);
+        Assert.assertTrue(standIn.getRequestCount(DirectoryStandIn.Operation.PATCH) > 1,
+                "Server errors should be retried.");
+        Assert.assertEquals(connector.getRetryInitializer().getExhaustedCount(), 1);
+        Assert.assertTrue(elapsedMillis >= retryTimeBudget, "Retries gave up after " + elapsedMillis + " ms.");
+    }
+
+    @Test
+    public void testClientErrorsAreNotRetried() throws Exception {
+
+        GoogleProvisioningConnector connector = getConnector("invalid.faults.example.com");
+        standIn.injectFaults(DirectoryStandIn.Operation.INSERT, Fault.status(400));
+
+        IdentityProvisioningException error = expectFailure(connector, newUser("invalid", "User", "Original"));
+
+        Assert.assertEquals(getStatusCode(error), 400);
+        Assert.assertEquals(standIn.getRequestCount(DirectoryStandIn.Operation.INSERT), 1);
+        Assert.assertEquals(connector.getRetryInitializer().getRetryCount(), 0);
+    }
+
+    @Test
+    public void testSlowCreateIsNotRepeated() throws Exception {
+
+        GoogleProvisioningConnector connector = getConnector("slow.faults.example.com");
+        standIn.injectFaults(DirectoryStandIn.Operation.INSERT, Fault.delay(5000));
+
+        IdentityProvisioningException error = expectFailure(connector, newUser("slow", "User", "Original"));
+
+        Assert.assertTrue(hasCause(error, SocketTimeoutException.class), "Read timeout should be reported.");
+        Assert.assertEquals(standIn.getRequestCount(DirectoryStandIn.Operation.INSERT), 1,
+                "A create that may have reached Google should not be sent again.");
+        Assert.assertEquals(connector.getRetryInitializer().getRetryCount(), 0);
+    }
+
+    @Test
+    public void testSlowDeleteIsRetried() throws Exception {
+
+        String domain = "slowdelete.faults.example.com";
+        GoogleProvisioningConnector connector = getConnector(domain);
+        connector.provision(newUser("slowdelete", "User", "Original"));
+        standIn.injectFaults(DirectoryStandIn.Operation.DELETE, Fault.delay(5000));
+
+        connector.provision(deletedUser("slowdelete", domain));
+
+        Assert.assertNull(standIn.getUser("slowdelete@" + domain), "User should be deleted.");
+        Assert.assertEquals(standIn.getRequestCount(DirectoryStandIn.Operation.DELETE), 2);
+        Assert.assertEquals(connector.getRetryInitializer().getRetryCount(), 1);
+    }
+
+    @Test
+    public void testDroppedConnectionIsRetried() throws Exception {
+
+        String domain = "dropped.faults.example.com";
+        GoogleProvisioningConnector connector = getConnector(domain);
+        connector.provision(newUser("dropped", "User", "Original"));
+        standIn.injectFaults(DirectoryStandIn.Operation.PATCH, Fault.disconnect());
+
+        connector.provision(changedUser("dropped", domain, "User", "Changed"));
+
+        Map<?, ?> name = (Map<?, ?>) standIn.getUser("dropped@" + domain).get("name");
+        Assert.assertEquals(name.get("familyName"), "Changed");
+        Assert.assertTrue(standIn.getRequestCount(DirectoryStandIn.Operation.PATCH) >= 2);
+    }
+
+    @Test
+    public void testTokenEndpointFailure() throws Exception {
+
+        // The domain is not shared with the other tests, so no access token is cached for the connector yet.
+        String domain = "token.faults.example.com";
+        GoogleProvisioningConnector connector = getConnector(domain);
+        // The first failure is met while warming the token up as the client is built, and the second one while the
+        // token is minted on demand for the request.
+        standIn.injectFaults(DirectoryStandIn.Operation.TOKEN, Fault.status(503), Fault.status(503));
+
+        expectFailure(connector, newUser("tokenless", "User", "Original"));
+
+        Assert.assertEquals(standIn.getRequestCount(DirectoryStandIn.Operation.INSERT), 0,
+                "No request should be sent without an access token.");
+        Assert.assertEquals(standIn.getRequestCount(DirectoryStandIn.Operation.TOKEN), 2);
+
+        ProvisionedIdentifier identifier = connector.provision(newUser("tokenless", "User", "Original"));
+        Assert.assertEquals(identifier.getIdentifier(), "tokenless@" + domain);
+        Assert.assertEquals(standIn.getRequestCount(DirectoryStandIn.Operation.TOKEN), 3);
+    }
+
+    @Test
+    public void testFailedBatchPartsAreRetried() throws Exception {
+
+        List<Property> properties = new ArrayList<>();
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.BATCH_ENABLED_KEY, "true"));
+        String domain = "batched.faults.example.com";
+        GoogleProvisioningConnector connector = getConnector(domain, properties);
+        // Server errors of create parts are not retried, since the create may have been applied.
+        standIn.injectFaults(DirectoryStandIn.Operation.INSERT, Fault.status(429), Fault.throttle(0));
+
+        int userCount = 5;
+        ExecutorService executor = Executors.newFixedThreadPool(userCount);
+        try {
+            List<Future<ProvisionedIdentifier>> results = new ArrayList<>();
+            for (int i = 0; i < userCount; i++) {
+                ProvisioningEntity user = newUser("batched" + i, "User", "Original");
+                results.add(executor.submit(() -> connector.provision(user)));
+            }
+            for (Future<ProvisionedIdentifier> result : results) {
+                Assert.assertNotNull(result.get(10, TimeUnit.SECONDS).getIdentifier());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        for (int i = 0; i < userCount; i++) {
+            Assert.assertNotNull(standIn.getUser("batched" + i + "@" + domain), "User should be created.");
+        }
+        Assert.assertEquals(standIn.getRequestCount(DirectoryStandIn.Operation.INSERT), userCount + 2);
+    }
+
+    @Test
+    public void testConcurrencyLimitIsLoweredWhileGoogleFails() throws Exception {
+
+        List<Property> properties = new ArrayList<>();
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.CONCURRENCY_LIMIT_KEY, "50"));
+        // Disables retries, so that every failure reaches the limiter.
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.RETRY_TIME_BUDGET_MILLIS_KEY, "0"));
+        GoogleProvisioningConnector connector = getConnector("congested.faults.example.com", properties);
+        int initialLimit = connector.getConcurrencyLimiter().getLimit();
+        standIn.injectFaults(DirectoryStandIn.Operation.INSERT, Fault.status(503), Fault.status(503));
+
+        expectFailure(connector, newUser("congested0", "User", "Original"));
+        expectFailure(connector, newUser("congested1", "User", "Original"));
+        connector.provision(newUser("congested2", "User", "Original"));
+
+        Assert.assertTrue(connector.getConcurrencyLimiter().getLimit() < initialLimit - 1,
+                "Each failure should lower the limit.");
+        Assert.assertEquals(connector.getConcurrencyLimiter().getInFlight(), 0);
+        Assert.assertEquals(connector.getMetrics().getConcurrency().getLimit(),
+                connector.getConcurrencyLimiter().getLimit());
+    }
+
+    private GoogleProvisioningConnector getConnector(String domain) throws Exception {
+
+        return getConnector(domain, new ArrayList<>());
+    }
+
+    private GoogleProvisioningConnector getConnector(String domain, List<Property> extraProperties)
+            throws Exception {
+
+        List<Property> properties = new ArrayList<>();
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.RETRY_TIME_BUDGET_MILLIS_KEY,
+                String.valueOf(RETRY_TIME_BUDGET_MILLIS)));
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.READ_TIMEOUT_MILLIS_KEY,
+                String.valueOf(READ_TIMEOUT_MILLIS)));
+        properties.addAll(extraProperties);
+        return StandInConnectors.newConnector(standIn, domain, properties);
+    }
+
+    private static IdentityProvisioningException expectFailure(GoogleProvisioningConnector connector,
+                                                               ProvisioningEntity entity) {
+
+        try {
+            connector.provision(entity);
+        } catch (IdentityProvisioningException e) {
+            return e;
+        }
+        Assert.fail("Provisioning " + entity.getEntityName() + " should fail.");
+        return null;
+    }
+
+    private static int getStatusCode(Throwable error) {
+
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof GoogleJsonResponseException) {
+                return ((GoogleJsonResponseException) cause).getStatusCode();
+            }
+        }
+        throw new AssertionError("Google error response is not reported.", error);
+    }
+
+    private static boolean hasCause(Throwable error, Class<? extends Throwable> type) {
+
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long getElapsedMillis(long startNanos) {
+
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google;
+
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.common.model.Property;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningException;
+import org.wso2.carbon.identity.provisioning.ProvisionedIdentifier;
+import org.wso2.carbon.identity.provisioning.ProvisioningEntity;
+import org.wso2.carbon.identity.provisioning.connector.google.client.AccessTokenCache;
+import org.wso2.carbon.identity.provisioning.connector.google.jfr.BatchFlushEvent;
+import org.wso2.carbon.identity.provisioning.connector.google.jfr.ProvisioningOperationEvent;
+import org.wso2.carbon.identity.provisioning.connector.google.jfr.RetryEvent;
+import org.wso2.carbon.identity.provisioning.connector.google.jfr.TokenRefreshEvent;
+import org.wso2.carbon.identity.provisioning.connector.google.standin.DirectoryStandIn;
+import org.wso2.carbon.identity.provisioning.connector.google.standin.Fault;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.wso2.carbon.identity.provisioning.connector.google.standin.DirectoryStandIn.buildProperty;
+import static org.wso2.carbon.identity.provisioning.connector.google.standin.DirectoryStandIn.changedUser;
+import static org.wso2.carbon.identity.provisioning.connector.google.standin.DirectoryStandIn.newUser;
+
+/**
+ * Records the Flight Recorder events of provisioning operations sent to the local Directory API stand-in.
+ */
+public class GoogleProvisioningConnectorFlightRecorderTest {
+
+    private static final String DOMAIN = "jfr.example.com";
+
+    private DirectoryStandIn standIn;
+    private Recording recording;
+
+    @BeforeClass
+    public void setUpClass() throws Exception {
+
+        standIn = DirectoryStandIn.start();
+    }
+
+    @AfterClass
+    public void tearDownClass() {
+
+        standIn.close();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        standIn.reset();
+    }
+
+    @Test
+    public void testOperationsAreRecorded() throws Exception {
+
+        // Drops the access token cached by the other tests, so that one is obtained while recording.
+        AccessTokenCache.getInstance().clear();
+        GoogleProvisioningConnector connector = StandInConnectors.newConnector(standIn, DOMAIN);
+        startRecording();
+
+        connector.provision(newUser("recorded", "Recorded", "User"));
+        connector.provision(changedUser("recorded", DOMAIN, "Renamed", "User"));
+        standIn.injectFaults(DirectoryStandIn.Operation.INSERT, Fault.status(409));
+        try {
+            connector.provision(newUser("conflicting", "Conflicting", "User"));
+            Assert.fail("Create rejected by Google should fail.");
+        } catch (IdentityProvisioningException e) {
+            // Expected.
+        }
+
+        List<RecordedEvent> operations = getEvents(ProvisioningOperationEvent.NAME);
+        Assert.assertEquals(operations.size(), 3);
+        RecordedEvent create = operations.get(0);
+        Assert.assertEquals(create.getString("operation"), "POST");
+        Assert.assertEquals(create.getString("entityType"), "USER");
+        Assert.assertEquals(create.getInt("entityNameHash"), "recorded".hashCode());
+        Assert.assertEquals(create.getInt("status"), 200);
+        Assert.assertTrue(create.getLong("payloadSize") > 0, "Size of the created user should be recorded.");
+        Assert.assertTrue(create.getBoolean("succeeded"));
+        Assert.assertEquals(operations.get(1).getString("operation"), "PUT");
+        Assert.assertEquals(operations.get(1).getInt("status"), 200);
+        Assert.assertEquals(operations.get(2).getInt("status"), 409);
+        Assert.assertFalse(operations.get(2).getBoolean("succeeded"));
+
+        List<RecordedEvent> tokenRefreshes = getEvents(TokenRefreshEvent.NAME);
+        Assert.assertEquals(tokenRefreshes.size(), 1);
+        Assert.assertEquals(tokenRefreshes.get(0).getString("trigger"), TokenRefreshEvent.WARM_UP);
+        Assert.assertTrue(tokenRefreshes.get(0).getBoolean("succeeded"));
+        Assert.assertFalse(create.getDuration().compareTo(tokenRefreshes.get(0).getDuration()) < 0,
+                "Token refresh should be part of the first operation.");
+    }
+
+    @Test
+    public void testRetriesAreRecorded() throws Exception {
+
+        GoogleProvisioningConnector connector = StandInConnectors.newConnector(standIn, DOMAIN);
+        // Creates are retried only once Google has rate limited them, since a failed create may have been applied.
+        standIn.injectFaults(DirectoryStandIn.Operation.INSERT, Fault.status(429));
+        startRecording();
+
+        connector.provision(newUser("retried", "Retried", "User"));
+
+        List<RecordedEvent> retries = getEvents(RetryEvent.NAME);
+        Assert.assertEquals(retries.size(), 1);
+        Assert.assertEquals(retries.get(0).getString("operation"), "POST");
+        Assert.assertEquals(retries.get(0).getInt("status"), 429);
+        Assert.assertTrue(retries.get(0).getBoolean("retried"));
+        Assert.assertTrue(retries.get(0).getDuration().toMillis() >= 250,
+                "Duration should be the backoff before the retry.");
+    }
+
+    @Test
+    public void testBatchFlushesAreRecorded() throws Exception {
+
+        List<Property> properties = new ArrayList<>();
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.BATCH_ENABLED_KEY, "true"));
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.BATCH_SIZE_KEY, "4"));
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.BATCH_LINGER_MILLIS_KEY, "5000"));
+        GoogleProvisioningConnector connector = StandInConnectors.newConnector(standIn, DOMAIN, properties);
+        startRecording();
+
+        int userCount = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(userCount);
+        try {
+            List<Future<ProvisionedIdentifier>> results = new ArrayList<>();
+            for (int i = 0; i < userCount; i++) {
+                ProvisioningEntity user = newUser("batched" + i, "Batched", "User");
+                results.add(executor.submit(() -> connector.provision(user)));
+            }
+            for (Future<ProvisionedIdentifier> result : results) {
+                Assert.assertNotNull(result.get().getIdentifier());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<RecordedEvent> flushes = getEvents(BatchFlushEvent.NAME);
+        Assert.assertEquals(flushes.size(), 1);
+        Assert.assertEquals(flushes.get(0).getInt("requestCount"), userCount);
+        Assert.assertEquals(flushes.get(0).getInt("failedCount"), 0);
+        Assert.assertTrue(flushes.get(0).getBoolean("full"), "Batch should be sent once it is full.");
+        Assert.assertEquals(flushes.get(0).getInt("status"), 200);
+        Assert.assertTrue(flushes.get(0).getLong("payloadSize") > 0);
+        Assert.assertEquals(getEvents(ProvisioningOperationEvent.NAME).size(), userCount);
+    }
+
+    private void startRecording() {
+
+        recording = new Recording();
+        for (String name : new String[]{ProvisioningOperationEvent.NAME, TokenRefreshEvent.NAME,
+                BatchFlushEvent.NAME, RetryEvent.NAME}) {
+            recording.enable(name).withThreshold(Duration.ZERO);
+        }
+        recording.start();
+    }
+
+    private List<RecordedEvent> getEvents(String name) throws Exception {
+
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        Path file = Files.createTempFile("google-provisioning", ".jfr");
+        try {
+            recording.dump(file);
+            List<RecordedEvent> events = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (event.getEventType().getName().equals(name)) {
+                    events.add(event);
+                }
+            }
+            events.sort((first, second) -> first.getStartTime().compareTo(second.getStartTime()));
+            return events;
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google;
+
+import com.google.api.client.json.GenericJson;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.application.common.model.Property;
+import org.wso2.carbon.identity.provisioning.ProvisionedIdentifier;
+import org.wso2.carbon.identity.provisioning.ProvisioningEntity;
+import org.wso2.carbon.identity.provisioning.connector.google.client.AccessTokenCache;
+import org.wso2.carbon.identity.provisioning.connector.google.client.UserPager;
+import org.wso2.carbon.identity.provisioning.connector.google.standin.DirectoryStandIn;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.wso2.carbon.identity.provisioning.connector.google.standin.DirectoryStandIn.buildProperty;
+import static org.wso2.carbon.identity.provisioning.connector.google.standin.DirectoryStandIn.changedUser;
+import static org.wso2.carbon.identity.provisioning.connector.google.standin.DirectoryStandIn.deletedUser;
+import static org.wso2.carbon.identity.provisioning.connector.google.standin.DirectoryStandIn.newUser;
+
+/**
+ * Provisions users end to end through the connector against the local Directory API stand-in.
+ */
+public class GoogleProvisioningConnectorStandInTest {
+
+    private static final String DOMAIN = "standin.example.com";
+
+    private DirectoryStandIn standIn;
+
+    @BeforeClass
+    public void setUpClass() throws Exception {
+
+        standIn = DirectoryStandIn.start();
+    }
+
+    @AfterClass
+    public void tearDownClass() {
+
+        standIn.close();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        standIn.reset();
+    }
+
+    @Test
+    public void testUserLifecycle() throws Exception {
+
+        assertUserLifecycle(StandInConnectors.newConnector(standIn, DOMAIN));
+    }
+
+    @Test
+    public void testUserLifecycleOverHttpClientTransport() throws Exception {
+
+        // Drops the access token cached by the other tests, so that it is also obtained through the transport.
+        AccessTokenCache.getInstance().clear();
+        List<Property> properties = new ArrayList<>();
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.HTTP_TRANSPORT_KEY, "http2"));
+
+        assertUserLifecycle(StandInConnectors.newConnector(standIn, DOMAIN, properties));
+    }
+
+    private void assertUserLifecycle(GoogleProvisioningConnector connector) throws Exception {
+
+        ProvisionedIdentifier identifier = connector.provision(newUser("john", "John", "Doe"));
+        Assert.assertEquals(identifier.getIdentifier(), "john@" + DOMAIN);
+        GenericJson user = standIn.getUser("john@" + DOMAIN);
+        Assert.assertNotNull(user, "User should be created.");
+        Assert.assertEquals(((Map<?, ?>) user.get("name")).get("givenName"), "John");
+
+        connector.provision(changedUser("john", DOMAIN, "Johnny", "Doe"));
+        user = standIn.getUser("john@" + DOMAIN);
+        Assert.assertEquals(((Map<?, ?>) user.get("name")).get("givenName"), "Johnny");
+        Assert.assertEquals(((Map<?, ?>) user.get("name")).get("familyName"), "Doe");
+        Assert.assertEquals(standIn.getRequestCount(DirectoryStandIn.Operation.PATCH), 1);
+
+        connector.provision(changedUser("john", DOMAIN, "Johnny", "Doe"));
+        Assert.assertEquals(standIn.getRequestCount(DirectoryStandIn.Operation.PATCH), 1,
+                "Unchanged user should not be sent.");
+
+        connector.provision(deletedUser("john", DOMAIN));
+        Assert.assertNull(standIn.getUser("john@" + DOMAIN), "User should be deleted.");
+    }
+
+    @Test
+    public void testAsyncCreateUsesTenantOfCaller() throws Exception {
+
+        List<Property> properties = new ArrayList<>();
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.PROVISIONING_PATTERN_KEY, "{UN,TD}"));
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.PROVISIONING_SEPERATOR_KEY, "-"));
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.ASYNC_ENABLED_KEY, "true"));
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.ASYNC_THREAD_MODE_KEY, "virtual"));
+        GoogleProvisioningConnector connector = StandInConnectors.newConnector(standIn, DOMAIN, properties);
+
+        PrivilegedCarbonContext.startTenantFlow();
+        try {
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain("tenant.org");
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(7);
+
+            ProvisionedIdentifier identifier = connector.provision(newUser("jane", "Jane", "Doe"));
+            Assert.assertEquals(identifier.getIdentifier(), "jane-tenant.org@" + DOMAIN,
+                    "User id should be built with the tenant of the caller.");
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+        Assert.assertNotNull(standIn.getUser("jane-tenant.org@" + DOMAIN), "User should be created.");
+    }
+
+    @Test
+    public void testListUsersPageByPage() throws Exception {
+
+        GoogleProvisioningConnector connector = StandInConnectors.newConnector(standIn, DOMAIN);
+        for (int i = 0; i < 7; i++) {
+            connector.provision(newUser("user" + i, "User", String.valueOf(i)));
+        }
+
+        List<String> primaryEmails = new ArrayList<>();
+        String nextPageToken = connector.listUsers(new UserPager().setDomain(DOMAIN).setMaxResults(3)
+                .setFields("nextPageToken,users(primaryEmail)"), (users, pageToken) -> {
+                    users.forEach(user -> primaryEmails.add(user.getPrimaryEmail()));
+                    return true;
+                });
+
+        Assert.assertNull(nextPageToken);
+        Assert.assertEquals(primaryEmails.size(), 7);
+        Assert.assertEquals(standIn.getRequestCount(DirectoryStandIn.Operation.LIST), 3);
+    }
+
+    @Test
+    public void testBatchRequests() throws Exception {
+
+        List<Property> properties = new ArrayList<>();
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.BATCH_ENABLED_KEY, "true"));
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.BATCH_LINGER_MILLIS_KEY, "100"));
+        GoogleProvisioningConnector connector = StandInConnectors.newConnector(standIn, DOMAIN, properties);
+
+        int userCount = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(userCount);
+        try {
+            List<Future<ProvisionedIdentifier>> results = new ArrayList<>();
+            for (int i = 0; i < userCount; i++) {
+                ProvisioningEntity user = newUser("batched" + i, "Batched", String.valueOf(i));
+                results.add(executor.submit(() -> connector.provision(user)));
+            }
+            for (Future<ProvisionedIdentifier> result : results) {
+                Assert.assertNotNull(result.get().getIdentifier());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(standIn.getUserCount(), userCount);
+        Assert.assertEquals(standIn.getRequestCount(DirectoryStandIn.Operation.INSERT), userCount);
+        long batchCount = standIn.getRequestCount(DirectoryStandIn.Operation.BATCH);
+        Assert.assertTrue(batchCount >= 1 && batchCount < userCount, "Inserts should be batched, but "
+                + batchCount + " batch requests were sent.");
+    }
+}
@@ -20,6 +20,7 @@ import com.google.api.client.googleapis.json.GoogleJsonResponseException;
 import com.google.api.client.util.SecurityUtils;
 import com.google.api.services.admin.directory.Directory;
 import com.google.api.services.admin.directory.model.User;
+import com.google.api.services.admin.directory.model.UserName;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.mockito.ArgumentMatchers;
@@ -44,12 +45,12 @@ import org.wso2.carbon.identity.provisioning.ProvisioningOperation;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.reflect.Field;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.KeyStore;
 import java.security.PrivateKey;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -62,6 +63,8 @@ import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class GoogleProvisioningConnectorTest {
@@ -92,7 +95,8 @@ public class GoogleProvisioningConnectorTest {
 
     @Test
     public void testInit() throws Exception {
-        String privateKey = "googlePrvKey";
+        String privateKey = Base64.getEncoder().encodeToString(
+                Files.readAllBytes(Paths.get("src", "test", "resources", "serviceAccountKey.p12")));
 
         try (MockedStatic<LogFactory> logFactoryMock = mockStatic(LogFactory.class)) {
             logFactoryMock.when(() -> LogFactory.getLog(any(Class.class))).thenReturn(log);
@@ -110,12 +114,9 @@ public class GoogleProvisioningConnectorTest {
             Property[] provisioningProperties = new Property[]{property1, property2};
 
             connector.init(provisioningProperties);
-            Path filePath = Paths.get(privateKey);
-            boolean fileExist = Files.exists(filePath);
 
-            Assert.assertTrue(fileExist, privateKey + " file is not created.");
-
-            Files.delete(filePath);
+            Assert.assertFalse(Files.exists(Paths.get("googlePrvKey")),
+                    "Private key should not be written to a file.");
         }
     }
 
@@ -269,17 +270,14 @@ public class GoogleProvisioningConnectorTest {
         String adminEmailKey = "google_prov_admin_email";
         String applicationNameKey = "google_prov_application_name";
 
+        Path path = Paths.get("src", "test", "resources", "googlePrvKey");
+        String privateKeyValue = Base64.getEncoder().encodeToString(Files.readAllBytes(path));
+
         Property property1 = buildProperty(serviceAccountEmailKey, "service@gmail.com");
         Property property2 = buildProperty(adminEmailKey, "admin@gmail.com");
         Property property3 = buildProperty(applicationNameKey, "testApp");
-        Property[] provisioningProperties = new Property[]{property1, property2, property3};
-
-        GoogleProvisioningConnector connector = getConnector(provisioningProperties);
-
-        Path path = Paths.get("src", "test", "resources", "googlePrvKey");
-        Field googlePrvKeyField = GoogleProvisioningConnector.class.getDeclaredField("googlePrvKey");
-        googlePrvKeyField.setAccessible(true);
-        googlePrvKeyField.set(null, path.toFile());
+        Property property4 = buildProperty(GoogleConnectorConstants.PRIVATE_KEY, privateKeyValue);
+        Property[] provisioningProperties = new Property[]{property1, property2, property3, property4};
 
         try (MockedStatic<LogFactory> logFactoryMock = mockStatic(LogFactory.class);
              MockedStatic<SecurityUtils> securityUtilsMock = mockStatic(SecurityUtils.class)) {
@@ -296,6 +294,8 @@ public class GoogleProvisioningConnectorTest {
                     any(KeyStore.class), any(InputStream.class), anyString(), anyString(), anyString()))
                     .thenReturn(privateKey);
 
+            // The private key is parsed in memory when the connector is initialized.
+            GoogleProvisioningConnector connector = getConnector(provisioningProperties);
             Directory directoryService = connector.getDirectoryService();
             Assert.assertNotNull(directoryService, "Directory Service cannot be null.");
         }
@@ -351,12 +351,48 @@ public class GoogleProvisioningConnectorTest {
                 Assert.assertNotNull(user);
                 Assert.assertEquals(user.getName().getFamilyName(), defaultFamilyName);
                 Assert.assertEquals(user.getName().getGivenName(), defaultGivenName);
+                Assert.assertNull(user.getPassword(), "Password should not be sent with updates.");
             } else {
                 Assert.assertNull(user);
             }
         }
     }
 
+    @Test
+    public void testUpdateDoesNotSendPassword() throws Exception {
+
+        ClaimMapping claimMapping = ClaimMapping.build(IdentityProvisioningConstants.PASSWORD_CLAIM_URI,
+                IdentityProvisioningConstants.PASSWORD_CLAIM_URI, null, false);
+        Map<ClaimMapping, List<String>> attributes = new HashMap<>();
+        attributes.put(claimMapping, Collections.singletonList("newPassword"));
+
+        ProvisioningEntity entity = new ProvisioningEntity(ProvisioningEntityType.USER, ProvisioningOperation.PUT,
+                attributes);
+        ProvisionedIdentifier identifier = new ProvisionedIdentifier();
+        identifier.setIdentifier("testuser@gmail.com");
+        entity.setIdentifier(identifier);
+
+        Assert.assertNull(getConnector(new Property[]{}).updateGoogleUser(entity),
+                "Update carrying only a password should be skipped.");
+    }
+
+    @Test
+    public void testCreateDoesNotSendPasswordOfUser() throws Exception {
+
+        String password = "userPassword";
+        ClaimMapping claimMapping = ClaimMapping.build(IdentityProvisioningConstants.PASSWORD_CLAIM_URI,
+                IdentityProvisioningConstants.PASSWORD_CLAIM_URI, null, false);
+        Map<ClaimMapping, List<String>> attributes = new HashMap<>();
+        attributes.put(claimMapping, Collections.singletonList(password));
+        ProvisioningEntity entity = new ProvisioningEntity(ProvisioningEntityType.USER, "testuser",
+                ProvisioningOperation.POST, attributes);
+
+        User user = getConnector(new Property[]{}).buildGoogleUser(entity);
+
+        Assert.assertNotNull(user.getPassword(), "Google requires a password for new users.");
+        Assert.assertNotEquals(user.getPassword(), password, "Password of the user should not be sent to Google.");
+    }
+
     @DataProvider(name = "updateUserDataProvider")
     public Object[][] provideUpdateUserTestData() {
 
@@ -391,7 +427,8 @@ public class GoogleProvisioningConnectorTest {
             ProvisioningEntity entity = new ProvisioningEntity(ProvisioningEntityType.USER, ProvisioningOperation.POST);
             entity.setIdentifier(identifier);
 
-            User user = mock(User.class);
+            User user = new User();
+            user.setName(new UserName().setGivenName("testGivenName").setFamilyName("testFamilyName"));
             if (caseNo == CASE_1) {
                 doReturn(null).when(connector).updateGoogleUser(any(ProvisioningEntity.class));
             } else {
@@ -402,8 +439,8 @@ public class GoogleProvisioningConnectorTest {
             doReturn(directory).when(connector).getDirectoryService();
             Directory.Users users = mock(Directory.Users.class);
             when(directory.users()).thenReturn(users);
-            Directory.Users.Update updateRequest = mock(Directory.Users.Update.class);
-            when(users.update(anyString(), any(User.class))).thenReturn(updateRequest);
+            Directory.Users.Patch updateRequest = mock(Directory.Users.Patch.class);
+            when(users.patch(anyString(), any(User.class))).thenReturn(updateRequest);
 
             if (caseNo == CASE_4) {
                 when(updateRequest.execute()).thenThrow(new IOException("Test IO Exception."));
@@ -423,6 +460,35 @@ public class GoogleProvisioningConnectorTest {
         }
     }
 
+    @Test
+    public void testUpdateSendsOnlyChangedAttributes() throws Exception {
+
+        ProvisionedIdentifier identifier = new ProvisionedIdentifier();
+        identifier.setIdentifier("testuser@gmail.com");
+        GoogleProvisioningConnector connector = spy(getConnector(new Property[]{}));
+        ProvisioningEntity entity = new ProvisioningEntity(ProvisioningEntityType.USER, ProvisioningOperation.PUT);
+        entity.setIdentifier(identifier);
+
+        Directory directory = mock(Directory.class);
+        doReturn(directory).when(connector).getDirectoryService();
+        Directory.Users users = mock(Directory.Users.class);
+        when(directory.users()).thenReturn(users);
+        when(users.patch(anyString(), any(User.class))).thenReturn(mock(Directory.Users.Patch.class));
+
+        User user = new User();
+        user.setName(new UserName().setGivenName("testGivenName").setFamilyName("testFamilyName"));
+        doReturn(user).when(connector).updateGoogleUser(any(ProvisioningEntity.class));
+        connector.updateUser(entity);
+        connector.updateUser(entity);
+        verify(users, times(1)).patch(anyString(), any(User.class));
+
+        User renamedUser = new User();
+        renamedUser.setName(new UserName().setGivenName("newGivenName").setFamilyName("testFamilyName"));
+        doReturn(renamedUser).when(connector).updateGoogleUser(any(ProvisioningEntity.class));
+        connector.updateUser(entity);
+        verify(users).patch("testuser@gmail.com", new User().setName(new UserName().setGivenName("newGivenName")));
+    }
+
     @DataProvider(name = "createUserDataProvider")
     public Object[][] provideCreateUserTestData() {
 
@@ -475,6 +541,7 @@ public class GoogleProvisioningConnectorTest {
                 if (caseNo == CASE_1) {
                     Assert.assertNotNull(createdUser, "createdUser cannot be null.");
                     Assert.assertEquals(createdUser, email);
+                    verify(insertRequest).setFields(GoogleConnectorConstants.PropertyConfig.DEFAULT_INSERT_FIELDS);
                 } else if (caseNo == CASE_2) {
                     Assert.fail("Test expects an IdentityProvisioningException for createUser().");
                 }
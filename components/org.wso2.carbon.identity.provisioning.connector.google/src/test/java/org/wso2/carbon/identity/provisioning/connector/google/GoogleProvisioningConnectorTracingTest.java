@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google;
+
+import io.opencensus.trace.AttributeValue;
+import io.opencensus.trace.Status;
+import io.opencensus.trace.export.SpanData;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.common.model.Property;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningException;
+import org.wso2.carbon.identity.provisioning.connector.google.client.AccessTokenCache;
+import org.wso2.carbon.identity.provisioning.connector.google.standin.DirectoryStandIn;
+import org.wso2.carbon.identity.provisioning.connector.google.standin.Fault;
+import org.wso2.carbon.identity.provisioning.connector.google.tracing.InMemorySpanExporter;
+import org.wso2.carbon.identity.provisioning.connector.google.tracing.ProvisioningTracer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.wso2.carbon.identity.provisioning.connector.google.standin.DirectoryStandIn.buildProperty;
+import static org.wso2.carbon.identity.provisioning.connector.google.standin.DirectoryStandIn.newUser;
+
+/**
+ * Checks the spans of provisioning operations sent to the local Directory API stand-in. Spans are exported by the
+ * OpenCensus implementation in the background, so the tests wait for them to reach the in-memory exporter.
+ */
+public class GoogleProvisioningConnectorTracingTest {
+
+    private static final String DOMAIN = "tracing.example.com";
+    private static final long EXPORT_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(15);
+
+    private DirectoryStandIn standIn;
+    private InMemorySpanExporter exporter;
+
+    @BeforeClass
+    public void setUpClass() throws Exception {
+
+        standIn = DirectoryStandIn.start();
+        exporter = new InMemorySpanExporter(1000);
+        exporter.register();
+    }
+
+    @AfterClass
+    public void tearDownClass() {
+
+        exporter.unregister();
+        standIn.close();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        standIn.reset();
+        exporter.clear();
+    }
+
+    @Test
+    public void testCreateIsTracedWithNestedSpans() throws Exception {
+
+        // Drops the access token cached by the other tests, so that one is acquired for this operation.
+        AccessTokenCache.getInstance().clear();
+        GoogleProvisioningConnector connector = getConnector("TracedIdP", "1");
+        connector.provision(newUser("traced", "Traced", "User"));
+
+        SpanData provision = awaitProvisionSpan("TracedIdP");
+        Assert.assertEquals(getAttribute(provision, ProvisioningTracer.ENTITY_TYPE_ATTRIBUTE),
+                AttributeValue.stringAttributeValue("USER"));
+        Assert.assertEquals(getAttribute(provision, ProvisioningTracer.OPERATION_ATTRIBUTE),
+                AttributeValue.stringAttributeValue("POST"));
+        Assert.assertNotNull(getAttribute(provision, ProvisioningTracer.TENANT_ATTRIBUTE));
+        Assert.assertEquals(provision.getStatus(), Status.OK);
+
+        SpanData buildRequest = awaitChild(provision, ProvisioningTracer.BUILD_REQUEST_SPAN);
+        Assert.assertEquals(buildRequest.getStatus(), Status.OK);
+
+        SpanData directory = awaitChild(provision, ProvisioningTracer.DIRECTORY_SPAN_PREFIX + "POST");
+        Assert.assertEquals(getAttribute(directory, ProvisioningTracer.HTTP_STATUS_CODE_ATTRIBUTE),
+                AttributeValue.longAttributeValue(200));
+        Assert.assertEquals(directory.getStatus(), Status.OK);
+        Assert.assertFalse(buildRequest.getEndTimestamp().compareTo(directory.getStartTimestamp()) > 0,
+                "Request should be built before it is sent.");
+
+        SpanData credential = awaitSpan(ProvisioningTracer.ACQUIRE_CREDENTIAL_SPAN,
+                provision.getContext().getTraceId().toLowerBase16());
+        Assert.assertEquals(credential.getStatus(), Status.OK);
+        Assert.assertFalse(buildRequest.getStartTimestamp().compareTo(credential.getStartTimestamp()) > 0,
+                "Access token should be acquired while building the client of the request.");
+        Assert.assertFalse(credential.getEndTimestamp().compareTo(directory.getStartTimestamp()) > 0,
+                "Access token should be acquired before the request is sent.");
+    }
+
+    @Test
+    public void testFailedRequestIsTracedWithItsStatus() throws Exception {
+
+        GoogleProvisioningConnector connector = getConnector("FailingIdP", "1");
+        standIn.injectFaults(DirectoryStandIn.Operation.INSERT, Fault.status(400));
+        try {
+            connector.provision(newUser("rejected", "Traced", "User"));
+            Assert.fail("Create rejected by Google should fail.");
+        } catch (IdentityProvisioningException e) {
+            // Expected.
+        }
+
+        SpanData provision = awaitProvisionSpan("FailingIdP");
+        Assert.assertFalse(provision.getStatus().isOk());
+        SpanData directory = awaitChild(provision, ProvisioningTracer.DIRECTORY_SPAN_PREFIX + "POST");
+        Assert.assertEquals(getAttribute(directory, ProvisioningTracer.HTTP_STATUS_CODE_ATTRIBUTE),
+                AttributeValue.longAttributeValue(400));
+        Assert.assertEquals(directory.getStatus().getCanonicalCode(), Status.CanonicalCode.INVALID_ARGUMENT);
+    }
+
+    @Test
+    public void testOperationsAreSampled() throws Exception {
+
+        getConnector("UnsampledIdP", "0").provision(newUser("unsampled", "Traced", "User"));
+        getConnector("SampledIdP", "1").provision(newUser("sampled", "Traced", "User"));
+
+        // Spans are exported in the order they ended, so the unsampled operation would be exported by now.
+        awaitProvisionSpan("SampledIdP");
+        Assert.assertNull(findProvisionSpan("UnsampledIdP"), "Operation should not be sampled.");
+    }
+
+    private GoogleProvisioningConnector getConnector(String idpName, String samplingProbability) throws Exception {
+
+        List<Property> properties = new ArrayList<>();
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.IDP_NAME_KEY, idpName));
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.TRACE_SAMPLING_PROBABILITY_KEY,
+                samplingProbability));
+        return StandInConnectors.newConnector(standIn, DOMAIN, properties);
+    }
+
+    private SpanData awaitProvisionSpan(String idpName) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + EXPORT_TIMEOUT_MILLIS;
+        while (true) {
+            SpanData span = findProvisionSpan(idpName);
+            if (span != null) {
+                return span;
+            }
+            awaitExport(deadline, ProvisioningTracer.PROVISION_SPAN + " of " + idpName);
+        }
+    }
+
+    private SpanData findProvisionSpan(String idpName) {
+
+        AttributeValue idp = AttributeValue.stringAttributeValue(idpName);
+        for (SpanData span : exporter.getSpans(ProvisioningTracer.PROVISION_SPAN)) {
+            if (idp.equals(getAttribute(span, ProvisioningTracer.IDP_ATTRIBUTE))) {
+                return span;
+            }
+        }
+        return null;
+    }
+
+    private SpanData awaitChild(SpanData parent, String name) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + EXPORT_TIMEOUT_MILLIS;
+        while (true) {
+            for (SpanData span : exporter.getSpans(name)) {
+                if (parent.getContext().getSpanId().equals(span.getParentSpanId())) {
+                    return span;
+                }
+            }
+            awaitExport(deadline, name);
+        }
+    }
+
+    private SpanData awaitSpan(String name, String traceId) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + EXPORT_TIMEOUT_MILLIS;
+        while (true) {
+            for (SpanData span : exporter.getSpans(name)) {
+                if (span.getContext().getTraceId().toLowerBase16().equals(traceId)) {
+                    return span;
+                }
+            }
+            awaitExport(deadline, name);
+        }
+    }
+
+    private static void awaitExport(long deadline, String spanName) throws InterruptedException {
+
+        if (System.currentTimeMillis() > deadline) {
+            Assert.fail("Span " + spanName + " was not exported.");
+        }
+        Thread.sleep(100);
+    }
+
+    private static AttributeValue getAttribute(SpanData span, String key) {
+
+        return span.getAttributes().getAttributeMap().get(key);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google;
+
+import org.wso2.carbon.identity.application.common.model.Property;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningException;
+import org.wso2.carbon.identity.provisioning.connector.google.client.DirectoryClientHolder;
+import org.wso2.carbon.identity.provisioning.connector.google.standin.DirectoryStandIn;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.wso2.carbon.identity.provisioning.connector.google.standin.DirectoryStandIn.buildProperty;
+
+/**
+ * Builds Google connectors provisioning through a {@link DirectoryStandIn}.
+ */
+public final class StandInConnectors {
+
+    private StandInConnectors() {
+    }
+
+    /**
+     * Returns the properties of a Google connector provisioning the given domain as the service account of the
+     * stand-in.
+     */
+    public static List<Property> getConnectorProperties(String domain) {
+
+        List<Property> properties = new ArrayList<>();
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.DOMAIN_NAME_KEY, domain));
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.SERVICE_ACCOUNT_EMAIL_KEY,
+                DirectoryStandIn.SERVICE_ACCOUNT));
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.ADMIN_EMAIL_KEY, "admin@" + domain));
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.APPLICATION_NAME_KEY, "StandIn"));
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.IDP_NAME_KEY, "StandInIdP"));
+        properties.add(buildProperty(GoogleConnectorConstants.PRIVATE_KEY, DirectoryStandIn.getServiceAccountKey()));
+        return properties;
+    }
+
+    /**
+     * Returns a holder of Directory clients sending their requests to the given stand-in.
+     */
+    public static DirectoryClientHolder newClientHolder(DirectoryStandIn standIn) {
+
+        return new DirectoryClientHolder(standIn.getRootUrl(), standIn.getTokenUrl());
+    }
+
+    /**
+     * Returns a Google connector provisioning the given domain through the stand-in, mapping the names of users from
+     * {@link DirectoryStandIn#GIVEN_NAME_CLAIM} and {@link DirectoryStandIn#FAMILY_NAME_CLAIM}.
+     */
+    public static GoogleProvisioningConnector newConnector(DirectoryStandIn standIn, String domain)
+            throws IdentityProvisioningException {
+
+        return newConnector(standIn, domain, Collections.emptyList());
+    }
+
+    /**
+     * Returns a Google connector provisioning the given domain through the stand-in, configured with the given
+     * properties on top of the ones of {@link #newConnector(DirectoryStandIn, String)}.
+     */
+    public static GoogleProvisioningConnector newConnector(DirectoryStandIn standIn, String domain,
+                                                           List<Property> extraProperties)
+            throws IdentityProvisioningException {
+
+        List<Property> properties = getConnectorProperties(domain);
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.GIVEN_NAME_CLAIM_KEY,
+                DirectoryStandIn.GIVEN_NAME_CLAIM));
+        properties.add(buildProperty(GoogleConnectorConstants.PropertyConfig.FAMILY_NAME_CLAIM_KEY,
+                DirectoryStandIn.FAMILY_NAME_CLAIM));
+        properties.addAll(extraProperties);
+        GoogleProvisioningConnector connector = new GoogleProvisioningConnector(newClientHolder(standIn));
+        connector.init(properties.toArray(new Property[0]));
+        return connector;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningException;
+
+public class UserIdTemplateTest {
+
+    @DataProvider(name = "userIds")
+    public Object[][] userIds() {
+
+        return new Object[][]{
+                {"{UN}", "_", "John", "john"},
+                {"{UD, UN}", "_", "John", "primary_john"},
+                {"{UD,UN,IDP}", "_", "SECONDARY/John_Doe", "secondary_johndoe_googleidp"},
+                {"{UN,IDP}", "-", "John-Doe", "johndoe-googleidp"},
+                {"{UN, IDP}", null, "John", "johngoogleidp"}
+        };
+    }
+
+    @Test(dataProvider = "userIds")
+    public void testBuildUserId(String pattern, String separator, String entityName, String expected)
+            throws Exception {
+
+        UserIdTemplate template = UserIdTemplate.compile(pattern, separator, null);
+
+        Assert.assertEquals(template.buildUserId(entityName, "GoogleIdP"), expected);
+    }
+
+    @DataProvider(name = "invalidPatterns")
+    public Object[][] invalidPatterns() {
+
+        return new Object[][]{{null}, {"UN"}, {"{}"}, {"{UN, EMAIL}"}};
+    }
+
+    @Test(dataProvider = "invalidPatterns", expectedExceptions = IdentityProvisioningException.class)
+    public void testInvalidPattern(String pattern) throws Exception {
+
+        UserIdTemplate.compile(pattern, "_", null);
+    }
+
+    @DataProvider(name = "primaryEmails")
+    public Object[][] primaryEmails() {
+
+        return new Object[][]{
+                {"mygoogledomain.com", "john", "john@mygoogledomain.com"},
+                {"mygoogledomain.com", "john@wso2.com", "john.wso2.com@mygoogledomain.com"},
+                {"mygoogledomain.com", "john@mygoogledomain.com", "john@mygoogledomain.com"},
+                {null, "john@wso2.com", "john@wso2.com"},
+                {" ", "john", "john"}
+        };
+    }
+
+    @Test(dataProvider = "primaryEmails")
+    public void testToPrimaryEmail(String domain, String userId, String expected) throws Exception {
+
+        UserIdTemplate template = UserIdTemplate.compile("{UN}", "_", domain);
+
+        Assert.assertEquals(template.toPrimaryEmail(userId), expected);
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.client;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleCredential;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.json.Json;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.api.client.util.SecurityUtils;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.PrivateKey;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AccessTokenCacheTest {
+
+    private static final List<String> SCOPES = Collections.singletonList("scope");
+    private static final String SERVICE_ACCOUNT = "service@developer.gserviceaccount.com";
+    private static final String ADMIN = "admin@mygoogledomain.com";
+
+    private PrivateKey privateKey;
+
+    @BeforeClass
+    public void setUpClass() throws Exception {
+
+        try (InputStream keyStream = Files.newInputStream(Paths.get("src", "test", "resources",
+                "serviceAccountKey.p12"))) {
+            privateKey = SecurityUtils.loadPrivateKeyFromKeyStore(SecurityUtils.getPkcs12KeyStore(), keyStream,
+                    "notasecret", "privatekey", "notasecret");
+        }
+    }
+
+    @Test
+    public void testTokenIsMintedOnceAndServedFromCache() throws Exception {
+
+        AtomicInteger tokenRequests = new AtomicInteger();
+        AccessTokenCache cache = new AccessTokenCache(TimeUnit.MINUTES.toMillis(5), TimeUnit.HOURS.toMillis(1),
+                TimeUnit.HOURS.toMillis(1));
+        MockHttpTransport transport = buildTokenEndpoint(tokenRequests);
+
+        AccessTokenCache.CachedToken token = cache.getToken(SERVICE_ACCOUNT, ADMIN, SCOPES, "key",
+                () -> buildCredential(transport));
+        HttpRequest first = buildRequest(transport);
+        token.intercept(first);
+        HttpRequest second = buildRequest(transport);
+        token.intercept(second);
+
+        Assert.assertEquals(first.getHeaders().getAuthorization(), "Bearer token-1");
+        Assert.assertEquals(second.getHeaders().getAuthorization(), "Bearer token-1");
+        Assert.assertEquals(tokenRequests.get(), 1);
+        Assert.assertEquals(cache.getMissCount(), 1);
+        Assert.assertEquals(cache.getHitCount(), 1);
+    }
+
+    @Test
+    public void testWarmedUpTokenIsServedFromCache() throws Exception {
+
+        AtomicInteger tokenRequests = new AtomicInteger();
+        AccessTokenCache cache = new AccessTokenCache(TimeUnit.MINUTES.toMillis(5), TimeUnit.HOURS.toMillis(1),
+                TimeUnit.HOURS.toMillis(1));
+        MockHttpTransport transport = buildTokenEndpoint(tokenRequests);
+
+        AccessTokenCache.CachedToken token = cache.getToken(SERVICE_ACCOUNT, ADMIN, SCOPES, "key",
+                () -> buildCredential(transport));
+        token.warmUp();
+        token.warmUp();
+        HttpRequest request = buildRequest(transport);
+        token.intercept(request);
+
+        Assert.assertEquals(request.getHeaders().getAuthorization(), "Bearer token-1");
+        Assert.assertEquals(tokenRequests.get(), 1);
+        Assert.assertEquals(cache.getMissCount(), 0, "First request should not wait for the token endpoint.");
+        Assert.assertEquals(cache.getHitCount(), 1);
+        cache.shutdown();
+    }
+
+    @Test
+    public void testTokenIsSharedByKey() throws Exception {
+
+        AccessTokenCache cache = new AccessTokenCache(TimeUnit.MINUTES.toMillis(5), TimeUnit.HOURS.toMillis(1),
+                TimeUnit.HOURS.toMillis(1));
+        MockHttpTransport transport = buildTokenEndpoint(new AtomicInteger());
+
+        AccessTokenCache.CachedToken token = cache.getToken(SERVICE_ACCOUNT, ADMIN, SCOPES, "key",
+                () -> buildCredential(transport));
+
+        Assert.assertSame(cache.getToken(SERVICE_ACCOUNT, ADMIN, SCOPES, "key", () -> buildCredential(transport)),
+                token);
+        Assert.assertNotSame(cache.getToken(SERVICE_ACCOUNT, "other@mygoogledomain.com", SCOPES, "key",
+                () -> buildCredential(transport)), token);
+        Assert.assertNotSame(cache.getToken(SERVICE_ACCOUNT, ADMIN, SCOPES, "rotatedKey",
+                () -> buildCredential(transport)), token);
+        Assert.assertEquals(cache.size(), 3);
+    }
+
+    @Test
+    public void testTokenIsNotSharedAcrossTransports() throws Exception {
+
+        AccessTokenCache cache = new AccessTokenCache(TimeUnit.MINUTES.toMillis(5), TimeUnit.HOURS.toMillis(1),
+                TimeUnit.HOURS.toMillis(1));
+        AtomicInteger firstCalls = new AtomicInteger();
+        AtomicInteger secondCalls = new AtomicInteger();
+        MockHttpTransport first = buildTokenEndpoint(firstCalls);
+        MockHttpTransport second = buildTokenEndpoint(secondCalls);
+
+        AccessTokenCache.CachedToken token = cache.getToken(SERVICE_ACCOUNT, ADMIN, SCOPES, "key", null, first,
+                () -> buildCredential(first));
+        AccessTokenCache.CachedToken other = cache.getToken(SERVICE_ACCOUNT, ADMIN, SCOPES, "key", null, second,
+                () -> buildCredential(second));
+
+        Assert.assertNotSame(other, token);
+        Assert.assertSame(cache.getToken(SERVICE_ACCOUNT, ADMIN, SCOPES, "key", null, first,
+                () -> buildCredential(second)), token);
+        token.warmUp();
+        other.warmUp();
+        Assert.assertEquals(firstCalls.get(), 1);
+        Assert.assertEquals(secondCalls.get(), 1);
+        cache.shutdown();
+    }
+
+    @Test
+    public void testExpiringTokenIsRefreshedInBackground() throws Exception {
+
+        AtomicInteger tokenRequests = new AtomicInteger();
+        // Tokens live for an hour, so refreshing two hours ahead treats every token as expiring.
+        AccessTokenCache cache = new AccessTokenCache(TimeUnit.HOURS.toMillis(2), TimeUnit.HOURS.toMillis(1),
+                TimeUnit.HOURS.toMillis(1));
+        MockHttpTransport transport = buildTokenEndpoint(tokenRequests);
+
+        AccessTokenCache.CachedToken token = cache.getToken(SERVICE_ACCOUNT, ADMIN, SCOPES, "key",
+                () -> buildCredential(transport));
+        cache.refreshExpiringTokens();
+        cache.refreshExpiringTokens();
+
+        HttpRequest request = buildRequest(transport);
+        token.intercept(request);
+
+        Assert.assertEquals(request.getHeaders().getAuthorization(), "Bearer token-2");
+        Assert.assertEquals(cache.getRefreshCount(), 2);
+        Assert.assertEquals(cache.getMissCount(), 0, "Request should not wait for the token endpoint.");
+        Assert.assertEquals(cache.getHitCount(), 1);
+    }
+
+    @Test
+    public void testIdleTokenIsRemoved() throws Exception {
+
+        AccessTokenCache cache = new AccessTokenCache(TimeUnit.MINUTES.toMillis(5), TimeUnit.HOURS.toMillis(1), -1);
+        MockHttpTransport transport = buildTokenEndpoint(new AtomicInteger());
+
+        cache.getToken(SERVICE_ACCOUNT, ADMIN, SCOPES, "key", () -> buildCredential(transport));
+        cache.refreshExpiringTokens();
+
+        Assert.assertEquals(cache.size(), 0);
+    }
+
+    private GoogleCredential buildCredential(MockHttpTransport transport) {
+
+        return new GoogleCredential.Builder()
+                .setTransport(transport).setJsonFactory(new JacksonFactory())
+                .setServiceAccountId(SERVICE_ACCOUNT)
+                .setServiceAccountScopes(SCOPES)
+                .setServiceAccountUser(ADMIN)
+                .setServiceAccountPrivateKey(privateKey).build();
+    }
+
+    private HttpRequest buildRequest(MockHttpTransport transport) throws Exception {
+
+        return transport.createRequestFactory().buildGetRequest(new GenericUrl("https://www.googleapis.com/"));
+    }
+
+    private MockHttpTransport buildTokenEndpoint(AtomicInteger tokenRequests) {
+
+        return new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+
+                int count = tokenRequests.incrementAndGet();
+                return new MockLowLevelHttpRequest(url)
+                        .setResponse(new MockLowLevelHttpResponse().setContentType(Json.MEDIA_TYPE)
+                                .setContent("{\"access_token\":\"token-" + count
+                                        + "\",\"expires_in\":3600,\"token_type\":\"Bearer\"}"));
+            }
+        };
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.client;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.provisioning.connector.google.metrics.ConcurrencyMetrics;
+import org.wso2.carbon.identity.provisioning.connector.google.metrics.ConcurrencyStatistics;
+import org.wso2.carbon.identity.provisioning.connector.google.metrics.ProvisioningMetrics;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    public void testLimitGrowsWhileLatencyIsFlat() throws Exception {
+
+        AtomicLong clock = new AtomicLong();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, null, clock::get);
+        Assert.assertEquals(limiter.getLimit(), 10);
+
+        // Keeps all but one of the allowed requests in flight, so that the limit is in use.
+        for (int i = 0; i < 9; i++) {
+            limiter.acquire();
+        }
+        for (int i = 0; i < 300; i++) {
+            send(limiter, clock, LATENCY, false);
+        }
+        Assert.assertEquals(limiter.getLimit(), 20, "Limit should grow up to the maximum.");
+    }
+
+    @Test
+    public void testLimitDoesNotGrowWhileUnused() throws Exception {
+
+        AtomicLong clock = new AtomicLong();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, null, clock::get);
+
+        for (int i = 0; i < 300; i++) {
+            send(limiter, clock, LATENCY, false);
+        }
+        Assert.assertEquals(limiter.getLimit(), 10);
+        Assert.assertEquals(limiter.getInFlight(), 0);
+    }
+
+    @Test
+    public void testLimitIsLoweredOnceByRequestsInFlight() throws Exception {
+
+        AtomicLong clock = new AtomicLong();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, null, clock::get);
+
+        long first = limiter.acquire();
+        long second = limiter.acquire();
+        clock.addAndGet(LATENCY);
+        limiter.release(first, true);
+        limiter.release(second, true);
+        Assert.assertEquals(limiter.getLimit(), 9, "Requests sent before the decrease should not lower it again.");
+
+        send(limiter, clock, LATENCY, true);
+        Assert.assertEquals(limiter.getLimit(), 8);
+
+        for (int i = 0; i < 20; i++) {
+            send(limiter, clock, LATENCY, true);
+        }
+        Assert.assertEquals(limiter.getLimit(), 1, "Limit should not go below one request.");
+    }
+
+    @Test
+    public void testLimitIsLoweredWhenLatencyClimbs() throws Exception {
+
+        AtomicLong clock = new AtomicLong();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, null, clock::get);
+
+        for (int i = 0; i < 10; i++) {
+            send(limiter, clock, LATENCY, false);
+        }
+        send(limiter, clock, LATENCY * 3 / 2, false);
+        Assert.assertEquals(limiter.getLimit(), 10, "Latency within the tolerance should not lower the limit.");
+
+        send(limiter, clock, LATENCY * 3, false);
+        Assert.assertEquals(limiter.getLimit(), 9);
+    }
+
+    @Test
+    public void testRequestsWaitWhileLimitIsReached() throws Exception {
+
+        ConcurrencyMetrics metrics = ProvisioningMetrics.getInstance().getConnectorMetrics("carbon.super",
+                "ConcurrencyLimitedIdP").getConcurrency();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, metrics);
+
+        long acquired = limiter.acquire();
+        CompletableFuture<Long> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        Assert.assertFalse(waiting.isDone(), "Request should wait while the limit is reached.");
+        ConcurrencyStatistics statistics = getStatistics("ConcurrencyLimitedIdP");
+        Assert.assertEquals(statistics.getLimit(), 1);
+        Assert.assertEquals(statistics.getInFlight(), 1);
+        Assert.assertEquals(statistics.getQueueLength(), 1);
+
+        limiter.release(acquired, false);
+        limiter.release(waiting.get(10, TimeUnit.SECONDS), false);
+
+        statistics = getStatistics("ConcurrencyLimitedIdP");
+        Assert.assertEquals(statistics.getInFlight(), 0);
+        Assert.assertEquals(statistics.getQueueLength(), 0);
+        Assert.assertEquals(statistics.getAcquiredCount(), 2);
+        Assert.assertEquals(statistics.getQueuedCount(), 1);
+        Assert.assertTrue(statistics.getMaxQueueTimeMillis() >= 100, "Queueing time should be recorded.");
+    }
+
+    @Test
+    public void testBackoffIsNotMeasured() throws Exception {
+
+        AtomicLong clock = new AtomicLong();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, null, clock::get);
+        for (int i = 0; i < 10; i++) {
+            send(limiter, clock, LATENCY, false);
+        }
+
+        limiter.enter();
+        clock.addAndGet(LATENCY);
+        limiter.pause();
+        Assert.assertEquals(limiter.getInFlight(), 0, "Slot should be given up while the request waits.");
+        Assert.assertEquals(limiter.getLimit(), 9, "Failed attempt should lower the limit.");
+        clock.addAndGet(LATENCY * 100);
+        limiter.resume();
+        Assert.assertEquals(limiter.getInFlight(), 1);
+        clock.addAndGet(LATENCY);
+        limiter.exit(false);
+
+        Assert.assertEquals(limiter.getInFlight(), 0);
+        Assert.assertEquals(limiter.getLimit(), 9, "Backoff should not count towards the latency of the retry.");
+        limiter.exit(false);
+        Assert.assertEquals(limiter.getInFlight(), 0, "Slot should only be given up once.");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMaxLimitShouldBePositive() {
+
+        new AdaptiveConcurrencyLimiter(0, null);
+    }
+
+    private static void send(AdaptiveConcurrencyLimiter limiter, AtomicLong clock, long latency, boolean dropped)
+            throws InterruptedException {
+
+        long acquired = limiter.acquire();
+        clock.addAndGet(latency);
+        limiter.release(acquired, dropped);
+    }
+
+    private static ConcurrencyStatistics getStatistics(String idpName) {
+
+        for (ConcurrencyStatistics statistics : ProvisioningMetrics.getInstance().getConcurrencyStatistics()) {
+            if (idpName.equals(statistics.getIdpName())) {
+                return statistics;
+            }
+        }
+        throw new AssertionError("Concurrency statistics of " + idpName + " were not found.");
+    }
+}
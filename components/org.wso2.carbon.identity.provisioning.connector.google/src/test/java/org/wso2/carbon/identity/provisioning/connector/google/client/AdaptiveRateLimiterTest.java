@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.client;
+
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponseException;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AdaptiveRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testRequestsWaitOnceBurstIsUsed() {
+
+        AtomicLong clock = new AtomicLong();
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(10, clock::get);
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(limiter.reserve(), 0, "Requests within the burst should not wait.");
+        }
+        Assert.assertEquals(limiter.reserve(), SECOND / 10);
+        Assert.assertEquals(limiter.reserve(), 2 * SECOND / 10);
+
+        clock.addAndGet(SECOND);
+        Assert.assertEquals(limiter.reserve(), 0, "Bucket should refill over time.");
+    }
+
+    @Test
+    public void testRateIsLoweredOnThrottlingAndRecovers() {
+
+        AtomicLong clock = new AtomicLong();
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(100, clock::get);
+
+        limiter.onThrottled();
+        limiter.onThrottled();
+        Assert.assertEquals(limiter.getRate(), 50.0, "Throttling within a second should lower the rate once.");
+        Assert.assertEquals(limiter.getThrottledCount(), 2);
+
+        clock.addAndGet(SECOND);
+        limiter.onThrottled();
+        Assert.assertEquals(limiter.getRate(), 25.0);
+
+        clock.addAndGet(2 * SECOND);
+        limiter.onSuccess();
+        Assert.assertEquals(limiter.getRate(), 35.0, "Rate should grow back while requests succeed.");
+
+        clock.addAndGet(60 * SECOND);
+        limiter.onSuccess();
+        Assert.assertEquals(limiter.getRate(), 100.0, "Rate should not exceed the configured rate.");
+    }
+
+    @Test
+    public void testRateIsNotLoweredBelowMinimum() {
+
+        AtomicLong clock = new AtomicLong();
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(100, clock::get);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.onThrottled();
+            clock.addAndGet(SECOND);
+        }
+        Assert.assertEquals(limiter.getRate(), 10.0);
+    }
+
+    @DataProvider(name = "errors")
+    public Object[][] errors() {
+
+        return new Object[][]{
+                {429, null, true},
+                {403, "rateLimitExceeded", true},
+                {403, "userRateLimitExceeded", true},
+                {403, "quotaExceeded", true},
+                {403, "forbidden", false},
+                {403, null, false},
+                {500, "backendError", false}
+        };
+    }
+
+    @Test(dataProvider = "errors")
+    public void testIsRateLimitError(int statusCode, String reason, boolean expected) {
+
+        GoogleJsonError error = new GoogleJsonError();
+        error.setCode(statusCode);
+        if (reason != null) {
+            GoogleJsonError.ErrorInfo errorInfo = new GoogleJsonError.ErrorInfo();
+            errorInfo.setReason(reason);
+            error.setErrors(Collections.singletonList(errorInfo));
+        }
+        GoogleJsonResponseException exception = new GoogleJsonResponseException(
+                new HttpResponseException.Builder(statusCode, null, new HttpHeaders()), error);
+
+        Assert.assertEquals(AdaptiveRateLimiter.isRateLimitError(exception), expected);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.client;
+
+import com.google.api.services.admin.directory.Directory;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningException;
+import org.wso2.carbon.identity.provisioning.connector.google.GoogleConnectorConstants;
+import org.wso2.carbon.identity.provisioning.connector.google.GoogleProvisioningConnectorConfig;
+import org.wso2.carbon.identity.provisioning.connector.google.StandInConnectors;
+import org.wso2.carbon.identity.provisioning.connector.google.standin.DirectoryStandIn;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Base64;
+import java.util.Properties;
+
+public class DirectoryClientHolderTest {
+
+    private PrivateKeyStore.ServiceAccountKey privateKey;
+    private DirectoryStandIn standIn;
+
+    @BeforeClass
+    public void setUpClass() throws Exception {
+
+        // Clients mint their first access token while they are built, so the token is served by the stand-in.
+        standIn = DirectoryStandIn.start();
+        byte[] keyContent = Files.readAllBytes(Paths.get("src", "test", "resources", "serviceAccountKey.p12"));
+        privateKey = PrivateKeyStore.getInstance().getKey(Base64.getEncoder().encodeToString(keyContent));
+    }
+
+    @AfterClass
+    public void tearDownClass() {
+
+        AccessTokenCache.getInstance().clear();
+        standIn.close();
+    }
+
+    @Test
+    public void testDirectoryIsReused() throws Exception {
+
+        DirectoryClientHolder holder = StandInConnectors.newClientHolder(standIn);
+        GoogleProvisioningConnectorConfig config = buildConfig("admin@mygoogledomain.com");
+
+        Directory first = holder.getDirectory(config, privateKey);
+        Directory second = holder.getDirectory(buildConfig("admin@mygoogledomain.com"), privateKey);
+
+        Assert.assertNotNull(first, "Directory Service cannot be null.");
+        Assert.assertSame(second, first, "Directory Service should be reused for the same configuration.");
+    }
+
+    @Test
+    public void testDirectoryIsRebuiltOnTimeoutChange() throws Exception {
+
+        DirectoryClientHolder holder = StandInConnectors.newClientHolder(standIn);
+        GoogleProvisioningConnectorConfig config = buildConfig("admin@mygoogledomain.com");
+        Properties properties = new Properties();
+        properties.setProperty(GoogleConnectorConstants.PropertyConfig.SERVICE_ACCOUNT_EMAIL_KEY,
+                config.getServiceAccountEmail());
+        properties.setProperty(GoogleConnectorConstants.PropertyConfig.ADMIN_EMAIL_KEY, config.getAdminEmail());
+        properties.setProperty(GoogleConnectorConstants.PropertyConfig.APPLICATION_NAME_KEY,
+                config.getApplicationName());
+        properties.setProperty(GoogleConnectorConstants.PropertyConfig.READ_TIMEOUT_MILLIS_KEY, "5000");
+
+        Directory first = holder.getDirectory(config, privateKey);
+        Directory second = holder.getDirectory(new GoogleProvisioningConnectorConfig(properties), privateKey);
+
+        Assert.assertNotSame(second, first, "Directory Service should be rebuilt when a timeout changes.");
+    }
+
+    @Test
+    public void testDirectoryIsRebuiltOnConfigChange() throws Exception {
+
+        DirectoryClientHolder holder = StandInConnectors.newClientHolder(standIn);
+
+        Directory first = holder.getDirectory(buildConfig("admin@mygoogledomain.com"), privateKey);
+        Directory second = holder.getDirectory(buildConfig("other@mygoogledomain.com"), privateKey);
+
+        Assert.assertNotSame(second, first, "Directory Service should be rebuilt when the configuration changes.");
+    }
+
+    @Test(expectedExceptions = IdentityProvisioningException.class)
+    public void testMissingPrivateKey() throws Exception {
+
+        StandInConnectors.newClientHolder(standIn).getDirectory(buildConfig("admin@mygoogledomain.com"), null);
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+
+        DirectoryClientHolder holder = StandInConnectors.newClientHolder(standIn);
+        GoogleProvisioningConnectorConfig config = buildConfig("admin@mygoogledomain.com");
+
+        Directory first = holder.getDirectory(config, privateKey);
+        holder.invalidate();
+        Directory second = holder.getDirectory(config, privateKey);
+
+        Assert.assertNotSame(second, first, "Directory Service should be rebuilt after invalidation.");
+    }
+
+    private GoogleProvisioningConnectorConfig buildConfig(String adminEmail) {
+
+        Properties properties = new Properties();
+        properties.setProperty(GoogleConnectorConstants.PropertyConfig.SERVICE_ACCOUNT_EMAIL_KEY,
+                "service@developer.gserviceaccount.com");
+        properties.setProperty(GoogleConnectorConstants.PropertyConfig.ADMIN_EMAIL_KEY, adminEmail);
+        properties.setProperty(GoogleConnectorConstants.PropertyConfig.APPLICATION_NAME_KEY, "testApp");
+        return new GoogleProvisioningConnectorConfig(properties);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.client;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.apache.v2.ApacheHttpTransport;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.net.http.HttpClient;
+
+public class GoogleHttpTransportFactoryTest {
+
+    @Test
+    public void testTransportIsShared() {
+
+        HttpTransport transport = GoogleHttpTransportFactory.getTransport(
+                GoogleHttpTransportFactory.TransportType.APACHE, 10);
+
+        Assert.assertTrue(transport instanceof ApacheHttpTransport);
+        Assert.assertSame(GoogleHttpTransportFactory.getTransport(GoogleHttpTransportFactory.TransportType.APACHE,
+                10), transport, "Transports with the same settings should be shared.");
+        Assert.assertNotSame(GoogleHttpTransportFactory.getTransport(GoogleHttpTransportFactory.TransportType.APACHE,
+                20), transport, "Transports with different pool sizes should not be shared.");
+    }
+
+    @Test
+    public void testNetTransportIgnoresPoolSize() {
+
+        HttpTransport transport = GoogleHttpTransportFactory.getTransport(
+                GoogleHttpTransportFactory.TransportType.NET, 10);
+
+        Assert.assertTrue(transport instanceof NetHttpTransport);
+        Assert.assertSame(GoogleHttpTransportFactory.getTransport(GoogleHttpTransportFactory.TransportType.NET, 20),
+                transport);
+    }
+
+    @Test
+    public void testHttp2Transport() {
+
+        HttpTransport transport = GoogleHttpTransportFactory.getTransport(
+                GoogleHttpTransportFactory.TransportType.HTTP2, 10);
+
+        Assert.assertTrue(transport instanceof HttpClientTransport);
+        Assert.assertEquals(((HttpClientTransport) transport).getClient().version(), HttpClient.Version.HTTP_2);
+        Assert.assertEquals(((HttpClientTransport) transport).getClient().followRedirects(),
+                HttpClient.Redirect.NEVER, "Redirects should be left to the Google client.");
+        Assert.assertSame(GoogleHttpTransportFactory.getTransport(GoogleHttpTransportFactory.TransportType.HTTP2,
+                20), transport);
+    }
+
+    @DataProvider(name = "transportTypes")
+    public Object[][] transportTypes() {
+
+        return new Object[][]{
+                {"apache", GoogleHttpTransportFactory.TransportType.APACHE},
+                {" NET ", GoogleHttpTransportFactory.TransportType.NET},
+                {"http2", GoogleHttpTransportFactory.TransportType.HTTP2},
+                {"okhttp", GoogleHttpTransportFactory.TransportType.NET},
+                {null, GoogleHttpTransportFactory.TransportType.NET}
+        };
+    }
+
+    @Test(dataProvider = "transportTypes")
+    public void testTransportTypeFromValue(String value, GoogleHttpTransportFactory.TransportType expected) {
+
+        Assert.assertEquals(GoogleHttpTransportFactory.TransportType.fromValue(value), expected);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.client;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningException;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Base64;
+
+public class PrivateKeyStoreTest {
+
+    private String encodedKey;
+
+    @BeforeClass
+    public void setUpClass() throws Exception {
+
+        encodedKey = Base64.getEncoder().encodeToString(
+                Files.readAllBytes(Paths.get("src", "test", "resources", "serviceAccountKey.p12")));
+    }
+
+    @Test
+    public void testKeyIsParsedOnce() throws Exception {
+
+        PrivateKeyStore.ServiceAccountKey key = PrivateKeyStore.getInstance().getKey(encodedKey);
+
+        Assert.assertNotNull(key.getPrivateKey(), "Private key cannot be null.");
+        Assert.assertEquals(key.getPrivateKey().getAlgorithm(), "RSA");
+        Assert.assertEquals(key.getId().length(), 64, "Key id should be the SHA-256 hash of the content.");
+        Assert.assertSame(PrivateKeyStore.getInstance().getKey(encodedKey), key,
+                "Same content should return the cached key.");
+    }
+
+    @DataProvider(name = "invalidKeyProvider")
+    public Object[][] provideInvalidKeys() {
+
+        return new Object[][]{
+                {null},
+                {" "},
+                {Base64.getEncoder().encodeToString("notAKeyStore".getBytes())}
+        };
+    }
+
+    @Test(dataProvider = "invalidKeyProvider", expectedExceptions = IdentityProvisioningException.class)
+    public void testInvalidKey(String invalidKey) throws Exception {
+
+        PrivateKeyStore.getInstance().getKey(invalidKey);
+    }
+}
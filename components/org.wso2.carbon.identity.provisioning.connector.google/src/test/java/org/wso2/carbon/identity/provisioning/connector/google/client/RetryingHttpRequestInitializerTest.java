@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.client;
+
+import com.google.api.client.http.EmptyContent;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpMethods;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.provisioning.connector.google.metrics.OperationType;
+import org.wso2.carbon.identity.provisioning.connector.google.metrics.ProvisioningMetrics;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RetryingHttpRequestInitializerTest {
+
+    private static final int IO_ERROR = -1;
+
+    @DataProvider(name = "retryableStatuses")
+    public Object[][] retryableStatuses() {
+
+        return new Object[][]{{429}, {500}, {503}};
+    }
+
+    @Test(dataProvider = "retryableStatuses")
+    public void testRetryableStatusIsRetried(int statusCode) throws Exception {
+
+        List<Long> sleeps = new ArrayList<>();
+        RetryingHttpRequestInitializer initializer = new RetryingHttpRequestInitializer(
+                (int) TimeUnit.MINUTES.toMillis(1), null, sleeps::add);
+        AtomicInteger attempts = new AtomicInteger();
+
+        HttpResponse response = buildRequest(initializer, HttpMethods.PUT, attempts, statusCode, statusCode, 200)
+                .execute();
+
+        Assert.assertEquals(response.getStatusCode(), 200);
+        Assert.assertEquals(attempts.get(), 3);
+        Assert.assertEquals(initializer.getRetryCount(), 2);
+        Assert.assertEquals(sleeps.size(), 2);
+        Assert.assertEquals(initializer.getRetryWaitMillis(), sleeps.get(0) + sleeps.get(1));
+    }
+
+    @Test
+    public void testClientErrorIsNotRetried() throws Exception {
+
+        RetryingHttpRequestInitializer initializer = new RetryingHttpRequestInitializer(
+                (int) TimeUnit.MINUTES.toMillis(1), null, millis -> { });
+        AtomicInteger attempts = new AtomicInteger();
+
+        try {
+            buildRequest(initializer, HttpMethods.PUT, attempts, 404).execute();
+            Assert.fail("Request should fail with the 404 status.");
+        } catch (HttpResponseException e) {
+            Assert.assertEquals(e.getStatusCode(), 404);
+        }
+        Assert.assertEquals(attempts.get(), 1);
+        Assert.assertEquals(initializer.getRetryCount(), 0);
+    }
+
+    @Test
+    public void testIOExceptionIsRetriedForIdempotentRequest() throws Exception {
+
+        RetryingHttpRequestInitializer initializer = new RetryingHttpRequestInitializer(
+                (int) TimeUnit.MINUTES.toMillis(1), null, millis -> { });
+        AtomicInteger attempts = new AtomicInteger();
+
+        HttpResponse response = buildRequest(initializer, HttpMethods.DELETE, attempts, IO_ERROR, 204).execute();
+
+        Assert.assertEquals(response.getStatusCode(), 204);
+        Assert.assertEquals(attempts.get(), 2);
+    }
+
+    @Test
+    public void testIOExceptionIsNotRetriedForCreate() throws Exception {
+
+        RetryingHttpRequestInitializer initializer = new RetryingHttpRequestInitializer(
+                (int) TimeUnit.MINUTES.toMillis(1), null, millis -> { });
+        AtomicInteger attempts = new AtomicInteger();
+
+        try {
+            buildRequest(initializer, HttpMethods.POST, attempts, IO_ERROR, 200).execute();
+            Assert.fail("Create request should not be repeated after an I/O error.");
+        } catch (SocketTimeoutException e) {
+            Assert.assertEquals(attempts.get(), 1);
+        }
+    }
+
+    @Test
+    public void testServerErrorIsNotRetriedForCreate() throws Exception {
+
+        RetryingHttpRequestInitializer initializer = new RetryingHttpRequestInitializer(
+                (int) TimeUnit.MINUTES.toMillis(1), null, millis -> { });
+        AtomicInteger attempts = new AtomicInteger();
+
+        try {
+            buildRequest(initializer, HttpMethods.POST, attempts, 503, 200).execute();
+            Assert.fail("Create request should not be repeated after a server error.");
+        } catch (HttpResponseException e) {
+            Assert.assertEquals(e.getStatusCode(), 503);
+        }
+        Assert.assertEquals(attempts.get(), 1);
+        Assert.assertEquals(initializer.getRetryCount(), 0);
+    }
+
+    @Test
+    public void testThrottledCreateIsRetried() throws Exception {
+
+        RetryingHttpRequestInitializer initializer = new RetryingHttpRequestInitializer(
+                (int) TimeUnit.MINUTES.toMillis(1), null, millis -> { });
+        AtomicInteger attempts = new AtomicInteger();
+
+        HttpResponse response = buildRequest(initializer, HttpMethods.POST, attempts, 429, 200).execute();
+
+        Assert.assertEquals(response.getStatusCode(), 200);
+        Assert.assertEquals(attempts.get(), 2);
+    }
+
+    @Test
+    public void testRetriesWaitForRateLimit() throws Exception {
+
+        // The clock does not move, so the bucket holds the 10 requests of a second and the 11th retry waits 100ms.
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(10, () -> 0L);
+        RetryingHttpRequestInitializer initializer = new RetryingHttpRequestInitializer(
+                (int) TimeUnit.MINUTES.toMillis(1), limiter, millis -> { });
+        Integer[] statuses = new Integer[12];
+        Arrays.fill(statuses, 503);
+        statuses[11] = 200;
+
+        buildRequest(initializer, HttpMethods.PUT, new AtomicInteger(), statuses).execute();
+
+        Assert.assertEquals(initializer.getRetryCount(), 11);
+        Assert.assertEquals(limiter.getTotalWaitMillis(), 100);
+    }
+
+    @Test
+    public void testSlotIsGivenUpWhileWaitingToRetry() throws Exception {
+
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, null);
+        List<Integer> inFlightWhileWaiting = new ArrayList<>();
+        RetryingHttpRequestInitializer initializer = new RetryingHttpRequestInitializer(
+                (int) TimeUnit.MINUTES.toMillis(1), null, limiter, null,
+                millis -> inFlightWhileWaiting.add(limiter.getInFlight()));
+
+        limiter.enter();
+        try {
+            buildRequest(initializer, HttpMethods.PUT, new AtomicInteger(), 503, IO_ERROR, 200).execute();
+            Assert.assertEquals(limiter.getInFlight(), 1, "Retry should hold a slot while it is sent.");
+        } finally {
+            limiter.exit(false);
+        }
+
+        Assert.assertEquals(inFlightWhileWaiting, Arrays.asList(0, 0));
+        Assert.assertEquals(limiter.getInFlight(), 0);
+    }
+
+    @Test
+    public void testRetriesStopWhenBudgetIsUsed() throws Exception {
+
+        RetryingHttpRequestInitializer initializer = new RetryingHttpRequestInitializer(1, null, millis -> {
+            Thread.sleep(5);
+        });
+        AtomicInteger attempts = new AtomicInteger();
+
+        try {
+            buildRequest(initializer, HttpMethods.PUT, attempts, 503, 503, 503, 503, 200).execute();
+            Assert.fail("Request should fail once the time budget is used.");
+        } catch (HttpResponseException e) {
+            Assert.assertEquals(e.getStatusCode(), 503);
+        }
+        Assert.assertTrue(attempts.get() < 5);
+        Assert.assertEquals(initializer.getExhaustedCount(), 1);
+    }
+
+    @Test
+    public void testThrottlingIsReportedToRateLimiter() throws Exception {
+
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(100);
+        RetryingHttpRequestInitializer initializer = new RetryingHttpRequestInitializer(
+                (int) TimeUnit.MINUTES.toMillis(1), limiter, millis -> { });
+
+        buildRequest(initializer, HttpMethods.PUT, new AtomicInteger(), 429, 200).execute();
+
+        Assert.assertEquals(limiter.getThrottledCount(), 1);
+        Assert.assertEquals(limiter.getRate(), 50.0);
+    }
+
+    @Test
+    public void testRetriesAreRecordedByOperation() throws Exception {
+
+        ProvisioningMetrics.ConnectorMetrics metrics = ProvisioningMetrics.getInstance().getConnectorMetrics(
+                "retry.test", "RetryTestIdP");
+        RetryingHttpRequestInitializer initializer = new RetryingHttpRequestInitializer(
+                (int) TimeUnit.MINUTES.toMillis(1), null, metrics, millis -> { });
+
+        HttpRequest patch = buildRequest(initializer, HttpMethods.POST, new AtomicInteger(), 503, 200);
+        patch.getHeaders().set("X-HTTP-Method-Override", HttpMethods.PATCH);
+        patch.execute();
+        buildRequest(initializer, HttpMethods.DELETE, new AtomicInteger(), IO_ERROR, 429, 204).execute();
+
+        Assert.assertEquals(metrics.get(OperationType.PUT).getRetryCount(), 1);
+        Assert.assertEquals(metrics.get(OperationType.DELETE).getRetryCount(), 2);
+        Assert.assertEquals(metrics.get(OperationType.POST).getRetryCount(), 0);
+    }
+
+    /**
+     * Builds a request answered with the given statuses in order, where {@link #IO_ERROR} fails the attempt with a
+     * socket timeout.
+     */
+    private HttpRequest buildRequest(RetryingHttpRequestInitializer initializer, String method,
+                                     AtomicInteger attempts, Integer... statuses) throws IOException {
+
+        Iterator<Integer> responses = Arrays.asList(statuses).iterator();
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String requestMethod, String url) {
+
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() throws IOException {
+
+                        attempts.incrementAndGet();
+                        int status = responses.next();
+                        if (status == IO_ERROR) {
+                            throw new SocketTimeoutException("Read timed out");
+                        }
+                        return new MockLowLevelHttpResponse().setStatusCode(status);
+                    }
+                };
+            }
+        };
+        return transport.createRequestFactory(initializer).buildRequest(method,
+                new GenericUrl("https://www.googleapis.com/admin/directory/v1/users"),
+                HttpMethods.DELETE.equals(method) ? null : new EmptyContent());
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.client;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class UserFingerprintStoreTest {
+
+    private static final String USER = "testuser@mygoogledomain.com";
+
+    @Test
+    public void testUnknownUserHasAllAttributesChanged() {
+
+        UserFingerprintStore store = new UserFingerprintStore(10);
+
+        Assert.assertEquals(store.getChangedAttributes(USER, attributes("John", "Doe")),
+                attributes("John", "Doe").keySet());
+    }
+
+    @Test
+    public void testOnlyChangedAttributesAreReturned() {
+
+        UserFingerprintStore store = new UserFingerprintStore(10);
+        store.record(USER, attributes("John", "Doe"));
+
+        Assert.assertTrue(store.getChangedAttributes(USER, attributes("John", "Doe")).isEmpty());
+        Assert.assertEquals(store.getSkippedCount(), 1);
+        Assert.assertEquals(store.getChangedAttributes(USER, attributes("Jane", "Doe")),
+                Collections.singleton("name.givenName"));
+        Assert.assertEquals(store.getChangedAttributes(USER, attributes("John", null)),
+                Collections.singleton("name.familyName"), "Removing a value should be a change.");
+        Assert.assertEquals(store.getChangedAttributes(USER, attributes("John", "")),
+                Collections.singleton("name.familyName"), "An empty value should differ from a missing value.");
+    }
+
+    @Test
+    public void testNewAttributeIsChanged() {
+
+        UserFingerprintStore store = new UserFingerprintStore(10);
+        store.record(USER, attributes("John", "Doe"));
+
+        Map<String, String> attributes = attributes("John", "Doe");
+        attributes.put("orgUnitPath", "/Staff");
+        Assert.assertEquals(store.getChangedAttributes(USER, attributes), Collections.singleton("orgUnitPath"));
+    }
+
+    @Test
+    public void testRemovedUserIsForgotten() {
+
+        UserFingerprintStore store = new UserFingerprintStore(10);
+        store.record(USER, attributes("John", "Doe"));
+        store.remove(USER);
+
+        Assert.assertEquals(store.getChangedAttributes(USER, attributes("John", "Doe")).size(), 2);
+        Assert.assertEquals(store.size(), 0);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedUserIsForgotten() {
+
+        UserFingerprintStore store = new UserFingerprintStore(2);
+        store.record("user1", attributes("John", "Doe"));
+        store.record("user2", attributes("John", "Doe"));
+        store.getChangedAttributes("user1", attributes("John", "Doe"));
+        store.record("user3", attributes("John", "Doe"));
+
+        Assert.assertEquals(store.size(), 2);
+        Assert.assertTrue(store.getChangedAttributes("user1", attributes("John", "Doe")).isEmpty());
+        Assert.assertEquals(store.getChangedAttributes("user2", attributes("John", "Doe")).size(), 2,
+                "Least recently used user should be forgotten.");
+    }
+
+    @Test
+    public void testConcurrentUpdatesForgetUser() {
+
+        UserFingerprintStore store = new UserFingerprintStore(10);
+        store.record(USER, attributes("John", "Doe"));
+
+        UserFingerprintStore.Comparison first = store.compare(USER, attributes("Jane", "Doe"));
+        UserFingerprintStore.Comparison second = store.compare(USER, attributes("Joan", "Doe"));
+        store.record(second, attributes("Joan", "Doe"));
+        store.record(first, attributes("Jane", "Doe"));
+
+        Assert.assertEquals(store.getChangedAttributes(USER, attributes("Jane", "Doe")).size(), 2,
+                "User should be forgotten when it is not known which update was applied last.");
+    }
+
+    @Test
+    public void testConcurrentUpdatesOfUnknownUserForgetUser() {
+
+        UserFingerprintStore store = new UserFingerprintStore(10);
+
+        UserFingerprintStore.Comparison first = store.compare(USER, attributes("Jane", "Doe"));
+        UserFingerprintStore.Comparison second = store.compare(USER, attributes("Joan", "Doe"));
+        UserFingerprintStore.Comparison third = store.compare(USER, attributes("June", "Doe"));
+        store.record(second, attributes("Joan", "Doe"));
+        store.record(third, attributes("June", "Doe"));
+        store.record(first, attributes("Jane", "Doe"));
+
+        Assert.assertEquals(store.getChangedAttributes(USER, attributes("Jane", "Doe")).size(), 2,
+                "User should be forgotten when it is not known which update was applied last.");
+    }
+
+    @Test
+    public void testUpdateIsRecordedWithoutConcurrentUpdate() {
+
+        UserFingerprintStore store = new UserFingerprintStore(10);
+
+        store.record(store.compare(USER, attributes("John", "Doe")), attributes("John", "Doe"));
+        store.record(store.compare(USER, attributes("Jane", "Doe")), attributes("Jane", "Doe"));
+
+        Assert.assertTrue(store.getChangedAttributes(USER, attributes("Jane", "Doe")).isEmpty());
+    }
+
+    private static Map<String, String> attributes(String givenName, String familyName) {
+
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put("name.givenName", givenName);
+        attributes.put("name.familyName", familyName);
+        return attributes;
+    }
+}
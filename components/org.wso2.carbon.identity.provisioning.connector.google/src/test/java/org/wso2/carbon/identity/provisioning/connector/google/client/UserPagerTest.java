@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.client;
+
+import com.google.api.client.googleapis.services.json.AbstractGoogleJsonClientRequest;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.json.Json;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.api.services.admin.directory.Directory;
+import com.google.api.services.admin.directory.model.User;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+public class UserPagerTest {
+
+    private static final UserPager.RequestExecutor EXECUTOR = new UserPager.RequestExecutor() {
+        @Override
+        public <T> T execute(AbstractGoogleJsonClientRequest<T> request) throws IOException {
+
+            return request.execute();
+        }
+    };
+
+    @Test
+    public void testAllPagesAreHandled() throws Exception {
+
+        List<GenericUrl> requests = new ArrayList<>();
+        Directory directory = buildDirectory(requests, 3, -1);
+        List<String> emails = new ArrayList<>();
+
+        String token = new UserPager().setQuery("orgUnitPath=/Staff").setDomain("mygoogledomain.com")
+                .setMaxResults(2).setFields("users(primaryEmail)")
+                .forEachPage(directory, EXECUTOR, (users, nextPageToken) -> {
+                    users.forEach(user -> emails.add(user.getPrimaryEmail()));
+                    return true;
+                });
+
+        Assert.assertNull(token, "All the pages should be handled.");
+        Assert.assertEquals(emails.size(), 6);
+        Assert.assertEquals(requests.size(), 3);
+        GenericUrl first = requests.get(0);
+        Assert.assertEquals(first.getFirst("query"), "orgUnitPath=/Staff");
+        Assert.assertEquals(first.getFirst("domain"), "mygoogledomain.com");
+        Assert.assertNull(first.getFirst("customer"), "Customer should not be set when a domain is given.");
+        Assert.assertEquals(first.getFirst("maxResults"), "2");
+        Assert.assertEquals(first.getFirst("fields"), "nextPageToken,users(primaryEmail)");
+        Assert.assertNull(first.getFirst("pageToken"));
+        Assert.assertEquals(requests.get(2).getFirst("pageToken"), "page-2");
+    }
+
+    @Test
+    public void testListingIsResumedFromToken() throws Exception {
+
+        List<GenericUrl> requests = new ArrayList<>();
+        Directory directory = buildDirectory(requests, 3, -1);
+
+        String token = new UserPager().forEachPage(directory, EXECUTOR, (users, nextPageToken) -> false);
+        Assert.assertEquals(token, "page-1", "Listing should stop after the first page.");
+
+        List<String> emails = new ArrayList<>();
+        Assert.assertNull(new UserPager().setPageToken(token).forEachPage(directory, EXECUTOR,
+                (users, nextPageToken) -> {
+                    users.forEach(user -> emails.add(user.getPrimaryEmail()));
+                    return true;
+                }));
+        Assert.assertEquals(emails.get(0), "user2@mygoogledomain.com");
+        Assert.assertEquals(emails.size(), 4);
+        Assert.assertEquals(requests.get(0).getFirst("customer"), UserPager.MY_CUSTOMER);
+    }
+
+    @Test
+    public void testPageErrorIsReported() throws Exception {
+
+        Directory directory = buildDirectory(new ArrayList<>(), 3, 1);
+        List<String> emails = new ArrayList<>();
+
+        try {
+            new UserPager().forEachPage(directory, EXECUTOR, (users, nextPageToken) -> {
+                users.forEach(user -> emails.add(user.getPrimaryEmail()));
+                return true;
+            });
+            Assert.fail("Error while retrieving a page should be reported.");
+        } catch (UserPager.PageException e) {
+            Assert.assertEquals(e.getPageToken(), "page-1", "Error should carry the token to resume from.");
+        }
+        Assert.assertEquals(emails.size(), 2);
+    }
+
+    @Test
+    public void testIterator() {
+
+        Directory directory = buildDirectory(new ArrayList<>(), 2, -1);
+        List<String> emails = new ArrayList<>();
+
+        Iterator<User> users = new UserPager().iterator(directory, EXECUTOR);
+        users.forEachRemaining(user -> emails.add(user.getPrimaryEmail()));
+
+        Assert.assertEquals(emails.size(), 4);
+        Assert.assertEquals(emails.get(3), "user3@mygoogledomain.com");
+    }
+
+    @Test(expectedExceptions = UncheckedIOException.class)
+    public void testIteratorPageError() {
+
+        Iterator<User> users = new UserPager().iterator(buildDirectory(new ArrayList<>(), 2, 0), EXECUTOR);
+        users.hasNext();
+    }
+
+    /**
+     * Builds a Directory service backed by a domain with the given number of pages of two users each.
+     */
+    private Directory buildDirectory(List<GenericUrl> requests, int pages, int failingPage) {
+
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+
+                GenericUrl requestUrl = new GenericUrl(url);
+                requests.add(requestUrl);
+                String token = (String) requestUrl.getFirst("pageToken");
+                int page = token == null ? 0 : Integer.parseInt(token.substring("page-".length()));
+                MockLowLevelHttpResponse response = new MockLowLevelHttpResponse().setContentType(Json.MEDIA_TYPE);
+                if (page == failingPage) {
+                    response.setStatusCode(500).setContent("{\"error\":{\"code\":500,\"message\":\"Backend " +
+                            "Error\"}}");
+                } else {
+                    StringBuilder content = new StringBuilder("{\"users\":[");
+                    content.append("{\"primaryEmail\":\"user").append(page * 2).append("@mygoogledomain.com\"},");
+                    content.append("{\"primaryEmail\":\"user").append(page * 2 + 1)
+                            .append("@mygoogledomain.com\"}]");
+                    if (page + 1 < pages) {
+                        content.append(",\"nextPageToken\":\"page-").append(page + 1).append("\"");
+                    }
+                    response.setContent(content.append("}").toString());
+                }
+                return new MockLowLevelHttpRequest(url).setResponse(response);
+            }
+        };
+        return new Directory.Builder(transport, new JacksonFactory(), null).setApplicationName("testApp").build();
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.dispatch;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+public class AsyncProvisioningExecutorTest {
+
+    @Test
+    public void testResultIsReturnedThroughFuture() throws Exception {
+
+        AsyncProvisioningExecutor executor = new AsyncProvisioningExecutor(2, 10,
+                AsyncProvisioningExecutor.RejectionPolicy.BLOCK);
+        try {
+            CompletableFuture<String> result = executor.submit(() -> Thread.currentThread().getName());
+            CompletableFuture<String> failure = executor.submit(() -> {
+                throw new IdentityProvisioningException("failed");
+            });
+
+            Assert.assertTrue(result.get(10, TimeUnit.SECONDS).startsWith("GoogleProvisioningWorker-"),
+                    "Operation should run on a worker thread.");
+            try {
+                failure.get(10, TimeUnit.SECONDS);
+                Assert.fail("Failure of the operation should be reported through the future.");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof IdentityProvisioningException);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRejectPolicy() throws Exception {
+
+        AsyncProvisioningExecutor executor = new AsyncProvisioningExecutor(1, 1,
+                AsyncProvisioningExecutor.RejectionPolicy.REJECT);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            fillExecutor(executor, release);
+
+            Assert.assertEquals(executor.getActiveWorkers(), 1);
+            Assert.assertEquals(executor.getQueueDepth(), 1);
+            Assert.assertEquals(executor.getWorkerUtilization(), 1.0);
+            try {
+                executor.submit(() -> true);
+                Assert.fail("Operation should be rejected when the queue is full.");
+            } catch (IdentityProvisioningException e) {
+                Assert.assertEquals(executor.getSaturatedCount(), 1);
+            }
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCallerRunsPolicy() throws Exception {
+
+        AsyncProvisioningExecutor executor = new AsyncProvisioningExecutor(1, 1,
+                AsyncProvisioningExecutor.RejectionPolicy.CALLER_RUNS);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            fillExecutor(executor, release);
+
+            Thread caller = Thread.currentThread();
+            CompletableFuture<Boolean> result = executor.submit(() -> Thread.currentThread() == caller);
+
+            Assert.assertTrue(result.isDone(), "Operation should be run by the caller when the queue is full.");
+            Assert.assertTrue(result.get());
+            Assert.assertEquals(executor.getSaturatedCount(), 1);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testBlockPolicy() throws Exception {
+
+        AsyncProvisioningExecutor executor = new AsyncProvisioningExecutor(1, 1,
+                AsyncProvisioningExecutor.RejectionPolicy.BLOCK);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            fillExecutor(executor, release);
+
+            CompletableFuture<CompletableFuture<Boolean>> blocked = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return executor.submit(() -> true);
+                } catch (IdentityProvisioningException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            Thread.sleep(100);
+            Assert.assertFalse(blocked.isDone(), "Caller should wait while the queue is full.");
+
+            release.countDown();
+            Assert.assertTrue(blocked.get(10, TimeUnit.SECONDS).get(10, TimeUnit.SECONDS));
+            Assert.assertEquals(executor.getSaturatedCount(), 1);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testVirtualThreadsKeepThousandsOfOperationsInFlight() throws Exception {
+
+        int operations = 5000;
+        AsyncProvisioningExecutor executor = new AsyncProvisioningExecutor(operations, 10,
+                AsyncProvisioningExecutor.RejectionPolicy.REJECT, AsyncProvisioningExecutor.ThreadMode.VIRTUAL);
+        CountDownLatch started = new CountDownLatch(operations);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Assert.assertEquals(executor.getThreadMode(), AsyncProvisioningExecutor.ThreadMode.VIRTUAL);
+            List<CompletableFuture<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < operations; i++) {
+                results.add(executor.submit(() -> {
+                    started.countDown();
+                    return await(release) && Thread.currentThread().isVirtual();
+                }));
+            }
+            Assert.assertTrue(started.await(30, TimeUnit.SECONDS), "All the operations should be in flight.");
+            Assert.assertEquals(executor.getActiveWorkers(), operations);
+            Assert.assertEquals(executor.getWorkerUtilization(), 1.0);
+
+            release.countDown();
+            for (CompletableFuture<Boolean> result : results) {
+                Assert.assertTrue(result.get(30, TimeUnit.SECONDS), "Operation should run on a virtual thread.");
+            }
+            // Operations are counted once their virtual thread is done, which may be after their result is set.
+            waitFor(() -> executor.getCompletedCount() == operations);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testVirtualThreadsAreLimitedBySemaphore() throws Exception {
+
+        int limit = 3;
+        int operations = 50;
+        AsyncProvisioningExecutor executor = new AsyncProvisioningExecutor(limit, operations,
+                AsyncProvisioningExecutor.RejectionPolicy.BLOCK, AsyncProvisioningExecutor.ThreadMode.VIRTUAL);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            List<CompletableFuture<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < operations; i++) {
+                results.add(executor.submit(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        await(release);
+                        return running.get();
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                }));
+            }
+            waitFor(() -> executor.getActiveWorkers() == limit && executor.getQueueDepth() == operations - limit);
+
+            release.countDown();
+            for (CompletableFuture<Integer> result : results) {
+                Assert.assertTrue(result.get(10, TimeUnit.SECONDS) <= limit);
+            }
+            Assert.assertEquals(maxRunning.get(), limit);
+            Assert.assertEquals(executor.getQueueDepth(), 0);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRejectPolicyWithVirtualThreads() throws Exception {
+
+        AsyncProvisioningExecutor executor = new AsyncProvisioningExecutor(1, 1,
+                AsyncProvisioningExecutor.RejectionPolicy.REJECT, AsyncProvisioningExecutor.ThreadMode.VIRTUAL);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            fillExecutor(executor, release);
+
+            Assert.assertEquals(executor.getActiveWorkers(), 1);
+            Assert.assertEquals(executor.getQueueDepth(), 1);
+            try {
+                executor.submit(() -> true);
+                Assert.fail("Operation should be rejected when the queue is full.");
+            } catch (IdentityProvisioningException e) {
+                Assert.assertEquals(executor.getSaturatedCount(), 1);
+            }
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCallerRunsPolicyWithVirtualThreads() throws Exception {
+
+        AsyncProvisioningExecutor executor = new AsyncProvisioningExecutor(1, 1,
+                AsyncProvisioningExecutor.RejectionPolicy.CALLER_RUNS, AsyncProvisioningExecutor.ThreadMode.VIRTUAL);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            fillExecutor(executor, release);
+
+            CompletableFuture<Boolean> result = CompletableFuture.supplyAsync(() -> {
+                Thread caller = Thread.currentThread();
+                try {
+                    return executor.submit(() -> Thread.currentThread() == caller).getNow(false);
+                } catch (IdentityProvisioningException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            Thread.sleep(100);
+            Assert.assertFalse(result.isDone(), "Caller should wait for a concurrency permit.");
+
+            release.countDown();
+            Assert.assertTrue(result.get(10, TimeUnit.SECONDS), "Operation should be run by the caller.");
+            Assert.assertEquals(executor.getSaturatedCount(), 1);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static boolean await(CountDownLatch latch) {
+
+        try {
+            return latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue(System.currentTimeMillis() < deadline, "Condition was not met in time.");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Keeps the only worker busy until the latch is released and fills the single slot of the queue.
+     */
+    @Test
+    public void testBlockedSubmissionFailsWhenExecutorIsShutDown() throws Exception {
+
+        AsyncProvisioningExecutor executor = new AsyncProvisioningExecutor(1, 1,
+                AsyncProvisioningExecutor.RejectionPolicy.BLOCK);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch releaseQueued = new CountDownLatch(1);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            executor.submit(() -> {
+                started.countDown();
+                return await(release);
+            });
+            Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+            executor.submit(() -> await(releaseQueued));
+
+            CompletableFuture<CompletableFuture<Boolean>> blocked = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return executor.submit(() -> true);
+                } catch (IdentityProvisioningException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            Thread.sleep(100);
+            executor.shutdown();
+            // Frees the space the caller waits for while the worker is held by the next operation.
+            release.countDown();
+
+            try {
+                blocked.get(10, TimeUnit.SECONDS);
+                Assert.fail("Operation submitted to a shut down executor should be rejected.");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause().getCause() instanceof IdentityProvisioningException);
+            }
+        } finally {
+            release.countDown();
+            releaseQueued.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private void fillExecutor(AsyncProvisioningExecutor executor, CountDownLatch release) throws Exception {
+
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit(() -> {
+            started.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+        executor.submit(() -> true);
+    }
+
+    @DataProvider(name = "rejectionPolicies")
+    public Object[][] rejectionPolicies() {
+
+        return new Object[][]{
+                {"block", AsyncProvisioningExecutor.RejectionPolicy.BLOCK},
+                {"REJECT", AsyncProvisioningExecutor.RejectionPolicy.REJECT},
+                {"caller-runs", AsyncProvisioningExecutor.RejectionPolicy.CALLER_RUNS},
+                {"caller_runs", AsyncProvisioningExecutor.RejectionPolicy.CALLER_RUNS},
+                {"unknown", AsyncProvisioningExecutor.RejectionPolicy.BLOCK},
+                {null, AsyncProvisioningExecutor.RejectionPolicy.BLOCK}
+        };
+    }
+
+    @Test(dataProvider = "rejectionPolicies")
+    public void testRejectionPolicyFromValue(String value, AsyncProvisioningExecutor.RejectionPolicy expected) {
+
+        Assert.assertEquals(AsyncProvisioningExecutor.RejectionPolicy.fromValue(value), expected);
+    }
+
+    @DataProvider(name = "threadModes")
+    public Object[][] threadModes() {
+
+        return new Object[][]{
+                {"platform", AsyncProvisioningExecutor.ThreadMode.PLATFORM},
+                {" VIRTUAL ", AsyncProvisioningExecutor.ThreadMode.VIRTUAL},
+                {"unknown", AsyncProvisioningExecutor.ThreadMode.PLATFORM},
+                {null, AsyncProvisioningExecutor.ThreadMode.PLATFORM}
+        };
+    }
+
+    @Test(dataProvider = "threadModes")
+    public void testThreadModeFromValue(String value, AsyncProvisioningExecutor.ThreadMode expected) {
+
+        Assert.assertEquals(AsyncProvisioningExecutor.ThreadMode.fromValue(value), expected);
+    }
+}
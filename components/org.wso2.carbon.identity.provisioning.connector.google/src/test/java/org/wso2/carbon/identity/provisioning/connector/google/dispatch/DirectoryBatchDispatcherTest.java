@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.dispatch;
+
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.api.services.admin.directory.Directory;
+import com.google.api.services.admin.directory.model.User;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class DirectoryBatchDispatcherTest {
+
+    private static final String BOUNDARY = "batch_response";
+    private static final Pattern PRIMARY_EMAIL = Pattern.compile("\"primaryEmail\":\"([^\"]+)\"");
+
+    @Test
+    public void testRequestsAreSentInOneBatch() throws Exception {
+
+        AtomicInteger batchRequests = new AtomicInteger();
+        Directory directory = buildDirectory(batchRequests);
+        DirectoryBatchDispatcher dispatcher = new DirectoryBatchDispatcher(3, TimeUnit.MINUTES.toMillis(1));
+
+        List<String> emails = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<User>> results = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                User user = new User().setPrimaryEmail("user" + i + "@mygoogledomain.com");
+                results.add(executor.submit(() -> dispatcher.execute(directory.users().insert(user))));
+            }
+            for (Future<User> result : results) {
+                emails.add(result.get(10, TimeUnit.SECONDS).getPrimaryEmail());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(batchRequests.get(), 1, "Requests should be sent as a single batch request.");
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(emails.get(i), "user" + i + "@mygoogledomain.com",
+                    "Each caller should receive the response of its own request.");
+        }
+    }
+
+    @Test
+    public void testBatchIsSentAfterLingerTime() throws Exception {
+
+        AtomicInteger batchRequests = new AtomicInteger();
+        Directory directory = buildDirectory(batchRequests);
+        DirectoryBatchDispatcher dispatcher = new DirectoryBatchDispatcher(50, 10);
+
+        User created = dispatcher.execute(directory.users().insert(
+                new User().setPrimaryEmail("single@mygoogledomain.com")));
+
+        Assert.assertEquals(created.getPrimaryEmail(), "single@mygoogledomain.com");
+        Assert.assertEquals(batchRequests.get(), 1);
+    }
+
+    @Test
+    public void testFailedPartIsReportedToItsCaller() throws Exception {
+
+        AtomicInteger batchRequests = new AtomicInteger();
+        Directory directory = buildDirectory(batchRequests);
+        DirectoryBatchDispatcher dispatcher = new DirectoryBatchDispatcher(2, TimeUnit.MINUTES.toMillis(1));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<User> created = executor.submit(() -> dispatcher.execute(directory.users().insert(
+                    new User().setPrimaryEmail("new@mygoogledomain.com"))));
+            Future<User> duplicate = executor.submit(() -> dispatcher.execute(directory.users().insert(
+                    new User().setPrimaryEmail("existing@mygoogledomain.com"))));
+
+            Assert.assertEquals(created.get(10, TimeUnit.SECONDS).getPrimaryEmail(), "new@mygoogledomain.com");
+            try {
+                duplicate.get(10, TimeUnit.SECONDS);
+                Assert.fail("Failed part of the batch should be reported to its caller.");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof GoogleJsonResponseException);
+                Assert.assertEquals(((GoogleJsonResponseException) e.getCause()).getStatusCode(), 409);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(batchRequests.get(), 1);
+    }
+
+    private Directory buildDirectory(AtomicInteger batchRequests) {
+
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+
+                Assert.assertTrue(url.endsWith(DirectoryBatchDispatcher.BATCH_PATH),
+                        "Requests should be sent to the Directory API batch endpoint.");
+                batchRequests.incrementAndGet();
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() throws IOException {
+
+                        return buildBatchResponse(getContentAsString());
+                    }
+                };
+            }
+        };
+        return new Directory.Builder(transport, new JacksonFactory(), null).setApplicationName("testApp").build();
+    }
+
+    /**
+     * Answers every part of the batch with the user it creates, or with a conflict for users named "existing".
+     */
+    private LowLevelHttpResponse buildBatchResponse(String requestContent) {
+
+        StringBuilder content = new StringBuilder();
+        Matcher matcher = PRIMARY_EMAIL.matcher(requestContent);
+        int part = 0;
+        while (matcher.find()) {
+            String email = matcher.group(1);
+            content.append("--").append(BOUNDARY).append("\r\n")
+                    .append("Content-Type: application/http\r\n")
+                    .append("Content-ID: <response-").append(++part).append(">\r\n\r\n");
+            if (email.startsWith("existing")) {
+                content.append("HTTP/1.1 409 Conflict\r\n")
+                        .append("Content-Type: application/json; charset=UTF-8\r\n\r\n")
+                        .append("{\"error\":{\"code\":409,\"message\":\"Entity already exists.\",\"errors\":")
+                        .append("[{\"domain\":\"global\",\"reason\":\"duplicate\",")
+                        .append("\"message\":\"Entity already exists.\"}]}}\r\n");
+            } else {
+                content.append("HTTP/1.1 200 OK\r\n")
+                        .append("Content-Type: application/json; charset=UTF-8\r\n\r\n")
+                        .append("{\"primaryEmail\":\"").append(email).append("\"}\r\n");
+            }
+        }
+        content.append("--").append(BOUNDARY).append("--\r\n");
+        return new MockLowLevelHttpResponse().setContentType("multipart/mixed; boundary=" + BOUNDARY)
+                .setContent(content.toString());
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.dispatch;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.common.model.ClaimMapping;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningException;
+import org.wso2.carbon.identity.provisioning.ProvisionedIdentifier;
+import org.wso2.carbon.identity.provisioning.ProvisioningEntity;
+import org.wso2.carbon.identity.provisioning.ProvisioningEntityType;
+import org.wso2.carbon.identity.provisioning.ProvisioningOperation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class OperationCoalescerTest {
+
+    private static final ClaimMapping GIVEN_NAME = ClaimMapping.build("http://wso2.org/claims/givenname",
+            "givenName", null, false);
+    private static final ClaimMapping FAMILY_NAME = ClaimMapping.build("http://wso2.org/claims/lastname",
+            "familyName", null, false);
+
+    private AsyncProvisioningExecutor executor;
+    private List<ProvisioningEntity> provisioned;
+    private CountDownLatch started;
+    private CountDownLatch release;
+    private OperationCoalescer.EntityProvisioner provisioner;
+    private OperationCoalescer coalescer;
+
+    @BeforeMethod
+    public void setUp() {
+
+        executor = new AsyncProvisioningExecutor(1, 100, AsyncProvisioningExecutor.RejectionPolicy.BLOCK);
+        provisioned = new CopyOnWriteArrayList<>();
+        started = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        // The first operation holds the only worker until released, so later operations wait in the queue.
+        provisioner = entity -> {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            provisioned.add(entity);
+            ProvisionedIdentifier identifier = new ProvisionedIdentifier();
+            identifier.setIdentifier(entity.getEntityName() + "@mygoogledomain.com");
+            return identifier;
+        };
+        coalescer = new OperationCoalescer(executor, provisioner);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testConsecutiveUpdatesAreMerged() throws Exception {
+
+        CompletableFuture<ProvisionedIdentifier> first = coalescer.submit(buildEntity("john",
+                ProvisioningOperation.PUT, Collections.singletonMap(GIVEN_NAME, "John")));
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        CompletableFuture<ProvisionedIdentifier> second = coalescer.submit(buildEntity("john",
+                ProvisioningOperation.PUT, Collections.singletonMap(GIVEN_NAME, "Johnny")));
+        CompletableFuture<ProvisionedIdentifier> third = coalescer.submit(buildEntity("john",
+                ProvisioningOperation.PUT, Collections.singletonMap(FAMILY_NAME, "Doe")));
+        release.countDown();
+
+        first.get(10, TimeUnit.SECONDS);
+        Assert.assertSame(third.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS),
+                "Merged updates should share the result of the single update.");
+        Assert.assertEquals(provisioned.size(), 2, "Waiting updates should be sent as a single update.");
+        Map<ClaimMapping, List<String>> mergedAttributes = provisioned.get(1).getAttributes();
+        Assert.assertEquals(mergedAttributes.get(GIVEN_NAME), Collections.singletonList("Johnny"));
+        Assert.assertEquals(mergedAttributes.get(FAMILY_NAME), Collections.singletonList("Doe"));
+        Assert.assertEquals(coalescer.getMergedCount(), 1);
+    }
+
+    @Test
+    public void testMergedUpdateKeepsIdentifier() throws Exception {
+
+        CompletableFuture<ProvisionedIdentifier> running = coalescer.submit(buildEntity("dave",
+                ProvisioningOperation.POST, Collections.emptyMap()));
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        ProvisioningEntity identified = buildEntity("dave", ProvisioningOperation.PUT,
+                Collections.singletonMap(GIVEN_NAME, "Dave"));
+        ProvisionedIdentifier identifier = new ProvisionedIdentifier();
+        identifier.setIdentifier("dave@mygoogledomain.com");
+        identified.setIdentifier(identifier);
+        coalescer.submit(identified);
+        CompletableFuture<ProvisionedIdentifier> merged = coalescer.submit(buildEntity("dave",
+                ProvisioningOperation.PUT, Collections.singletonMap(FAMILY_NAME, "Doe")));
+        release.countDown();
+        running.get(10, TimeUnit.SECONDS);
+        merged.get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(coalescer.getMergedCount(), 1);
+        Assert.assertEquals(provisioned.size(), 2);
+        Assert.assertSame(provisioned.get(1).getIdentifier(), identifier,
+                "Merged update should keep the identifier of the earlier update.");
+    }
+
+    @Test
+    public void testJitUpdateIsNotMergedWithOtherUpdates() throws Exception {
+
+        CompletableFuture<ProvisionedIdentifier> running = coalescer.submit(buildEntity("erin",
+                ProvisioningOperation.POST, Collections.emptyMap()));
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        coalescer.submit(buildEntity("erin", ProvisioningOperation.PUT,
+                Collections.singletonMap(GIVEN_NAME, "Erin")));
+        ProvisioningEntity jitUpdate = buildEntity("erin", ProvisioningOperation.PUT,
+                Collections.singletonMap(FAMILY_NAME, "Doe"));
+        jitUpdate.setJitProvisioning(true);
+        CompletableFuture<ProvisionedIdentifier> jitUpdated = coalescer.submit(jitUpdate);
+        release.countDown();
+        running.get(10, TimeUnit.SECONDS);
+        jitUpdated.get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(coalescer.getMergedCount(), 0);
+        Assert.assertEquals(provisioned.size(), 3, "Just-in-time update should be sent on its own.");
+        Assert.assertFalse(provisioned.get(1).isJitProvisioning());
+        Assert.assertTrue(provisioned.get(2).isJitProvisioning());
+    }
+
+    @Test
+    public void testCreateFollowedByDeleteIsDiscarded() throws Exception {
+
+        CompletableFuture<ProvisionedIdentifier> running = coalescer.submit(buildEntity("alice",
+                ProvisioningOperation.POST, Collections.emptyMap()));
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        CompletableFuture<ProvisionedIdentifier> created = coalescer.submit(buildEntity("bob",
+                ProvisioningOperation.POST, Collections.emptyMap()));
+        CompletableFuture<ProvisionedIdentifier> deleted = coalescer.submit(buildEntity("bob",
+                ProvisioningOperation.DELETE, Collections.emptyMap()));
+
+        Assert.assertNull(created.get(10, TimeUnit.SECONDS), "Discarded creation should not return an identifier.");
+        Assert.assertNull(deleted.get(10, TimeUnit.SECONDS).getIdentifier());
+        release.countDown();
+        running.get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(provisioned.size(), 1, "Only the operations of alice should reach Google.");
+        Assert.assertEquals(provisioned.get(0).getEntityName(), "alice");
+        Assert.assertEquals(coalescer.getDiscardedCount(), 2);
+    }
+
+    @Test
+    public void testOperationsOfAnEntityRunInOrder() throws Exception {
+
+        CompletableFuture<ProvisionedIdentifier> created = coalescer.submit(buildEntity("carol",
+                ProvisioningOperation.POST, Collections.emptyMap()));
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+        CompletableFuture<ProvisionedIdentifier> updated = coalescer.submit(buildEntity("carol",
+                ProvisioningOperation.PUT, Collections.singletonMap(GIVEN_NAME, "Carol")));
+        CompletableFuture<ProvisionedIdentifier> deleted = coalescer.submit(buildEntity("carol",
+                ProvisioningOperation.DELETE, Collections.emptyMap()));
+        release.countDown();
+
+        Assert.assertEquals(created.get(10, TimeUnit.SECONDS).getIdentifier(), "carol@mygoogledomain.com");
+        Assert.assertNull(updated.get(10, TimeUnit.SECONDS), "Update followed by a delete should be discarded.");
+        deleted.get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(provisioned.size(), 2);
+        Assert.assertEquals(provisioned.get(0).getOperation(), ProvisioningOperation.POST);
+        Assert.assertEquals(provisioned.get(1).getOperation(), ProvisioningOperation.DELETE);
+        Assert.assertEquals(coalescer.getActiveEntityCount(), 0);
+    }
+
+    @Test
+    public void testOperationsAreOnlyOrderedWithoutCoalescing() throws Exception {
+
+        AsyncProvisioningExecutor workers = new AsyncProvisioningExecutor(4, 100,
+                AsyncProvisioningExecutor.RejectionPolicy.BLOCK);
+        try {
+            OperationCoalescer ordering = new OperationCoalescer(workers, provisioner, false);
+            ordering.submit(buildEntity("grace", ProvisioningOperation.POST, Collections.emptyMap()));
+            Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+            ordering.submit(buildEntity("grace", ProvisioningOperation.PUT,
+                    Collections.singletonMap(GIVEN_NAME, "Grace")));
+            ordering.submit(buildEntity("grace", ProvisioningOperation.PUT,
+                    Collections.singletonMap(FAMILY_NAME, "Hopper")));
+            CompletableFuture<ProvisionedIdentifier> deleted = ordering.submit(buildEntity("grace",
+                    ProvisioningOperation.DELETE, Collections.emptyMap()));
+            release.countDown();
+            deleted.get(10, TimeUnit.SECONDS);
+
+            Assert.assertEquals(provisioned.size(), 4, "Operations should not be merged or discarded.");
+            Assert.assertEquals(provisioned.get(0).getOperation(), ProvisioningOperation.POST);
+            Assert.assertEquals(provisioned.get(1).getAttributes().get(GIVEN_NAME),
+                    Collections.singletonList("Grace"));
+            Assert.assertEquals(provisioned.get(2).getAttributes().get(FAMILY_NAME),
+                    Collections.singletonList("Hopper"));
+            Assert.assertEquals(provisioned.get(3).getOperation(), ProvisioningOperation.DELETE);
+            Assert.assertEquals(ordering.getMergedCount(), 0);
+            Assert.assertEquals(ordering.getDiscardedCount(), 0);
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    @Test
+    public void testOperationsQueuedBehindRejectedOperationFail() throws Exception {
+
+        OperationCoalescer[] rejecting = new OperationCoalescer[1];
+        List<CompletableFuture<ProvisionedIdentifier>> queued = new ArrayList<>();
+        // Another caller queues its operation between the queue of the entity becoming visible and the rejection.
+        AsyncProvisioningExecutor rejectingExecutor = new AsyncProvisioningExecutor(1, 1,
+                AsyncProvisioningExecutor.RejectionPolicy.REJECT) {
+
+            @Override
+            public <T> CompletableFuture<T> submit(ProvisioningTask<T> task) throws IdentityProvisioningException {
+
+                queued.add(rejecting[0].submit(buildEntity("frank", ProvisioningOperation.PUT,
+                        Collections.singletonMap(GIVEN_NAME, "Frank"))));
+                throw new IdentityProvisioningException("Asynchronous provisioning queue is full");
+            }
+        };
+        try {
+            rejecting[0] = new OperationCoalescer(rejectingExecutor, entity -> null);
+            try {
+                rejecting[0].submit(buildEntity("frank", ProvisioningOperation.POST, Collections.emptyMap()));
+                Assert.fail("Rejected operation should fail.");
+            } catch (IdentityProvisioningException e) {
+                // Expected.
+            }
+
+            Assert.assertEquals(queued.size(), 1);
+            try {
+                queued.get(0).get(10, TimeUnit.SECONDS);
+                Assert.fail("Operation queued behind the rejected operation should fail.");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof IdentityProvisioningException);
+            }
+            Assert.assertEquals(rejecting[0].getActiveEntityCount(), 0);
+        } finally {
+            rejectingExecutor.shutdown();
+        }
+    }
+
+    private ProvisioningEntity buildEntity(String name, ProvisioningOperation operation,
+                                           Map<ClaimMapping, String> claims) {
+
+        Map<ClaimMapping, List<String>> attributes = new HashMap<>();
+        for (Map.Entry<ClaimMapping, String> claim : claims.entrySet()) {
+            attributes.put(claim.getKey(), Collections.singletonList(claim.getValue()));
+        }
+        return new ProvisioningEntity(ProvisioningEntityType.USER, name, operation, attributes);
+    }
+}
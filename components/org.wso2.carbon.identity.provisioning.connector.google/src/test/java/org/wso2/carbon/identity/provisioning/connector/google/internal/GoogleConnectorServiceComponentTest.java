@@ -28,8 +28,12 @@ import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
+import org.wso2.carbon.identity.provisioning.connector.google.metrics.ProvisioningMetrics;
 
+import java.lang.management.ManagementFactory;
 import java.util.Dictionary;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -84,4 +88,19 @@ public class GoogleConnectorServiceComponentTest {
             Assert.assertTrue(true);
         }
     }
+
+    @Test
+    public void testMetricsMBeanLifecycle() throws Exception {
+
+        when(componentContext.getBundleContext()).thenReturn(bundleContext);
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName(ProvisioningMetrics.OBJECT_NAME);
+
+        GoogleConnectorServiceComponent component = new GoogleConnectorServiceComponent();
+        component.activate(componentContext);
+        Assert.assertTrue(mBeanServer.isRegistered(objectName), "Metrics MBean should be registered.");
+
+        component.deactivate(componentContext);
+        Assert.assertFalse(mBeanServer.isRegistered(objectName), "Metrics MBean should be unregistered.");
+    }
 }
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.metrics;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+public class ProvisioningMetricsTest {
+
+    @Test
+    public void testOutcomesAreRecordedByStatus() {
+
+        ProvisioningMetrics metrics = new ProvisioningMetrics();
+        OperationMetrics create = metrics.getConnectorMetrics("carbon.super", "Google").get(OperationType.POST);
+
+        create.recordSuccess(200, millis(3));
+        create.recordFailure(503, millis(40));
+        create.recordFailure(0, millis(700));
+        create.recordRetry();
+        create.recordRetry();
+
+        List<OperationStatistics> statistics = metrics.getOperationStatistics();
+        Assert.assertEquals(statistics.size(), 1);
+        OperationStatistics createStatistics = statistics.get(0);
+        Assert.assertEquals(createStatistics.getOperation(), "POST");
+        Assert.assertEquals(createStatistics.getSuccessCount(), 1);
+        Assert.assertEquals(createStatistics.getFailureCount(), 2);
+        Assert.assertEquals(createStatistics.getRetryCount(), 2);
+        Assert.assertEquals(createStatistics.getStatusCounts().get("200"), Long.valueOf(1));
+        Assert.assertEquals(createStatistics.getStatusCounts().get("503"), Long.valueOf(1));
+        Assert.assertEquals(createStatistics.getStatusCounts().get("io_error"), Long.valueOf(1));
+        Assert.assertEquals(createStatistics.getMaxLatencyMillis(), 700);
+        Assert.assertEquals(createStatistics.getMeanLatencyMillis(), 247.67, 0.01);
+        Assert.assertEquals(createStatistics.getP50LatencyMillis(), 50);
+        Assert.assertEquals(createStatistics.getP99LatencyMillis(), 700,
+                "Percentile should not exceed the slowest operation.");
+
+        long[] histogram = createStatistics.getLatencyHistogram();
+        Assert.assertEquals(histogram.length, metrics.getLatencyBucketBoundsMillis().length + 1);
+        Assert.assertEquals(histogram[0], 1);
+        Assert.assertEquals(histogram[3], 1);
+        Assert.assertEquals(histogram[7], 1);
+
+        Assert.assertEquals(metrics.getSuccessCount(), 1);
+        Assert.assertEquals(metrics.getFailureCount(), 2);
+        Assert.assertEquals(metrics.getRetryCount(), 2);
+    }
+
+    @Test
+    public void testMetricsAreTaggedByOperationTenantAndIdp() {
+
+        ProvisioningMetrics metrics = new ProvisioningMetrics();
+        ProvisioningMetrics.ConnectorMetrics google = metrics.getConnectorMetrics("wso2.com", "Google");
+        ProvisioningMetrics.ConnectorMetrics unknown = metrics.getConnectorMetrics(null, null);
+        Assert.assertSame(metrics.getConnectorMetrics("wso2.com", "Google"), google);
+
+        google.get(OperationType.PUT).recordSuccess(200, millis(10));
+        google.get(OperationType.DELETE).recordFailure(404, millis(10));
+        unknown.get(OperationType.LIST).recordSuccess(-1, millis(10));
+
+        List<OperationStatistics> statistics = metrics.getOperationStatistics();
+        Assert.assertEquals(statistics.size(), 3, "Operations without any request should not be reported.");
+        Assert.assertEquals(statistics.get(0).getTenantDomain(), "unknown");
+        Assert.assertEquals(statistics.get(0).getIdpName(), "unknown");
+        Assert.assertEquals(statistics.get(0).getOperation(), "list");
+        Assert.assertEquals(statistics.get(0).getStatusCounts().get("200"), Long.valueOf(1),
+                "Success without a known status should be reported as 200.");
+        Assert.assertEquals(statistics.get(1).getTenantDomain(), "wso2.com");
+        Assert.assertEquals(statistics.get(1).getOperation(), "DELETE");
+        Assert.assertEquals(statistics.get(1).getStatusCounts().get("404"), Long.valueOf(1));
+        Assert.assertEquals(statistics.get(2).getOperation(), "PUT");
+
+        metrics.reset();
+        Assert.assertTrue(metrics.getOperationStatistics().isEmpty());
+    }
+
+    @DataProvider(name = "methods")
+    public Object[][] methods() {
+
+        return new Object[][]{
+                {"POST", OperationType.POST},
+                {"PUT", OperationType.PUT},
+                {"PATCH", OperationType.PUT},
+                {"DELETE", OperationType.DELETE},
+                {"GET", OperationType.LIST},
+                {null, OperationType.LIST}
+        };
+    }
+
+    @Test(dataProvider = "methods")
+    public void testOperationTypeFromMethod(String method, OperationType expected) {
+
+        Assert.assertEquals(OperationType.fromMethod(method), expected);
+    }
+
+    @Test
+    public void testPublishedAsMXBean() throws Exception {
+
+        ProvisioningMetrics metrics = new ProvisioningMetrics();
+        metrics.getConnectorMetrics("carbon.super", "Google").get(OperationType.POST).recordFailure(429,
+                millis(20));
+
+        MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+        ObjectName objectName = new ObjectName(ProvisioningMetrics.OBJECT_NAME);
+        mBeanServer.registerMBean(metrics, objectName);
+
+        CompositeData[] statistics = (CompositeData[]) mBeanServer.getAttribute(objectName, "OperationStatistics");
+        Assert.assertEquals(statistics.length, 1);
+        Assert.assertEquals(statistics[0].get("operation"), "POST");
+        Assert.assertEquals(statistics[0].get("idpName"), "Google");
+        Assert.assertEquals(statistics[0].get("failureCount"), 1L);
+        TabularData statusCounts = (TabularData) statistics[0].get("statusCounts");
+        Assert.assertEquals(statusCounts.get(new Object[]{"429"}).get("value"), 1L);
+        Assert.assertEquals(mBeanServer.getAttribute(objectName, "FailureCount"), 1L);
+
+        mBeanServer.invoke(objectName, "reset", null, null);
+        Assert.assertEquals(mBeanServer.getAttribute(objectName, "FailureCount"), 0L);
+    }
+
+    @Test
+    public void testConcurrencyLimitIsPublished() throws Exception {
+
+        ProvisioningMetrics metrics = new ProvisioningMetrics();
+        metrics.getConnectorMetrics("carbon.super", "Unlimited").get(OperationType.POST).recordSuccess(200,
+                millis(5));
+        ConcurrencyMetrics concurrency = metrics.getConnectorMetrics("carbon.super", "Google").getConcurrency();
+        concurrency.recordLimit(10, false);
+        concurrency.recordAcquired(0, false);
+        concurrency.recordQueued();
+        concurrency.recordAcquired(millis(30), true);
+        concurrency.recordReleased();
+        concurrency.recordLimit(9, true);
+
+        MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+        ObjectName objectName = new ObjectName(ProvisioningMetrics.OBJECT_NAME);
+        mBeanServer.registerMBean(metrics, objectName);
+
+        CompositeData[] statistics = (CompositeData[]) mBeanServer.getAttribute(objectName,
+                "ConcurrencyStatistics");
+        Assert.assertEquals(statistics.length, 1, "Connectors without a concurrency limit should not be reported.");
+        Assert.assertEquals(statistics[0].get("idpName"), "Google");
+        Assert.assertEquals(statistics[0].get("limit"), 9);
+        Assert.assertEquals(statistics[0].get("inFlight"), 1);
+        Assert.assertEquals(statistics[0].get("queueLength"), 0);
+        Assert.assertEquals(statistics[0].get("queuedCount"), 1L);
+        Assert.assertEquals(statistics[0].get("limitDecreaseCount"), 1L);
+        Assert.assertEquals((Double) statistics[0].get("meanQueueTimeMillis"), 15.0, 0.01);
+        Assert.assertEquals(statistics[0].get("maxQueueTimeMillis"), 30L);
+
+        metrics.reset();
+        ConcurrencyStatistics reset = metrics.getConcurrencyStatistics().get(0);
+        Assert.assertEquals(reset.getLimit(), 9, "Limit should be kept when the metrics are reset.");
+        Assert.assertEquals(reset.getQueuedCount(), 0);
+    }
+
+    private static long millis(long millis) {
+
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.connector.google.tracing;
+
+import io.opencensus.common.Timestamp;
+import io.opencensus.trace.Annotation;
+import io.opencensus.trace.MessageEvent;
+import io.opencensus.trace.Span;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.Status;
+import io.opencensus.trace.TraceId;
+import io.opencensus.trace.TraceOptions;
+import io.opencensus.trace.Tracestate;
+import io.opencensus.trace.export.SpanData;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class InMemorySpanExporterTest {
+
+    private static final Random random = new Random();
+
+    @Test
+    public void testOldestSpansAreDropped() {
+
+        InMemorySpanExporter exporter = new InMemorySpanExporter(3);
+        exporter.export(Arrays.asList(newSpan("first"), newSpan("second")));
+        exporter.export(Arrays.asList(newSpan("third"), newSpan("second")));
+
+        List<SpanData> spans = exporter.getSpans();
+        Assert.assertEquals(spans.size(), 3);
+        Assert.assertEquals(spans.get(0).getName(), "second");
+        Assert.assertEquals(spans.get(2).getName(), "second");
+        Assert.assertEquals(exporter.getSpans("second").size(), 2);
+        Assert.assertTrue(exporter.getSpans("first").isEmpty());
+
+        exporter.clear();
+        Assert.assertTrue(exporter.getSpans().isEmpty());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testCapacityShouldBePositive() {
+
+        new InMemorySpanExporter(0);
+    }
+
+    @Test
+    public void testSamplerFromProbability() {
+
+        Assert.assertNotNull(ProvisioningTracer.getSampler(0));
+        Assert.assertNotNull(ProvisioningTracer.getSampler(0.25));
+        Assert.assertNotNull(ProvisioningTracer.getSampler(1));
+        Assert.assertNull(ProvisioningTracer.getSampler(-1), "Sampler should be left to OpenCensus when not set.");
+        Assert.assertNull(ProvisioningTracer.getSampler(1.5));
+    }
+
+    private static SpanData newSpan(String name) {
+
+        SpanContext context = SpanContext.create(TraceId.generateRandomId(random), SpanId.generateRandomId(random),
+                TraceOptions.DEFAULT, Tracestate.builder().build());
+        return SpanData.create(context, null, null, name, Span.Kind.CLIENT, Timestamp.create(1, 0),
+                SpanData.Attributes.create(Collections.emptyMap(), 0),
+                SpanData.TimedEvents.<Annotation>create(Collections.emptyList(), 0),
+                SpanData.TimedEvents.<MessageEvent>create(Collections.emptyList(), 0),
+                SpanData.Links.create(Collections.emptyList(), 0), null, Status.OK, Timestamp.create(2, 0));
+    }
+}